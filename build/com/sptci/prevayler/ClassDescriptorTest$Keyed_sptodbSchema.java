@@ -0,0 +1,29 @@
+package com.sptci.prevayler;
+
+/**
+ * Schema for {@link com.sptci.prevayler.ClassDescriptorTest.Keyed} generated by
+ * com.sptci.prevayler.processor.SchemaProcessor.  Do not edit.
+ */
+public final class ClassDescriptorTest$Keyed_sptodbSchema implements com.sptci.prevayler.GeneratedSchema
+{
+
+  public String[] getIndexedFields()
+  {
+    return new String[0];
+  }
+
+  public String[] getSearchableFields()
+  {
+    return new String[0];
+  }
+
+  public String[] getForeignKeyFields()
+  {
+    return new String[] { "three" };
+  }
+
+  public String[] getNotNullFields()
+  {
+    return new String[0];
+  }
+}
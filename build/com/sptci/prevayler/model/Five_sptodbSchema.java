@@ -0,0 +1,29 @@
+package com.sptci.prevayler.model;
+
+/**
+ * Schema for {@link com.sptci.prevayler.model.Five} generated by
+ * com.sptci.prevayler.processor.SchemaProcessor.  Do not edit.
+ */
+public final class Five_sptodbSchema implements com.sptci.prevayler.GeneratedSchema
+{
+
+  public String[] getIndexedFields()
+  {
+    return new String[] { "name" };
+  }
+
+  public String[] getSearchableFields()
+  {
+    return new String[0];
+  }
+
+  public String[] getForeignKeyFields()
+  {
+    return new String[0];
+  }
+
+  public String[] getNotNullFields()
+  {
+    return new String[0];
+  }
+}
@@ -6,6 +6,7 @@ import org.apache.lucene.search.Sort;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Date;
 import java.util.Map;
 
 /**
@@ -44,6 +45,19 @@ public interface AbstractDatabase<P extends PrevalentObject> extends Serializabl
    */
   P fetch( Class cls, Object oid ) throws PrevalentException;
 
+  /**
+   * Retrieve the prevalent objects of the specified type with the specified
+   * object ids.  Object ids for which no object is stored are ignored.
+   *
+   * @param cls The type of the prevalent objects.
+   * @param oids The object ids of the prevalent objects to retrieve.
+   * @return The prevalent objects in the order of the object ids.
+   * @throws PrevalentException If errors are encountered while reconstituting
+   *   the prevalent objects.
+   */
+  Collection<P> fetchAll( Class cls, Collection<?> oids )
+      throws PrevalentException;
+
   /**
    * Fetch the prevalent objects in the specified range of data.  This
    * method supports display of paginated view of the prevalent objects of
@@ -85,6 +99,145 @@ public interface AbstractDatabase<P extends PrevalentObject> extends Serializabl
   Collection<P> fetch( Class cls, String field, Object object )
       throws PrevalentException;
 
+  /**
+   * Fetch the prevalent object(s) of the specified <code>cls</code> type
+   * whose value for the specified field falls within the specified range.
+   * The results are returned in the order of the field values.  Objects
+   * whose field value is <code>null</code> are not returned.
+   *
+   * <p><b>Note:</b> Only fields with an ordered index may be queried.  If
+   * no objects of the type have been indexed, this method returns an empty
+   * collection.</p>
+   *
+   * @see com.sptci.prevayler.annotations.Index#ordered
+   * @param cls The type of prevalent object to query for.
+   * @param field The name of the field in the prevalent object using which
+   *   the results are to be queried.
+   * @param low The lower bound for the field value.  Specify <code>null
+   *   </code> for no lower bound.
+   * @param lowInclusive Flag indicating whether the lower bound is inclusive.
+   * @param high The upper bound for the field value.  Specify <code>null
+   *   </code> for no upper bound.
+   * @param highInclusive Flag indicating whether the upper bound is
+   *   inclusive.
+   * @param descending Flag indicating whether the results are to be
+   *   returned in descending order of the field values.
+   * @return The collection of prevalent objects whose field values are
+   *   within the range.  Returns an empty collection if no results are
+   *   found.
+   * @throws com.sptci.prevayler.PrevalentException If the field does not
+   *   have an ordered index, if the bounds are not comparable with the
+   *   field values, or if errors are encountered while reconstituting the
+   *   prevalent objects being returned.
+   */
+  Collection<P> fetchRange( Class cls, String field, Object low,
+      boolean lowInclusive, Object high, boolean highInclusive,
+      boolean descending ) throws PrevalentException;
+
+  /**
+   * Fetch the prevalent object(s) of the specified <code>cls</code> type
+   * whose value for the specified string field starts with the specified
+   * prefix.  The results are returned in ascending order of the field
+   * values.
+   *
+   * <p><b>Note:</b> The field must have a prefix (or ordered) index.  If
+   * no objects of the type have been indexed, this method returns an empty
+   * collection.</p>
+   *
+   * @see com.sptci.prevayler.annotations.Index#prefix
+   * @param cls The type of prevalent object to query for.
+   * @param field The name of the field in the prevalent object using which
+   *   the results are to be queried.
+   * @param prefix The prefix that the field values must start with.
+   * @param limit The maximum number of results to return.  Specify a value
+   *   less than <code>1</code> for no limit.
+   * @return The collection of prevalent objects whose field values start
+   *   with the prefix.  Returns an empty collection if no results are
+   *   found.
+   * @throws com.sptci.prevayler.PrevalentException If the field does not
+   *   have a prefix index, if the field values are not strings, or if
+   *   errors are encountered while reconstituting the prevalent objects
+   *   being returned.
+   */
+  Collection<P> fetchByPrefix( Class cls, String field, String prefix,
+      int limit ) throws PrevalentException;
+
+  /**
+   * Return the prevalent objects of the specified <code>cls</code> type
+   * that were saved at or after the specified time.  The objects are
+   * returned in ascending order of the time at which they were last saved,
+   * up to the specified limit.  This is answered from the built-in ordered
+   * index on the modified time of the objects, and is meant for
+   * incremental synchronisation and cache rebuilds.
+   *
+   * @see IndexStorage#MODIFIED_INDEX
+   * @param cls The type of prevalent object to query for.
+   * @param since The time from which (inclusive) modified objects are to
+   *   be returned.
+   * @param limit The maximum number of results to return.  Specify a value
+   *   less than <code>1</code> for no limit.
+   * @return The collection of modified prevalent objects.  Returns an
+   *   empty collection if no results are found.
+   * @throws com.sptci.prevayler.PrevalentException If errors are
+   *   encountered while reconstituting the prevalent objects being
+   *   returned.
+   */
+  Collection<P> fetchModifiedSince( Class cls, Date since, int limit )
+      throws PrevalentException;
+
+  /**
+   * Fetch up to <code>limit</code> prevalent object(s) of the specified
+   * <code>cls</code> type which have the specified indexed field value,
+   * ordered by the values of the specified ordered field.  Only the
+   * returned objects are reconstituted.
+   *
+   * <p><b>Note:</b> The sort field must have an ordered index.  Objects
+   * that have a <code>null</code> value for the sort field are never
+   * returned.  If the filter field is <code>null</code>, objects are
+   * selected from all the objects indexed on the sort field.</p>
+   *
+   * @see com.sptci.prevayler.annotations.Index#ordered
+   * @param cls The type of prevalent object to query for.
+   * @param field The name of the indexed field used to filter the objects.
+   *   Specify <code>null</code> for no filter.
+   * @param value The value of the indexed field used to filter the objects.
+   * @param sortField The name of the ordered indexed field used to sort the
+   *   objects.
+   * @param descending Flag indicating whether the results are to be
+   *   returned in descending order of the sort field values.
+   * @param limit The maximum number of results to return.
+   * @return The collection of prevalent objects in the order of the sort
+   *   field values.
+   * @throws com.sptci.prevayler.PrevalentException If the sort field does
+   *   not have an ordered index, or if errors are encountered while
+   *   reconstituting the prevalent objects being returned.
+   */
+  Collection<P> fetchTop( Class cls, String field, Object value,
+      String sortField, boolean descending, int limit )
+      throws PrevalentException;
+
+  /**
+   * Fetch the prevalent object(s) of the specified <code>cls</code> type
+   * which have the specified combination of values for the members of a
+   * class level composite {@link com.sptci.prevayler.annotations.Index}.
+   * The composite index is probed directly for the combination of values.
+   *
+   * <p><b>Note:</b> The members must be specified in the same order as in
+   * the index annotation.  If no such composite index exists, an empty
+   * collection is returned.</p>
+   *
+   * @param cls The type of prevalent object to query for.
+   * @param members The names of the members of the composite index.
+   * @param values The values of the members, in the same order as the
+   *   members.
+   * @return The collection of prevalent objects that match the values.
+   * @throws com.sptci.prevayler.PrevalentException If the number of values
+   *   does not match the number of members, or if errors are encountered
+   *   while reconstituting the prevalent objects being returned.
+   */
+  Collection<P> fetchByComposite( Class cls, String[] members,
+      Object[] values ) throws PrevalentException;
+
   /**
    * Fetch the prevalent object(s) of the specified <code>cls</code> type
    * which has the specified indexed field values.  The results
@@ -125,6 +278,140 @@ public interface AbstractDatabase<P extends PrevalentObject> extends Serializabl
   Collection<P> fetchIntersection( Class cls, Map<String,?> parameters )
       throws PrevalentException;
 
+  /**
+   * Return the number of prevalent objects of the specified <code>cls
+   * </code> type that are indexed with the specified field value.  The
+   * count is computed from the index without reconstituting the objects.
+   *
+   * @see #fetch( Class, String, Object )
+   * @param cls The type of prevalent object to query for.
+   * @param field The name of the indexed field in the prevalent object.
+   * @param value The value of the indexed field.
+   * @return The number of matching prevalent objects.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while interacting with the prevalent system.
+   */
+  int countByIndex( Class cls, String field, Object value )
+      throws PrevalentException;
+
+  /**
+   * Determine whether any prevalent object of the specified <code>cls
+   * </code> type is indexed with the specified field value.
+   *
+   * @see #countByIndex
+   * @param cls The type of prevalent object to query for.
+   * @param field The name of the indexed field in the prevalent object.
+   * @param value The value of the indexed field.
+   * @return Returns <code>true</code> if at least one object matches.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while interacting with the prevalent system.
+   */
+  boolean existsByIndex( Class cls, String field, Object value )
+      throws PrevalentException;
+
+  /**
+   * Return the number of prevalent objects that would be returned by
+   * {@link #fetchUnion} for the specified parameters, without
+   * reconstituting the objects.
+   *
+   * @param cls The type of prevalent object to query for.
+   * @param parameters The map of parameters to use to filter the
+   *   prevalent instances.
+   * @return The number of matching prevalent objects.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while interacting with the prevalent system.
+   */
+  int countUnion( Class cls, Map<String,?> parameters )
+      throws PrevalentException;
+
+  /**
+   * Return the number of prevalent objects that would be returned by
+   * {@link #fetchIntersection} for the specified parameters, without
+   * reconstituting the objects.
+   *
+   * @param cls The type of prevalent object to query for.
+   * @param parameters The map of parameters to use to filter the
+   *   prevalent instances.
+   * @return The number of matching prevalent objects.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while interacting with the prevalent system.
+   */
+  int countIntersection( Class cls, Map<String,?> parameters )
+      throws PrevalentException;
+
+  /**
+   * Return the object ids of the prevalent objects of the specified <code>
+   * cls</code> type that are indexed with the specified field value.  The
+   * object ids are read directly from the index and the prevalent objects
+   * are not reconstituted.
+   *
+   * @see #fetch( Class, String, Object )
+   * @param cls The type of prevalent object to query for.
+   * @param field The name of the indexed field in the prevalent object.
+   * @param value The value of the indexed field.
+   * @return The array of object ids.  Returns an empty array if no objects
+   *   match.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while interacting with the prevalent system.
+   */
+  Object[] fetchObjectIds( Class cls, String field, Object value )
+      throws PrevalentException;
+
+  /**
+   * Return the object ids of the prevalent objects that would be returned
+   * by {@link #fetchUnion} for the specified parameters, without
+   * reconstituting the objects.
+   *
+   * @param cls The type of prevalent object to query for.
+   * @param parameters The map of parameters to use to filter the
+   *   prevalent instances.
+   * @return The array of object ids.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while interacting with the prevalent system.
+   */
+  Object[] fetchUnionObjectIds( Class cls, Map<String,?> parameters )
+      throws PrevalentException;
+
+  /**
+   * Return the object ids of the prevalent objects that would be returned
+   * by {@link #fetchIntersection} for the specified parameters, without
+   * reconstituting the objects.
+   *
+   * @param cls The type of prevalent object to query for.
+   * @param parameters The map of parameters to use to filter the
+   *   prevalent instances.
+   * @return The array of object ids.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while interacting with the prevalent system.
+   */
+  Object[] fetchIntersectionObjectIds( Class cls, Map<String,?> parameters )
+      throws PrevalentException;
+
+  /**
+   * Return the statistics for the indices maintained for the prevalent
+   * objects of the specified <code>cls</code> type.  The statistics may be
+   * used to determine how selective and how skewed each index is.
+   *
+   * @see IndexStatistics
+   * @param cls The type of prevalent object whose indices are inspected.
+   * @return The collection of statistics for each index.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while interacting with the prevalent system.
+   */
+  Collection<IndexStatistics> fetchIndexStatistics( Class cls )
+      throws PrevalentException;
+
+  /**
+   * Return the statistics for the cache of composed read-only object graphs
+   * maintained by the prevalent system.
+   *
+   * @see CacheStatistics
+   * @return The cache statistics.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while interacting with the prevalent system.
+   */
+  CacheStatistics fetchCacheStatistics() throws PrevalentException;
+
   /**
    * Execute the specified lucene query and return the collection of matching
    * prevalent objects.
@@ -155,4 +442,21 @@ public interface AbstractDatabase<P extends PrevalentObject> extends Serializabl
    */
   Collection<P> search( Query query, Filter filter, int count, Sort sort )
       throws PrevalentException;
+
+  /**
+   * Execute the specified lucene query and return the type and object id
+   * of the matching prevalent objects, without reconstituting the objects.
+   *
+   * @see #search
+   * @param query The lucene query that is to be executed to find matching
+   *   prevalent object instances.
+   * @param filter The filter to apply to restrict the query results.
+   * @param count The maximum number to top hits for the search to return.
+   * @param sort The sort criteria to use for the results.
+   * @return The array of matching objects in the order of the hits.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while executing the search.
+   */
+  IndexedObject[] searchObjectIds( Query query, Filter filter, int count,
+      Sort sort ) throws PrevalentException;
 }
@@ -0,0 +1,706 @@
+package com.sptci.prevayler;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Compressed bitmap postings used for index keys that match large numbers
+ * of prevalent objects.  The representation follows the Roaring bitmap
+ * scheme.  Object ids are partitioned by their high bits (the object id
+ * shifted right by 16 bits) into containers that store the low 16 bits.
+ * Sparse containers store the low bits as a sorted array, while dense
+ * containers store them as a fixed size bitmap.  Containers are converted
+ * between the two forms automatically as values are added and removed.
+ *
+ * <p>Only non-negative {@link Long} object ids may be stored.  Adding any
+ * other object id converts the postings to {@link Postings.ObjectPostings}.
+ * Intersection and union of two bitmap postings are computed container by
+ * container without visiting individual object ids for dense containers.
+ * </p>
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see Postings.LongPostings
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+class BitmapPostings extends Postings
+{
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The maximum number of values stored in an array container.  Containers
+   * with more values are stored as bitmaps.
+   */
+  static final int ARRAY_LIMIT = 4096;
+
+  /** The sorted array of high bits of the stored object ids. */
+  private long[] keys = new long[4];
+
+  /** The containers for the low bits, in the same order as {@link #keys}. */
+  private Container[] containers = new Container[4];
+
+  /** The number of containers in use. */
+  private int count;
+
+  /** The total number of object ids stored. */
+  private int size;
+
+  /**
+   * Determine whether the specified object id may be stored in bitmap
+   * postings.
+   *
+   * @param oid The object id to check.
+   * @return Returns <code>true</code> if the object id is a non-negative
+   *   {@link Long}.
+   */
+  static boolean accepts( final Object oid )
+  {
+    return ( oid instanceof Long ) && ( (Long) oid >= 0 );
+  }
+
+  /** {@inheritDoc} */
+  Postings insert( final Object oid )
+  {
+    if ( ! accepts( oid ) )
+    {
+      final Postings postings = new ObjectPostings();
+      for ( Object value : this )
+      {
+        postings.insert( value );
+      }
+
+      postings.insert( oid );
+      return postings;
+    }
+
+    addValue( (Long) oid );
+    return this;
+  }
+
+  /**
+   * Add the specified non-negative object id to the postings.
+   *
+   * @param value The object id to add.
+   */
+  void addValue( final long value )
+  {
+    final long key = value >>> 16;
+    int index = indexOf( key );
+
+    if ( index < 0 )
+    {
+      index = -( index + 1 );
+      insertContainer( index, key, new ArrayContainer() );
+    }
+
+    final Container container = containers[index];
+    final int cardinality = container.cardinality();
+    containers[index] = container.add( (char) value );
+    size += containers[index].cardinality() - cardinality;
+  }
+
+  /** {@inheritDoc} */
+  boolean delete( final Object oid )
+  {
+    if ( ! accepts( oid ) ) return false;
+
+    final long value = (Long) oid;
+    final int index = indexOf( value >>> 16 );
+    if ( index < 0 ) return false;
+
+    final Container container = containers[index];
+    final int cardinality = container.cardinality();
+    containers[index] = container.remove( (char) value );
+
+    if ( containers[index].cardinality() == cardinality ) return false;
+    --size;
+
+    if ( containers[index].cardinality() == 0 )
+    {
+      System.arraycopy( keys, index + 1, keys, index, count - index - 1 );
+      System.arraycopy( containers, index + 1, containers, index,
+          count - index - 1 );
+      containers[--count] = null;
+    }
+
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean contains( final Object oid )
+  {
+    if ( ! accepts( oid ) ) return false;
+
+    final long value = (Long) oid;
+    final int index = indexOf( value >>> 16 );
+    return ( index >= 0 ) && containers[index].contains( (char) value );
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int size()
+  {
+    return size;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Iterator<Object> iterator()
+  {
+    return new Iterator<Object>()
+    {
+      private int index;
+      private int next = ( count > 0 ) ? containers[0].next( 0 ) : -1;
+
+      public boolean hasNext()
+      {
+        return next >= 0;
+      }
+
+      public Object next()
+      {
+        if ( next < 0 ) throw new NoSuchElementException();
+
+        final long value = ( keys[index] << 16 ) | next;
+        next = ( next < 0xFFFF ) ? containers[index].next( next + 1 ) : -1;
+
+        while ( ( next < 0 ) && ( ++index < count ) )
+        {
+          next = containers[index].next( 0 );
+        }
+
+        return value;
+      }
+
+      public void remove()
+      {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * Return the intersection of these postings with the specified postings.
+   *
+   * @param other The postings to intersect with.
+   * @return The new postings containing the object ids in both.
+   */
+  BitmapPostings and( final BitmapPostings other )
+  {
+    final BitmapPostings result = new BitmapPostings();
+    int i = 0;
+    int j = 0;
+
+    while ( ( i < count ) && ( j < other.count ) )
+    {
+      if ( keys[i] < other.keys[j] )
+      {
+        ++i;
+      }
+      else if ( keys[i] > other.keys[j] )
+      {
+        ++j;
+      }
+      else
+      {
+        final Container container = containers[i].and( other.containers[j] );
+        if ( container.cardinality() > 0 )
+        {
+          result.append( keys[i], container );
+        }
+
+        ++i;
+        ++j;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Return the union of these postings with the specified postings.
+   *
+   * @param other The postings to combine with.
+   * @return The new postings containing the object ids in either.
+   */
+  BitmapPostings or( final BitmapPostings other )
+  {
+    final BitmapPostings result = new BitmapPostings();
+    int i = 0;
+    int j = 0;
+
+    while ( ( i < count ) || ( j < other.count ) )
+    {
+      if ( ( j >= other.count ) || ( ( i < count ) && ( keys[i] < other.keys[j] ) ) )
+      {
+        result.append( keys[i], containers[i].copy() );
+        ++i;
+      }
+      else if ( ( i >= count ) || ( keys[i] > other.keys[j] ) )
+      {
+        result.append( other.keys[j], other.containers[j].copy() );
+        ++j;
+      }
+      else
+      {
+        result.append( keys[i], containers[i].or( other.containers[j] ) );
+        ++i;
+        ++j;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Return the index of the container for the specified high bits.
+   *
+   * @param key The high bits to find.
+   * @return The index in {@link #keys}, or a negative value that encodes
+   *   the insertion point if not found.
+   */
+  private int indexOf( final long key )
+  {
+    if ( ( count > 0 ) && ( keys[count - 1] == key ) ) return count - 1;
+    return Arrays.binarySearch( keys, 0, count, key );
+  }
+
+  /**
+   * Insert the specified container at the specified index.
+   *
+   * @param index The index at which to insert.
+   * @param key The high bits for the container.
+   * @param container The container to insert.
+   */
+  private void insertContainer( final int index, final long key,
+      final Container container )
+  {
+    if ( count == keys.length )
+    {
+      keys = Arrays.copyOf( keys, count * 2 );
+      containers = Arrays.copyOf( containers, count * 2 );
+    }
+
+    System.arraycopy( keys, index, keys, index + 1, count - index );
+    System.arraycopy( containers, index, containers, index + 1,
+        count - index );
+
+    keys[index] = key;
+    containers[index] = container;
+    ++count;
+  }
+
+  /**
+   * Append the specified container, whose high bits are greater than those
+   * of all the existing containers.
+   *
+   * @param key The high bits for the container.
+   * @param container The container to append.
+   */
+  private void append( final long key, final Container container )
+  {
+    insertContainer( count, key, container );
+    size += container.cardinality();
+  }
+
+  /**
+   * The base class for the containers used to store the low 16 bits of
+   * the object ids that share the same high bits.
+   */
+  abstract static class Container implements Serializable
+  {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Add the specified value to the container.
+     *
+     * @param value The value to add.
+     * @return The container that holds the value, which may be a new
+     *   container of a different form.
+     */
+    abstract Container add( final char value );
+
+    /**
+     * Remove the specified value from the container.
+     *
+     * @param value The value to remove.
+     * @return The container without the value, which may be a new
+     *   container of a different form.
+     */
+    abstract Container remove( final char value );
+
+    /**
+     * Determine whether the specified value is in the container.
+     *
+     * @param value The value to check.
+     * @return Returns <code>true</code> if the value is present.
+     */
+    abstract boolean contains( final char value );
+
+    /**
+     * Return the number of values in the container.
+     *
+     * @return The cardinality of the container.
+     */
+    abstract int cardinality();
+
+    /**
+     * Return the smallest value in the container that is greater than or
+     * equal to the specified value.
+     *
+     * @param from The value from which to search.
+     * @return The next value, or <code>-1</code> if there are none.
+     */
+    abstract int next( final int from );
+
+    /**
+     * Return the intersection of this container with the specified
+     * container.
+     *
+     * @param other The container to intersect with.
+     * @return The new container.
+     */
+    abstract Container and( final Container other );
+
+    /**
+     * Return the union of this container with the specified container.
+     *
+     * @param other The container to combine with.
+     * @return The new container.
+     */
+    abstract Container or( final Container other );
+
+    /**
+     * Return a copy of this container.
+     *
+     * @return The new container.
+     */
+    abstract Container copy();
+  }
+
+  /**
+   * A container that stores its values as a sorted array.  Used when the
+   * container holds at most {@link #ARRAY_LIMIT} values.
+   */
+  static class ArrayContainer extends Container
+  {
+    private static final long serialVersionUID = 1L;
+
+    /** The sorted array of values. */
+    private char[] values;
+
+    /** The number of values in {@link #values}. */
+    private int cardinality;
+
+    /** Create a new empty container. */
+    ArrayContainer()
+    {
+      this( 4 );
+    }
+
+    /**
+     * Create a new empty container with the specified capacity.
+     *
+     * @param capacity The initial capacity of {@link #values}.
+     */
+    ArrayContainer( final int capacity )
+    {
+      values = new char[capacity];
+    }
+
+    /** {@inheritDoc} */
+    Container add( final char value )
+    {
+      int index = cardinality;
+
+      if ( ( cardinality > 0 ) && ( values[cardinality - 1] >= value ) )
+      {
+        index = Arrays.binarySearch( values, 0, cardinality, value );
+        if ( index >= 0 ) return this;
+        index = -( index + 1 );
+      }
+
+      if ( cardinality >= ARRAY_LIMIT )
+      {
+        return toBitmap().add( value );
+      }
+
+      if ( cardinality == values.length )
+      {
+        values = Arrays.copyOf( values,
+            Math.min( ARRAY_LIMIT, cardinality + ( cardinality >> 1 ) + 1 ) );
+      }
+
+      System.arraycopy( values, index, values, index + 1,
+          cardinality - index );
+      values[index] = value;
+      ++cardinality;
+
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    Container remove( final char value )
+    {
+      final int index = Arrays.binarySearch( values, 0, cardinality, value );
+      if ( index < 0 ) return this;
+
+      System.arraycopy( values, index + 1, values, index,
+          cardinality - index - 1 );
+      --cardinality;
+
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    boolean contains( final char value )
+    {
+      return Arrays.binarySearch( values, 0, cardinality, value ) >= 0;
+    }
+
+    /** {@inheritDoc} */
+    int cardinality()
+    {
+      return cardinality;
+    }
+
+    /** {@inheritDoc} */
+    int next( final int from )
+    {
+      int index = Arrays.binarySearch( values, 0, cardinality, (char) from );
+      if ( index < 0 ) index = -( index + 1 );
+      return ( index < cardinality ) ? values[index] : -1;
+    }
+
+    /** {@inheritDoc} */
+    Container and( final Container other )
+    {
+      final ArrayContainer result = new ArrayContainer( cardinality );
+
+      for ( int i = 0; i < cardinality; ++i )
+      {
+        if ( other.contains( values[i] ) )
+        {
+          result.values[result.cardinality++] = values[i];
+        }
+      }
+
+      return result;
+    }
+
+    /** {@inheritDoc} */
+    Container or( final Container other )
+    {
+      if ( other instanceof BitmapContainer ) return other.or( this );
+
+      final ArrayContainer array = (ArrayContainer) other;
+      if ( cardinality + array.cardinality > ARRAY_LIMIT )
+      {
+        return toBitmap().or( other );
+      }
+
+      final ArrayContainer result =
+          new ArrayContainer( cardinality + array.cardinality );
+      int i = 0;
+      int j = 0;
+
+      while ( ( i < cardinality ) || ( j < array.cardinality ) )
+      {
+        if ( ( j >= array.cardinality ) ||
+            ( ( i < cardinality ) && ( values[i] < array.values[j] ) ) )
+        {
+          result.values[result.cardinality++] = values[i++];
+        }
+        else if ( ( i >= cardinality ) || ( values[i] > array.values[j] ) )
+        {
+          result.values[result.cardinality++] = array.values[j++];
+        }
+        else
+        {
+          result.values[result.cardinality++] = values[i++];
+          ++j;
+        }
+      }
+
+      return result;
+    }
+
+    /** {@inheritDoc} */
+    Container copy()
+    {
+      final ArrayContainer result = new ArrayContainer( cardinality );
+      System.arraycopy( values, 0, result.values, 0, cardinality );
+      result.cardinality = cardinality;
+      return result;
+    }
+
+    /**
+     * Convert this container to a bitmap container.
+     *
+     * @return The new bitmap container with the same values.
+     */
+    private BitmapContainer toBitmap()
+    {
+      final BitmapContainer bitmap = new BitmapContainer();
+      for ( int i = 0; i < cardinality; ++i )
+      {
+        bitmap.add( values[i] );
+      }
+
+      return bitmap;
+    }
+  }
+
+  /**
+   * A container that stores its values as a bitmap of 65536 bits.  Used
+   * when the container holds more than {@link #ARRAY_LIMIT} values.
+   */
+  static class BitmapContainer extends Container
+  {
+    private static final long serialVersionUID = 1L;
+
+    /** The words of the bitmap. */
+    private final long[] words = new long[1024];
+
+    /** The number of bits set in {@link #words}. */
+    private int cardinality;
+
+    /** {@inheritDoc} */
+    Container add( final char value )
+    {
+      final long word = words[value >>> 6];
+      final long updated = word | ( 1L << value );
+
+      if ( updated != word )
+      {
+        words[value >>> 6] = updated;
+        ++cardinality;
+      }
+
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    Container remove( final char value )
+    {
+      final long word = words[value >>> 6];
+      final long updated = word & ~( 1L << value );
+
+      if ( updated != word )
+      {
+        words[value >>> 6] = updated;
+        --cardinality;
+      }
+
+      return ( cardinality <= ARRAY_LIMIT ) ? toArray() : this;
+    }
+
+    /** {@inheritDoc} */
+    boolean contains( final char value )
+    {
+      return ( words[value >>> 6] & ( 1L << value ) ) != 0;
+    }
+
+    /** {@inheritDoc} */
+    int cardinality()
+    {
+      return cardinality;
+    }
+
+    /** {@inheritDoc} */
+    int next( final int from )
+    {
+      int index = from >>> 6;
+      if ( index >= words.length ) return -1;
+
+      long word = words[index] & ( -1L << from );
+
+      while ( true )
+      {
+        if ( word != 0 )
+        {
+          return ( index << 6 ) + Long.numberOfTrailingZeros( word );
+        }
+
+        if ( ++index == words.length ) return -1;
+        word = words[index];
+      }
+    }
+
+    /** {@inheritDoc} */
+    Container and( final Container other )
+    {
+      if ( other instanceof ArrayContainer ) return other.and( this );
+
+      final BitmapContainer bitmap = (BitmapContainer) other;
+      final BitmapContainer result = new BitmapContainer();
+
+      for ( int i = 0; i < words.length; ++i )
+      {
+        result.words[i] = words[i] & bitmap.words[i];
+        result.cardinality += Long.bitCount( result.words[i] );
+      }
+
+      return ( result.cardinality <= ARRAY_LIMIT ) ? result.toArray() : result;
+    }
+
+    /** {@inheritDoc} */
+    Container or( final Container other )
+    {
+      final BitmapContainer result = (BitmapContainer) copy();
+
+      if ( other instanceof ArrayContainer )
+      {
+        final ArrayContainer array = (ArrayContainer) other;
+        for ( int i = 0; i < array.cardinality; ++i )
+        {
+          result.add( array.values[i] );
+        }
+      }
+      else
+      {
+        final BitmapContainer bitmap = (BitmapContainer) other;
+        result.cardinality = 0;
+
+        for ( int i = 0; i < words.length; ++i )
+        {
+          result.words[i] |= bitmap.words[i];
+          result.cardinality += Long.bitCount( result.words[i] );
+        }
+      }
+
+      return result;
+    }
+
+    /** {@inheritDoc} */
+    Container copy()
+    {
+      final BitmapContainer result = new BitmapContainer();
+      System.arraycopy( words, 0, result.words, 0, words.length );
+      result.cardinality = cardinality;
+      return result;
+    }
+
+    /**
+     * Convert this container to an array container.
+     *
+     * @return The new array container with the same values.
+     */
+    private ArrayContainer toArray()
+    {
+      final ArrayContainer array = new ArrayContainer( cardinality );
+      for ( int value = next( 0 ); value >= 0;
+          value = ( value < 0xFFFF ) ? next( value + 1 ) : -1 )
+      {
+        array.values[array.cardinality++] = (char) value;
+      }
+
+      return array;
+    }
+  }
+}
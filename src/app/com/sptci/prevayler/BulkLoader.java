@@ -0,0 +1,188 @@
+package com.sptci.prevayler;
+
+import com.sptci.prevayler.transaction.BulkAdd;
+import com.sptci.prevayler.transaction.BulkIndex;
+import org.prevayler.Prevayler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * A session used to load large numbers of prevalent objects into the
+ * prevalent system.  Objects added to the session are buffered and appended
+ * in batches directly to the primary and reference storage of the system,
+ * without checking constraints or maintaining indices for each object.
+ * When the session is closed, unique and foreign key constraints are
+ * validated for all the loaded objects using set based checks, and the
+ * indices (including the full-text search indices) are built in a single
+ * parallel pass.
+ *
+ * <p><b>Note:</b> Objects loaded through a session are not returned by
+ * indexed or full-text queries until the session is closed.  If constraint
+ * validation fails when the session is closed, all the objects loaded
+ * through the session are discarded from the system.  Objects loaded
+ * through other sessions are not affected.</p>
+ *
+ * <p>The following shows sample use of this class:</p>
+ * <pre>
+ *   final PrevalentManager&lt;MyPrevalentObject&gt; pm =
+ *       new PrevalentManager&lt;MyPrevalentObject&gt;();
+ *   final BulkLoader&lt;MyPrevalentObject&gt; loader = pm.beginBulkLoad();
+ *
+ *   for ( MyPrevalentObject object : objects )
+ *   {
+ *     loader.add( object );
+ *   }
+ *
+ *   final int count = loader.close();
+ * </pre>
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see PrevalentManager#beginBulkLoad()
+ * @see PrevalentSystemFactory#BULK_BATCH_SIZE
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class BulkLoader<P extends PrevalentObject>
+{
+  /** The prevayler instance to which the objects are loaded. */
+  private final Prevayler prevayler;
+
+  /**
+   * The identifier of the session.  The objects loaded through other
+   * sessions are validated and indexed independently.
+   */
+  private final String session = UUID.randomUUID().toString();
+
+  /** The number of objects to submit in each transaction. */
+  private final int batchSize;
+
+  /** The buffer of objects that have not yet been submitted. */
+  private final Collection<P> batch;
+
+  /** The total number of objects that have been submitted. */
+  private int count;
+
+  /** A flag used to indicate that the session has been closed. */
+  private boolean closed;
+
+  /**
+   * Create a new bulk load session for the specified prevayler.
+   *
+   * @param prevayler The {@link #prevayler} to use.
+   * @param batchSize The {@link #batchSize} to use.
+   */
+  BulkLoader( final Prevayler prevayler, final int batchSize )
+  {
+    this.prevayler = prevayler;
+    this.batchSize = ( batchSize > 0 ) ? batchSize : 1;
+    this.batch = new ArrayList<P>( this.batchSize );
+  }
+
+  /**
+   * Add the specified prevalent object to the session.  The object is
+   * submitted to the prevalent system when the current batch is full.
+   *
+   * @see #flush
+   * @param object The prevalent object to load.
+   * @throws PrevalentException If errors are encountered while submitting
+   *   the batch or if the session has been closed.
+   */
+  public synchronized void add( final P object ) throws PrevalentException
+  {
+    checkClosed();
+    if ( object == null ) return;
+
+    batch.add( object );
+    if ( batch.size() >= batchSize ) flush();
+  }
+
+  /**
+   * Submit the buffered prevalent objects to the prevalent system.
+   *
+   * @throws PrevalentException If errors are encountered while appending
+   *   the objects to the system.
+   */
+  public synchronized void flush() throws PrevalentException
+  {
+    checkClosed();
+    if ( batch.isEmpty() ) return;
+
+    try
+    {
+      count += (Integer) prevayler.execute( new BulkAdd<P>( session, batch ) );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException( "Error loading batch of " +
+          batch.size() + " objects", t );
+    }
+    finally
+    {
+      batch.clear();
+    }
+  }
+
+  /**
+   * Submit any buffered objects, validate constraints and build the indices
+   * for all the objects loaded through the session.  The session may not
+   * be used after it has been closed.
+   *
+   * @return The total number of objects loaded through the session.
+   * @throws ConstraintException If the loaded objects violate unique or
+   *   foreign key constraints.  The loaded objects are discarded.
+   * @throws PrevalentException If errors are encountered while building
+   *   the indices.
+   */
+  public synchronized int close() throws PrevalentException
+  {
+    flush();
+    closed = true;
+
+    try
+    {
+      prevayler.execute( new BulkIndex( session ) );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException( "Error indexing bulk loaded objects", t );
+    }
+
+    return count;
+  }
+
+  /**
+   * Return the total number of objects submitted to the prevalent system
+   * through this session.
+   *
+   * @return The {@link #count} value.
+   */
+  public synchronized int getCount()
+  {
+    return count;
+  }
+
+  /**
+   * Ensure that the session has not been closed.
+   *
+   * @throws PrevalentException If the session has been closed.
+   */
+  private void checkClosed() throws PrevalentException
+  {
+    if ( closed )
+    {
+      throw new PrevalentException( "Bulk load session has been closed" );
+    }
+  }
+}
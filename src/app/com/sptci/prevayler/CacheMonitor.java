@@ -0,0 +1,98 @@
+package com.sptci.prevayler;
+
+import com.sptci.prevayler.query.FetchCacheStatistics;
+import org.prevayler.Prevayler;
+
+/**
+ * The JMX management bean used to expose the statistics for the cache of
+ * composed object graphs maintained by a prevalent system.  An instance is
+ * registered by the {@link PrevalentSystemFactory} for each prevalent
+ * system that it initialises.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see CacheStatistics
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class CacheMonitor implements CacheMonitorMBean
+{
+  /** The prevayler instance whose cache is monitored. */
+  private final Prevayler prevayler;
+
+  /**
+   * Create a new monitor for the specified prevayler.
+   *
+   * @param prevayler The {@link #prevayler} to use.
+   */
+  CacheMonitor( final Prevayler prevayler )
+  {
+    this.prevayler = prevayler;
+  }
+
+  /** {@inheritDoc} */
+  public int getCapacity() throws PrevalentException
+  {
+    return fetch().getCapacity();
+  }
+
+  /** {@inheritDoc} */
+  public int getSize() throws PrevalentException
+  {
+    return fetch().getSize();
+  }
+
+  /** {@inheritDoc} */
+  public long getHits() throws PrevalentException
+  {
+    return fetch().getHits();
+  }
+
+  /** {@inheritDoc} */
+  public long getMisses() throws PrevalentException
+  {
+    return fetch().getMisses();
+  }
+
+  /** {@inheritDoc} */
+  public double getHitRate() throws PrevalentException
+  {
+    return fetch().getHitRate();
+  }
+
+  /** {@inheritDoc} */
+  public long getEvictions() throws PrevalentException
+  {
+    return fetch().getEvictions();
+  }
+
+  /** {@inheritDoc} */
+  public long getInvalidations() throws PrevalentException
+  {
+    return fetch().getInvalidations();
+  }
+
+  /**
+   * Fetch the cache statistics for the prevalent system.
+   *
+   * @return The cache statistics.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the statistics.
+   */
+  private CacheStatistics fetch() throws PrevalentException
+  {
+    try
+    {
+      return (CacheStatistics) prevayler.execute( new FetchCacheStatistics() );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException( "Error retrieving cache statistics", t );
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.sptci.prevayler;
+
+/**
+ * The management interface used to expose the statistics for the cache of
+ * composed object graphs maintained by a prevalent system through JMX.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see CacheMonitor
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public interface CacheMonitorMBean
+{
+  /**
+   * Return the maximum number of graphs held in the cache.
+   *
+   * @return The capacity of the cache.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the statistics.
+   */
+  int getCapacity() throws PrevalentException;
+
+  /**
+   * Return the number of graphs currently held in the cache.
+   *
+   * @return The size of the cache.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the statistics.
+   */
+  int getSize() throws PrevalentException;
+
+  /**
+   * Return the number of lookups that found a cached graph.
+   *
+   * @return The number of cache hits.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the statistics.
+   */
+  long getHits() throws PrevalentException;
+
+  /**
+   * Return the number of lookups that did not find a cached graph.
+   *
+   * @return The number of cache misses.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the statistics.
+   */
+  long getMisses() throws PrevalentException;
+
+  /**
+   * Return the fraction of lookups that found a cached graph.
+   *
+   * @return The hit rate.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the statistics.
+   */
+  double getHitRate() throws PrevalentException;
+
+  /**
+   * Return the number of graphs evicted to stay within the capacity.
+   *
+   * @return The number of evictions.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the statistics.
+   */
+  long getEvictions() throws PrevalentException;
+
+  /**
+   * Return the number of graphs removed due to changes to their objects.
+   *
+   * @return The number of invalidations.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the statistics.
+   */
+  long getInvalidations() throws PrevalentException;
+}
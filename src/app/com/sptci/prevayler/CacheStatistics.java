@@ -0,0 +1,140 @@
+package com.sptci.prevayler;
+
+import java.io.Serializable;
+
+/**
+ * A snapshot of the statistics maintained by the cache of composed
+ * read-only object graphs of a prevalent system.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see PrevalentManager#fetchCacheStatistics
+ * @see PrevalentSystemFactory#CACHE_SIZE
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class CacheStatistics implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+
+  /** The maximum number of graphs held in the cache. */
+  private final int capacity;
+
+  /** The number of graphs currently held in the cache. */
+  private final int size;
+
+  /** The number of lookups that found a cached graph. */
+  private final long hits;
+
+  /** The number of lookups that did not find a cached graph. */
+  private final long misses;
+
+  /** The number of graphs evicted to stay within the capacity. */
+  private final long evictions;
+
+  /** The number of graphs removed due to changes to their objects. */
+  private final long invalidations;
+
+  /**
+   * Create a new statistics snapshot with the specified values.
+   *
+   * @param capacity The {@link #capacity} to use.
+   * @param size The {@link #size} to use.
+   * @param hits The {@link #hits} to use.
+   * @param misses The {@link #misses} to use.
+   * @param evictions The {@link #evictions} to use.
+   * @param invalidations The {@link #invalidations} to use.
+   */
+  CacheStatistics( final int capacity, final int size, final long hits,
+      final long misses, final long evictions, final long invalidations )
+  {
+    this.capacity = capacity;
+    this.size = size;
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.invalidations = invalidations;
+  }
+
+  /**
+   * Return the maximum number of graphs held in the cache.
+   *
+   * @return The {@link #capacity} value.  <code>0</code> if the cache is
+   *   disabled.
+   */
+  public int getCapacity()
+  {
+    return capacity;
+  }
+
+  /**
+   * Return the number of graphs currently held in the cache.
+   *
+   * @return The {@link #size} value.
+   */
+  public int getSize()
+  {
+    return size;
+  }
+
+  /**
+   * Return the number of lookups that found a cached graph.
+   *
+   * @return The {@link #hits} value.
+   */
+  public long getHits()
+  {
+    return hits;
+  }
+
+  /**
+   * Return the number of lookups that did not find a cached graph.
+   *
+   * @return The {@link #misses} value.
+   */
+  public long getMisses()
+  {
+    return misses;
+  }
+
+  /**
+   * Return the number of graphs evicted to stay within the capacity.
+   *
+   * @return The {@link #evictions} value.
+   */
+  public long getEvictions()
+  {
+    return evictions;
+  }
+
+  /**
+   * Return the number of graphs removed due to changes to their objects.
+   *
+   * @return The {@link #invalidations} value.
+   */
+  public long getInvalidations()
+  {
+    return invalidations;
+  }
+
+  /**
+   * Return the fraction of lookups that found a cached graph.
+   *
+   * @return The hit rate between <code>0</code> and <code>1</code>.
+   */
+  public double getHitRate()
+  {
+    final long lookups = hits + misses;
+    return ( lookups == 0 ) ? 0 : ( (double) hits ) / lookups;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return "[capacity=" + capacity + ", size=" + size + ", hits=" + hits +
+        ", misses=" + misses + ", hitRate=" + getHitRate() +
+        ", evictions=" + evictions + ", invalidations=" + invalidations + "]";
+  }
+}
@@ -0,0 +1,651 @@
+package com.sptci.prevayler;
+
+import com.sptci.ReflectionUtility;
+import com.sptci.prevayler.annotations.ForeignKey;
+import com.sptci.prevayler.annotations.ForeignKeys;
+import com.sptci.prevayler.annotations.Index;
+import com.sptci.prevayler.annotations.Indices;
+import com.sptci.prevayler.annotations.NotNull;
+import com.sptci.prevayler.annotations.Searchable;
+import com.sptci.prevayler.annotations.Searchables;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An immutable description of the schema of a {@link PrevalentObject}
+ * class.  The fields of the class and the annotations that describe its
+ * indices, full-text search indices, foreign keys and not-null constraints
+ * are read once using reflection when the descriptor is built.  The
+ * sub-systems of the prevalent system use the descriptor instead of
+ * reflecting upon the class each time an object is stored.
+ *
+ * <p>Descriptors are built on demand and cached for the lifetime of the
+ * class.  All the fields in the descriptor are accessible, and the values
+ * of the fields are read and written using the {@link FieldAccessor}
+ * instances held by the descriptor.</p>
+ *
+ * <p>The field level annotations are always read using reflection.  If a
+ * {@link GeneratedSchema} was generated for the class at compile time, the
+ * fields listed in the schema are compared with the annotated fields.  A
+ * schema that does not match (for instance when the class was recompiled
+ * without the annotation processor) is stale, and is logged and ignored.</p>
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+final class ClassDescriptor
+{
+  /** The name of the object id field in {@link PrevalentObject}. */
+  static final String OBJECT_ID = "objectId";
+
+  /** The name of the meta data field in {@link PrevalentObject}. */
+  static final String META_DATA = "_sptodbMetaData";
+
+  /** The name of the dirty field names in {@link PrevalentObject}. */
+  static final String DIRTY = "_sptodbDirty";
+
+  /** The logger to use to log messages. */
+  private static final Logger logger = Logger.getLogger( "SPTODBLogger" );
+
+  /** The cache of descriptors keyed by the described class. */
+  private static final ConcurrentMap<Class,ClassDescriptor> descriptors =
+      new ConcurrentHashMap<Class,ClassDescriptor>();
+
+  /** The class that is described. */
+  private final Class type;
+
+  /**
+   * A flag indicating whether a generated schema was found for the class
+   * and matched the annotations of the class.
+   */
+  private final boolean generated;
+
+  /**
+   * All the fields of the class (including inherited fields) keyed by
+   * name.
+   */
+  private final Map<String,Field> fields;
+
+  /**
+   * The accessors for all the fields of the class keyed by the name of the
+   * field.
+   */
+  private final Map<String,FieldAccessor> accessors;
+
+  /** The accessor for the object id field of the class. */
+  private final FieldAccessor objectId;
+
+  /** The fields annotated with {@link Index} and their annotations. */
+  private final Map<FieldAccessor,Index> indexedFields;
+
+  /**
+   * The class level {@link Index} annotations, including those specified
+   * through {@link Indices}.
+   */
+  private final List<Index> classIndices;
+
+  /** The fields annotated with {@link Searchable} and their annotations. */
+  private final Map<FieldAccessor,Searchable> searchableFields;
+
+  /**
+   * The class level {@link Searchable} annotations, including those
+   * specified through {@link Searchables}.
+   */
+  private final List<Searchable> classSearchables;
+
+  /** The fields annotated with {@link ForeignKey} and their annotations. */
+  private final Map<FieldAccessor,ForeignKey> foreignKeyFields;
+
+  /**
+   * The class level {@link ForeignKey} annotations, including those
+   * specified through {@link ForeignKeys}.
+   */
+  private final List<ForeignKey> classForeignKeys;
+
+  /**
+   * All the foreign keys (field and class level) keyed by the name of the
+   * field that they apply to.
+   */
+  private final Map<String,ForeignKey> foreignKeys;
+
+  /** The fields annotated with {@link NotNull}. */
+  private final List<FieldAccessor> notNullFields;
+
+  /** The members of the class level {@link NotNull} annotation. */
+  private final List<String> notNullMembers;
+
+  /**
+   * The fields that reference other prevalent objects or collections of
+   * objects, in declaration order.
+   */
+  private final List<FieldAccessor> objectGraphFields;
+
+  /**
+   * The persistent fields of the class.  Static and transient fields, and
+   * the fields managed by the system are excluded.
+   */
+  private final List<FieldAccessor> persistentFields;
+
+  /**
+   * The fully qualified names of the classes of the objects held in the
+   * collections of references, keyed by the name of the collection field.
+   */
+  private final Map<String,String> entryTypes;
+
+  /**
+   * Create a new descriptor for the specified class.
+   *
+   * @param type The {@link #type} to describe.
+   * @throws IllegalAccessException If accessors cannot be created for the
+   *   fields of the class.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  private ClassDescriptor( final Class type ) throws IllegalAccessException
+  {
+    this.type = type;
+    fields = Collections.unmodifiableMap(
+        new LinkedHashMap<String,Field>( ReflectionUtility.fetchFields( type ) ) );
+
+    final Map<String,FieldAccessor> access =
+        new LinkedHashMap<String,FieldAccessor>();
+    final Map<FieldAccessor,Index> indexed =
+        new LinkedHashMap<FieldAccessor,Index>();
+    final Map<FieldAccessor,Searchable> searchable =
+        new LinkedHashMap<FieldAccessor,Searchable>();
+    final Map<FieldAccessor,ForeignKey> keys =
+        new LinkedHashMap<FieldAccessor,ForeignKey>();
+    final List<FieldAccessor> notNull = new ArrayList<FieldAccessor>();
+    final List<FieldAccessor> graph = new ArrayList<FieldAccessor>();
+    final List<FieldAccessor> persistent = new ArrayList<FieldAccessor>();
+
+    for ( Field field : fields.values() )
+    {
+      field.setAccessible( true );
+      final FieldAccessor accessor = new FieldAccessor( field );
+      access.put( field.getName(), accessor );
+
+      final Index index = field.getAnnotation( Index.class );
+      if ( index != null ) indexed.put( accessor, index );
+
+      final Searchable search = field.getAnnotation( Searchable.class );
+      if ( search != null ) searchable.put( accessor, search );
+
+      final ForeignKey key = field.getAnnotation( ForeignKey.class );
+      if ( key != null ) keys.put( accessor, key );
+
+      if ( field.getAnnotation( NotNull.class ) != null ) notNull.add( accessor );
+
+      if ( DIRTY.equals( field.getName() ) ) continue;
+
+      if ( PrevalentObject.class.isAssignableFrom( field.getType() ) ||
+          Collection.class.isAssignableFrom( field.getType() ) )
+      {
+        graph.add( accessor );
+      }
+
+      final int modifiers = field.getModifiers();
+      if ( ! Modifier.isStatic( modifiers ) &&
+          ! Modifier.isTransient( modifiers ) &&
+          ! OBJECT_ID.equals( field.getName() ) &&
+          ! META_DATA.equals( field.getName() ) )
+      {
+        persistent.add( accessor );
+      }
+    }
+
+    accessors = Collections.unmodifiableMap( access );
+    objectId = accessors.get( OBJECT_ID );
+
+    indexedFields = Collections.unmodifiableMap( indexed );
+    searchableFields = Collections.unmodifiableMap( searchable );
+    foreignKeyFields = Collections.unmodifiableMap( keys );
+    notNullFields = Collections.unmodifiableList( notNull );
+    objectGraphFields = Collections.unmodifiableList( graph );
+    persistentFields = Collections.unmodifiableList( persistent );
+
+    final GeneratedSchema schema = getSchema( type );
+    generated = ( schema != null ) &&
+        matches( schema.getIndexedFields(), indexed.keySet() ) &&
+        matches( schema.getSearchableFields(), searchable.keySet() ) &&
+        matches( schema.getForeignKeyFields(), keys.keySet() ) &&
+        matches( schema.getNotNullFields(), notNull );
+    if ( ( schema != null ) && ! generated )
+    {
+      logger.warning( "Ignoring stale generated schema for class: " +
+          type.getName() + ".  Recompile the class with the annotation " +
+          "processor." );
+    }
+
+    final List<Index> indices = new ArrayList<Index>();
+    final Indices ind = (Indices) type.getAnnotation( Indices.class );
+    if ( ind != null ) indices.addAll( Arrays.asList( ind.value() ) );
+    final Index idx = (Index) type.getAnnotation( Index.class );
+    if ( idx != null ) indices.add( idx );
+    classIndices = Collections.unmodifiableList( indices );
+
+    final List<Searchable> searchables = new ArrayList<Searchable>();
+    final Searchables srs = (Searchables) type.getAnnotation( Searchables.class );
+    if ( srs != null ) searchables.addAll( Arrays.asList( srs.value() ) );
+    final Searchable sr = (Searchable) type.getAnnotation( Searchable.class );
+    if ( sr != null ) searchables.add( sr );
+    classSearchables = Collections.unmodifiableList( searchables );
+
+    final List<ForeignKey> foreign = new ArrayList<ForeignKey>();
+    final ForeignKeys fks = (ForeignKeys) type.getAnnotation( ForeignKeys.class );
+    if ( fks != null ) foreign.addAll( Arrays.asList( fks.value() ) );
+    final ForeignKey fk = (ForeignKey) type.getAnnotation( ForeignKey.class );
+    if ( fk != null ) foreign.add( fk );
+    classForeignKeys = Collections.unmodifiableList( foreign );
+
+    final Map<String,ForeignKey> byName = new LinkedHashMap<String,ForeignKey>();
+    for ( ForeignKey key : classForeignKeys )
+    {
+      byName.put( key.member(), key );
+    }
+
+    for ( Map.Entry<FieldAccessor,ForeignKey> entry :
+        foreignKeyFields.entrySet() )
+    {
+      byName.put( entry.getKey().getName(), entry.getValue() );
+    }
+    foreignKeys = Collections.unmodifiableMap( byName );
+
+    final Map<String,String> entries = new LinkedHashMap<String,String>();
+    for ( FieldAccessor accessor : objectGraphFields )
+    {
+      final String entry = getEntryType( accessor, foreignKeys );
+      if ( entry != null ) entries.put( accessor.getName(), entry );
+    }
+    entryTypes = Collections.unmodifiableMap( entries );
+
+    final NotNull nn = (NotNull) type.getAnnotation( NotNull.class );
+    notNullMembers = ( nn == null ) ? Collections.<String>emptyList() :
+        Collections.unmodifiableList( Arrays.asList( nn.members() ) );
+  }
+
+  /**
+   * Return the name of the class of the objects held in the specified
+   * collection of references.  The {@link ForeignKey#collectionEntry} of
+   * the foreign key for the field is used if specified, otherwise the type
+   * argument of the declared type of the field.
+   *
+   * @param accessor The accessor for the field.
+   * @param keys The foreign keys of the class keyed by field name.
+   * @return The name of the entry class or <code>null</code> if the field
+   *   is not a collection or the entry class cannot be determined.
+   */
+  private static String getEntryType( final FieldAccessor accessor,
+      final Map<String,ForeignKey> keys )
+  {
+    if ( ! Collection.class.isAssignableFrom( accessor.getType() ) ) return null;
+
+    final ForeignKey key = keys.get( accessor.getName() );
+    if ( ( key != null ) && ! ForeignKey.NULL.equals( key.collectionEntry() ) )
+    {
+      return key.collectionEntry();
+    }
+
+    final Type generic = accessor.getField().getGenericType();
+    if ( generic instanceof ParameterizedType )
+    {
+      final Type[] arguments =
+          ( (ParameterizedType) generic ).getActualTypeArguments();
+      if ( ( arguments.length == 1 ) && ( arguments[0] instanceof Class ) )
+      {
+        return ( (Class) arguments[0] ).getName();
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Return the descriptor for the specified class.  The descriptor is
+   * built and cached if necessary.
+   *
+   * @param type The class whose descriptor is to be returned.
+   * @return The descriptor for the class.
+   * @throws IllegalStateException If accessors cannot be created for the
+   *   fields of the class.
+   */
+  static ClassDescriptor forClass( final Class type )
+  {
+    ClassDescriptor descriptor = descriptors.get( type );
+
+    if ( descriptor == null )
+    {
+      try
+      {
+        descriptor = new ClassDescriptor( type );
+      }
+      catch ( IllegalAccessException iaex )
+      {
+        throw new IllegalStateException(
+            "Cannot access fields of class: " + type.getName(), iaex );
+      }
+
+      final ClassDescriptor existing =
+          descriptors.putIfAbsent( type, descriptor );
+      if ( existing != null ) descriptor = existing;
+    }
+
+    return descriptor;
+  }
+
+  /**
+   * Return the descriptor for the class of the specified object.
+   *
+   * @see #forClass
+   * @param object The object whose class descriptor is to be returned.
+   * @return The descriptor for the class of the object.
+   */
+  static ClassDescriptor forObject( final Object object )
+  {
+    return forClass( object.getClass() );
+  }
+
+  /**
+   * Return the schema generated for the specified class.
+   *
+   * @param type The class whose schema is to be returned.
+   * @return The generated schema or <code>null</code> if no schema was
+   *   generated for the class.
+   */
+  private static GeneratedSchema getSchema( final Class type )
+  {
+    try
+    {
+      final Class<?> cls = Class.forName( type.getName() + GeneratedSchema.SUFFIX,
+          true, type.getClassLoader() );
+      return (GeneratedSchema) cls.getDeclaredConstructor().newInstance();
+    }
+    catch ( ClassNotFoundException cnfe )
+    {
+      return null;
+    }
+    catch ( Throwable t )
+    {
+      logger.log( Level.WARNING, "Ignoring generated schema for class: " +
+          type.getName(), t );
+      return null;
+    }
+  }
+
+  /**
+   * Determine whether the field names listed in a generated schema are the
+   * names of the specified annotated fields.
+   *
+   * @param names The names of the fields listed in the schema.
+   * @param fields The fields that carry the annotation.
+   * @return Returns <code>true</code> if the names match the fields.
+   */
+  private static boolean matches( final String[] names,
+      final Collection<FieldAccessor> fields )
+  {
+    final Set<String> expected = new HashSet<String>( Arrays.asList( names ) );
+    if ( expected.size() != fields.size() ) return false;
+
+    for ( FieldAccessor field : fields )
+    {
+      if ( ! expected.contains( field.getName() ) ) return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Return the class that is described.
+   *
+   * @return The {@link #type} value.
+   */
+  Class getType()
+  {
+    return type;
+  }
+
+  /**
+   * Determine whether a generated schema that matches the annotations of
+   * the class was found.
+   *
+   * @return The {@link #generated} value.
+   */
+  boolean isGenerated()
+  {
+    return generated;
+  }
+
+  /**
+   * Return all the fields of the class keyed by name.
+   *
+   * @return The read-only {@link #fields}.
+   */
+  Map<String,Field> getFields()
+  {
+    return fields;
+  }
+
+  /**
+   * Return the field with the specified name.
+   *
+   * @param name The name of the field.
+   * @return The field or <code>null</code> if the class has no such field.
+   */
+  Field getField( final String name )
+  {
+    return fields.get( name );
+  }
+
+  /**
+   * Return the value of the field with the specified name in the specified
+   * object.
+   *
+   * @param name The name of the field.
+   * @param object The object whose field value is to be returned.
+   * @return The value of the field.
+   * @throws PrevalentException If the class has no such field, or if the
+   *   value cannot be read.
+   */
+  Object getValue( final String name, final Object object )
+      throws PrevalentException
+  {
+    final FieldAccessor accessor = accessors.get( name );
+    if ( accessor == null )
+    {
+      throw new PrevalentException( "No field: " + name + " in class: " +
+          type.getName() );
+    }
+
+    return accessor.get( object );
+  }
+
+  /**
+   * Return the accessors for all the fields of the class in declaration
+   * order.
+   *
+   * @return The read-only accessors.
+   */
+  Collection<FieldAccessor> getAccessors()
+  {
+    return accessors.values();
+  }
+
+  /**
+   * Return the accessor for the field with the specified name.
+   *
+   * @param name The name of the field.
+   * @return The accessor or <code>null</code> if the class has no such
+   *   field.
+   */
+  FieldAccessor getAccessor( final String name )
+  {
+    return accessors.get( name );
+  }
+
+  /**
+   * Return the accessor for the object id field of the class.
+   *
+   * @return The {@link #objectId} accessor.
+   */
+  FieldAccessor getObjectIdField()
+  {
+    return objectId;
+  }
+
+  /**
+   * Return the fields annotated with {@link Index} and their annotations.
+   *
+   * @return The read-only {@link #indexedFields}.
+   */
+  Map<FieldAccessor,Index> getIndexedFields()
+  {
+    return indexedFields;
+  }
+
+  /**
+   * Return the class level index annotations.
+   *
+   * @return The read-only {@link #classIndices}.
+   */
+  List<Index> getClassIndices()
+  {
+    return classIndices;
+  }
+
+  /**
+   * Return the fields annotated with {@link Searchable} and their
+   * annotations.
+   *
+   * @return The read-only {@link #searchableFields}.
+   */
+  Map<FieldAccessor,Searchable> getSearchableFields()
+  {
+    return searchableFields;
+  }
+
+  /**
+   * Return the class level searchable annotations.
+   *
+   * @return The read-only {@link #classSearchables}.
+   */
+  List<Searchable> getClassSearchables()
+  {
+    return classSearchables;
+  }
+
+  /**
+   * Determine whether the class has any full-text search indices.
+   *
+   * @return Returns <code>true</code> if any field or class level
+   *   searchable annotations are specified.
+   */
+  boolean isSearchable()
+  {
+    return ! ( searchableFields.isEmpty() && classSearchables.isEmpty() );
+  }
+
+  /**
+   * Return the fields annotated with {@link ForeignKey} and their
+   * annotations.
+   *
+   * @return The read-only {@link #foreignKeyFields}.
+   */
+  Map<FieldAccessor,ForeignKey> getForeignKeyFields()
+  {
+    return foreignKeyFields;
+  }
+
+  /**
+   * Return the class level foreign key annotations.
+   *
+   * @return The read-only {@link #classForeignKeys}.
+   */
+  List<ForeignKey> getClassForeignKeys()
+  {
+    return classForeignKeys;
+  }
+
+  /**
+   * Return all the foreign keys of the class keyed by the name of the field
+   * that they apply to.  Field level annotations take precedence over class
+   * level annotations for the same field.
+   *
+   * @return The read-only {@link #foreignKeys}.
+   */
+  Map<String,ForeignKey> getForeignKeys()
+  {
+    return foreignKeys;
+  }
+
+  /**
+   * Return the fields annotated with {@link NotNull}.
+   *
+   * @return The read-only {@link #notNullFields}.
+   */
+  List<FieldAccessor> getNotNullFields()
+  {
+    return notNullFields;
+  }
+
+  /**
+   * Return the members of the class level {@link NotNull} annotation.
+   *
+   * @return The read-only {@link #notNullMembers}.
+   */
+  List<String> getNotNullMembers()
+  {
+    return notNullMembers;
+  }
+
+  /**
+   * Return the fields that reference other prevalent objects or
+   * collections.
+   *
+   * @return The read-only {@link #objectGraphFields}.
+   */
+  List<FieldAccessor> getObjectGraphFields()
+  {
+    return objectGraphFields;
+  }
+
+  /**
+   * Return the persistent fields of the class.
+   *
+   * @return The read-only {@link #persistentFields}.
+   */
+  List<FieldAccessor> getPersistentFields()
+  {
+    return persistentFields;
+  }
+
+  /**
+   * Return the name of the class of the objects held in the specified
+   * collection of references.
+   *
+   * @param name The name of the collection field.
+   * @return The fully qualified name of the entry class, or
+   *   <code>null</code> if it could not be determined.
+   */
+  String getEntryType( final String name )
+  {
+    return entryTypes.get( name );
+  }
+}
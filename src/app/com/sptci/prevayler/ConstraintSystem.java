@@ -1,13 +1,13 @@
 package com.sptci.prevayler;
 
-import com.sptci.ReflectionUtility;
 import com.sptci.prevayler.annotations.ForeignKey;
-import com.sptci.prevayler.annotations.ForeignKeys;
-import com.sptci.prevayler.annotations.NotNull;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Map;
 
 /**
@@ -119,10 +119,12 @@ abstract class ConstraintSystem extends IndexSystem
     throws PrevalentException
   {
     final IndexStorage indexStorage = getIndexStorage( className );
+    final Collection<Object> oids =
+        new ArrayList<Object>( indexStorage.get( field, object ) );
 
-    for ( IndexedObject obj : indexStorage.get( field, object ) )
+    for ( Object oid : oids )
     {
-      final PrevalentObject po = fetch( obj.type, obj.objectId );
+      final PrevalentObject po = fetch( className, oid );
       delete( po, executionTime );
     }
   }
@@ -148,14 +150,18 @@ abstract class ConstraintSystem extends IndexSystem
 
     try
     {
-      for ( IndexedObject obj : indexStorage.get( field, object ) )
+      final Collection<Object> oids =
+          new ArrayList<Object>( indexStorage.get( field, object ) );
+
+      for ( Object oid : oids )
       {
-        final PrevalentObject po = fetch( obj.type, obj.objectId );
+        final PrevalentObject po = fetch( className, oid );
 
         final ReferenceStorage referenceStorage =
-            getReferenceStorage( obj.type );
+            getReferenceStorage( className );
         referenceStorage.remove( po, field, object );
         indexStorage.remove( field, object, po );
+        invalidate( po );
       }
     }
     catch ( Throwable t )
@@ -164,12 +170,30 @@ abstract class ConstraintSystem extends IndexSystem
     }
   }
 
+  /**
+   * Fetch the prevalent object of the specified type with the specified
+   * object id.
+   *
+   * @see #fetch( Class, Object )
+   * @param className The fully qualified class name of the prevalent object.
+   * @param oid The object id of the prevalent object.
+   * @return The prevalent object, or <code>null</code> if no such object
+   *   is stored in the system.
+   * @throws PrevalentException If errors are encountered while fetching
+   *   the prevalent object.
+   */
+  private PrevalentObject fetch( final String className, final Object oid )
+      throws PrevalentException
+  {
+    final PrevalentObject object = getPrimaryStorage( className ).get( oid );
+    return ( object == null ) ? null : fetch( object.getClass(), oid );
+  }
+
   /**
    * Over-ridden to process any {@link com.sptci.prevayler.annotations.ForeignKeys}
    * and {@link com.sptci.prevayler.annotations.ForeignKey} annotations.
    *
    * @see IndexSystem#checkUnique
-   * @see #checkForeignKeys
    * @see #checkForeignKey
    * @param object The prevalent object to check.
    * @throws ConstraintException If unique constraints are violated.
@@ -180,33 +204,152 @@ abstract class ConstraintSystem extends IndexSystem
   protected void checkUnique( final PrevalentObject object )
     throws PrevalentException
   {
-    checkForeignKeys( object );
-
-    final ForeignKey key = object.getClass().getAnnotation( ForeignKey.class );
-    if ( key != null ) checkForeignKey( key, object );
+    for ( ForeignKey key :
+        ClassDescriptor.forObject( object ).getClassForeignKeys() )
+    {
+      checkForeignKey( key, object );
+    }
 
     super.checkUnique( object );
   }
 
   /**
-   * Check the {@link com.sptci.prevayler.annotations.ForeignKeys} annotation
-   * for the prevalent class and perform actions as necessary.
+   * Over-ridden to validate {@link com.sptci.prevayler.annotations.ForeignKey}
+   * and {@link com.sptci.prevayler.annotations.NotNull} constraints for the
+   * collection of prevalent objects.  The referenced objects for each
+   * foreign key are checked for existence, and unique foreign keys are
+   * checked against the existing indices as well as the other objects in
+   * the collection.  Super-class implementation is also applied.
    *
-   * @param object The prevalent object whose annotation is to be used to
-   *   check constraints.
-   * @throws ConstraintException If a unique constraint is violated.
-   * @throws PrevalentException If exceptions are encountered while processing
-   *   the fields of the prevalent object.
+   * <p><b>Note:</b> The relations to the referenced types are not
+   * registered by this method.  Use {@link #addReferences} once all the
+   * collections being validated have been checked.</p>
+   *
+   * @see #checkForeignKeys( Class, Collection )
+   * @see IndexSystem#checkUnique( Class, Collection )
+   * @param cls The type of the prevalent objects.
+   * @param objects The prevalent objects to check.
+   * @throws ConstraintException If constraints are violated.
+   * @throws PrevalentException If errors are encountered while processing
+   *   the fields of the prevalent objects.
    */
-  private void checkForeignKeys( final PrevalentObject object )
-    throws PrevalentException
+  @Override
+  protected void checkUnique( final Class cls,
+      final Collection<PrevalentObject> objects ) throws PrevalentException
   {
-    final ForeignKeys keys = object.getClass().getAnnotation( ForeignKeys.class );
-    if ( keys == null ) return;
+    if ( objects.isEmpty() ) return;
 
-    for ( ForeignKey key : keys.value() )
+    for ( PrevalentObject object : objects )
     {
-      checkForeignKey( key, object );
+      checkNull( object );
+    }
+
+    for ( Map.Entry<String,ForeignKey> entry :
+        ClassDescriptor.forClass( cls ).getForeignKeys().entrySet() )
+    {
+      checkForeignKeys( cls, entry.getKey(), entry.getValue(), objects );
+    }
+
+    super.checkUnique( cls, objects );
+  }
+
+  /**
+   * Register the relations from the specified collection of prevalent
+   * objects of the same type to the types they reference through foreign
+   * keys.  The relations are registered once for the collection.
+   *
+   * @see #checkUnique( Class, Collection )
+   * @param cls The type of the prevalent objects.
+   * @param objects The prevalent objects that have been checked.
+   * @throws PrevalentException If errors are encountered while processing
+   *   the fields of the prevalent objects.
+   */
+  protected void addReferences( final Class cls,
+      final Collection<PrevalentObject> objects ) throws PrevalentException
+  {
+    if ( objects.isEmpty() ) return;
+
+    for ( Map.Entry<String,ForeignKey> entry :
+        ClassDescriptor.forClass( cls ).getForeignKeys().entrySet() )
+    {
+      addReference( objects.iterator().next(), entry.getValue(),
+          entry.getKey() );
+    }
+  }
+
+  /**
+   * Create the storage instances that are used by {@link #indexFields} and
+   * {@link #indexClass} to index prevalent objects of the specified type.
+   * The maps of storage instances are not synchronised, hence this must be
+   * invoked before objects of the type are indexed by multiple threads.
+   *
+   * @param cls The type of the prevalent objects to be indexed.
+   */
+  protected void createStorage( final Class cls )
+  {
+    getIndexStorage( cls );
+    getReferenceStorage( cls );
+
+    final ClassDescriptor descriptor = ClassDescriptor.forClass( cls );
+    for ( String name : descriptor.getForeignKeys().keySet() )
+    {
+      final String entry = descriptor.getEntryType( name );
+      if ( entry != null ) getPrimaryStorage( entry );
+    }
+  }
+
+  /**
+   * Check the foreign key constraint on the specified field for a collection
+   * of prevalent objects.
+   *
+   * @param cls The type of the prevalent objects.
+   * @param name The name of the field that references other prevalent
+   *   objects.
+   * @param key The foreign key annotation for the field.
+   * @param objects The prevalent objects to check.
+   * @throws ConstraintException If a referenced object does not exist, or if
+   *   a unique constraint is violated.
+   * @throws PrevalentException If errors are encountered while processing
+   *   the fields of the prevalent objects.
+   */
+  private void checkForeignKeys( final Class cls, final String name,
+      final ForeignKey key, final Collection<PrevalentObject> objects )
+    throws PrevalentException
+  {
+    final IndexStorage indexStorage = getIndexStorage( cls );
+    final ReferenceStorage referenceStorage = getReferenceStorage( cls );
+    final ClassDescriptor descriptor = ClassDescriptor.forClass( cls );
+    final Field field = descriptor.getField( name );
+    final PrimaryStorage primaryStorage =
+        ( Collection.class.isAssignableFrom( field.getType() ) ) ?
+            getPrimaryStorage( descriptor.getEntryType( name ) ) :
+            getPrimaryStorage( field.getType() );
+    final Collection<Object> values = new HashSet<Object>( objects.size() );
+
+    for ( PrevalentObject object : objects )
+    {
+      final Object value = referenceStorage.getValue( object, name );
+      if ( value == null ) continue;
+
+      final Collection oids = ( value instanceof Collection ) ?
+          (Collection) value : Collections.singleton( value );
+      for ( Object oid : oids )
+      {
+        if ( primaryStorage.get( oid ) == null )
+        {
+          throw new ConstraintException( "Foreign key on class: " +
+              cls.getName() + " field: " + name +
+              " references missing object with objectId: " + oid );
+        }
+      }
+
+      if ( key.unique() )
+      {
+        if ( ! values.add( value ) || indexStorage.isIndexed( name, value ) )
+        {
+          throw new ConstraintException( object, name );
+        }
+      }
     }
   }
 
@@ -229,16 +372,8 @@ abstract class ConstraintSystem extends IndexSystem
 
     if ( key.unique() )
     {
-      Object value;
-
-      try
-      {
-        value = ReflectionUtility.fetchObject( key.member(), object );
-      }
-      catch ( Throwable t )
-      {
-        throw new PrevalentException( t );
-      }
+      final Object value =
+          ClassDescriptor.forObject( object ).getValue( key.member(), object );
 
       if ( indexStorage.isIndexed( key.member(), value ) )
       {
@@ -265,36 +400,27 @@ abstract class ConstraintSystem extends IndexSystem
   {
     final IndexStorage indexStorage = getIndexStorage( object.getClass() );
 
-    for ( Field field : ReflectionUtility.fetchFields( object ).values() )
+    final ClassDescriptor descriptor = ClassDescriptor.forObject( object );
+
+    for ( Map.Entry<FieldAccessor,ForeignKey> entry :
+        descriptor.getForeignKeyFields().entrySet() )
     {
-      final ForeignKey key = field.getAnnotation( ForeignKey.class );
-      if ( key != null )
+      final FieldAccessor field = entry.getKey();
+      final ForeignKey key = entry.getValue();
+      addReference( object, key, field.getName() );
+
+      if ( key.unique() )
       {
-        addReference( object, key, field.getName() );
+        final Object value = descriptor.getValue( field.getName(), object );
 
-        if ( key.unique() )
+        if ( ( value != null ) && value instanceof PrevalentObject )
         {
-          Object value;
-
-          try
-          {
-            value =
-                ReflectionUtility.fetchObject( field.getName(), object );
-          }
-          catch ( Throwable t )
-          {
-            throw new PrevalentException( t );
-          }
-
-          if ( ( value != null ) && value instanceof PrevalentObject )
-          {
-            checkUnique( field, object, (PrevalentObject) value );
-          }
+          checkUnique( field, object, (PrevalentObject) value );
+        }
 
-          if ( indexStorage.isIndexed( field.getName(), value ) )
-          {
-            throw new ConstraintException( object, field.getName() );
-          }
+        if ( indexStorage.isIndexed( field.getName(), value ) )
+        {
+          throw new ConstraintException( object, field.getName() );
         }
       }
     }
@@ -320,11 +446,12 @@ abstract class ConstraintSystem extends IndexSystem
   {
     try
     {
-      final Field field = ReflectionUtility.fetchField( name, object );
+      final ClassDescriptor descriptor = ClassDescriptor.forObject( object );
+      final Field field = descriptor.getField( name );
       Class cls = field.getType();
       if ( Collection.class.isAssignableFrom( cls ) )
       {
-        cls = Class.forName( key.collectionEntry() );
+        cls = Class.forName( descriptor.getEntryType( name ) );
       }
 
       final RelationStorage relationStorage = getRelationStorage( cls );
@@ -350,13 +477,10 @@ abstract class ConstraintSystem extends IndexSystem
   private void checkNull( final PrevalentObject object )
       throws PrevalentException
   {
-    final NotNull annotation = object.getClass().getAnnotation( NotNull.class );
-    if ( annotation != null )
+    for ( String member :
+        ClassDescriptor.forObject( object ).getNotNullMembers() )
     {
-      for ( String member : annotation.members() )
-      {
-        checkNull( member, object );
-      }
+      checkNull( member, object );
     }
 
     checkNullFields( object );
@@ -375,16 +499,8 @@ abstract class ConstraintSystem extends IndexSystem
   private void checkNull( final String member, final PrevalentObject object )
       throws PrevalentException
   {
-    Object value;
-
-    try
-    {
-      value = ReflectionUtility.fetchObject( member, object );
-    }
-    catch ( Throwable t )
-    {
-      throw new PrevalentException( t );
-    }
+    final Object value =
+        ClassDescriptor.forObject( object ).getValue( member, object );
 
     if ( value == null )
     {
@@ -406,25 +522,11 @@ abstract class ConstraintSystem extends IndexSystem
   private void checkNullFields( final PrevalentObject object )
       throws PrevalentException
   {
-    try
-    {
-      for ( Field field : ReflectionUtility.fetchFields( object ).values() )
-      {
-        final NotNull ann = field.getAnnotation( NotNull.class );
-        if ( ann != null )
-        {
-          Object value = field.get( object );
-          if ( value == null ) throw new NullException( object, field.getName() );
-        }
-      }
-    }
-    catch ( NullException nex )
+    for ( FieldAccessor field :
+        ClassDescriptor.forObject( object ).getNotNullFields() )
     {
-      throw nex;
-    }
-    catch ( Throwable t )
-    {
-      throw new PrevalentException( t );
+      final Object value = field.get( object );
+      if ( value == null ) throw new NullException( object, field.getName() );
     }
   }
 
@@ -437,35 +539,16 @@ abstract class ConstraintSystem extends IndexSystem
    * @param child The referenced prevalent object in <code>parent</code>
    * @throws ConstraintException If a unique constratint violation occurs.
    */
-  protected void checkUnique( final Field field, final PrevalentObject parent,
-      final PrevalentObject child ) throws ConstraintException
+  protected void checkUnique( final FieldAccessor field,
+      final PrevalentObject parent, final PrevalentObject child )
+      throws ConstraintException
   {
     if ( child == null ) return;
     final IndexStorage indexStorage = getIndexStorage( parent.getClass() );
-    boolean unique = false;
-
-    ForeignKey key = field.getAnnotation( ForeignKey.class );
-    if ( key == null )
-    {
-      key = parent.getClass().getAnnotation( ForeignKey.class );
-      if ( field.getName().equals( key.member() ) )
-      {
-        unique = key.unique();
-      }
-      else
-      {
-        ForeignKeys keys = parent.getClass().getAnnotation( ForeignKeys.class );
-        for ( ForeignKey k : keys.value() )
-        {
-          if ( field.getName().equals( k.member() ) )
-          {
-            unique = k.unique();
-          }
-        }
-      }
-    }
+    final ForeignKey key =
+        ClassDescriptor.forObject( parent ).getForeignKeys().get( field.getName() );
 
-    if ( unique && indexStorage.isIndexed( field.getName(), child ) )
+    if ( ( key != null ) && key.unique() && indexStorage.isIndexed( field.getName(), child ) )
     {
       throw new ConstraintException( parent, field.getName() );
     }
@@ -493,10 +576,11 @@ abstract class ConstraintSystem extends IndexSystem
 
     try
     {
-      for ( Field field : ReflectionUtility.fetchFields( object ).values() )
+      for ( Map.Entry<FieldAccessor,ForeignKey> entry :
+          ClassDescriptor.forObject( object ).getForeignKeyFields().entrySet() )
       {
-        final ForeignKey key = field.getAnnotation( ForeignKey.class );
-        if ( key == null ) continue;
+        final FieldAccessor field = entry.getKey();
+        final ForeignKey key = entry.getValue();
 
         final Object value = referenceStorage.getValue( object, field.getName() );
         if ( value != null )
@@ -504,8 +588,9 @@ abstract class ConstraintSystem extends IndexSystem
           if ( value instanceof Collection )
           {
             Collection collection = (Collection) value;
-            final PrimaryStorage primaryStorage =
-                getPrimaryStorage( key.collectionEntry() );
+            final PrimaryStorage primaryStorage = getPrimaryStorage(
+                ClassDescriptor.forObject( object ).getEntryType(
+                    field.getName() ) );
 
             for ( Object oid : collection )
             {
@@ -534,7 +619,6 @@ abstract class ConstraintSystem extends IndexSystem
    * {@link ReferenceStorage} is used to fetch the appropriate referenced
    * prevalent object.  The super-class implementation is also invoked.
    *
-   * @see #processForeignKeys
    * @see #processForeignKey
    * @see IndexSystem#indexClass
    * @param object The prevalent object to process.
@@ -545,32 +629,13 @@ abstract class ConstraintSystem extends IndexSystem
   protected void indexClass( final PrevalentObject object )
     throws PrevalentException
   {
-    processForeignKeys( object );
-
-    final ForeignKey key = object.getClass().getAnnotation( ForeignKey.class );
-    if ( key != null ) processForeignKey( key, object );
-
-    super.indexClass( object );
-  }
-
-  /**
-   * Process the foreign keys annotation for the prevalent class.
-   *
-   * @see #processForeignKey(com.sptci.prevayler.annotations.ForeignKey, PrevalentObject)
-   * @param object The prevalent object that is to be indexed if necessary.
-   * @throws PrevalentException If errors are encountered while fetching the
-   *   field value.
-   */
-  private void processForeignKeys( final PrevalentObject object )
-    throws PrevalentException
-  {
-    final ForeignKeys keys = object.getClass().getAnnotation( ForeignKeys.class );
-    if ( keys == null ) return;
-
-    for ( ForeignKey key : keys.value() )
+    for ( ForeignKey key :
+        ClassDescriptor.forObject( object ).getClassForeignKeys() )
     {
       processForeignKey( key, object );
     }
+
+    super.indexClass( object );
   }
 
   /**
@@ -596,8 +661,8 @@ abstract class ConstraintSystem extends IndexSystem
       if ( value instanceof Collection )
       {
         Collection collection = (Collection) value;
-        final PrimaryStorage primaryStorage =
-            getPrimaryStorage( key.collectionEntry() );
+        final PrimaryStorage primaryStorage = getPrimaryStorage(
+            ClassDescriptor.forObject( object ).getEntryType( key.member() ) );
 
         for ( Object oid : collection )
         {
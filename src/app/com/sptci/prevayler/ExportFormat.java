@@ -0,0 +1,332 @@
+package com.sptci.prevayler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+
+/**
+ * The binary format used to export the contents of a prevalent system.
+ * Each prevalent class is written to a separate file named after the fully
+ * qualified class name with the {@link #EXTENSION} suffix.  A file contains
+ * a header followed by one record for each stored object.
+ *
+ * <p>The header consists of the {@link #MAGIC} number, the format {@link
+ * #VERSION}, the class name and the names of the exported fields.  Each
+ * record is introduced by the {@link #RECORD} marker and consists of the
+ * object id, the created and modified timestamps, the value of each
+ * exported field (in header order) and the references held by the object
+ * to other prevalent objects.  The file is terminated by the {@link #END}
+ * marker.</p>
+ *
+ * <p>Values are written as a type tag followed by the value.  Common value
+ * types have compact representations, while other serialisable values
+ * fall back to Java serialisation of the individual value.</p>
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+final class ExportFormat
+{
+  /** The suffix used for the names of exported files. */
+  static final String EXTENSION = ".sptodb";
+
+  /** The magic number that identifies an exported file. */
+  static final int MAGIC = 0x5350544f;
+
+  /** The version of the export format. */
+  static final int VERSION = 1;
+
+  /** The marker that introduces a record. */
+  static final byte RECORD = 1;
+
+  /** The marker that terminates the file. */
+  static final byte END = 0;
+
+  /** The tag for a <code>null</code> value. */
+  private static final byte NULL = 0;
+
+  /** The tag for a {@link String} value. */
+  private static final byte STRING = 1;
+
+  /** The tag for an {@link Integer} value. */
+  private static final byte INTEGER = 2;
+
+  /** The tag for a {@link Long} value. */
+  private static final byte LONG = 3;
+
+  /** The tag for a {@link Double} value. */
+  private static final byte DOUBLE = 4;
+
+  /** The tag for a {@link Float} value. */
+  private static final byte FLOAT = 5;
+
+  /** The tag for a {@link Boolean} value. */
+  private static final byte BOOLEAN = 6;
+
+  /** The tag for a {@link Short} value. */
+  private static final byte SHORT = 7;
+
+  /** The tag for a {@link Byte} value. */
+  private static final byte BYTE = 8;
+
+  /** The tag for a {@link Character} value. */
+  private static final byte CHARACTER = 9;
+
+  /** The tag for a {@link Date} value. */
+  private static final byte DATE = 10;
+
+  /** The tag for a collection of object ids of referenced objects. */
+  private static final byte REFERENCES = 11;
+
+  /** The tag for a value written using Java serialisation. */
+  private static final byte SERIALIZED = 12;
+
+  /** The character set used to encode strings. */
+  private static final String CHARSET = "UTF-8";
+
+  /** Utility class, not to be instantiated. */
+  private ExportFormat() {}
+
+  /**
+   * Write the specified value along with its type tag to the output.
+   *
+   * @param out The output to write to.
+   * @param value The value to write.
+   * @throws IOException If errors are encountered while writing the value,
+   *   or if the value is not serialisable.
+   */
+  static void writeValue( final DataOutput out, final Object value )
+      throws IOException
+  {
+    if ( value == null )
+    {
+      out.writeByte( NULL );
+    }
+    else if ( value instanceof String )
+    {
+      out.writeByte( STRING );
+      writeString( out, (String) value );
+    }
+    else if ( value instanceof Integer )
+    {
+      out.writeByte( INTEGER );
+      out.writeInt( (Integer) value );
+    }
+    else if ( value instanceof Long )
+    {
+      out.writeByte( LONG );
+      out.writeLong( (Long) value );
+    }
+    else if ( value instanceof Double )
+    {
+      out.writeByte( DOUBLE );
+      out.writeDouble( (Double) value );
+    }
+    else if ( value instanceof Float )
+    {
+      out.writeByte( FLOAT );
+      out.writeFloat( (Float) value );
+    }
+    else if ( value instanceof Boolean )
+    {
+      out.writeByte( BOOLEAN );
+      out.writeBoolean( (Boolean) value );
+    }
+    else if ( value instanceof Short )
+    {
+      out.writeByte( SHORT );
+      out.writeShort( (Short) value );
+    }
+    else if ( value instanceof Byte )
+    {
+      out.writeByte( BYTE );
+      out.writeByte( (Byte) value );
+    }
+    else if ( value instanceof Character )
+    {
+      out.writeByte( CHARACTER );
+      out.writeChar( (Character) value );
+    }
+    else if ( value.getClass() == Date.class )
+    {
+      out.writeByte( DATE );
+      out.writeLong( ( (Date) value ).getTime() );
+    }
+    else if ( value instanceof Serializable )
+    {
+      out.writeByte( SERIALIZED );
+      writeSerialized( out, value );
+    }
+    else
+    {
+      throw new IOException( "Value of type: " + value.getClass().getName() +
+          " cannot be exported" );
+    }
+  }
+
+  /**
+   * Write the specified collection of object ids of referenced prevalent
+   * objects to the output.
+   *
+   * @param out The output to write to.
+   * @param oids The object ids to write.
+   * @throws IOException If errors are encountered while writing.
+   */
+  static void writeReferences( final DataOutput out,
+      final Collection<?> oids ) throws IOException
+  {
+    out.writeByte( REFERENCES );
+    out.writeInt( oids.size() );
+
+    for ( Object oid : oids )
+    {
+      writeValue( out, oid );
+    }
+  }
+
+  /**
+   * Read a value (or collection of references) written by {@link
+   * #writeValue} or {@link #writeReferences} from the input.
+   *
+   * @param in The input to read from.
+   * @return The value that was read.
+   * @throws IOException If errors are encountered while reading, or if
+   *   the input contains an unknown type tag.
+   */
+  static Object readValue( final DataInput in ) throws IOException
+  {
+    final byte tag = in.readByte();
+
+    switch ( tag )
+    {
+      case NULL:
+        return null;
+      case STRING:
+        return readString( in );
+      case INTEGER:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case DOUBLE:
+        return in.readDouble();
+      case FLOAT:
+        return in.readFloat();
+      case BOOLEAN:
+        return in.readBoolean();
+      case SHORT:
+        return in.readShort();
+      case BYTE:
+        return in.readByte();
+      case CHARACTER:
+        return in.readChar();
+      case DATE:
+        return new Date( in.readLong() );
+      case REFERENCES:
+        final int size = in.readInt();
+        final Collection<Object> oids = new LinkedHashSet<Object>( size );
+        for ( int i = 0; i < size; ++i )
+        {
+          oids.add( readValue( in ) );
+        }
+        return oids;
+      case SERIALIZED:
+        return readSerialized( in );
+      default:
+        throw new IOException( "Unknown value type: " + tag );
+    }
+  }
+
+  /**
+   * Write the specified string as a length prefixed sequence of bytes.
+   * Unlike {@link DataOutput#writeUTF} this is not limited to strings
+   * whose encoded length is less than 64K.
+   *
+   * @param out The output to write to.
+   * @param value The string to write.
+   * @throws IOException If errors are encountered while writing.
+   */
+  static void writeString( final DataOutput out, final String value )
+      throws IOException
+  {
+    final byte[] bytes = value.getBytes( CHARSET );
+    out.writeInt( bytes.length );
+    out.write( bytes );
+  }
+
+  /**
+   * Read a string written by {@link #writeString} from the input.
+   *
+   * @param in The input to read from.
+   * @return The string that was read.
+   * @throws IOException If errors are encountered while reading.
+   */
+  static String readString( final DataInput in ) throws IOException
+  {
+    final byte[] bytes = new byte[in.readInt()];
+    in.readFully( bytes );
+    return new String( bytes, CHARSET );
+  }
+
+  /**
+   * Write the specified value using Java serialisation as a length prefixed
+   * sequence of bytes.
+   *
+   * @param out The output to write to.
+   * @param value The value to write.
+   * @throws IOException If errors are encountered while serialising.
+   */
+  private static void writeSerialized( final DataOutput out,
+      final Object value ) throws IOException
+  {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final ObjectOutputStream oos = new ObjectOutputStream( bytes );
+    oos.writeObject( value );
+    oos.close();
+
+    out.writeInt( bytes.size() );
+    out.write( bytes.toByteArray() );
+  }
+
+  /**
+   * Read a value written by {@link #writeSerialized} from the input.
+   *
+   * @param in The input to read from.
+   * @return The value that was read.
+   * @throws IOException If errors are encountered while de-serialising.
+   */
+  private static Object readSerialized( final DataInput in )
+      throws IOException
+  {
+    final byte[] bytes = new byte[in.readInt()];
+    in.readFully( bytes );
+
+    final ObjectInputStream ois =
+        new ObjectInputStream( new ByteArrayInputStream( bytes ) );
+
+    try
+    {
+      return ois.readObject();
+    }
+    catch ( ClassNotFoundException cnfe )
+    {
+      final IOException iex = new IOException( cnfe.getMessage() );
+      iex.initCause( cnfe );
+      throw iex;
+    }
+    finally
+    {
+      ois.close();
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package com.sptci.prevayler;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+
+/**
+ * A reader used to stream the records from a file written by {@link
+ * ExportWriter}.  Records are read one at a time, hence the memory used is
+ * independent of the number of objects in the file.  Fields that are
+ * present in the file but no longer exist in the prevalent class are
+ * ignored.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see ExportFormat
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+class ExportReader
+{
+  /** The stream from which the records are read. */
+  private final DataInputStream in;
+
+  /** The prevalent class whose objects are stored in the file. */
+  private final Class<?> cls;
+
+  /** The no-arg constructor used to instantiate {@link #cls}. */
+  private final Constructor constructor;
+
+  /** The accessor for the object id field of {@link #cls}. */
+  private final FieldAccessor objectId;
+
+  /**
+   * The accessors for the fields in the order in which their values are
+   * stored in each record.  Fields that no longer exist are represented by
+   * <code>null</code>.
+   */
+  private final FieldAccessor[] fields;
+
+  /**
+   * Open the specified file and read the header.
+   *
+   * @param file The file to read.
+   * @throws IOException If errors are encountered while reading the header
+   *   or if the file is not a valid export file.
+   * @throws ClassNotFoundException If the prevalent class stored in the
+   *   file cannot be loaded.
+   * @throws NoSuchMethodException If the prevalent class does not have a
+   *   no-arg constructor.
+   */
+  ExportReader( final File file )
+      throws IOException, ClassNotFoundException, NoSuchMethodException
+  {
+    in = new DataInputStream(
+        new BufferedInputStream( new FileInputStream( file ) ) );
+
+    try
+    {
+      if ( in.readInt() != ExportFormat.MAGIC )
+      {
+        throw new IOException( "File: " + file + " is not an export file" );
+      }
+
+      final int version = in.readInt();
+      if ( version != ExportFormat.VERSION )
+      {
+        throw new IOException( "Unsupported version: " + version +
+            " for file: " + file );
+      }
+
+      cls = Class.forName( ExportFormat.readString( in ) );
+      constructor = cls.getDeclaredConstructor();
+      constructor.setAccessible( true );
+      final ClassDescriptor descriptor = ClassDescriptor.forClass( cls );
+      objectId = descriptor.getObjectIdField();
+
+      fields = new FieldAccessor[in.readInt()];
+
+      for ( int i = 0; i < fields.length; ++i )
+      {
+        fields[i] = descriptor.getAccessor( ExportFormat.readString( in ) );
+      }
+    }
+    catch ( IOException iex )
+    {
+      in.close();
+      throw iex;
+    }
+    catch ( ClassNotFoundException cnfe )
+    {
+      in.close();
+      throw cnfe;
+    }
+    catch ( NoSuchMethodException nsme )
+    {
+      in.close();
+      throw nsme;
+    }
+  }
+
+  /**
+   * Read the next record from the file.
+   *
+   * @return The record that was read, or <code>null</code> if the end of
+   *   the file has been reached.
+   * @throws Exception If errors are encountered while reading the record
+   *   or while restoring the prevalent object.
+   */
+  ImportRecord next() throws Exception
+  {
+    if ( in.readByte() == ExportFormat.END ) return null;
+
+    final PrevalentObject object = (PrevalentObject) constructor.newInstance();
+    objectId.set( object, ExportFormat.readValue( in ) );
+
+    final MetaData metaData = new MetaData( in.readLong() );
+    metaData.modified = in.readLong();
+    object.set_sptodbMetaData( metaData );
+
+    for ( FieldAccessor field : fields )
+    {
+      final Object value = ExportFormat.readValue( in );
+      if ( field != null ) field.set( object, value );
+    }
+
+    final ImportRecord record = new ImportRecord( object );
+    final int references = in.readInt();
+
+    for ( int i = 0; i < references; ++i )
+    {
+      final String name = ExportFormat.readString( in );
+      record.getReferences().put( name, ExportFormat.readValue( in ) );
+    }
+
+    return record;
+  }
+
+  /**
+   * Close the file.
+   *
+   * @throws IOException If errors are encountered while closing the file.
+   */
+  void close() throws IOException
+  {
+    in.close();
+  }
+}
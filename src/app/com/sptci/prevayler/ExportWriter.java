@@ -0,0 +1,156 @@
+package com.sptci.prevayler;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * A task used to stream the contents of the primary storage for a single
+ * prevalent class to a file using the {@link ExportFormat}.  Objects are
+ * written directly from storage one at a time, hence the memory used is
+ * independent of the number of objects exported.
+ *
+ * <p><b>Note:</b> Instances must only be executed while the prevalent
+ * system is guaranteed not to be modified (within a query).</p>
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see PrevalentSystem#export
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+class ExportWriter implements Callable<Integer>
+{
+  /** The prevalent class whose objects are exported. */
+  private final Class cls;
+
+  /** The primary storage for {@link #cls}. */
+  private final PrimaryStorage primaryStorage;
+
+  /** The reference storage for {@link #cls}. */
+  private final ReferenceStorage referenceStorage;
+
+  /** The file to which the objects are written. */
+  private final File file;
+
+  /**
+   * Create a new task for exporting the objects of the specified class.
+   *
+   * @param cls The {@link #cls} to use.
+   * @param primaryStorage The {@link #primaryStorage} to use.
+   * @param referenceStorage The {@link #referenceStorage} to use.
+   * @param file The {@link #file} to use.
+   */
+  ExportWriter( final Class cls, final PrimaryStorage primaryStorage,
+      final ReferenceStorage referenceStorage, final File file )
+  {
+    this.cls = cls;
+    this.primaryStorage = primaryStorage;
+    this.referenceStorage = referenceStorage;
+    this.file = file;
+  }
+
+  /**
+   * Write the header and a record for each object in {@link
+   * #primaryStorage} to {@link #file}.
+   *
+   * @return The number of objects written.
+   * @throws Exception If errors are encountered while writing the file.
+   */
+  public Integer call() throws Exception
+  {
+    final List<FieldAccessor> fields = getFields( cls );
+    final DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream( new FileOutputStream( file ) ) );
+    int count = 0;
+
+    try
+    {
+      out.writeInt( ExportFormat.MAGIC );
+      out.writeInt( ExportFormat.VERSION );
+      ExportFormat.writeString( out, cls.getName() );
+      out.writeInt( fields.size() );
+
+      for ( FieldAccessor field : fields )
+      {
+        ExportFormat.writeString( out, field.getName() );
+      }
+
+      for ( PrevalentObject object : primaryStorage.values() )
+      {
+        write( out, object, fields );
+        ++count;
+      }
+
+      out.writeByte( ExportFormat.END );
+    }
+    finally
+    {
+      out.close();
+    }
+
+    return count;
+  }
+
+  /**
+   * Write the record for the specified prevalent object.
+   *
+   * @param out The stream to write to.
+   * @param object The prevalent object to write.
+   * @param fields The fields to write.
+   * @throws Exception If errors are encountered while writing the record.
+   */
+  private void write( final DataOutputStream out,
+      final PrevalentObject object, final List<FieldAccessor> fields )
+      throws Exception
+  {
+    out.writeByte( ExportFormat.RECORD );
+    ExportFormat.writeValue( out, object.getObjectId() );
+
+    final MetaData metaData = object.get_sptodbMetaData();
+    out.writeLong( metaData.created );
+    out.writeLong( metaData.modified );
+
+    for ( FieldAccessor field : fields )
+    {
+      ExportFormat.writeValue( out, field.get( object ) );
+    }
+
+    final Collection<String> references = referenceStorage.getFields( object );
+    out.writeInt( references.size() );
+
+    for ( String name : references )
+    {
+      ExportFormat.writeString( out, name );
+      final Object value = referenceStorage.getValue( object, name );
+
+      if ( value instanceof Collection )
+      {
+        ExportFormat.writeReferences( out, (Collection) value );
+      }
+      else
+      {
+        ExportFormat.writeValue( out, value );
+      }
+    }
+  }
+
+  /**
+   * Return the persistent fields of the specified class that are exported.
+   * Static and transient fields, and the fields managed by the system are
+   * excluded.
+   *
+   * @see ClassDescriptor#getPersistentFields
+   * @param cls The prevalent class whose fields are to be returned.
+   * @return The exported fields.
+   */
+  static List<FieldAccessor> getFields( final Class cls )
+  {
+    return ClassDescriptor.forClass( cls ).getPersistentFields();
+  }
+}
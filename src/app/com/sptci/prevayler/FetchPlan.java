@@ -0,0 +1,227 @@
+package com.sptci.prevayler;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A plan that bounds the references that are populated when prevalent
+ * objects are composed for the results of a query.  A plan either limits
+ * the depth of the object graph that is composed, or lists the paths of
+ * the references that are to be populated.
+ *
+ * <p>A reference path is the dot separated names of the reference fields
+ * followed from the object returned by the query.  For example, the plan
+ * <code>new FetchPlan( "customer", "customer.address" )</code> populates
+ * the <code>customer</code> of an <code>Order</code> and the <code>address
+ * </code> of the customer, but not the <code>orders</code> of the customer.
+ * Listing a path implies all the paths that lead to it.  The depth of a
+ * path is the number of names in the path, and a plan with depth
+ * <code>0</code> populates no references.</p>
+ *
+ * <p>References that are excluded by the plan are left <code>null</code>.
+ * Collections of references are populated with an unresolved collection
+ * where the declared type of the field permits, which fetches the
+ * referenced objects when first accessed.  Note that a <code>null</code>
+ * reference or collection of references is saved as removed references,
+ * and hence objects fetched with a plan that excludes references should not
+ * be saved without first setting those references.</p>
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see com.sptci.prevayler.query.AbstractQuery
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public final class FetchPlan implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+
+  /** The plan that populates the entire object graph.  This is the default. */
+  public static final FetchPlan ALL = new FetchPlan( Integer.MAX_VALUE );
+
+  /** The plan that populates no references. */
+  public static final FetchPlan NONE = new FetchPlan( 0 );
+
+  /** The plan that returns read-only views of the entire object graph. */
+  public static final FetchPlan READ_ONLY = ALL.readOnly();
+
+  /** The maximum depth of the references that are populated. */
+  private final int depth;
+
+  /**
+   * The reference paths that are populated.  This is <code>null</code> for
+   * plans that are bounded by {@link #depth}.
+   */
+  private final Set<String> paths;
+
+  /**
+   * The reference paths that are populated, including the paths that lead
+   * to the specified {@link #paths}.
+   */
+  private final Set<String> included;
+
+  /** A flag indicating whether read-only views are returned. */
+  private final boolean readOnly;
+
+  /**
+   * Create a new plan that populates references up to the specified depth.
+   *
+   * @param depth The {@link #depth} to use.
+   * @throws IllegalArgumentException If the depth is negative.
+   */
+  public FetchPlan( final int depth )
+  {
+    if ( depth < 0 )
+    {
+      throw new IllegalArgumentException( "Invalid fetch depth: " + depth );
+    }
+
+    this.depth = depth;
+    this.paths = null;
+    this.included = null;
+    this.readOnly = false;
+  }
+
+  /**
+   * Create a new plan that populates only the specified reference paths.
+   *
+   * @param paths The {@link #paths} to use.
+   */
+  public FetchPlan( final String... paths )
+  {
+    this.depth = Integer.MAX_VALUE;
+    this.paths = Collections.unmodifiableSet(
+        new LinkedHashSet<String>( Arrays.asList( paths ) ) );
+
+    final Set<String> set = new LinkedHashSet<String>();
+    for ( String path : paths )
+    {
+      for ( int index = path.indexOf( '.' ); index > 0;
+          index = path.indexOf( '.', index + 1 ) )
+      {
+        set.add( path.substring( 0, index ) );
+      }
+
+      set.add( path );
+    }
+
+    included = Collections.unmodifiableSet( set );
+    readOnly = false;
+  }
+
+  /**
+   * Create a read-only copy of the specified plan.
+   *
+   * @param plan The plan to copy.
+   */
+  private FetchPlan( final FetchPlan plan )
+  {
+    this.depth = plan.depth;
+    this.paths = plan.paths;
+    this.included = plan.included;
+    this.readOnly = true;
+  }
+
+  /**
+   * Return a plan that populates the same references as this plan, and
+   * returns read-only views of the stored objects.  Views are frozen
+   * clones: each object is cloned and its references populated exactly as
+   * for an ordinary query, and the clones are then frozen.  Composing a
+   * view hence costs the same as an ordinary query.  The saving comes from
+   * sharing the views composed for unbounded plans (such as {@link
+   * #READ_ONLY}) between queries through the {@link ObjectCache}, until an
+   * object in the view is changed.  Views are not cached if the cache is
+   * disabled (see {@link PrevalentSystemFactory#CACHE_SIZE}) or if lazy
+   * references are enabled.
+   *
+   * <p>Views are marked {@link PrevalentObject#isFrozen frozen}, and only
+   * mutators that invoke {@link PrevalentObject#checkModifiable} reject
+   * changes.  Clones are shallow, hence as with ordinary queries mutable
+   * field values (for instance dates and arrays) are shared with the
+   * stored objects and must not be modified.  Use {@link
+   * PrevalentObject#clone} to obtain a copy that may be modified and
+   * saved.</p>
+   *
+   * @return The read-only plan.
+   */
+  public FetchPlan readOnly()
+  {
+    return ( readOnly ) ? this : new FetchPlan( this );
+  }
+
+  /**
+   * Check whether the plan returns read-only views.
+   *
+   * @return The {@link #readOnly} value.
+   */
+  public boolean isReadOnly()
+  {
+    return readOnly;
+  }
+
+  /**
+   * Check whether the reference with the specified path is to be populated.
+   *
+   * @param path The dot separated names of the reference fields followed
+   *   from the object returned by the query.
+   * @return Return <code>true</code> if the reference is to be populated.
+   */
+  public boolean includes( final String path )
+  {
+    if ( included != null ) return included.contains( path );
+    if ( isUnbounded() ) return true;
+
+    int count = 1;
+    for ( int index = path.indexOf( '.' ); index >= 0;
+        index = path.indexOf( '.', index + 1 ) )
+    {
+      ++count;
+    }
+
+    return ( count <= depth );
+  }
+
+  /**
+   * Check whether the plan populates the entire object graph.
+   *
+   * @return Return <code>true</code> if no references are excluded.
+   */
+  public boolean isUnbounded()
+  {
+    return ( included == null ) && ( depth == Integer.MAX_VALUE );
+  }
+
+  /**
+   * Return the maximum depth of the references that are populated.
+   *
+   * @return The {@link #depth} value.
+   */
+  public int getDepth()
+  {
+    return depth;
+  }
+
+  /**
+   * Return the reference paths that are populated.
+   *
+   * @return The read-only {@link #paths} or <code>null</code> if the plan
+   *   is bounded by depth.
+   */
+  public Set<String> getPaths()
+  {
+    return paths;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    final String plan = ( paths == null ) ?
+        "FetchPlan[depth=" + depth + "]" : "FetchPlan" + paths;
+    return ( readOnly ) ? plan + "[readOnly]" : plan;
+  }
+}
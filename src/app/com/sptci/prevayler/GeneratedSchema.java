@@ -0,0 +1,59 @@
+package com.sptci.prevayler;
+
+/**
+ * The interface implemented by the schema classes generated at compile time
+ * for prevalent object models by the <code>sptodb-processor</code>
+ * annotation processor.  A schema class lists the fields of the model that
+ * carried the field level annotations when the model was compiled and
+ * validated by the processor.
+ *
+ * <p>The schema for a model class is named by appending {@link #SUFFIX} to
+ * the binary name of the model class.  The annotations on the fields are
+ * always read using reflection, and the schema is compared with them to
+ * detect models that were recompiled without the processor (and hence not
+ * validated).  Stale schemas are logged and ignored.</p>
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see ClassDescriptor
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public interface GeneratedSchema
+{
+  /** The suffix appended to the name of a model class to name its schema. */
+  String SUFFIX = "_sptodbSchema";
+
+  /**
+   * Return the names of the fields annotated with {@link
+   * com.sptci.prevayler.annotations.Index}.
+   *
+   * @return The names of the indexed fields.
+   */
+  String[] getIndexedFields();
+
+  /**
+   * Return the names of the fields annotated with {@link
+   * com.sptci.prevayler.annotations.Searchable}.
+   *
+   * @return The names of the searchable fields.
+   */
+  String[] getSearchableFields();
+
+  /**
+   * Return the names of the fields annotated with {@link
+   * com.sptci.prevayler.annotations.ForeignKey}.
+   *
+   * @return The names of the foreign key fields.
+   */
+  String[] getForeignKeyFields();
+
+  /**
+   * Return the names of the fields annotated with {@link
+   * com.sptci.prevayler.annotations.NotNull}.
+   *
+   * @return The names of the not-null fields.
+   */
+  String[] getNotNullFields();
+}
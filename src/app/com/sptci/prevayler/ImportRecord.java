@@ -0,0 +1,65 @@
+package com.sptci.prevayler;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A value object that represents an exported prevalent object that is to
+ * be imported into the prevalent system.  The prevalent object is restored
+ * with its original object id and meta data, while its references to other
+ * prevalent objects are maintained as object ids.  This allows objects to
+ * be imported in any order, since referenced objects need not exist when
+ * the referring object is imported.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see Importer
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class ImportRecord implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+
+  /** The restored prevalent object without its references. */
+  private final PrevalentObject object;
+
+  /**
+   * The map of reference field names to the object id (or collection of
+   * object ids) of the referenced prevalent objects.
+   */
+  private final Map<String,Object> references;
+
+  /**
+   * Create a new record for the specified prevalent object.
+   *
+   * @param object The {@link #object} to use.
+   */
+  ImportRecord( final PrevalentObject object )
+  {
+    this.object = object;
+    this.references = new LinkedHashMap<String,Object>();
+  }
+
+  /**
+   * Return the restored prevalent object.
+   *
+   * @return The {@link #object} value.
+   */
+  PrevalentObject getObject()
+  {
+    return object;
+  }
+
+  /**
+   * Return the references held by the prevalent object.
+   *
+   * @return The {@link #references} map.
+   */
+  Map<String,Object> getReferences()
+  {
+    return references;
+  }
+}
@@ -0,0 +1,318 @@
+package com.sptci.prevayler;
+
+import com.sptci.prevayler.transaction.BulkDiscard;
+import com.sptci.prevayler.transaction.BulkImport;
+import com.sptci.prevayler.transaction.BulkIndex;
+import org.prevayler.Prevayler;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A utility used to import the files written by {@link
+ * PrevalentManager#exportTo} into the prevalent system.  Each file is read
+ * by a separate worker thread, and the restored objects are appended to
+ * the system in batches using the bulk load path.  Objects retain their
+ * original object ids, meta data and references.  Once all the files have
+ * been read, constraints are validated and indices built for all the
+ * imported objects.
+ *
+ * <p>Since files are streamed and submitted in batches, the memory used
+ * is independent of the size of the files being imported.</p>
+ *
+ * <p>If an error is encountered while reading or submitting the files, the
+ * remaining workers are stopped and all the objects imported by this
+ * importer are removed from the system before the error is reported.</p>
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see PrevalentManager#importFrom
+ * @see ExportFormat
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class Importer
+{
+  /** The logger to use to log messages. */
+  private static final Logger logger = Logger.getLogger( "SPTODBLogger" );
+
+  /** The prevayler instance to which the objects are imported. */
+  private final Prevayler prevayler;
+
+  /** The number of objects to submit in each transaction. */
+  private final int batchSize;
+
+  /** The file or directory of files to import. */
+  private final File file;
+
+  /**
+   * The identifier of the bulk load session used for the import.  The
+   * objects loaded through other sessions are validated and indexed
+   * independently.
+   */
+  private final String session = UUID.randomUUID().toString();
+
+  /**
+   * Create a new importer for the specified file or directory.
+   *
+   * @param prevayler The {@link #prevayler} to use.
+   * @param batchSize The {@link #batchSize} to use.
+   * @param file The {@link #file} to use.
+   */
+  Importer( final Prevayler prevayler, final int batchSize, final File file )
+  {
+    this.prevayler = prevayler;
+    this.batchSize = ( batchSize > 0 ) ? batchSize : 1;
+    this.file = file;
+  }
+
+  /**
+   * Import all the export files into the prevalent system.  If {@link
+   * #file} is a directory, all the files with the {@link
+   * ExportFormat#EXTENSION} suffix in the directory are imported.
+   *
+   * @return The total number of objects imported.
+   * @throws ConstraintException If the imported objects violate unique or
+   *   foreign key constraints, or already exist in the system.  The
+   *   imported objects are discarded.
+   * @throws PrevalentException If errors are encountered while reading the
+   *   files or building the indices.  The imported objects are discarded
+   *   if errors are encountered while reading the files.
+   */
+  public int load() throws PrevalentException
+  {
+    final File[] files = getFiles();
+    if ( files.length == 0 ) return 0;
+
+    final int threads = Math.min( files.length,
+        Runtime.getRuntime().availableProcessors() );
+    final ExecutorService executor = Executors.newFixedThreadPool( threads );
+    int count = 0;
+
+    try
+    {
+      final List<Future<Integer>> futures =
+          new ArrayList<Future<Integer>>( files.length );
+      for ( File f : files )
+      {
+        futures.add( executor.submit( new ImportTask( f ) ) );
+      }
+
+      for ( Future<Integer> future : futures )
+      {
+        count += future.get();
+      }
+    }
+    catch ( ExecutionException eex )
+    {
+      discard( executor );
+
+      if ( eex.getCause() instanceof PrevalentException )
+      {
+        throw (PrevalentException) eex.getCause();
+      }
+
+      throw new PrevalentException( "Error importing from: " + file,
+          eex.getCause() );
+    }
+    catch ( InterruptedException iex )
+    {
+      discard( executor );
+      throw new PrevalentException( "Interrupted importing from: " + file,
+          iex );
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+
+    index();
+    return count;
+  }
+
+  /**
+   * Return the files that are to be imported.
+   *
+   * @return The array of export files.
+   * @throws PrevalentException If {@link #file} does not exist.
+   */
+  private File[] getFiles() throws PrevalentException
+  {
+    if ( ! file.exists() )
+    {
+      throw new PrevalentException( "File: " + file + " does not exist" );
+    }
+
+    if ( ! file.isDirectory() ) return new File[] { file };
+
+    return file.listFiles( new FileFilter()
+    {
+      public boolean accept( final File f )
+      {
+        return f.isFile() && f.getName().endsWith( ExportFormat.EXTENSION );
+      }
+    } );
+  }
+
+  /**
+   * Validate constraints and build the indices for the imported objects.
+   *
+   * @throws PrevalentException If errors are encountered while indexing.
+   */
+  private void index() throws PrevalentException
+  {
+    try
+    {
+      prevayler.execute( new BulkIndex( session ) );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException( "Error indexing imported objects", t );
+    }
+  }
+
+  /**
+   * Stop the workers and remove all the objects imported by this importer
+   * from the system.  Waits for the workers to stop, so that no batches are
+   * submitted after the objects are removed.  Errors encountered while
+   * removing the objects are logged, so that the error that caused the
+   * import to fail is reported to the caller.
+   *
+   * @param executor The executor running the workers.
+   */
+  private void discard( final ExecutorService executor )
+  {
+    executor.shutdownNow();
+    boolean interrupted = Thread.interrupted();
+
+    try
+    {
+      while ( ! executor.isTerminated() )
+      {
+        try
+        {
+          executor.awaitTermination( 1, TimeUnit.SECONDS );
+        }
+        catch ( InterruptedException iex )
+        {
+          interrupted = true;
+        }
+      }
+
+      prevayler.execute( new BulkDiscard( session ) );
+    }
+    catch ( Throwable t )
+    {
+      logger.log( Level.SEVERE,
+          "Error discarding objects imported from: " + file, t );
+    }
+    finally
+    {
+      if ( interrupted ) Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * A task used to read an export file and submit its records to the
+   * prevalent system in batches.
+   */
+  private class ImportTask implements Callable<Integer>
+  {
+    /** The export file to read. */
+    private final File file;
+
+    /**
+     * Create a new task for the specified file.
+     *
+     * @param file The {@link #file} to read.
+     */
+    private ImportTask( final File file )
+    {
+      this.file = file;
+    }
+
+    /**
+     * Read all the records in {@link #file} and submit them to the
+     * prevalent system.
+     *
+     * @return The number of records imported.
+     * @throws Exception If errors are encountered while reading the file or
+     *   submitting the records.
+     */
+    public Integer call() throws Exception
+    {
+      final ExportReader reader = new ExportReader( file );
+      final Collection<ImportRecord> batch =
+          new ArrayList<ImportRecord>( batchSize );
+      int count = 0;
+
+      try
+      {
+        ImportRecord record;
+        while ( ( record = reader.next() ) != null )
+        {
+          if ( Thread.currentThread().isInterrupted() )
+          {
+            throw new InterruptedException( "Import of: " + file +
+                " cancelled" );
+          }
+
+          batch.add( record );
+
+          if ( batch.size() >= batchSize )
+          {
+            count += submit( batch );
+          }
+        }
+
+        count += submit( batch );
+      }
+      finally
+      {
+        reader.close();
+      }
+
+      return count;
+    }
+
+    /**
+     * Submit the specified batch of records to the prevalent system, and
+     * clear the batch.
+     *
+     * @param batch The records to submit.
+     * @return The number of records submitted.
+     * @throws Exception If errors are encountered while submitting.
+     */
+    private int submit( final Collection<ImportRecord> batch )
+        throws Exception
+    {
+      if ( batch.isEmpty() ) return 0;
+
+      try
+      {
+        return (Integer) prevayler.execute( new BulkImport( session, batch ) );
+      }
+      finally
+      {
+        batch.clear();
+      }
+    }
+  }
+}
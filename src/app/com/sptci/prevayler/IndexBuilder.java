@@ -0,0 +1,195 @@
+package com.sptci.prevayler;
+
+import com.sptci.prevayler.query.IndexChanges;
+import com.sptci.prevayler.query.ObjectIds;
+import com.sptci.prevayler.transaction.BuildIndex;
+import com.sptci.prevayler.transaction.CompleteIndexBuild;
+import com.sptci.prevayler.transaction.PrepareIndexBuild;
+import org.prevayler.Prevayler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A task used to build indices that have been added (using {@link
+ * com.sptci.prevayler.annotations.Index}) to prevalent classes that already
+ * have stored objects, and to drop indices that are no longer declared.
+ * The existing objects are indexed in batches, each batch in a separate
+ * transaction, so that the prevalent system remains available while the
+ * indices are being built.  Until the build of an index is complete,
+ * queries against the index scan the primary storage of the class.
+ *
+ * <p>The {@link PrevalentSystemFactory} runs an instance of this task in a
+ * background thread when a prevalent system is initialised.  The progress
+ * of the build may be monitored using {@link
+ * PrevalentSystemFactory#getIndexBuilder}.</p>
+ *
+ * <p>Objects appended by bulk load sessions that are still open are not
+ * indexed, since they are indexed when their session is closed.</p>
+ *
+ * <p><b>Note:</b> Unique constraints for the new indices are validated
+ * against the existing objects once each index has been built.  Duplicate
+ * values are logged, and the objects that share them are left in the
+ * system.  A unique index with duplicate values is dropped and remains
+ * pending, hence queries against it continue to scan the primary
+ * storage.</p>
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see PrevalentSystem#prepareIndexBuild
+ * @see PrevalentSystem#buildIndex
+ * @see PrevalentSystem#completeIndexBuild
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class IndexBuilder implements Runnable
+{
+  /** The logger to use to log messages. */
+  private static final Logger logger = Logger.getLogger( "SPTODBLogger" );
+
+  /** The prevayler instance whose indices are to be built. */
+  private final Prevayler prevayler;
+
+  /** The number of objects to index in each transaction. */
+  private final int batchSize;
+
+  /** The total number of objects that are to be indexed. */
+  private volatile long total;
+
+  /** The number of objects that have been indexed. */
+  private volatile long completed;
+
+  /** A flag used to indicate that the build has finished. */
+  private volatile boolean complete;
+
+  /**
+   * Create a new index builder for the specified prevayler.
+   *
+   * @param prevayler The {@link #prevayler} to use.
+   * @param batchSize The {@link #batchSize} to use.
+   */
+  IndexBuilder( final Prevayler prevayler, final int batchSize )
+  {
+    this.prevayler = prevayler;
+    this.batchSize = ( batchSize > 0 ) ? batchSize : 1;
+  }
+
+  /**
+   * Build the pending indices of all the stored prevalent classes.  Errors
+   * are logged, and leave the indices that were not built pending.
+   */
+  public void run()
+  {
+    try
+    {
+      if ( ! (Boolean) prevayler.execute( new IndexChanges() ) ) return;
+
+      @SuppressWarnings( {"unchecked"} )
+      final Map<String,Collection<String>> pending =
+          (Map<String,Collection<String>>)
+              prevayler.execute( new PrepareIndexBuild() );
+      final Map<String,Object[]> oids =
+          new LinkedHashMap<String,Object[]>();
+
+      for ( String className : pending.keySet() )
+      {
+        final Object[] array =
+            (Object[]) prevayler.execute( new ObjectIds( className ) );
+        oids.put( className, array );
+        total += array.length;
+      }
+
+      for ( Map.Entry<String,Collection<String>> entry : pending.entrySet() )
+      {
+        build( entry.getKey(), entry.getValue(), oids.get( entry.getKey() ) );
+      }
+    }
+    catch ( Throwable t )
+    {
+      logger.log( Level.WARNING, "Error building indices", t );
+    }
+    finally
+    {
+      complete = true;
+    }
+  }
+
+  /**
+   * Build the specified indices for the specified objects of the specified
+   * class in batches of {@link #batchSize} objects.
+   *
+   * @param className The name of the prevalent class being indexed.
+   * @param names The names of the indices to build.
+   * @param oids The object ids of the objects to index.
+   * @throws Exception If errors are encountered while executing the
+   *   transactions.
+   */
+  private void build( final String className, final Collection<String> names,
+      final Object[] oids ) throws Exception
+  {
+    logger.info( "Building indices " + names + " for " + oids.length +
+        " objects of class: " + className );
+    final List<Object> list = Arrays.asList( oids );
+
+    for ( int start = 0; start < oids.length; start += batchSize )
+    {
+      final int end = Math.min( start + batchSize, oids.length );
+      prevayler.execute( new BuildIndex( className, names,
+          new ArrayList<Object>( list.subList( start, end ) ) ) );
+      completed += ( end - start );
+
+      logger.fine( "Indexed " + completed + " of " + total + " objects" );
+    }
+
+    try
+    {
+      prevayler.execute( new CompleteIndexBuild( className, names ) );
+    }
+    catch ( ConstraintException cex )
+    {
+      logger.log( Level.SEVERE, "Existing objects violate unique indices " +
+          names + " for class: " + className, cex );
+    }
+
+    logger.info( "Completed building indices " + names + " for class: " +
+        className );
+  }
+
+  /**
+   * Return the total number of objects that are to be indexed.  This is
+   * known only once the build has been prepared.
+   *
+   * @return The {@link #total} value.
+   */
+  public long getTotal()
+  {
+    return total;
+  }
+
+  /**
+   * Return the number of objects that have been indexed.
+   *
+   * @return The {@link #completed} value.
+   */
+  public long getCompleted()
+  {
+    return completed;
+  }
+
+  /**
+   * Determine whether the build has finished.
+   *
+   * @return The {@link #complete} value.
+   */
+  public boolean isComplete()
+  {
+    return complete;
+  }
+}
@@ -0,0 +1,100 @@
+package com.sptci.prevayler;
+
+import com.sptci.prevayler.query.FetchIndexStatistics;
+import org.prevayler.Prevayler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The JMX management bean used to expose the statistics for the indices
+ * maintained by a prevalent system.  An instance is registered by the
+ * {@link PrevalentSystemFactory} for each prevalent system that it
+ * initialises.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see IndexStatistics
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class IndexMonitor implements IndexMonitorMBean
+{
+  /** The prevayler instance whose indices are monitored. */
+  private final Prevayler prevayler;
+
+  /**
+   * Create a new monitor for the specified prevayler.
+   *
+   * @param prevayler The {@link #prevayler} to use.
+   */
+  IndexMonitor( final Prevayler prevayler )
+  {
+    this.prevayler = prevayler;
+  }
+
+  /** {@inheritDoc} */
+  public String[] getStatistics( final String className )
+      throws PrevalentException
+  {
+    final Collection<IndexStatistics> statistics = fetch( className );
+    final String[] result = new String[statistics.size()];
+
+    int index = 0;
+    for ( IndexStatistics stats : statistics )
+    {
+      result[index++] = stats.toString();
+    }
+
+    return result;
+  }
+
+  /** {@inheritDoc} */
+  public String[] getHistogram( final String className, final String index )
+      throws PrevalentException
+  {
+    final List<String> result = new ArrayList<String>();
+
+    for ( IndexStatistics stats : fetch( className ) )
+    {
+      if ( ! stats.getName().equals( index ) ) continue;
+
+      for ( IndexStatistics.Bucket bucket : stats.getHistogram() )
+      {
+        result.add( bucket.toString() );
+      }
+    }
+
+    return result.toArray( new String[result.size()] );
+  }
+
+  /**
+   * Fetch the index statistics for the specified prevalent class.
+   *
+   * @param className The fully qualified name of the prevalent class.
+   * @return The collection of index statistics.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the statistics, or if the class cannot be loaded.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  private Collection<IndexStatistics> fetch( final String className )
+      throws PrevalentException
+  {
+    try
+    {
+      return (Collection<IndexStatistics>) prevayler.execute(
+          new FetchIndexStatistics( Class.forName( className ) ) );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException(
+          "Error retrieving index statistics for type: " + className, t );
+    }
+  }
+}
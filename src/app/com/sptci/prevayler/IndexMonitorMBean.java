@@ -0,0 +1,40 @@
+package com.sptci.prevayler;
+
+/**
+ * The management interface used to expose the statistics for the indices
+ * maintained by a prevalent system through JMX.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see IndexMonitor
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public interface IndexMonitorMBean
+{
+  /**
+   * Return a summary of the statistics for each index maintained for the
+   * specified prevalent class.
+   *
+   * @param className The fully qualified name of the prevalent class.
+   * @return The array of summaries, one for each index.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the statistics, or if the class cannot be loaded.
+   */
+  String[] getStatistics( String className ) throws PrevalentException;
+
+  /**
+   * Return the buckets of the histogram for the specified ordered index of
+   * the specified prevalent class.
+   *
+   * @param className The fully qualified name of the prevalent class.
+   * @param index The name of the index.
+   * @return The array of buckets.  Returns an empty array if the index
+   *   does not exist or is not ordered.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the statistics, or if the class cannot be loaded.
+   */
+  String[] getHistogram( String className, String index )
+      throws PrevalentException;
+}
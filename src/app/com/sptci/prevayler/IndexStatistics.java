@@ -0,0 +1,240 @@
+package com.sptci.prevayler;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A snapshot of the statistics maintained by {@link IndexStorage} for an
+ * index on a field or combination of fields of a prevalent class.  The
+ * statistics describe how selective and how skewed the index is.  For
+ * ordered indices an approximate (equi-depth) histogram of the indexed
+ * values is also available.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see PrevalentManager#fetchIndexStatistics
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class IndexStatistics implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The name of the index.  This is the field name for field level
+   * indices, or the normalised name of the fields for composite indices.
+   */
+  private final String name;
+
+  /** A flag indicating whether the index is ordered. */
+  private final boolean ordered;
+
+  /** The number of distinct keys in the index. */
+  private final int distinctKeys;
+
+  /** The total number of object ids stored under all the keys. */
+  private final long totalPostings;
+
+  /** The largest number of object ids stored under a single key. */
+  private final int maxPostings;
+
+  /**
+   * The approximate histogram of the indexed values.  Empty for indices
+   * that are not ordered.
+   */
+  private final List<Bucket> histogram;
+
+  /**
+   * Create a new statistics snapshot with the specified values.
+   *
+   * @param name The {@link #name} to use.
+   * @param ordered The {@link #ordered} to use.
+   * @param distinctKeys The {@link #distinctKeys} to use.
+   * @param totalPostings The {@link #totalPostings} to use.
+   * @param maxPostings The {@link #maxPostings} to use.
+   * @param histogram The {@link #histogram} to use.
+   */
+  IndexStatistics( final String name, final boolean ordered,
+      final int distinctKeys, final long totalPostings, final int maxPostings,
+      final List<Bucket> histogram )
+  {
+    this.name = name;
+    this.ordered = ordered;
+    this.distinctKeys = distinctKeys;
+    this.totalPostings = totalPostings;
+    this.maxPostings = maxPostings;
+    this.histogram = Collections.unmodifiableList( histogram );
+  }
+
+  /**
+   * Return the name of the index.
+   *
+   * @return The {@link #name} value.
+   */
+  public String getName()
+  {
+    return name;
+  }
+
+  /**
+   * Determine whether the index is ordered.
+   *
+   * @return The {@link #ordered} value.
+   */
+  public boolean isOrdered()
+  {
+    return ordered;
+  }
+
+  /**
+   * Return the number of distinct keys in the index.
+   *
+   * @return The {@link #distinctKeys} value.
+   */
+  public int getDistinctKeys()
+  {
+    return distinctKeys;
+  }
+
+  /**
+   * Return the total number of object ids stored in the index.
+   *
+   * @return The {@link #totalPostings} value.
+   */
+  public long getTotalPostings()
+  {
+    return totalPostings;
+  }
+
+  /**
+   * Return the largest number of object ids stored under a single key.
+   *
+   * @return The {@link #maxPostings} value.
+   */
+  public int getMaxPostings()
+  {
+    return maxPostings;
+  }
+
+  /**
+   * Return the average number of object ids stored under a key.  This is
+   * the expected number of matches for an equality lookup on the index.
+   *
+   * @return The average posting length.
+   */
+  public double getAveragePostings()
+  {
+    return ( distinctKeys == 0 ) ? 0 : ( (double) totalPostings ) / distinctKeys;
+  }
+
+  /**
+   * Return the approximate histogram of the indexed values.
+   *
+   * @return The read-only {@link #histogram}.
+   */
+  public List<Bucket> getHistogram()
+  {
+    return histogram;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return name + " [distinctKeys=" + distinctKeys + ", totalPostings=" +
+        totalPostings + ", maxPostings=" + maxPostings +
+        ", averagePostings=" + getAveragePostings() + "]";
+  }
+
+  /**
+   * A bucket in the histogram of an ordered index.  Each bucket covers a
+   * contiguous range of keys holding approximately the same number of
+   * object ids.
+   */
+  public static class Bucket implements Serializable
+  {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The lowest key in the bucket.  A <code>null</code> value indicates
+     * the key for objects with a null field value.
+     */
+    private final Object low;
+
+    /** The highest key in the bucket. */
+    private final Object high;
+
+    /** The number of distinct keys in the bucket. */
+    private final int keys;
+
+    /** The number of object ids stored under the keys in the bucket. */
+    private final long postings;
+
+    /**
+     * Create a new bucket with the specified values.
+     *
+     * @param low The {@link #low} value to use.
+     * @param high The {@link #high} value to use.
+     * @param keys The {@link #keys} value to use.
+     * @param postings The {@link #postings} value to use.
+     */
+    Bucket( final Object low, final Object high, final int keys,
+        final long postings )
+    {
+      this.low = low;
+      this.high = high;
+      this.keys = keys;
+      this.postings = postings;
+    }
+
+    /**
+     * Return the lowest key in the bucket.
+     *
+     * @return The {@link #low} value.
+     */
+    public Object getLow()
+    {
+      return low;
+    }
+
+    /**
+     * Return the highest key in the bucket.
+     *
+     * @return The {@link #high} value.
+     */
+    public Object getHigh()
+    {
+      return high;
+    }
+
+    /**
+     * Return the number of distinct keys in the bucket.
+     *
+     * @return The {@link #keys} value.
+     */
+    public int getKeys()
+    {
+      return keys;
+    }
+
+    /**
+     * Return the number of object ids in the bucket.
+     *
+     * @return The {@link #postings} value.
+     */
+    public long getPostings()
+    {
+      return postings;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+      return "[" + low + ", " + high + "] keys=" + keys +
+          " postings=" + postings;
+    }
+  }
+}
@@ -1,10 +1,22 @@
 package com.sptci.prevayler;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
 
 /**
  * A class used as the storage mechanism for storing the indices for
@@ -24,6 +36,27 @@ public class IndexStorage implements Serializable
    */
   private static final String NULL_VALUE = "SPTODB_NULL_FIELD_INDEX_KEY";
 
+  /**
+   * The name of the built-in ordered index on the time at which each
+   * prevalent object was created.  The indexed values are the {@link
+   * Long} millisecond values of the time.
+   *
+   * {@value}
+   */
+  public static final String CREATED_INDEX = "_sptodbCreated";
+
+  /**
+   * The name of the built-in ordered index on the time at which each
+   * prevalent object was last saved.  The indexed values are the {@link
+   * Long} millisecond values of the time.
+   *
+   * {@value}
+   */
+  public static final String MODIFIED_INDEX = "_sptodbModified";
+
+  /** The number of buckets in the histograms of ordered indices. */
+  static final int HISTOGRAM_BUCKETS = 10;
+
   /**
    * A map used to maintain indices for a prevalent object.  The <code>key
    * </code> to the map is the name(s) of the field(s) that are indexed,
@@ -42,10 +75,28 @@ public class IndexStorage implements Serializable
    */
   public void add( final String field, final Object index,
       final PrevalentObject object )
+  {
+    add( field, index, object, false );
+  }
+
+  /**
+   * Add a new index for the specified field to the store.  If the field
+   * is not yet indexed, the storage for the field is created as ordered or
+   * unordered based on the <code>ordered</code> flag.
+   *
+   * @see IndexStorage.FieldStorage#add
+   * @param field The name of the field that is indexed.
+   * @param index The index for the field specified.
+   * @param object The prevalent object to associate with the index.
+   * @param ordered Flag indicating whether the index for the field is
+   *   maintained in the natural order of the indexed values.
+   */
+  public void add( final String field, final Object index,
+      final PrevalentObject object, final boolean ordered )
   {
     if ( ! storage.containsKey( field ) )
     {
-      storage.put( field, new FieldStorage() );
+      storage.put( field, new FieldStorage( ordered ) );
     }
 
     if ( index instanceof Collection )
@@ -65,14 +116,18 @@ public class IndexStorage implements Serializable
   }
 
   /**
-   * Add a new index for the specified fields to the store.
+   * Add a new index for the specified fields to the store.  The values of
+   * the fields are stored as a single tuple key (a {@link List} of the
+   * values in the order of the fields), so that the combination of values
+   * may be looked up directly.
    *
    * @see IndexStorage.FieldStorage#add
    * @param fields The array of field names that are being indexed.
-   * @param index The index for the fields specified.
+   * @param index The values of the fields specified, in the same order as
+   *   the fields.
    * @param object The prevalent object to associate with the index.
    */
-  public void add( final String[] fields, final Collection index,
+  public void add( final String[] fields, final List<Object> index,
       final PrevalentObject object )
   {
     final String name = getFieldName( fields );
@@ -80,14 +135,28 @@ public class IndexStorage implements Serializable
 
     if ( fieldStorage == null )
     {
-      fieldStorage = new FieldStorage();
-      storage.put( getFieldName( fields ), fieldStorage );
+      fieldStorage = new FieldStorage( false, true );
+      storage.put( name, fieldStorage );
     }
 
-    for ( Object key : index )
-    {
-      fieldStorage.add( key, object );
-    }
+    fieldStorage.add( new ArrayList<Object>( index ), object );
+  }
+
+  /**
+   * Remove the index entry for the specified prevalent object stored under
+   * the specified combination of values in the index for the specified
+   * fields.
+   *
+   * @see #add( String[], List, PrevalentObject )
+   * @param fields The array of field names that are indexed.
+   * @param index The values of the fields under which the object was
+   *   indexed, in the same order as the fields.
+   * @param object The prevalent object to remove.
+   */
+  public void remove( final String[] fields, final List<Object> index,
+      final PrevalentObject object )
+  {
+    remove( getFieldName( fields ), index, object );
   }
 
   /**
@@ -125,43 +194,257 @@ public class IndexStorage implements Serializable
   }
 
   /**
-   * Return the collection of prevalent objects that match the specified
-   * <code>index</code> value.
+   * Return the object ids of the prevalent objects that match the specified
+   * <code>index</code> value.  The returned collection is a read-only view
+   * of the index and must not be used after the index has been modified.
+   * Callers that modify the index while processing the object ids must
+   * copy the collection first.
    *
    * @param field The name of the field that was indexed in the prevalent
    *   object.
    * @param index The value of the indexed field to use to retrieve the
    *   objects.
-   * @return The collection of matching indexed objects that represent the
-   *   prevalent objects.
+   * @return The collection of object ids of the matching prevalent objects.
+   */
+  public Collection<Object> get( final String field, final Object index )
+  {
+    final FieldStorage fs = storage.get( field );
+    if ( fs == null ) return Collections.emptyList();
+
+    final Collection<Object> collection = fs.get( index );
+    return ( collection == null ) ?
+        Collections.<Object>emptyList() : collection;
+  }
+
+  /**
+   * Return the postings of object ids stored for the specified index value.
+   * The postings are returned directly and must not be retained after the
+   * index has been modified.
+   *
+   * @see #get( String, Object )
+   * @param field The name of the field that was indexed in the prevalent
+   *   object.
+   * @param index The value of the indexed field.
+   * @return The postings, or <code>null</code> if no objects are indexed
+   *   with the specified value.
+   */
+  Postings getPostings( final String field, final Object index )
+  {
+    final FieldStorage fs = storage.get( field );
+    return ( fs == null ) ? null : fs.get( index );
+  }
+
+  /**
+   * Return the postings stored for the specified combination of values in
+   * the index for the specified fields.
+   *
+   * @see #add( String[], List, PrevalentObject )
+   * @param fields The array of field names that are indexed.
+   * @param values The values of the fields, in the same order as the fields.
+   * @return The postings, or <code>null</code> if no objects are indexed
+   *   with the specified values.
+   */
+  Postings getPostings( final String[] fields, final List<Object> values )
+  {
+    return getPostings( getFieldName( fields ), values );
+  }
+
+  /**
+   * Return the object ids of the prevalent objects whose indexed values
+   * fall within the specified range.  The object ids are returned in the
+   * order of the indexed values.  Objects whose indexed value is <code>null
+   * </code> are never returned.
+   *
+   * <p><b>Note:</b> The field must have been indexed as ordered.</p>
+   *
+   * @see #isOrdered
+   * @param field The name of the field that was indexed in the prevalent
+   *   object.
+   * @param low The lower bound for the indexed values.  Specify
+   *   <code>null</code> for no lower bound.
+   * @param lowInclusive Flag indicating whether the lower bound is inclusive.
+   * @param high The upper bound for the indexed values.  Specify
+   *   <code>null</code> for no upper bound.
+   * @param highInclusive Flag indicating whether the upper bound is
+   *   inclusive.
+   * @param descending Flag indicating whether the objects are to be
+   *   returned in descending order of the indexed values.
+   * @return The collection of object ids of the matching prevalent objects.
+   * @throws ClassCastException If the bounds are not comparable with the
+   *   indexed values.
+   */
+  public Collection<Object> get( final String field,
+      final Object low, final boolean lowInclusive, final Object high,
+      final boolean highInclusive, final boolean descending )
+  {
+    return get( field, low, lowInclusive, high, highInclusive, descending, 0 );
+  }
+
+  /**
+   * Return at most <code>limit</code> object ids of the prevalent objects
+   * whose indexed values fall within the specified range.  The range is
+   * walked in order and the walk stops once the limit has been reached.
+   *
+   * @see #get( String, Object, boolean, Object, boolean, boolean )
+   * @param field The name of the field that was indexed in the prevalent
+   *   object.
+   * @param low The lower bound for the indexed values.  Specify
+   *   <code>null</code> for no lower bound.
+   * @param lowInclusive Flag indicating whether the lower bound is inclusive.
+   * @param high The upper bound for the indexed values.  Specify
+   *   <code>null</code> for no upper bound.
+   * @param highInclusive Flag indicating whether the upper bound is
+   *   inclusive.
+   * @param descending Flag indicating whether the objects are to be
+   *   returned in descending order of the indexed values.
+   * @param limit The maximum number of object ids to return.  Specify a
+   *   value less than <code>1</code> for no limit.
+   * @return The collection of object ids of the matching prevalent objects.
+   * @throws ClassCastException If the bounds are not comparable with the
+   *   indexed values.
    */
-  public Collection<IndexedObject> get( final String field,
-      final Object index )
+  public Collection<Object> get( final String field,
+      final Object low, final boolean lowInclusive, final Object high,
+      final boolean highInclusive, final boolean descending, final int limit )
   {
-    final Collection<IndexedObject> collection =
-        new LinkedHashSet<IndexedObject>();
+    final Collection<Object> collection = new LinkedHashSet<Object>();
     final FieldStorage fs = storage.get( field );
 
-    if ( fs != null )
+    if ( ( fs != null ) && fs.ordered )
     {
-      final Collection<IndexedObject> coll = fs.get( index );
-      if ( coll != null ) collection.addAll( coll );
+      range:
+      for ( Postings postings : fs.get(
+          low, lowInclusive, high, highInclusive, descending ) )
+      {
+        for ( Object oid : postings )
+        {
+          if ( ( limit > 0 ) && ( collection.size() >= limit ) ) break range;
+          collection.add( oid );
+        }
+      }
     }
 
     return collection;
   }
 
+  /**
+   * Return the object ids of the prevalent objects whose indexed string
+   * values start with the specified prefix.  The object ids are returned
+   * in the order of the indexed values.
+   *
+   * <p><b>Note:</b> The field must have been indexed as ordered (or
+   * prefix).</p>
+   *
+   * @see #isOrdered
+   * @param field The name of the field that was indexed in the prevalent
+   *   object.
+   * @param prefix The prefix that the indexed values must start with.
+   * @param limit The maximum number of object ids to return.  Specify a
+   *   value less than <code>1</code> for no limit.
+   * @return The list of object ids of the matching prevalent objects.
+   * @throws ClassCastException If the indexed values are not strings.
+   */
+  public List<Object> get( final String field, final String prefix,
+      final int limit )
+  {
+    final List<Object> list = new ArrayList<Object>();
+    final FieldStorage fs = storage.get( field );
+
+    if ( ( fs != null ) && fs.ordered ) fs.get( prefix, limit, list );
+    return list;
+  }
+
+  /**
+   * Return the object ids of up to <code>limit</code> objects from the
+   * specified object ids, ordered by their indexed values for the specified
+   * ordered field.  The indexed value of each object id is looked up from
+   * the reverse map maintained by the field store, and a bounded heap of
+   * <code>limit</code> entries is used to select the top object ids.  If
+   * no object ids are specified, the ordered index is walked directly.
+   * Objects whose indexed value is <code>null</code> are never returned.
+   *
+   * <p><b>Note:</b> The field must have been indexed as ordered.</p>
+   *
+   * @see #isOrdered
+   * @param field The name of the ordered field used to sort the objects.
+   * @param oids The object ids from which the top objects are selected, or
+   *   <code>null</code> to select from all the indexed objects.
+   * @param descending Flag indicating whether the object ids are to be
+   *   returned in descending order of the indexed values.
+   * @param limit The maximum number of object ids to return.
+   * @return The list of object ids in the order of the indexed values.
+   * @throws ClassCastException If the indexed values are not mutually
+   *   comparable.
+   */
+  public List<Object> top( final String field, final Collection<Object> oids,
+      final boolean descending, final int limit )
+  {
+    final FieldStorage fs = storage.get( field );
+    if ( ( fs == null ) || ! fs.ordered || ( limit < 1 ) )
+    {
+      return new ArrayList<Object>();
+    }
+
+    if ( oids == null )
+    {
+      final List<Object> list = new ArrayList<Object>( limit );
+
+      for ( Postings postings : fs.get( null, false, null, false, descending ) )
+      {
+        for ( Object oid : postings )
+        {
+          if ( list.size() == limit ) return list;
+          list.add( oid );
+        }
+      }
+
+      return list;
+    }
+
+    return fs.top( oids, descending, limit );
+  }
+
+  /**
+   * Determine whether the index for the specified field is maintained in
+   * the natural order of the indexed values.
+   *
+   * @param field The name of the field that is to be checked.
+   * @return Returns <code>true</code> if the field has an ordered index.
+   */
+  public boolean isOrdered( final String field )
+  {
+    final FieldStorage fieldStorage = storage.get( field );
+    return ( fieldStorage != null ) && fieldStorage.ordered;
+  }
+
+  /**
+   * Determine whether the index for the specified field (normalised name
+   * of the fields) stores each combination of values as a single tuple
+   * key.  Class level indices stored before tuple keys were introduced
+   * hold one entry per member value, and cannot be probed for a
+   * combination of values until they are rebuilt.
+   *
+   * @see #add( String[], List, PrevalentObject )
+   * @param field The normalised name of the fields that are indexed.
+   * @return Returns <code>true</code> if the index stores tuple keys.
+   */
+  public boolean isComposite( final String field )
+  {
+    final FieldStorage fieldStorage = storage.get( field );
+    return ( fieldStorage != null ) && fieldStorage.composite;
+  }
+
   /**
    * Determines when the specified index exists in the store.
    *
    * @see IndexStorage.FieldStorage#isIndexed
    * @param fields The array of field names that are indexed.
-   * @param values The collection of values for the fields that are to be
-   *   checked for existence in the store.
+   * @param values The list of values for the fields (in the same order as
+   *   the fields) that are to be checked for existence in the store.
    * @return Returns <code>true</code> if the values are indexed in the
    *   store.
    */
-  public boolean isIndexed( final String[] fields, final Object values )
+  public boolean isIndexed( final String[] fields, final List<Object> values )
   {
     final FieldStorage fieldStorage = storage.get( getFieldName( fields ) );
     return ( fieldStorage != null ) && fieldStorage.isIndexed( values );
@@ -195,6 +478,104 @@ public class IndexStorage implements Serializable
     return storage.containsKey( field );
   }
 
+  /**
+   * Return the names of the fields (including the normalised names of
+   * composite fields) that are indexed in the store.
+   *
+   * @return The read-only collection of indexed field names.
+   */
+  public Collection<String> getFields()
+  {
+    return Collections.unmodifiableCollection( storage.keySet() );
+  }
+
+  /**
+   * Return the statistics for the index on the specified field.
+   *
+   * @see IndexStorage.FieldStorage#getStatistics
+   * @param field The name of the field (or normalised name of the fields)
+   *   whose index statistics are to be returned.
+   * @return The statistics or <code>null</code> if the field is not
+   *   indexed.
+   */
+  public IndexStatistics getStatistics( final String field )
+  {
+    final FieldStorage fieldStorage = storage.get( field );
+    return ( fieldStorage == null ) ? null : fieldStorage.getStatistics( field );
+  }
+
+  /**
+   * Return the statistics for all the indices in the store.
+   *
+   * @return The collection of index statistics in index creation order.
+   */
+  public Collection<IndexStatistics> getStatistics()
+  {
+    final Collection<IndexStatistics> statistics =
+        new ArrayList<IndexStatistics>( storage.size() );
+
+    for ( Map.Entry<String,FieldStorage> entry : storage.entrySet() )
+    {
+      statistics.add( entry.getValue().getStatistics( entry.getKey() ) );
+    }
+
+    return statistics;
+  }
+
+  /**
+   * Return the indexed values of the specified field that are shared by
+   * more than one prevalent object.  This is used to check unique
+   * constraints for indices built for existing objects.
+   *
+   * @param field The name of the field (or normalised name of the fields)
+   *   whose index is to be checked.
+   * @return The duplicated values.  A <code>null</code> value is returned
+   *   as <code>null</code>.
+   */
+  public Collection<Object> getDuplicates( final String field )
+  {
+    final Collection<Object> duplicates = new ArrayList<Object>();
+    final FieldStorage fieldStorage = storage.get( field );
+    if ( fieldStorage == null ) return duplicates;
+
+    for ( Map.Entry<Object,Postings> entry : fieldStorage.fieldMap.entrySet() )
+    {
+      if ( entry.getValue().size() < 2 ) continue;
+      duplicates.add(
+          NULL_VALUE.equals( entry.getKey() ) ? null : entry.getKey() );
+    }
+
+    return duplicates;
+  }
+
+  /**
+   * Return the average number of object ids stored under a key in the
+   * index on the specified field.  This is maintained as the index is
+   * modified and is cheap to compute, hence may be used to estimate the
+   * selectivity of an equality lookup.
+   *
+   * @param field The name of the field whose index is to be checked.
+   * @return The average posting length.  Returns <code>0</code> if the
+   *   field is not indexed.
+   */
+  public double getAveragePostings( final String field )
+  {
+    final FieldStorage fieldStorage = storage.get( field );
+    if ( ( fieldStorage == null ) || fieldStorage.fieldMap.isEmpty() ) return 0;
+
+    return ( (double) fieldStorage.getTotal() ) / fieldStorage.fieldMap.size();
+  }
+
+  /**
+   * Remove the entire index for the specified field from the store.
+   *
+   * @param field The name of the field whose index is to be removed.
+   */
+  public void drop( final String field )
+  {
+    storage.remove( field );
+  }
+
   /**
    * Return the name used to represent the specified array of field names.
    *
@@ -223,18 +604,78 @@ public class IndexStorage implements Serializable
     /**
      * The map used to maintain the indexed values and the prevalent objects
      * that match the indexed values.  The <code>key</code> for the map are
-     * the indexed field(s) value(s) and the <code>value</code> is a
-     * collection that contains the prevalent object instances that match
-     * the index.  If the index is unique the collection will have only
-     * one instance in it.
+     * the indexed field(s) value(s) and the <code>value</code> is the
+     * {@link Postings} that contains the object ids of the prevalent
+     * objects that match the index.  If the index is unique the postings
+     * will have only one object id in it.
      *
      * <p><b>Note:</b> The indexed values are not stored directly since that
-     * will drastically increate memory requirements for the system.  The
-     * values stored are instances of {@link IndexedObject} from which the
-     * indexed object instance may be retrieved.</p>
+     * will drastically increate memory requirements for the system.  Since
+     * the index storage is maintained per prevalent class, only the object
+     * ids of the indexed objects are stored.</p>
+     */
+    private final Map<Object,Postings> fieldMap;
+
+    /**
+     * A flag used to indicate that {@link #fieldMap} is sorted by the
+     * natural order of the indexed values.
+     */
+    private final boolean ordered;
+
+    /**
+     * A flag used to indicate that the keys in {@link #fieldMap} are tuples
+     * of the values of the members of a class level index.  Stores
+     * serialised before the flag was introduced restore it as
+     * <code>false</code>.
+     */
+    private final boolean composite;
+
+    /**
+     * A reverse map used to maintain the index keys under which each
+     * prevalent object is stored in {@link #fieldMap}.  The <code>key
+     * </code> for the map is the object id of the prevalent object.  This
+     * allows an object to be removed from the store without visiting
+     * every key.  The map is not serialised and is rebuilt on demand from
+     * {@link #fieldMap} when the store is restored.
      */
-    private final Map<Object,Collection<IndexedObject>> fieldMap =
-      new LinkedHashMap<Object,Collection<IndexedObject>>();
+    private transient Map<Object,Collection<Object>> keyMap;
+
+    /**
+     * The total number of object ids stored in {@link #fieldMap}.  This is
+     * maintained as entries are added and removed once {@link #counted}.
+     * The value is not serialised and is recomputed on demand when the
+     * store is restored.
+     */
+    private transient long total;
+
+    /** A flag used to indicate that {@link #total} has been computed. */
+    private transient boolean counted;
+
+    /**
+     * Create a new store.
+     *
+     * @param ordered The {@link #ordered} value to use.
+     */
+    private FieldStorage( final boolean ordered )
+    {
+      this( ordered, false );
+    }
+
+    /**
+     * Create a new store.
+     *
+     * @param ordered The {@link #ordered} value to use.
+     * @param composite The {@link #composite} value to use.
+     */
+    private FieldStorage( final boolean ordered, final boolean composite )
+    {
+      this.ordered = ordered;
+      this.composite = composite;
+      this.fieldMap = ( ordered ) ?
+          new TreeMap<Object,Postings>( new KeyComparator() ) :
+          new LinkedHashMap<Object,Postings>();
+      this.counted = true;
+    }
 
     /**
      * Add the specified index and corresponding prevalent object to the
@@ -246,74 +687,410 @@ public class IndexStorage implements Serializable
     private void add( final Object index, final PrevalentObject object )
     {
       final Object key = ( index == null ) ? NULL_VALUE : index;
+      addEntry( key, object.getObjectId() );
 
-      if ( ! fieldMap.containsKey( key ) )
+      final Map<Object,Collection<Object>> keys = getKeyMap();
+      Collection<Object> collection = keys.get( object.getObjectId() );
+
+      if ( collection == null )
       {
-        Collection<IndexedObject> collection =
-          new LinkedHashSet<IndexedObject>();
-        fieldMap.put( key, collection );
+        collection = new ArrayList<Object>( 1 );
+        keys.put( object.getObjectId(), collection );
       }
 
-      fieldMap.get( key ).add(
-          new IndexedObject( object.getClass(), object.getObjectId() ) );
+      if ( ! collection.contains( key ) ) collection.add( key );
     }
 
+    /**
+     * Remove the index entry for the specified prevalent object under the
+     * specified index key.
+     *
+     * @param key The index key from which the object is to be removed.
+     * @param object The prevalent object to remove.
+     */
     private void remove( final Object key, final PrevalentObject object )
     {
       final Object index = ( key == null ) ? NULL_VALUE : key;
-      final Collection<IndexedObject> collection = fieldMap.get( index );
+      removeEntry( index, object.getObjectId() );
+
+      final Map<Object,Collection<Object>> keys = getKeyMap();
+      final Collection<Object> collection = keys.get( object.getObjectId() );
 
       if ( collection != null )
       {
-        collection.remove(
-            new IndexedObject( object.getClass(), object.getObjectId() ) );
-
-        if ( collection.isEmpty() ) { fieldMap.remove( index ); }
+        collection.remove( index );
+        if ( collection.isEmpty() ) keys.remove( object.getObjectId() );
       }
     }
 
     /**
-     * Remove the specified prevalent object from the store.
+     * Remove the specified prevalent object from the store.  Only the keys
+     * under which the object is indexed (as recorded in {@link #keyMap})
+     * are visited.
      *
      * @param object The prevalent object to remove from the store.
      */
     private void remove( final PrevalentObject object )
     {
-      final LinkedHashSet<Object> remove = new LinkedHashSet<Object>();
+      final Collection<Object> keys =
+          getKeyMap().remove( object.getObjectId() );
+      if ( keys == null ) return;
+
+      for ( Object key : keys )
+      {
+        removeEntry( key, object.getObjectId() );
+      }
+    }
+
+    /**
+     * Add the specified object id to the postings stored under the
+     * specified key in {@link #fieldMap}.
+     *
+     * @param key The index key under which the object id is to be added.
+     * @param oid The object id to add.
+     */
+    private void addEntry( final Object key, final Object oid )
+    {
+      final Postings postings = fieldMap.get( key );
+
+      if ( postings == null )
+      {
+        fieldMap.put( key, Postings.create( oid ).insert( oid ) );
+        ++total;
+      }
+      else
+      {
+        final int size = postings.size();
+        final Postings updated = postings.insert( oid );
+        if ( updated != postings ) fieldMap.put( key, updated );
+        total += updated.size() - size;
+      }
+    }
+
+    /**
+     * Remove the specified object id from the postings stored under the
+     * specified key in {@link #fieldMap}.  The key is removed if the
+     * postings become empty.
+     *
+     * @param key The index key from which the object id is to be removed.
+     * @param oid The object id to remove.
+     */
+    private void removeEntry( final Object key, final Object oid )
+    {
+      final Postings postings = fieldMap.get( key );
+
+      if ( postings != null )
+      {
+        if ( postings.delete( oid ) ) --total;
+        if ( postings.isEmpty() ) { fieldMap.remove( key ); }
+      }
+    }
+
+    /**
+     * Return the {@link #total} number of object ids in the store.  The
+     * total is computed from {@link #fieldMap} if necessary.
+     *
+     * @return The total number of object ids.
+     */
+    private long getTotal()
+    {
+      if ( ! counted )
+      {
+        total = 0;
+        for ( Postings postings : fieldMap.values() )
+        {
+          total += postings.size();
+        }
+
+        counted = true;
+      }
+
+      return total;
+    }
+
+    /**
+     * Return the statistics for the store.  The maximum posting length is
+     * computed by visiting each key.  For ordered stores an equi-depth
+     * histogram of {@link IndexStorage#HISTOGRAM_BUCKETS} buckets is
+     * computed in the same pass, with each bucket closed once it holds
+     * approximately an equal share of the object ids.
+     *
+     * @param name The name of the index.
+     * @return The statistics for the store.
+     */
+    private IndexStatistics getStatistics( final String name )
+    {
+      final long count = getTotal();
+      final long depth = Math.max( 1, count / HISTOGRAM_BUCKETS );
+      final List<IndexStatistics.Bucket> histogram =
+          new ArrayList<IndexStatistics.Bucket>();
+
+      int max = 0;
+      Object low = null;
+      Object high = null;
+      int keys = 0;
+      long postings = 0;
+
+      for ( Map.Entry<Object,Postings> entry : fieldMap.entrySet() )
+      {
+        final int size = entry.getValue().size();
+        max = Math.max( max, size );
+        if ( ! ordered ) continue;
+
+        final Object key =
+            NULL_VALUE.equals( entry.getKey() ) ? null : entry.getKey();
+        if ( keys == 0 ) low = key;
+        high = key;
+        ++keys;
+        postings += size;
+
+        if ( postings >= depth )
+        {
+          histogram.add( new IndexStatistics.Bucket( low, high, keys, postings ) );
+          keys = 0;
+          postings = 0;
+        }
+      }
+
+      if ( keys > 0 )
+      {
+        histogram.add( new IndexStatistics.Bucket( low, high, keys, postings ) );
+      }
+
+      return new IndexStatistics( name, ordered, fieldMap.size(), count, max,
+          histogram );
+    }
+
+    /**
+     * Select the top object ids from the specified object ids by their
+     * keys.  A heap bounded to <code>limit</code> entries is maintained with
+     * the entry that would be evicted next at the head, hence the cost is
+     * proportional to the number of object ids and the logarithm of the
+     * limit.
+     *
+     * @param oids The object ids from which the top objects are selected.
+     * @param descending Flag indicating whether the largest keys are
+     *   selected.
+     * @param limit The maximum number of object ids to select.
+     * @return The selected object ids in key order.
+     */
+    private List<Object> top( final Collection<Object> oids,
+        final boolean descending, final int limit )
+    {
+      final Comparator<Object> comparator =
+          ( (NavigableMap<Object,Postings>) fieldMap ).comparator();
+      final Comparator<Object[]> order = new Comparator<Object[]>()
+      {
+        public int compare( final Object[] first, final Object[] second )
+        {
+          final int result = comparator.compare( first[0], second[0] );
+          return ( descending ) ? -result : result;
+        }
+      };
+
+      final PriorityQueue<Object[]> heap = new PriorityQueue<Object[]>(
+          limit + 1, Collections.reverseOrder( order ) );
+      final Map<Object,Collection<Object>> keys = getKeyMap();
 
-      for ( Map.Entry<Object,Collection<IndexedObject>> entry :
-          fieldMap.entrySet() )
+      for ( Object oid : oids )
       {
-        final Collection<IndexedObject> collection = entry.getValue();
-        collection.remove(
-            new IndexedObject( object.getClass(), object.getObjectId() ) );
+        final Collection<Object> collection = keys.get( oid );
+        if ( collection == null ) continue;
 
-        if ( collection.isEmpty() )
+        for ( Object key : collection )
         {
-          remove.add( entry.getKey() );
+          if ( NULL_VALUE.equals( key ) ) continue;
+
+          final Object[] entry = new Object[] { key, oid };
+          if ( heap.size() < limit )
+          {
+            heap.add( entry );
+          }
+          else if ( order.compare( entry, heap.peek() ) < 0 )
+          {
+            heap.poll();
+            heap.add( entry );
+          }
+
+          break;
         }
       }
 
-      for ( Object key : remove )
+      final Object[] array = new Object[heap.size()];
+      for ( int i = array.length - 1; i >= 0; --i )
       {
-        fieldMap.remove( key );
+        array[i] = heap.poll()[1];
+      }
+
+      return Arrays.asList( array );
+    }
+
+    /**
+     * Return the {@link #keyMap}.  The map is built from {@link #fieldMap}
+     * if it has not been initialised, which is the case when the store
+     * has been restored from a snapshot.
+     *
+     * @return The reverse map of object ids to index keys.
+     */
+    private Map<Object,Collection<Object>> getKeyMap()
+    {
+      if ( keyMap == null )
+      {
+        keyMap = new HashMap<Object,Collection<Object>>();
+
+        for ( Map.Entry<Object,Postings> entry : fieldMap.entrySet() )
+        {
+          for ( Object oid : entry.getValue() )
+          {
+            Collection<Object> collection = keyMap.get( oid );
+
+            if ( collection == null )
+            {
+              collection = new ArrayList<Object>( 1 );
+              keyMap.put( oid, collection );
+            }
+
+            collection.add( entry.getKey() );
+          }
+        }
       }
+
+      return keyMap;
     }
 
     /**
-     * Return the objects stored in {@link #fieldMap} for the specified
+     * Return the postings stored in {@link #fieldMap} for the specified
      * index <code>key</code>.
      *
      * @param index The index whose matching values are to be returned.
-     * @return The collection of indexed objects matching the specified
-     *   index.
+     * @return The postings of object ids matching the specified index.
      */
-    private Collection<IndexedObject> get( final Object index )
+    private Postings get( final Object index )
     {
       final Object key = ( index == null ) ? NULL_VALUE : index;
       return fieldMap.get( key );
     }
 
+    /**
+     * Restore the store from a serialised stream.  Stores serialised
+     * before the introduction of {@link Postings} maintained a set of
+     * {@link IndexedObject} instances for each key, which are converted
+     * to postings.
+     *
+     * @param in The stream from which the store is read.
+     * @throws IOException If errors are encountered while reading.
+     * @throws ClassNotFoundException If the classes of the stored values
+     *   cannot be loaded.
+     */
+    @SuppressWarnings( {"unchecked"} )
+    private void readObject( final ObjectInputStream in )
+        throws IOException, ClassNotFoundException
+    {
+      in.defaultReadObject();
+
+      final Iterator<Map.Entry<Object,Object>> iterator =
+          ( (Map<Object,Object>) (Map) fieldMap ).entrySet().iterator();
+      while ( iterator.hasNext() )
+      {
+        final Map.Entry<Object,Object> entry = iterator.next();
+        if ( entry.getValue() instanceof Postings ) continue;
+
+        Postings postings = null;
+        for ( IndexedObject io : (Collection<IndexedObject>) entry.getValue() )
+        {
+          postings = ( postings == null ) ?
+              Postings.create( io.objectId ).insert( io.objectId ) :
+              postings.insert( io.objectId );
+        }
+
+        if ( postings == null )
+        {
+          iterator.remove();
+        }
+        else
+        {
+          entry.setValue( postings );
+        }
+      }
+    }
+
+    /**
+     * Return the postings stored in {@link #fieldMap} for the index keys
+     * that fall within the specified range.  The <code>null
+     * </code> key is never included.  This may only be invoked for
+     * {@link #ordered} stores.
+     *
+     * @param low The lower bound or <code>null</code> for no lower bound.
+     * @param lowInclusive Flag indicating whether the lower bound is
+     *   inclusive.
+     * @param high The upper bound or <code>null</code> for no upper bound.
+     * @param highInclusive Flag indicating whether the upper bound is
+     *   inclusive.
+     * @param descending Flag indicating whether the postings are to be
+     *   returned in descending order of the keys.
+     * @return The postings in key order.
+     */
+    private Collection<Postings> get( final Object low,
+        final boolean lowInclusive, final Object high,
+        final boolean highInclusive, final boolean descending )
+    {
+      final NavigableMap<Object,Postings> map =
+          (NavigableMap<Object,Postings>) fieldMap;
+      NavigableMap<Object,Postings> range;
+
+      if ( low == null )
+      {
+        range = ( high == null ) ? map.tailMap( NULL_VALUE, false ) :
+            map.subMap( NULL_VALUE, false, high, highInclusive );
+      }
+      else if ( high == null )
+      {
+        range = map.tailMap( low, lowInclusive );
+      }
+      else if ( map.comparator().compare( low, high ) > 0 )
+      {
+        return Collections.emptyList();
+      }
+      else
+      {
+        range = map.subMap( low, lowInclusive, high, highInclusive );
+      }
+
+      if ( descending ) range = range.descendingMap();
+      return range.values();
+    }
+
+    /**
+     * Add the object ids stored in {@link #fieldMap} for the string keys
+     * that start with the specified prefix to the list.  Since the keys are
+     * sorted, the matching keys are contiguous and start at the prefix
+     * itself, hence only the matching keys are visited.  This may only be
+     * invoked for {@link #ordered} stores.
+     *
+     * @param prefix The prefix that the keys must start with.
+     * @param limit The maximum number of object ids in the list.  Values
+     *   less than <code>1</code> indicate no limit.
+     * @param list The list to which the object ids are added in key order.
+     */
+    private void get( final String prefix, final int limit,
+        final List<Object> list )
+    {
+      final NavigableMap<Object,Postings> map =
+          (NavigableMap<Object,Postings>) fieldMap;
+
+      for ( Map.Entry<Object,Postings> entry :
+          map.tailMap( prefix, true ).entrySet() )
+      {
+        if ( ! ( (String) entry.getKey() ).startsWith( prefix ) ) return;
+
+        for ( Object oid : entry.getValue() )
+        {
+          if ( ( limit > 0 ) && ( list.size() == limit ) ) return;
+          list.add( oid );
+        }
+      }
+    }
+
     /**
      * Determine whether the specified value is indexed in the store.
      *
@@ -326,4 +1103,37 @@ public class IndexStorage implements Serializable
       return fieldMap.containsKey( key );
     }
   }
+
+  /**
+   * The comparator used to order the keys of ordered field stores.  Keys
+   * are compared using their natural ordering, with the {@link #NULL_VALUE}
+   * key ordered before all other keys.
+   */
+  private static class KeyComparator implements Comparator<Object>, Serializable
+  {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Compare the specified keys.
+     *
+     * @param first The first key to compare.
+     * @param second The second key to compare.
+     * @return A negative, zero or positive integer as the first key is
+     *   less than, equal to, or greater than the second.
+     * @throws ClassCastException If the keys are not mutually comparable.
+     */
+    @SuppressWarnings( {"unchecked"} )
+    public int compare( final Object first, final Object second )
+    {
+      final boolean firstNull = NULL_VALUE.equals( first );
+      final boolean secondNull = NULL_VALUE.equals( second );
+
+      if ( firstNull || secondNull )
+      {
+        return ( firstNull == secondNull ) ? 0 : ( ( firstNull ) ? -1 : 1 );
+      }
+
+      return ( (Comparable) first ).compareTo( second );
+    }
+  }
 }
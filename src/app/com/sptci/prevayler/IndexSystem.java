@@ -1,12 +1,19 @@
 package com.sptci.prevayler;
 
-import com.sptci.ReflectionUtility;
 import com.sptci.prevayler.annotations.Index;
-import com.sptci.prevayler.annotations.Indices;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Abstracts all index management operations for the prevalent system.
@@ -19,11 +26,21 @@ abstract class IndexSystem extends StorageSystem
 {
   private static final long serialVersionUID = 1L;
 
+  /**
+   * The map of class names to the names of the indices that are being
+   * built for the existing objects of the class.  Queries on these indices
+   * fall back to scanning the primary storage until the build completes.
+   * Created lazily for compatibility with snapshots taken before indices
+   * were built in the background.
+   *
+   * @see IndexBuilder
+   */
+  private Map<String,Collection<String>> pendingIndices;
+
   /**
    * Check all unique constraints (including object id) for the specified
    * prevalent object.
    *
-   * @see #checkIndices
    * @see #checkIndex
    * @see #checkFields
    * @param object The prevalent object to check.
@@ -33,6 +50,27 @@ abstract class IndexSystem extends StorageSystem
    */
   protected void checkUnique( final PrevalentObject object )
     throws PrevalentException
+  {
+    checkObjectId( object );
+
+    for ( Index index : getClassIndices( object.getClass() ) )
+    {
+      checkIndex( index, object );
+    }
+
+    checkFields( object );
+  }
+
+  /**
+   * Check the unique constraint on the object id of the specified prevalent
+   * object.
+   *
+   * @param object The prevalent object to check.
+   * @throws ConstraintException If an object with the same object id is
+   *   already stored in the system.
+   */
+  protected void checkObjectId( final PrevalentObject object )
+    throws ConstraintException
   {
     if ( object.getObjectId() != null )
     {
@@ -43,35 +81,73 @@ abstract class IndexSystem extends StorageSystem
         throw new ConstraintException( object );
       }
     }
-
-    checkIndices( object );
-    final Index index = object.getClass().getAnnotation( Index.class );
-    if ( index != null ) checkIndex( index, object );
-    checkFields( object );
   }
 
   /**
-   * Check the {@link com.sptci.prevayler.annotations.Indices} annotations
-   * on the specified prevalent object and check unique constraints.
+   * Check all unique constraints for a collection of prevalent objects of
+   * the same type that have been stored without being indexed.  This is
+   * used to validate bulk loaded objects in a single pass over the objects.
+   * The values are checked against the existing indices as well as against
+   * the values of the other objects in the collection.
    *
-   * @see #checkIndex
-   * @param object The prevalent object to check.
-   * @throws com.sptci.prevayler.ConstraintException If a unique constraint is
-   *   violated.
-   * @throws com.sptci.prevayler.PrevalentException If exceptions are
-   *   encountered while processing the fields of the prevalent object.
+   * @see #checkUnique( PrevalentObject )
+   * @param cls The type of the prevalent objects.
+   * @param objects The prevalent objects to check.
+   * @throws ConstraintException If unique constraints are violated.
+   * @throws PrevalentException If errors are encountered while processing
+   *   the fields of the prevalent objects.
    */
-  private void checkIndices( final PrevalentObject object )
-    throws PrevalentException
+  @SuppressWarnings( {"unchecked"} )
+  protected void checkUnique( final Class cls,
+      final Collection<PrevalentObject> objects ) throws PrevalentException
   {
-    final Indices indices = object.getClass().getAnnotation( Indices.class );
+    final IndexStorage indexStorage = getIndexStorage( cls );
 
-    if ( indices != null )
+    try
     {
-      for ( Index index : indices.value() )
+      for ( Index index : getClassIndices( cls ) )
       {
-        checkIndex( index, object );
+        if ( ! index.unique() ) continue;
+
+        final Collection<Object> values = new HashSet<Object>( objects.size() );
+        for ( PrevalentObject object : objects )
+        {
+          final List<Object> collection = getCompositeKey( index, object );
+
+          if ( ! values.add( collection ) ||
+              indexStorage.isIndexed( index.members(), collection ) )
+          {
+            throw new ConstraintException( object,
+                indexStorage.getFieldName( index.members() ).replace( "#", "," ) );
+          }
+        }
       }
+
+      for ( Map.Entry<FieldAccessor,Index> entry :
+          ClassDescriptor.forClass( cls ).getIndexedFields().entrySet() )
+      {
+        if ( ! entry.getValue().unique() ) continue;
+
+        final FieldAccessor field = entry.getKey();
+        final Collection<Object> values = new HashSet<Object>( objects.size() );
+        for ( PrevalentObject object : objects )
+        {
+          final Object value = field.get( object );
+          if ( ! values.add( value ) ||
+              indexStorage.isIndexed( field.getName(), value ) )
+          {
+            throw new ConstraintException( object, field.getName() );
+          }
+        }
+      }
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException( t );
     }
   }
 
@@ -93,27 +169,12 @@ abstract class IndexSystem extends StorageSystem
 
     if ( index.unique() )
     {
-      final StringBuilder builder = new StringBuilder( 64 );
-      final Collection collection = new LinkedHashSet( index.members().length );
-
-      for ( String name : index.members() )
-      {
-        builder.append( name ).append( "#" );
-
-        try
-        {
-          collection.add( ReflectionUtility.fetchObject( name, object ) );
-        }
-        catch ( Throwable t )
-        {
-          throw new PrevalentException( t );
-        }
-      }
+      final List<Object> collection = getCompositeKey( index, object );
 
       if ( indexStorage.isIndexed( index.members(), collection ) )
       {
         throw new ConstraintException( object,
-            builder.toString().replace( "#", "," ) );
+            indexStorage.getFieldName( index.members() ).replace( "#", "," ) );
       }
     }
   }
@@ -134,29 +195,17 @@ abstract class IndexSystem extends StorageSystem
   {
     final IndexStorage indexStorage = getIndexStorage( object.getClass() );
 
-    for ( Field field : ReflectionUtility.fetchFields( object ).values() )
+    for ( Map.Entry<FieldAccessor,Index> entry :
+        ClassDescriptor.forObject( object ).getIndexedFields().entrySet() )
     {
-      final Index index = field.getAnnotation( Index.class );
-      if ( index != null )
+      if ( entry.getValue().unique() )
       {
-        if ( index.unique() )
-        {
-          Object value;
+        final FieldAccessor field = entry.getKey();
+        final Object value = field.get( object );
 
-          try
-          {
-            value =
-                ReflectionUtility.fetchObject( field.getName(), object );
-          }
-          catch ( Throwable t )
-          {
-            throw new PrevalentException( t );
-          }
-
-          if ( indexStorage.isIndexed( field.getName(), value ) )
-          {
-            throw new ConstraintException( object, field.getName() );
-          }
+        if ( indexStorage.isIndexed( field.getName(), value ) )
+        {
+          throw new ConstraintException( object, field.getName() );
         }
       }
     }
@@ -194,62 +243,99 @@ abstract class IndexSystem extends StorageSystem
 
     try
     {
-      for ( Field field : ReflectionUtility.fetchFields( object ).values() )
+      for ( Map.Entry<FieldAccessor,Index> entry :
+          ClassDescriptor.forObject( object ).getIndexedFields().entrySet() )
       {
-        final Index index = field.getAnnotation( Index.class );
-
-        if ( index != null )
-        {
-          final Object value = field.get( object );
-          indexStorage.add( field.getName(), value, object );
-        }
+        final FieldAccessor field = entry.getKey();
+        final Index index = entry.getValue();
+        indexStorage.add( field.getName(), field.get( object ), object,
+            index.ordered() || index.prefix() );
       }
     }
     catch ( Throwable t )
     {
       throw new PrevalentException( t );
     }
+
+    indexMetaData( object, indexStorage, getMetaDataIndices() );
   }
 
   /**
-   * Process the index annotations on the prevalent object and manage the
-   * {@link StorageSystem#indexMap} as appropriate.
+   * Return the names of the built-in indices on the {@link MetaData} of
+   * prevalent objects.
    *
-   * @see #processIndices
-   * @see #processIndex
-   * @param object The prevalent object to process.
-   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
-   *   while processing the field values of the prevalent object.
+   * @see IndexStorage#CREATED_INDEX
+   * @see IndexStorage#MODIFIED_INDEX
+   * @return The names of the built-in indices.
    */
-  protected void indexClass( final PrevalentObject object )
-    throws PrevalentException
+  protected Collection<String> getMetaDataIndices()
   {
-    processIndices( object );
+    return Arrays.asList(
+        IndexStorage.CREATED_INDEX, IndexStorage.MODIFIED_INDEX );
+  }
+
+  /**
+   * Add the specified built-in indices on the {@link MetaData} of the
+   * specified prevalent object to the specified index storage.
+   *
+   * @param object The prevalent object to index.
+   * @param indexStorage The index storage to which the indices are added.
+   * @param names The names of the indices to add.  Names other than those
+   *   of the built-in indices are ignored.
+   */
+  private void indexMetaData( final PrevalentObject object,
+      final IndexStorage indexStorage, final Collection<String> names )
+  {
+    final MetaData metaData = object.get_sptodbMetaData();
+    if ( metaData == null ) return;
+
+    if ( names.contains( IndexStorage.CREATED_INDEX ) )
+    {
+      indexStorage.add(
+          IndexStorage.CREATED_INDEX, metaData.created, object, true );
+    }
 
-    final Index index = object.getClass().getAnnotation( Index.class );
-    if ( index != null ) processIndex( index, object );
+    if ( names.contains( IndexStorage.MODIFIED_INDEX ) )
+    {
+      indexStorage.add(
+          IndexStorage.MODIFIED_INDEX, metaData.modified, object, true );
+    }
   }
 
   /**
-   * Process the {@link com.sptci.prevayler.annotations.Indices} annotation
-   * and manage the {@link StorageSystem#indexMap} as appropriate.
+   * Set the time at which the specified stored prevalent object was last
+   * saved, and move the object to the new time in the built-in index on
+   * the modified time.
+   *
+   * @see IndexStorage#MODIFIED_INDEX
+   * @param object The stored prevalent object that was saved.
+   * @param time The time at which the object was saved.
+   */
+  protected void setModified( final PrevalentObject object, final long time )
+  {
+    final MetaData metaData = object.get_sptodbMetaData();
+    final IndexStorage indexStorage = getIndexStorage( object.getClass() );
+
+    indexStorage.remove( IndexStorage.MODIFIED_INDEX, metaData.modified, object );
+    metaData.modified = time;
+    indexStorage.add( IndexStorage.MODIFIED_INDEX, time, object, true );
+  }
+
+  /**
+   * Process the index annotations on the prevalent object and manage the
+   * {@link StorageSystem#indexMap} as appropriate.
    *
    * @see #processIndex
-   * @param object The prevalent object whose class level index annotations
-   *   are to be processed.
+   * @param object The prevalent object to process.
    * @throws com.sptci.prevayler.PrevalentException If errors are encountered
-   *   while processing the fields of the prevalent object.
+   *   while processing the field values of the prevalent object.
    */
-  private void processIndices( final PrevalentObject object )
+  protected void indexClass( final PrevalentObject object )
     throws PrevalentException
   {
-    final Indices indices = object.getClass().getAnnotation( Indices.class );
-    if ( indices != null )
+    for ( Index index : getClassIndices( object.getClass() ) )
     {
-      for ( Index index : indices.value() )
-      {
-        processIndex( index, object );
-      }
+      processIndex( index, object );
     }
   }
 
@@ -262,29 +348,160 @@ abstract class IndexSystem extends StorageSystem
    * @throws com.sptci.prevayler.PrevalentException If errors are encountered while processing
    *   the fields in the prevalent object.
    */
-  @SuppressWarnings( {"unchecked"} )
   private void processIndex( final Index index,
       final PrevalentObject object ) throws PrevalentException
   {
     final IndexStorage indexStorage = getIndexStorage( object.getClass() );
+    indexStorage.add( index.members(), getCompositeKey( index, object ),
+        object );
+  }
 
-    try
+  /**
+   * Return the key used to index the specified prevalent object in the
+   * class level index.  The key is the list of values of the index
+   * members, in the order in which the members are specified.
+   *
+   * @param index The class level index annotation.
+   * @param object The prevalent object whose key is to be returned.
+   * @return The list of member values.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while fetching the values of the members.
+   */
+  protected List<Object> getCompositeKey( final Index index,
+      final PrevalentObject object ) throws PrevalentException
+  {
+    final List<Object> key = new ArrayList<Object>( index.members().length );
+    final ClassDescriptor descriptor = ClassDescriptor.forObject( object );
+
+    for ( String name : index.members() )
+    {
+      key.add( descriptor.getValue( name, object ) );
+    }
+
+    return key;
+  }
+
+  /**
+   * Return the keys under which the specified prevalent object is indexed
+   * in each of the class level indices of its class.
+   *
+   * @see #getCompositeKey
+   * @param object The prevalent object whose keys are to be returned.
+   * @return The map of class level index annotations to member values.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while fetching the values of the members.
+   */
+  protected Map<Index,List<Object>> getCompositeKeys(
+      final PrevalentObject object ) throws PrevalentException
+  {
+    final Collection<Index> indices = getClassIndices( object.getClass() );
+    if ( indices.isEmpty() ) return Collections.emptyMap();
+
+    final Map<Index,List<Object>> keys =
+        new LinkedHashMap<Index,List<Object>>( indices.size() );
+    for ( Index index : indices )
     {
-      final Collection collection = new LinkedHashSet( index.members().length );
+      keys.put( index, getCompositeKey( index, object ) );
+    }
+
+    return keys;
+  }
 
-      for ( String name : index.members() )
+  /**
+   * Check the unique class level indices for an update of a stored
+   * prevalent object.  The key that the stored object will have once the
+   * specified fields are copied from <code>object</code> is checked for
+   * each index whose key changes.
+   *
+   * @see #getCompositeKeys
+   * @param object The prevalent object that is being saved.
+   * @param keys The current keys of the stored object.
+   * @param fields The fields that are copied from <code>object</code> to
+   *   the stored object.
+   * @throws com.sptci.prevayler.ConstraintException If a unique constraint
+   *   is violated.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while fetching the values of the members.
+   */
+  protected void checkCompositeKeys( final PrevalentObject object,
+      final Map<Index,List<Object>> keys,
+      final Collection<FieldAccessor> fields ) throws PrevalentException
+  {
+    if ( keys.isEmpty() ) return;
+
+    final IndexStorage indexStorage = getIndexStorage( object.getClass() );
+    final ClassDescriptor descriptor = ClassDescriptor.forObject( object );
+    final Collection<String> names = new HashSet<String>( fields.size() );
+    for ( FieldAccessor field : fields )
+    {
+      names.add( field.getName() );
+    }
+
+    for ( Map.Entry<Index,List<Object>> entry : keys.entrySet() )
+    {
+      final Index index = entry.getKey();
+      if ( ! index.unique() ) continue;
+
+      final String[] members = index.members();
+      final List<Object> key = new ArrayList<Object>( entry.getValue() );
+      for ( int i = 0; i < members.length; ++i )
       {
-        collection.add( ReflectionUtility.fetchObject( name, object ) );
+        if ( names.contains( members[i] ) )
+        {
+          key.set( i, descriptor.getValue( members[i], object ) );
+        }
       }
 
-      indexStorage.add( index.members(), collection, object );
+      if ( ! key.equals( entry.getValue() ) &&
+          indexStorage.isIndexed( members, key ) )
+      {
+        throw new ConstraintException( object,
+            indexStorage.getFieldName( members ).replace( "#", "," ) );
+      }
     }
-    catch ( Throwable t )
+  }
+
+  /**
+   * Move the specified stored prevalent object to its current keys in the
+   * class level indices whose members have been modified.
+   *
+   * @see #getCompositeKeys
+   * @param object The stored prevalent object that was updated.
+   * @param keys The keys of the object before it was updated.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while fetching the values of the members.
+   */
+  protected void updateCompositeKeys( final PrevalentObject object,
+      final Map<Index,List<Object>> keys ) throws PrevalentException
+  {
+    if ( keys.isEmpty() ) return;
+
+    final IndexStorage indexStorage = getIndexStorage( object.getClass() );
+    for ( Map.Entry<Index,List<Object>> entry : keys.entrySet() )
     {
-      throw new PrevalentException( t );
+      final Index index = entry.getKey();
+      final List<Object> key = getCompositeKey( index, object );
+      if ( key.equals( entry.getValue() ) ) continue;
+
+      indexStorage.remove( index.members(), entry.getValue(), object );
+      indexStorage.add( index.members(), key, object );
     }
   }
 
+  /**
+   * Return the class level {@link com.sptci.prevayler.annotations.Index}
+   * annotations (including those specified through {@link
+   * com.sptci.prevayler.annotations.Indices}) for the specified class.
+   *
+   * @see ClassDescriptor#getClassIndices
+   * @param cls The prevalent class whose indices are to be returned.
+   * @return The collection of class level index annotations.
+   */
+  protected Collection<Index> getClassIndices( final Class cls )
+  {
+    return ClassDescriptor.forClass( cls ).getClassIndices();
+  }
+
   /**
    * Remove the index for the specified prevalent object.  This is typically
    * called prior to deleting a prevalent object.
@@ -299,4 +516,336 @@ abstract class IndexSystem extends StorageSystem
     final IndexStorage indexStorage = getIndexStorage( object.getClass() );
     indexStorage.remove( object );
   }
+
+  /**
+   * Return the names of the indices declared through {@link
+   * com.sptci.prevayler.annotations.Index} annotations on the fields and
+   * the class (normalised composite names) of the specified prevalent
+   * class, along with the names of the built-in indices on the {@link
+   * MetaData} of the objects.
+   *
+   * @param cls The prevalent class whose index names are to be returned.
+   * @return The set of declared index names.
+   */
+  protected Collection<String> getIndexNames( final Class cls )
+  {
+    final Collection<String> names = new LinkedHashSet<String>();
+    final IndexStorage indexStorage = getIndexStorage( cls );
+
+    for ( FieldAccessor field :
+        ClassDescriptor.forClass( cls ).getIndexedFields().keySet() )
+    {
+      names.add( field.getName() );
+    }
+
+    for ( Index index : getClassIndices( cls ) )
+    {
+      names.add( indexStorage.getFieldName( index.members() ) );
+    }
+
+    names.addAll( getMetaDataIndices() );
+    return names;
+  }
+
+  /**
+   * Return the names of the indices in the index storage of the specified
+   * prevalent class that are no longer declared.  Indices maintained for
+   * reference fields and foreign keys are never considered stale.
+   *
+   * @param cls The prevalent class whose stale indices are to be returned.
+   * @return The names of the stale indices.
+   */
+  protected Collection<String> getStaleIndices( final Class cls )
+  {
+    final Collection<String> stale = new ArrayList<String>();
+    final Collection<String> names = getIndexNames( cls );
+    final ClassDescriptor descriptor = ClassDescriptor.forClass( cls );
+
+    for ( String name : getIndexStorage( cls ).getFields() )
+    {
+      if ( names.contains( name ) ) continue;
+      if ( descriptor.getForeignKeys().containsKey( name ) ) continue;
+
+      final Field field = descriptor.getField( name );
+      if ( ( field != null ) && ! Modifier.isTransient( field.getModifiers() ) &&
+          ( PrevalentObject.class.isAssignableFrom( field.getType() ) ||
+          Collection.class.isAssignableFrom( field.getType() ) ||
+          Map.class.isAssignableFrom( field.getType() ) ) )
+      {
+        continue;
+      }
+
+      stale.add( name );
+    }
+
+    return stale;
+  }
+
+  /**
+   * Return the names of the declared indices of the specified prevalent
+   * class that have not been built for the existing objects of the class.
+   * This includes indices whose build is still pending.  Objects that are
+   * {@link #getUnindexedObjectIds deliberately not indexed} are not
+   * considered existing objects.
+   *
+   * @param cls The prevalent class whose missing indices are to be
+   *   returned.
+   * @return The names of the missing indices.
+   */
+  protected Collection<String> getMissingIndices( final Class cls )
+  {
+    final Collection<String> missing = new LinkedHashSet<String>();
+    final PrimaryStorage primaryStorage = getPrimaryStorage( cls );
+    int count = primaryStorage.size();
+
+    for ( Object oid : getUnindexedObjectIds( cls.getName() ) )
+    {
+      if ( primaryStorage.get( oid ) != null ) --count;
+    }
+
+    if ( count == 0 ) return missing;
+
+    final IndexStorage indexStorage = getIndexStorage( cls );
+    for ( String name : getIndexNames( cls ) )
+    {
+      if ( ! indexStorage.isFieldIndexed( name ) ) missing.add( name );
+    }
+
+    missing.addAll( getOutdatedIndices( cls ) );
+
+    final Collection<String> pending = getPendingIndices().get( cls.getName() );
+    if ( pending != null ) missing.addAll( pending );
+
+    return missing;
+  }
+
+  /**
+   * Return the object ids of the stored objects of the specified prevalent
+   * class that are deliberately not indexed yet, such as the objects
+   * appended by an open bulk load session.  Such objects are indexed (and
+   * their constraints checked) by the operation that stored them, and
+   * must not be indexed by an {@link IndexBuilder}.
+   *
+   * @param className The fully qualified name of the prevalent class.
+   * @return The object ids.  Empty by default.
+   */
+  protected Set<Object> getUnindexedObjectIds( final String className )
+  {
+    return Collections.emptySet();
+  }
+
+  /**
+   * Return the names of the declared indices of the specified prevalent
+   * class whose index storage does not have the layout required by the
+   * declaration.  Field indices whose storage is ordered (or unordered)
+   * when the annotation specifies otherwise, and class level indices
+   * stored before their values were indexed as tuples are outdated.
+   * Outdated indices are dropped and built again by the {@link
+   * IndexBuilder}.
+   *
+   * @see IndexStorage#isOrdered
+   * @see IndexStorage#isComposite
+   * @param cls The prevalent class whose outdated indices are to be
+   *   returned.
+   * @return The names of the outdated indices.
+   */
+  protected Collection<String> getOutdatedIndices( final Class cls )
+  {
+    final Collection<String> outdated = new ArrayList<String>();
+    final IndexStorage indexStorage = getIndexStorage( cls );
+
+    for ( Map.Entry<FieldAccessor,Index> entry :
+        ClassDescriptor.forClass( cls ).getIndexedFields().entrySet() )
+    {
+      final String name = entry.getKey().getName();
+      final Index index = entry.getValue();
+      if ( indexStorage.isFieldIndexed( name ) &&
+          ( indexStorage.isOrdered( name ) != ( index.ordered() || index.prefix() ) ) )
+      {
+        outdated.add( name );
+      }
+    }
+
+    for ( String name : getMetaDataIndices() )
+    {
+      if ( indexStorage.isFieldIndexed( name ) &&
+          ! indexStorage.isOrdered( name ) )
+      {
+        outdated.add( name );
+      }
+    }
+
+    for ( Index index : getClassIndices( cls ) )
+    {
+      final String name = indexStorage.getFieldName( index.members() );
+      if ( indexStorage.isFieldIndexed( name ) &&
+          ! indexStorage.isComposite( name ) )
+      {
+        outdated.add( name );
+      }
+    }
+
+    return outdated;
+  }
+
+  /**
+   * Return the values shared by more than one stored object in the unique
+   * indices among the specified indices of the specified prevalent class.
+   * This is used to validate indices that were built for existing objects,
+   * whose values were not checked when the objects were stored.
+   *
+   * @see IndexBuilder
+   * @param cls The prevalent class whose indices are to be checked.
+   * @param names The names of the indices to check.  Indices that are not
+   *   unique are ignored.
+   * @return The duplicate values keyed by the name of the index that
+   *   contains them.  Empty if the unique constraints are satisfied.
+   */
+  protected Map<String,Collection<Object>> getDuplicateValues(
+      final Class cls, final Collection<String> names )
+  {
+    final IndexStorage indexStorage = getIndexStorage( cls );
+    final Map<String,Collection<Object>> duplicates =
+        new LinkedHashMap<String,Collection<Object>>();
+
+    for ( Map.Entry<FieldAccessor,Index> entry :
+        ClassDescriptor.forClass( cls ).getIndexedFields().entrySet() )
+    {
+      final String name = entry.getKey().getName();
+      if ( ! entry.getValue().unique() || ! names.contains( name ) ) continue;
+
+      final Collection<Object> values = indexStorage.getDuplicates( name );
+      if ( ! values.isEmpty() ) duplicates.put( name, values );
+    }
+
+    for ( Index index : getClassIndices( cls ) )
+    {
+      final String name = indexStorage.getFieldName( index.members() );
+      if ( ! index.unique() || ! names.contains( name ) ) continue;
+
+      final Collection<Object> values = indexStorage.getDuplicates( name );
+      if ( ! values.isEmpty() ) duplicates.put( name, values );
+    }
+
+    return duplicates;
+  }
+
+  /**
+   * Return the {@link #pendingIndices}.  Create the map if necessary.
+   *
+   * @return The map of class names to pending index names.
+   */
+  protected Map<String,Collection<String>> getPendingIndices()
+  {
+    if ( pendingIndices == null )
+    {
+      pendingIndices = new LinkedHashMap<String,Collection<String>>();
+    }
+
+    return pendingIndices;
+  }
+
+  /**
+   * Determine whether the specified index of the specified prevalent class
+   * is being built for the existing objects of the class.
+   *
+   * @param cls The prevalent class to check.
+   * @param name The name of the index to check.
+   * @return Returns <code>true</code> if the index build is pending.
+   */
+  protected boolean isPending( final Class cls, final String name )
+  {
+    if ( ( pendingIndices == null ) || pendingIndices.isEmpty() ) return false;
+
+    final Collection<String> pending = pendingIndices.get( cls.getName() );
+    return ( pending != null ) && pending.contains( name );
+  }
+
+  /**
+   * Return the index storage that is to be used to query the specified
+   * index of the specified prevalent class.  If the index is being built,
+   * a temporary index storage containing only the specified index is built
+   * by scanning the primary storage for the class.
+   *
+   * @param cls The prevalent class that is being queried.
+   * @param name The name of the index that is being queried.
+   * @return The index storage to query.
+   * @throws PrevalentException If errors are encountered while scanning the
+   *   primary storage.
+   */
+  protected IndexStorage getIndexStorage( final Class cls, final String name )
+      throws PrevalentException
+  {
+    if ( ! isPending( cls, name ) ) return getIndexStorage( cls );
+
+    final IndexStorage indexStorage = new IndexStorage();
+    final Collection<String> names = Collections.singleton( name );
+
+    for ( PrevalentObject object : getPrimaryStorage( cls ).values() )
+    {
+      index( object, names, indexStorage );
+    }
+
+    return indexStorage;
+  }
+
+  /**
+   * Build the specified indices for the specified prevalent object.  This
+   * is used to build indices that were added after the object was stored.
+   *
+   * @see IndexBuilder
+   * @param object The prevalent object to index.
+   * @param names The names of the indices to build.
+   * @throws PrevalentException If errors are encountered while indexing the
+   *   object.
+   */
+  protected void index( final PrevalentObject object,
+      final Collection<String> names ) throws PrevalentException
+  {
+    index( object, names, getIndexStorage( object.getClass() ) );
+  }
+
+  /**
+   * Add the specified indices for the specified prevalent object to the
+   * specified index storage.
+   *
+   * @param object The prevalent object to index.
+   * @param names The names of the indices to build.
+   * @param indexStorage The index storage to which the indices are added.
+   * @throws PrevalentException If errors are encountered while indexing the
+   *   object.
+   */
+  private void index( final PrevalentObject object,
+      final Collection<String> names, final IndexStorage indexStorage )
+      throws PrevalentException
+  {
+    try
+    {
+      for ( Map.Entry<FieldAccessor,Index> entry :
+          ClassDescriptor.forObject( object ).getIndexedFields().entrySet() )
+      {
+        final FieldAccessor field = entry.getKey();
+        if ( ! names.contains( field.getName() ) ) continue;
+
+        final Index index = entry.getValue();
+        indexStorage.add( field.getName(), field.get( object ), object,
+            index.ordered() || index.prefix() );
+      }
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException( t );
+    }
+
+    indexMetaData( object, indexStorage, names );
+
+    for ( Index index : getClassIndices( object.getClass() ) )
+    {
+      if ( names.contains( indexStorage.getFieldName( index.members() ) ) )
+      {
+        indexStorage.add( index.members(), getCompositeKey( index, object ),
+            object );
+      }
+    }
+  }
 }
@@ -0,0 +1,162 @@
+package com.sptci.prevayler;
+
+import com.sptci.prevayler.query.FetchAll;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A collection of references to other prevalent objects that is resolved
+ * only when it is first accessed.  Used by {@link ObjectGraphSystem} to
+ * populate collection fields of composed objects when {@link
+ * PrevalentSystemFactory#LAZY_REFERENCES} is enabled, so that fetching an
+ * object does not clone the entire graph of objects reachable from it.
+ * References to single prevalent objects are not lazy, and are composed
+ * when the object that holds them is fetched.
+ *
+ * <p>The collection holds only the object ids of the referenced objects.
+ * On first access the referenced objects are fetched from the prevalent
+ * system using a {@link FetchAll} query.  A collection that has not been
+ * resolved when it is serialised (for instance when the object that holds
+ * it is saved) is resolved and replaced by a plain {@link LinkedHashSet},
+ * so that the prevalent system never stores a lazy collection.</p>
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see ObjectGraphSystem#compose
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+final class LazyCollection extends AbstractSet<PrevalentObject>
+    implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+
+  /** The class of the prevalent system that holds the referenced objects. */
+  private final Class system;
+
+  /** The fully qualified name of the class of the referenced objects. */
+  private final String type;
+
+  /** The object ids of the referenced objects. */
+  private final Collection<Object> objectIds;
+
+  /** The referenced objects, once resolved. */
+  private transient Set<PrevalentObject> objects;
+
+  /**
+   * Create a new unresolved collection of the referenced objects.
+   *
+   * @param system The {@link #system} to use.
+   * @param type The {@link #type} to use.
+   * @param objectIds The {@link #objectIds} to use.
+   */
+  LazyCollection( final Class system, final String type,
+      final Collection<?> objectIds )
+  {
+    this.system = system;
+    this.type = type;
+    this.objectIds = new ArrayList<Object>( objectIds );
+  }
+
+  /**
+   * Check whether the referenced objects have been fetched.
+   *
+   * @return Return <code>true</code> if the collection has been resolved.
+   */
+  synchronized boolean isResolved()
+  {
+    return ( objects != null );
+  }
+
+  /**
+   * Fetch the referenced objects from the prevalent system if not already
+   * done.
+   *
+   * @return The resolved {@link #objects}.
+   * @throws IllegalStateException If errors are encountered while fetching
+   *   the referenced objects.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  private synchronized Set<PrevalentObject> resolve()
+  {
+    if ( objects == null )
+    {
+      try
+      {
+        final Collection<PrevalentObject> result =
+            (Collection<PrevalentObject>) PrevalentSystemFactory.getPrevayler(
+                system ).execute( new FetchAll( Class.forName( type ), objectIds ) );
+        objects = new LinkedHashSet<PrevalentObject>( result );
+      }
+      catch ( Exception e )
+      {
+        throw new IllegalStateException(
+            "Error resolving references to objects of type: " + type, e );
+      }
+    }
+
+    return objects;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Iterator<PrevalentObject> iterator()
+  {
+    return resolve().iterator();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int size()
+  {
+    return resolve().size();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean contains( final Object object )
+  {
+    return resolve().contains( object );
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean add( final PrevalentObject object )
+  {
+    return resolve().add( object );
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean remove( final Object object )
+  {
+    return resolve().remove( object );
+  }
+
+  /**
+   * Remove all the references.  The referenced objects are not fetched.
+   */
+  @Override
+  public synchronized void clear()
+  {
+    objects = new LinkedHashSet<PrevalentObject>();
+  }
+
+  /**
+   * Replace this collection with a resolved {@link LinkedHashSet} when
+   * serialised.
+   *
+   * @return The set of referenced objects.
+   */
+  private Object writeReplace()
+  {
+    return new LinkedHashSet<PrevalentObject>( resolve() );
+  }
+}
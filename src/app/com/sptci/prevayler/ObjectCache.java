@@ -0,0 +1,270 @@
+package com.sptci.prevayler;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A bounded least recently used cache of composed read-only object graphs,
+ * keyed by the class and object id of the prevalent object at the root of
+ * the graph.  The cache also records the prevalent objects that each cached
+ * graph contains, so that a change to any object in the system invalidates
+ * precisely the graphs that contain the object.
+ *
+ * <p>Only graphs composed using an unbounded {@link FetchPlan#isReadOnly
+ * read-only} fetch plan are cached, since those graphs are frozen and may
+ * be shared between queries.  Serving views from the cache is what makes
+ * read-only plans cheaper than ordinary queries, since composing a view
+ * clones the graph like any other query.  The cache is disabled if its
+ * capacity is <code>0</code>.  All methods are synchronised, since queries may be
+ * executed concurrently.</p>
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @see PrevalentSystemFactory#CACHE_SIZE
+ * @see CacheStatistics
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+final class ObjectCache
+{
+  /** The maximum number of graphs held in the cache. */
+  private final int capacity;
+
+  /** The cached graphs in access order. */
+  private final LinkedHashMap<Key,Entry> entries;
+
+  /**
+   * The keys of the cached graphs that contain each prevalent object,
+   * keyed by the key of the contained object.
+   */
+  private final Map<Key,Set<Key>> dependents = new HashMap<Key,Set<Key>>();
+
+  /** The number of lookups that found a cached graph. */
+  private long hits;
+
+  /** The number of lookups that did not find a cached graph. */
+  private long misses;
+
+  /** The number of graphs evicted to stay within {@link #capacity}. */
+  private long evictions;
+
+  /** The number of graphs removed due to changes to their objects. */
+  private long invalidations;
+
+  /**
+   * Create a new cache with the specified capacity.
+   *
+   * @param capacity The {@link #capacity} to use.
+   */
+  ObjectCache( final int capacity )
+  {
+    this.capacity = capacity;
+    this.entries = new LinkedHashMap<Key,Entry>( 16, 0.75f, true )
+    {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry( final Map.Entry<Key,Entry> eldest )
+      {
+        if ( size() <= ObjectCache.this.capacity ) return false;
+
+        removeDependents( eldest.getKey(), eldest.getValue() );
+        ++evictions;
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Check whether the cache is enabled.
+   *
+   * @return Return <code>true</code> if the capacity is positive.
+   */
+  boolean isEnabled()
+  {
+    return ( capacity > 0 );
+  }
+
+  /**
+   * Return the cached graph for the specified stored object.
+   *
+   * @param object The stored prevalent object at the root of the graph.
+   * @return The composed graph or <code>null</code> if not cached.
+   */
+  synchronized PrevalentObject get( final PrevalentObject object )
+  {
+    final Entry entry = entries.get( new Key( object ) );
+
+    if ( entry == null )
+    {
+      ++misses;
+      return null;
+    }
+
+    ++hits;
+    return entry.object;
+  }
+
+  /**
+   * Cache the composed graph for the specified stored object.
+   *
+   * @param object The stored prevalent object at the root of the graph.
+   * @param composed The composed graph.
+   * @param members The prevalent objects contained in the graph, including
+   *   the root.
+   */
+  synchronized void put( final PrevalentObject object,
+      final PrevalentObject composed,
+      final Collection<PrevalentObject> members )
+  {
+    final Key key = new Key( object );
+    final Entry previous = entries.remove( key );
+    if ( previous != null ) removeDependents( key, previous );
+
+    final Set<Key> keys = new HashSet<Key>( members.size() );
+    for ( PrevalentObject member : members )
+    {
+      final Key memberKey = new Key( member );
+      keys.add( memberKey );
+
+      Set<Key> roots = dependents.get( memberKey );
+      if ( roots == null )
+      {
+        roots = new HashSet<Key>();
+        dependents.put( memberKey, roots );
+      }
+
+      roots.add( key );
+    }
+
+    entries.put( key, new Entry( composed, keys ) );
+  }
+
+  /**
+   * Remove the cached graphs that contain the specified prevalent object.
+   *
+   * @param object The prevalent object that was added, modified or deleted.
+   */
+  synchronized void invalidate( final PrevalentObject object )
+  {
+    if ( ( object == null ) || entries.isEmpty() ) return;
+
+    final Key key = new Key( object );
+    final Set<Key> roots = dependents.get( key );
+    if ( roots == null ) return;
+
+    for ( Key root : roots.toArray( new Key[roots.size()] ) )
+    {
+      final Entry entry = entries.remove( root );
+      if ( entry == null ) continue;
+
+      removeDependents( root, entry );
+      ++invalidations;
+    }
+  }
+
+  /** Remove all the cached graphs. */
+  synchronized void clear()
+  {
+    entries.clear();
+    dependents.clear();
+  }
+
+  /**
+   * Return a snapshot of the statistics for the cache.
+   *
+   * @return The cache statistics.
+   */
+  synchronized CacheStatistics getStatistics()
+  {
+    return new CacheStatistics( capacity, entries.size(), hits, misses,
+        evictions, invalidations );
+  }
+
+  /**
+   * Remove the reverse mappings from the members of the specified cached
+   * graph to the graph.
+   *
+   * @param key The key of the graph.
+   * @param entry The cached graph.
+   */
+  private void removeDependents( final Key key, final Entry entry )
+  {
+    for ( Key member : entry.members )
+    {
+      final Set<Key> roots = dependents.get( member );
+      if ( roots == null ) continue;
+
+      roots.remove( key );
+      if ( roots.isEmpty() ) dependents.remove( member );
+    }
+  }
+
+  /** The key that identifies a prevalent object by class and object id. */
+  private static final class Key
+  {
+    /** The fully qualified name of the class of the object. */
+    private final String type;
+
+    /** The object id of the object. */
+    private final Object objectId;
+
+    /**
+     * Create a new key for the specified prevalent object.
+     *
+     * @param object The prevalent object.
+     */
+    private Key( final PrevalentObject object )
+    {
+      this.type = object.getClass().getName();
+      this.objectId = object.getObjectId();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals( final Object object )
+    {
+      if ( this == object ) return true;
+      if ( ! ( object instanceof Key ) ) return false;
+
+      final Key key = (Key) object;
+      return type.equals( key.type ) && ( ( objectId == null ) ?
+          key.objectId == null : objectId.equals( key.objectId ) );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode()
+    {
+      return ( 31 * type.hashCode() ) +
+          ( ( objectId == null ) ? 0 : objectId.hashCode() );
+    }
+  }
+
+  /** A cached graph and the keys of the objects it contains. */
+  private static final class Entry
+  {
+    /** The composed graph. */
+    private final PrevalentObject object;
+
+    /** The keys of the prevalent objects contained in the graph. */
+    private final Set<Key> members;
+
+    /**
+     * Create a new entry.
+     *
+     * @param object The {@link #object} to use.
+     * @param members The {@link #members} to use.
+     */
+    private Entry( final PrevalentObject object, final Set<Key> members )
+    {
+      this.object = object;
+      this.members = members;
+    }
+  }
+}
@@ -1,11 +1,19 @@
 package com.sptci.prevayler;
 
 import com.sptci.ReflectionUtility;
+import com.sptci.prevayler.annotations.ForeignKey;
 
-import java.lang.reflect.Field;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Abstracts all the code for decomposing and reconstituting object graphs
@@ -22,12 +30,93 @@ abstract class ObjectGraphSystem extends SearchSystem
 {
   private static final long serialVersionUID = 1L;
 
+  /**
+   * The fetch plans in effect for the queries executed by each thread.
+   * Queries are executed in the thread of the caller.
+   */
+  private static final ThreadLocal<FetchPlan> fetchPlans =
+      new ThreadLocal<FetchPlan>();
+
+  /**
+   * The objects composed by the query being executed by each thread.  Used
+   * to ensure that each stored object is cloned at most once per query.
+   */
+  private static final ThreadLocal<CompositionContext> contexts =
+      new ThreadLocal<CompositionContext>();
+
+  /**
+   * Return the fetch plan used to compose objects for the current thread.
+   *
+   * @return The fetch plan in effect, or {@link FetchPlan#ALL} if none
+   *   has been set.
+   */
+  public FetchPlan getFetchPlan()
+  {
+    final FetchPlan plan = fetchPlans.get();
+    return ( plan == null ) ? FetchPlan.ALL : plan;
+  }
+
+  /**
+   * Set the fetch plan used to compose objects for queries executed by the
+   * current thread.
+   *
+   * @see com.sptci.prevayler.query.AbstractQuery
+   * @param plan The plan to use, or <code>null</code> to use the default
+   *   plan.
+   * @return The plan that was previously set, or <code>null</code>.
+   */
+  public FetchPlan setFetchPlan( final FetchPlan plan )
+  {
+    final FetchPlan previous = fetchPlans.get();
+
+    if ( plan == null )
+    {
+      fetchPlans.remove();
+    }
+    else
+    {
+      fetchPlans.set( plan );
+    }
+
+    return previous;
+  }
+
+  /**
+   * Start a composition context for the current thread if one is not
+   * already active.  All the objects composed by the thread until {@link
+   * #endComposition} is invoked share the same clone of each stored object,
+   * so that the results of a query retain the sharing of objects in the
+   * system.
+   *
+   * @see com.sptci.prevayler.query.AbstractQuery
+   * @return Return <code>true</code> if a new context was started, in which
+   *   case the caller must invoke {@link #endComposition}.
+   */
+  public boolean beginComposition()
+  {
+    if ( contexts.get() != null ) return false;
+    contexts.set( new CompositionContext() );
+    return true;
+  }
+
+  /** End the composition context for the current thread. */
+  public void endComposition()
+  {
+    contexts.remove();
+  }
+
   /**
    * Create a clone of the specified prevalent object and reconstitute object
    * references to other prevalent objects.  Reads in the references from
    * {@link #referenceMap} and reconstitutes the references.  Recursively
    * invokes this method on prevalent objects to ensure that the entire
-   * object graph is replicated.
+   * object graph is replicated, within the bounds of the current {@link
+   * #getFetchPlan fetch plan}.  Each stored object is cloned at most once
+   * within a {@link #beginComposition composition context}.  If the plan is
+   * {@link FetchPlan#isReadOnly read-only}, the clones are frozen.  The
+   * stored instances are never returned.  Graphs composed
+   * for unbounded read-only plans are retained in the {@link
+   * #getObjectCache object cache} until an object in the graph changes.
    *
    * @see #populateReference
    * @param object The object that is to be cloned and reconstituted.
@@ -36,100 +125,198 @@ abstract class ObjectGraphSystem extends SearchSystem
    * @throws PrevalentException If errors are encountered while reconsituting
    *   the prevalent object.
    */
-  @SuppressWarnings( {"unchecked"} )
   protected PrevalentObject compose( final PrevalentObject object )
       throws PrevalentException
   {
-    if ( object == null ) return null;
-    if ( getTaskQueue().contains( object ) )
-    {
-      for ( PrevalentObject o : getTaskQueue() )
-      {
-        if ( o.equals( object ) ) return o;
-      }
-    }
-
-    final PrevalentObject obj = (PrevalentObject) object.clone();
+    final boolean started = beginComposition();
 
     try
     {
-      getTaskQueue().add( obj );
-      populateReference( obj );
+      return compose( object, "" );
     }
-    catch ( IllegalAccessException iex )
+    finally
     {
-      throw new PrevalentException( iex );
+      if ( started ) endComposition();
     }
-    finally
+  }
+
+  /**
+   * Create a clone of the specified prevalent object reached through the
+   * specified reference path and reconstitute its references.
+   *
+   * @param object The object that is to be cloned and reconstituted.
+   * @param path The reference path to the object from the object returned
+   *   by the query.  Empty for the returned object.
+   * @return The reconstituted prevalent object.
+   * @throws PrevalentException If errors are encountered while reconsituting
+   *   the prevalent object.
+   */
+  private PrevalentObject compose( final PrevalentObject object,
+      final String path ) throws PrevalentException
+  {
+    if ( object == null ) return null;
+
+    final FetchPlan plan = getFetchPlan();
+    final CompositionContext context = contexts.get();
+    final String scope = plan.isUnbounded() ? "" : path;
+    PrevalentObject obj = context.get( scope, object );
+    if ( obj != null ) return obj;
+
+    final ObjectCache cache = getObjectCache();
+    final boolean cacheable = ( path.length() == 0 ) && cache.isEnabled() &&
+        plan.isReadOnly() && plan.isUnbounded() &&
+        ! PrevalentSystemFactory.isLazyReferences();
+
+    if ( cacheable )
     {
-      getTaskQueue().remove( obj );
+      obj = cache.get( object );
+      if ( obj != null )
+      {
+        context.put( scope, object, obj );
+        return obj;
+      }
     }
 
+    obj = (PrevalentObject) object.clone();
+    context.put( scope, object, obj );
+    populateReference( obj, path );
+    if ( plan.isReadOnly() ) obj.freeze();
+
+    if ( cacheable ) cache.put( object, obj, getMembers( obj ) );
     return obj;
   }
 
+  /**
+   * Return the prevalent objects contained in the specified composed
+   * object graph.
+   *
+   * @param object The root of the composed graph.
+   * @return The objects in the graph, including the root.
+   * @throws PrevalentException If errors are encountered while reading the
+   *   references in the graph.
+   */
+  private Collection<PrevalentObject> getMembers( final PrevalentObject object )
+      throws PrevalentException
+  {
+    final Set<PrevalentObject> members = Collections.newSetFromMap(
+        new IdentityHashMap<PrevalentObject,Boolean>() );
+    final LinkedList<PrevalentObject> pending = new LinkedList<PrevalentObject>();
+    pending.add( object );
+
+    while ( ! pending.isEmpty() )
+    {
+      final PrevalentObject po = pending.removeFirst();
+      if ( ! members.add( po ) ) continue;
+
+      for ( FieldAccessor field :
+          ClassDescriptor.forObject( po ).getObjectGraphFields() )
+      {
+        final Object value = field.get( po );
+
+        if ( value instanceof PrevalentObject )
+        {
+          pending.add( (PrevalentObject) value );
+        }
+        else if ( value instanceof Collection )
+        {
+          for ( Object entry : (Collection) value )
+          {
+            if ( entry instanceof PrevalentObject )
+            {
+              pending.add( (PrevalentObject) entry );
+            }
+          }
+        }
+      }
+    }
+
+    return members;
+  }
+
   /**
    * Populate the references to other prevalent objects in the specified
-   * prevalent object.
+   * prevalent object.  If {@link PrevalentSystemFactory#isLazyReferences}
+   * is enabled, collections of references are populated with a {@link
+   * LazyCollection} where the declared type of the field permits, and the
+   * referenced objects are composed only when the collection is accessed.
+   * References to single objects are always composed.
+   *
+   * <p>References excluded by the current {@link #getFetchPlan fetch plan}
+   * are not composed.  Excluded collections are populated with a {@link
+   * LazyCollection} where possible and <code>null</code> otherwise, and
+   * excluded single references are set to <code>null</code>.</p>
    *
    * @param object The prevalent object that is being reconstituted.
+   * @param path The reference path to the object.
    * @throws PrevalentException If errors are encountered while fetching
-   *   the references to the other prevalent objects.
-   * @throws IllegalAccessException If errors are encountered while setting
-   *   the field values.
+   *   the references to the other prevalent objects, or while setting the
+   *   field values.
    */
-  private void populateReference( final PrevalentObject object )
-      throws PrevalentException, IllegalAccessException
+  private void populateReference( final PrevalentObject object,
+      final String path ) throws PrevalentException
   {
+    final ClassDescriptor descriptor = ClassDescriptor.forObject( object );
     final ReferenceStorage referenceStorage =
         getReferenceStorage( object.getClass() );
+    final boolean lazy = PrevalentSystemFactory.isLazyReferences();
+    final FetchPlan plan = getFetchPlan();
 
     for ( String name : referenceStorage.getFields( object ) )
     {
-      final Field field =
-          ReflectionUtility.fetchField( name, object );
-      final PrimaryStorage primaryStorage =
-        getPrimaryStorage( field.getType() );
+      final FieldAccessor field = descriptor.getAccessor( name );
+      final String reference =
+          ( path.length() == 0 ) ? name : path + '.' + name;
+      final boolean included = plan.includes( reference );
 
       if ( Collection.class.isAssignableFrom( field.getType() ) )
       {
-        final Collection<PrevalentObject> objects =
-            new LinkedHashSet<PrevalentObject>();
         final Collection oids =
             (Collection) referenceStorage.getValue( object, name );
+        final String type = descriptor.getEntryType( name );
 
-        if ( oids != null )
+        if ( ( lazy || ! included ) && ( oids != null ) && ( type != null ) &&
+            field.getType().isAssignableFrom( LazyCollection.class ) )
         {
+          field.set( object, new LazyCollection( getClass(), type, oids ) );
+          continue;
+        }
+
+        if ( ! included )
+        {
+          field.set( object, null );
+          continue;
+        }
+
+        final Set<PrevalentObject> objects =
+            new LinkedHashSet<PrevalentObject>();
+
+        if ( ( oids != null ) && ( type != null ) )
+        {
+          final PrimaryStorage primaryStorage = getPrimaryStorage( type );
           for ( Object id : oids )
           {
-            PrevalentObject value = primaryStorage.get( id );
-            if ( "com.sptci.prevayler.model.Two".equals( object.getClass().getName() ) &&
-                "children".equals( field.getName() ) )
-            {
-              System.out.format( "Referenced object before: %s%n", value );
-            }
-            value = compose( value );
-            if ( "com.sptci.prevayler.model.Two".equals( object.getClass().getName() ) &&
-                "children".equals( field.getName() ) )
-            {
-              System.out.format( "Referenced object after: %s%n", value );
-            }
+            final PrevalentObject value =
+                compose( primaryStorage.get( id ), reference );
             if ( value != null ) objects.add( value );
-            if ( "com.sptci.prevayler.model.Two".equals( object.getClass().getName() ) &&
-                "children".equals( field.getName() ) )
-            {
-              System.out.format( "Still found child with oid: %s in Two: %s%n", id, object.getObjectId() );
-            }
           }
         }
 
-        field.set( object, objects );
+        field.set( object, ( plan.isReadOnly() &&
+            field.getType().isAssignableFrom( Set.class ) ) ?
+            Collections.unmodifiableSet( objects ) : objects );
       }
       else if ( PrevalentObject.class.isAssignableFrom( field.getType() ) )
       {
+        if ( ! included )
+        {
+          field.set( object, null );
+          continue;
+        }
+
         final Object oid = referenceStorage.getValue( object, name );
-        final PrevalentObject value = primaryStorage.get( oid );
-        field.set( object, compose( value ) );
+        final PrevalentObject value =
+            getPrimaryStorage( field.getType() ).get( oid );
+        field.set( object, compose( value, reference ) );
       }
     }
   }
@@ -157,7 +344,8 @@ abstract class ObjectGraphSystem extends SearchSystem
   {
     final PrevalentObject obj = (PrevalentObject) object.clone();
 
-    for ( Field field : ReflectionUtility.fetchFields( object ).values() )
+    for ( FieldAccessor field :
+        ClassDescriptor.forObject( object ).getObjectGraphFields() )
     {
       if ( PrevalentObject.class.isAssignableFrom( field.getType() ) )
       {
@@ -185,7 +373,7 @@ abstract class ObjectGraphSystem extends SearchSystem
    *   the field.
    */
   private void decomposeObject( final PrevalentObject object,
-      final Field field, Date executionTime ) throws PrevalentException
+      final FieldAccessor field, Date executionTime ) throws PrevalentException
   {
     try
     {
@@ -227,7 +415,8 @@ abstract class ObjectGraphSystem extends SearchSystem
    */
   @SuppressWarnings( {"unchecked"} )
   private void decomposeCollection( final PrevalentObject object,
-      final Field field, final Date executionTime ) throws PrevalentException
+      final FieldAccessor field, final Date executionTime )
+      throws PrevalentException
   {
     final ReferenceStorage referenceStorage =
         getReferenceStorage( object.getClass() );
@@ -289,8 +478,9 @@ abstract class ObjectGraphSystem extends SearchSystem
    * @throws PrevalentException If errors are encountered while setting
    *   the value of the field.
    */
-  protected void update( final Field field, final PrevalentObject object,
-      final Date executionTime ) throws PrevalentException
+  protected void update( final FieldAccessor field,
+      final PrevalentObject object, final Date executionTime )
+      throws PrevalentException
   {
     final ReferenceStorage referenceStorage = getReferenceStorage( object.getClass() );
     final Object oid = referenceStorage.getValue( object, field.getName() );
@@ -330,4 +520,164 @@ abstract class ObjectGraphSystem extends SearchSystem
       throw new PrevalentException( t );
     }
   }
+
+  /**
+   * Update the references held by the collection in the field specified of
+   * the <code>object</code> prevalent object.  The object ids in the
+   * collection are compared with those held in {@link ReferenceStorage},
+   * and only the references that were added or removed are updated along
+   * with their foreign key index entries.  A <code>null</code> collection
+   * removes all the references.
+   *
+   * <p>Referenced objects that are not yet persistent are saved following
+   * persistence by reachability.  Referenced objects that are already
+   * persistent are saved only if they have {@link PrevalentObject#markDirty
+   * recorded} changes, since comparing every member of a large collection
+   * defeats the purpose of updating it incrementally.</p>
+   *
+   * @see #update( FieldAccessor, PrevalentObject, Date )
+   * @param field The collection field whose references are being updated.
+   * @param object The prevalent object that is being updated.
+   * @param executionTime The datetime at which the transaction was executed.
+   * @throws ConstraintException If the field is marked as unique and an
+   *   added object is already associated with another prevalent object of
+   *   the same type.
+   * @throws PrevalentException If errors are encountered while accessing
+   *   the field or saving the referenced objects.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  protected void updateCollection( final FieldAccessor field,
+      final PrevalentObject object, final Date executionTime )
+      throws PrevalentException
+  {
+    final String name = field.getName();
+    final ClassDescriptor descriptor = ClassDescriptor.forObject( object );
+    final ForeignKey key = descriptor.getForeignKeys().get( name );
+    final ReferenceStorage referenceStorage =
+        getReferenceStorage( object.getClass() );
+    final IndexStorage indexStorage = getIndexStorage( object.getClass() );
+
+    try
+    {
+      final Collection source = (Collection) field.get( object );
+      if ( ( source instanceof LazyCollection ) &&
+          ! ( (LazyCollection) source ).isResolved() ) return;
+
+      Collection<Object> oids =
+          (Collection<Object>) referenceStorage.getValue( object, name );
+      if ( ! ( oids instanceof Set ) )
+      {
+        oids = ( oids == null ) ?
+            new LinkedHashSet<Object>() : new LinkedHashSet<Object>( oids );
+        if ( source != null ) referenceStorage.add( object, name, oids );
+      }
+
+      final Map<Object,PrevalentObject> current =
+          new LinkedHashMap<Object,PrevalentObject>();
+      if ( source != null )
+      {
+        for ( Object obj : source )
+        {
+          if ( ! ( obj instanceof PrevalentObject ) ) continue;
+          PrevalentObject po = (PrevalentObject) obj;
+
+          if ( ! getTaskQueue().contains( po ) &&
+              ( ( po.getObjectId() == null ) ||
+                ( po.getDirtyFields() != null ) ||
+                ( getPrimaryStorage( po.getClass() ).get(
+                    po.getObjectId() ) == null ) ) )
+          {
+            po = save( po, executionTime );
+          }
+
+          current.put( po.getObjectId(), po );
+        }
+      }
+
+      final PrimaryStorage primaryStorage = ( key == null ) ? null :
+          getPrimaryStorage( descriptor.getEntryType( name ) );
+      for ( Iterator<Object> iterator = oids.iterator(); iterator.hasNext(); )
+      {
+        final Object oid = iterator.next();
+        if ( current.containsKey( oid ) ) continue;
+
+        if ( key != null )
+        {
+          indexStorage.remove( name, primaryStorage.get( oid ), object );
+        }
+
+        iterator.remove();
+      }
+
+      for ( Map.Entry<Object,PrevalentObject> entry : current.entrySet() )
+      {
+        if ( oids.contains( entry.getKey() ) ) continue;
+
+        if ( key != null )
+        {
+          checkUnique( field, object, entry.getValue() );
+          indexStorage.add( name, entry.getValue(), object );
+        }
+
+        oids.add( entry.getKey() );
+      }
+
+      if ( source == null ) referenceStorage.remove( object, name );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException( t );
+    }
+  }
+
+  /**
+   * The clones of the stored objects that have been composed within a
+   * composition context.  Objects are partitioned by reference path when
+   * the fetch plan in effect is bounded, since the references populated
+   * in an object then depend upon the path through which it was reached.
+   */
+  private static class CompositionContext
+  {
+    /** The composed objects keyed by the stored object, by path. */
+    private final Map<String,Map<PrevalentObject,PrevalentObject>> objects =
+        new HashMap<String,Map<PrevalentObject,PrevalentObject>>();
+
+    /**
+     * Return the composed clone of the specified stored object.
+     *
+     * @param scope The reference path partition to look in.
+     * @param object The stored object.
+     * @return The composed clone or <code>null</code> if not yet composed.
+     */
+    private PrevalentObject get( final String scope,
+        final PrevalentObject object )
+    {
+      final Map<PrevalentObject,PrevalentObject> map = objects.get( scope );
+      return ( map == null ) ? null : map.get( object );
+    }
+
+    /**
+     * Record the composed clone of the specified stored object.
+     *
+     * @param scope The reference path partition to use.
+     * @param object The stored object.
+     * @param composed The clone of the stored object.
+     */
+    private void put( final String scope, final PrevalentObject object,
+        final PrevalentObject composed )
+    {
+      Map<PrevalentObject,PrevalentObject> map = objects.get( scope );
+      if ( map == null )
+      {
+        map = new IdentityHashMap<PrevalentObject,PrevalentObject>();
+        objects.put( scope, map );
+      }
+
+      map.put( object, composed );
+    }
+  }
 }
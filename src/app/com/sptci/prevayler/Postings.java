@@ -0,0 +1,417 @@
+package com.sptci.prevayler;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The collection of object ids stored under an index key in {@link
+ * IndexStorage}.  Since an index storage is maintained per prevalent
+ * class, only the object ids of the indexed objects are stored.  Object
+ * ids that are {@link Long} values (the default object ids generated by
+ * the system) are stored as a sorted array of primitive values, which is
+ * converted to a compressed {@link BitmapPostings} once it grows beyond
+ * {@link #BITMAP_THRESHOLD} entries.  Other types of object ids are stored
+ * in an ordered set.
+ *
+ * <p>Instances are read-only views when accessed through the {@link
+ * Collection} interface, and may be returned directly from index lookups
+ * without copying.  The index storage modifies instances using {@link
+ * #insert} and {@link #delete}.</p>
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+abstract class Postings extends AbstractCollection<Object>
+    implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The number of object ids above which {@link LongPostings} are converted
+   * to {@link BitmapPostings}.
+   */
+  static final int BITMAP_THRESHOLD = 4096;
+
+  /**
+   * Create a new empty postings instance suitable for storing the
+   * specified object id.
+   *
+   * @param oid The first object id that will be stored.
+   * @return The new postings instance.
+   */
+  static Postings create( final Object oid )
+  {
+    return ( oid instanceof Long ) ? new LongPostings() : new ObjectPostings();
+  }
+
+  /**
+   * Add the specified object id to the postings.  If the object id cannot
+   * be stored in this representation, a new postings instance containing
+   * all the existing object ids and the specified object id is returned.
+   *
+   * @param oid The object id to add.
+   * @return The postings instance that contains the object id.  Callers
+   *   must use the returned instance in place of this instance.
+   */
+  abstract Postings insert( final Object oid );
+
+  /**
+   * Remove the specified object id from the postings.
+   *
+   * @param oid The object id to remove.
+   * @return Returns <code>true</code> if the object id was removed.
+   */
+  abstract boolean delete( final Object oid );
+
+  /**
+   * Return the intersection of the specified postings.  If both postings
+   * are {@link BitmapPostings} the intersection is computed on the
+   * bitmaps, otherwise the smaller postings is probed against the larger.
+   *
+   * @param first The first postings.
+   * @param second The second postings.
+   * @return The new postings containing the object ids in both.
+   */
+  static Postings and( final Postings first, final Postings second )
+  {
+    if ( ( first instanceof BitmapPostings ) &&
+        ( second instanceof BitmapPostings ) )
+    {
+      return ( (BitmapPostings) first ).and( (BitmapPostings) second );
+    }
+
+    final Postings smaller = ( first.size() <= second.size() ) ? first : second;
+    final Postings larger = ( smaller == first ) ? second : first;
+    Postings result = null;
+
+    for ( Object oid : smaller )
+    {
+      if ( larger.contains( oid ) )
+      {
+        result = ( result == null ) ?
+            create( oid ).insert( oid ) : result.insert( oid );
+      }
+    }
+
+    return ( result == null ) ? new ObjectPostings() : result;
+  }
+
+  /**
+   * Return the object ids that are present in all the specified postings.
+   * The postings are ordered by size, and the smallest postings is probed
+   * against the others (in increasing order of size) so that the cost is
+   * proportional to the size of the smallest postings.  If all the
+   * postings are {@link BitmapPostings}, the intersection is computed on
+   * the bitmaps instead.
+   *
+   * @param postings The postings to intersect.  The list is re-ordered.
+   * @return The object ids present in all the postings.
+   */
+  static Collection<Object> intersect( final List<Postings> postings )
+  {
+    if ( postings.isEmpty() ) return Collections.emptyList();
+
+    Collections.sort( postings, new Comparator<Postings>()
+    {
+      public int compare( final Postings first, final Postings second )
+      {
+        return ( first.size() < second.size() ) ? -1 :
+            ( ( first.size() == second.size() ) ? 0 : 1 );
+      }
+    } );
+
+    boolean bitmaps = true;
+    for ( Postings p : postings )
+    {
+      bitmaps &= ( p instanceof BitmapPostings );
+    }
+
+    if ( bitmaps )
+    {
+      Postings result = postings.get( 0 );
+      for ( int i = 1; ( i < postings.size() ) && ! result.isEmpty(); ++i )
+      {
+        result = and( result, postings.get( i ) );
+      }
+
+      return result;
+    }
+
+    final Collection<Object> result = new ArrayList<Object>();
+
+    probe:
+    for ( Object oid : postings.get( 0 ) )
+    {
+      for ( int i = 1; i < postings.size(); ++i )
+      {
+        if ( ! postings.get( i ).contains( oid ) ) continue probe;
+      }
+
+      result.add( oid );
+    }
+
+    return result;
+  }
+
+  /**
+   * Return the union of the specified postings.  If both postings are
+   * {@link BitmapPostings} the union is computed on the bitmaps.  If
+   * neither postings are {@link ObjectPostings}, both iterate in object id
+   * order and are merged in a single pass, so that each object id is
+   * appended to the result.  Otherwise the object ids are added to new
+   * {@link ObjectPostings}.
+   *
+   * @param first The first postings.
+   * @param second The second postings.
+   * @return The new postings containing the object ids in either.
+   */
+  static Postings or( final Postings first, final Postings second )
+  {
+    if ( ( first instanceof BitmapPostings ) &&
+        ( second instanceof BitmapPostings ) )
+    {
+      return ( (BitmapPostings) first ).or( (BitmapPostings) second );
+    }
+
+    if ( ( first instanceof ObjectPostings ) ||
+        ( second instanceof ObjectPostings ) )
+    {
+      final Postings result = new ObjectPostings();
+      for ( Object oid : first ) result.insert( oid );
+      for ( Object oid : second ) result.insert( oid );
+      return result;
+    }
+
+    final Iterator<Object> left = first.iterator();
+    final Iterator<Object> right = second.iterator();
+    Long l = ( left.hasNext() ) ? (Long) left.next() : null;
+    Long r = ( right.hasNext() ) ? (Long) right.next() : null;
+    Postings result = new LongPostings();
+
+    while ( ( l != null ) || ( r != null ) )
+    {
+      if ( ( r == null ) || ( ( l != null ) && ( l < r ) ) )
+      {
+        result = result.insert( l );
+        l = ( left.hasNext() ) ? (Long) left.next() : null;
+      }
+      else
+      {
+        result = result.insert( r );
+        if ( r.equals( l ) ) l = ( left.hasNext() ) ? (Long) left.next() : null;
+        r = ( right.hasNext() ) ? (Long) right.next() : null;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * The postings used to store {@link Long} object ids as a sorted array
+   * of primitive values.  Lookups use binary search and iteration walks
+   * the array in object id order.
+   */
+  static class LongPostings extends Postings
+  {
+    private static final long serialVersionUID = 1L;
+
+    /** The sorted array of object ids. */
+    private long[] values = new long[2];
+
+    /** The number of object ids stored in {@link #values}. */
+    private int size;
+
+    /** {@inheritDoc} */
+    Postings insert( final Object oid )
+    {
+      if ( ! ( oid instanceof Long ) )
+      {
+        final Postings postings = new ObjectPostings();
+        for ( int i = 0; i < size; ++i )
+        {
+          postings.insert( values[i] );
+        }
+
+        postings.insert( oid );
+        return postings;
+      }
+
+      final long value = (Long) oid;
+
+      if ( ( size >= BITMAP_THRESHOLD ) && ( value >= 0 ) &&
+          ( values[0] >= 0 ) )
+      {
+        final BitmapPostings postings = new BitmapPostings();
+        for ( int i = 0; i < size; ++i )
+        {
+          postings.addValue( values[i] );
+        }
+
+        postings.addValue( value );
+        return postings;
+      }
+
+      int index = size;
+
+      if ( ( size > 0 ) && ( values[size - 1] >= value ) )
+      {
+        index = Arrays.binarySearch( values, 0, size, value );
+        if ( index >= 0 ) return this;
+        index = -( index + 1 );
+      }
+
+      if ( size == values.length )
+      {
+        final long[] array = new long[size + ( size >> 1 ) + 1];
+        System.arraycopy( values, 0, array, 0, size );
+        values = array;
+      }
+
+      System.arraycopy( values, index, values, index + 1, size - index );
+      values[index] = value;
+      ++size;
+
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    boolean delete( final Object oid )
+    {
+      final int index = indexOf( oid );
+      if ( index < 0 ) return false;
+
+      System.arraycopy( values, index + 1, values, index, size - index - 1 );
+      --size;
+
+      return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean contains( final Object oid )
+    {
+      return indexOf( oid ) >= 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size()
+    {
+      return size;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Iterator<Object> iterator()
+    {
+      return new Iterator<Object>()
+      {
+        private int index;
+
+        public boolean hasNext()
+        {
+          return index < size;
+        }
+
+        public Object next()
+        {
+          if ( index >= size ) throw new NoSuchElementException();
+          return values[index++];
+        }
+
+        public void remove()
+        {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    /**
+     * Return the index of the specified object id in {@link #values}.
+     *
+     * @param oid The object id to find.
+     * @return The index of the object id, or a negative value if not found.
+     */
+    private int indexOf( final Object oid )
+    {
+      if ( ! ( oid instanceof Long ) ) return -1;
+      return Arrays.binarySearch( values, 0, size, (Long) oid );
+    }
+  }
+
+  /**
+   * The postings used to store object ids that are not {@link Long}
+   * values.  Object ids are maintained in insertion order.
+   */
+  static class ObjectPostings extends Postings
+  {
+    private static final long serialVersionUID = 1L;
+
+    /** The set of object ids. */
+    private final Collection<Object> oids = new LinkedHashSet<Object>();
+
+    /** {@inheritDoc} */
+    Postings insert( final Object oid )
+    {
+      oids.add( oid );
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    boolean delete( final Object oid )
+    {
+      return oids.remove( oid );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean contains( final Object oid )
+    {
+      return oids.contains( oid );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size()
+    {
+      return oids.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Iterator<Object> iterator()
+    {
+      final Iterator<Object> iterator = oids.iterator();
+
+      return new Iterator<Object>()
+      {
+        public boolean hasNext()
+        {
+          return iterator.hasNext();
+        }
+
+        public Object next()
+        {
+          return iterator.next();
+        }
+
+        public void remove()
+        {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+  }
+}
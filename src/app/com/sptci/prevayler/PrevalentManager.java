@@ -2,18 +2,35 @@ package com.sptci.prevayler;
 
 import static com.sptci.prevayler.PrevalentSystemFactory.getPrevayler;
 import com.sptci.prevayler.query.Count;
+import com.sptci.prevayler.query.CountByIndex;
+import com.sptci.prevayler.query.CountByIndices;
+import com.sptci.prevayler.query.ExistsByIndex;
+import com.sptci.prevayler.query.Export;
 import com.sptci.prevayler.query.Fetch;
+import com.sptci.prevayler.query.FetchAll;
+import com.sptci.prevayler.query.FetchByComposite;
+import com.sptci.prevayler.query.FetchCacheStatistics;
 import com.sptci.prevayler.query.FetchByIndex;
 import com.sptci.prevayler.query.FetchByIndices;
+import com.sptci.prevayler.query.FetchByPrefix;
+import com.sptci.prevayler.query.FetchIndexRange;
+import com.sptci.prevayler.query.FetchIndexStatistics;
+import com.sptci.prevayler.query.FetchModifiedSince;
+import com.sptci.prevayler.query.FetchObjectIds;
 import com.sptci.prevayler.query.FetchRange;
+import com.sptci.prevayler.query.FetchTop;
 import com.sptci.prevayler.query.Search;
+import com.sptci.prevayler.query.SearchObjectIds;
 import com.sptci.prevayler.transaction.Delete;
 import com.sptci.prevayler.transaction.Save;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Sort;
 
+import java.io.File;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
 import java.util.Map;
 
 /**
@@ -82,6 +99,73 @@ public class PrevalentManager<P extends PrevalentObject> implements Database<P>
     }
   }
 
+  /**
+   * Start a new bulk load session for loading large numbers of prevalent
+   * objects into the prevalent system.  Objects added through the session
+   * are stored in batches without checking constraints or maintaining
+   * indices for each object.  Constraints are validated and indices built
+   * when the session is closed.
+   *
+   * @see BulkLoader
+   * @return The new bulk load session.
+   * @throws PrevalentException If errors are encountered while
+   *   initialising the prevalent system.
+   */
+  public BulkLoader<P> beginBulkLoad() throws PrevalentException
+  {
+    return new BulkLoader<P>( getPrevayler(),
+        PrevalentSystemFactory.getBulkBatchSize() );
+  }
+
+  /**
+   * Export all the prevalent objects in the prevalent system to the
+   * specified directory.  The objects of each prevalent class are streamed
+   * in parallel to a separate file in a compact binary format.  The system
+   * may be read but not modified while the export is in progress.
+   *
+   * @see #importFrom
+   * @param directory The directory to which the files are to be written.
+   * @return The total number of objects exported.
+   * @throws PrevalentException If errors are encountered while exporting
+   *   the objects.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  public int exportTo( final File directory ) throws PrevalentException
+  {
+    try
+    {
+      return (Integer) getPrevayler().execute( new Export( directory ) );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException( "Error exporting to directory: " +
+          directory, t );
+    }
+  }
+
+  /**
+   * Import the prevalent objects from the files written by {@link
+   * #exportTo}.  The objects retain their original object ids and are
+   * loaded through the bulk load path, with constraints validated and
+   * indices built once all the files have been read.
+   *
+   * @see Importer
+   * @param file The export file or the directory of export files to import.
+   * @return The total number of objects imported.
+   * @throws PrevalentException If errors are encountered while importing
+   *   the objects.  More specific {@link ConstraintException} is thrown if
+   *   the imported objects violate constraints.
+   */
+  public int importFrom( final File file ) throws PrevalentException
+  {
+    return new Importer( getPrevayler(),
+        PrevalentSystemFactory.getBulkBatchSize(), file ).load();
+  }
+
   /**
    * Delete the specified prevalent object from the prevalent system.  Note
    * that constraint rules may cause an exception to be raised leaving the
@@ -144,6 +228,88 @@ public class PrevalentManager<P extends PrevalentObject> implements Database<P>
     }
   }
 
+  /** {@inheritDoc} */
+  @SuppressWarnings( {"unchecked"} )
+  public int countByIndex( final Class type, final String field,
+      final Object value ) throws PrevalentException
+  {
+    try
+    {
+      return (Integer) getPrevayler().execute(
+          new CountByIndex( type, field, value ) );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException(
+          "Error retrieving object count for indexed field: " + field +
+          " with value: " + value + " and type: " + type.getName(), t );
+    }
+  }
+
+  /** {@inheritDoc} */
+  @SuppressWarnings( {"unchecked"} )
+  public boolean existsByIndex( final Class type, final String field,
+      final Object value ) throws PrevalentException
+  {
+    try
+    {
+      return (Boolean) getPrevayler().execute(
+          new ExistsByIndex( type, field, value ) );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException(
+          "Error checking existence for indexed field: " + field +
+          " with value: " + value + " and type: " + type.getName(), t );
+    }
+  }
+
+  /**
+   * Return the number of prevalent objects of the specified type that are
+   * indexed by any of the specified fields and values.
+   *
+   * @see #fetchUnion
+   * @param type The type of the persisted objects which are to be counted.
+   * @param parameters The map of field-name to value mappings to use
+   *   to count instances.
+   * @return The number of matching persistent objects.
+   * @throws PrevalentException If errors are encountered while counting
+   *   the persisted objects.
+   */
+  public int countUnion( final Class type,
+      final Map<String,?> parameters ) throws PrevalentException
+  {
+    return countByIndices( type, parameters,
+        FetchByIndices.AggregationType.UNION );
+  }
+
+  /**
+   * Return the number of prevalent objects of the specified type that are
+   * indexed by all of the specified fields and values.
+   *
+   * @see #fetchIntersection
+   * @param type The type of the persisted objects which are to be counted.
+   * @param parameters The map of field-name to value mappings to use
+   *   to count instances.
+   * @return The number of matching persistent objects.
+   * @throws PrevalentException If errors are encountered while counting
+   *   the persisted objects.
+   */
+  public int countIntersection( final Class type,
+      final Map<String,?> parameters ) throws PrevalentException
+  {
+    return countByIndices( type, parameters,
+        FetchByIndices.AggregationType.INTERSECTION );
+  }
+
   /**
    * Return the prevalent object identified by the object id specified.
    *
@@ -154,13 +320,32 @@ public class PrevalentManager<P extends PrevalentObject> implements Database<P>
    * @throws PrevalentException If errors are encountered while fetching the
    *   persistent object.
    */
-  @SuppressWarnings( {"unchecked"} )
   public P fetch( final Class type, final Object objectId )
       throws PrevalentException
+  {
+    return fetch( null, type, objectId );
+  }
+
+  /**
+   * Return the prevalent object identified by the object id specified,
+   * populating only the references included in the specified fetch plan.
+   *
+   * @param plan The fetch plan to use to compose the object.  Specify
+   *   <code>null</code> to use the default plan.
+   * @param type The type of the persisted object which has the specified
+   *   object id.
+   * @param objectId The object id of the prevalent object.
+   * @return The prevalent object if found or <code>null</code>.
+   * @throws PrevalentException If errors are encountered while fetching the
+   *   persistent object.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  public P fetch( final FetchPlan plan, final Class type,
+      final Object objectId ) throws PrevalentException
   {
     try
     {
-      final Fetch fetch = new Fetch( type, objectId );
+      final Fetch fetch = new Fetch( type, objectId, plan );
       return (P) getPrevayler().execute( fetch );
     }
     catch ( PrevalentException pex )
@@ -175,6 +360,36 @@ public class PrevalentManager<P extends PrevalentObject> implements Database<P>
     }
   }
 
+  /**
+   * Return the prevalent objects identified by the object ids specified.
+   * Object ids for which no object exists are ignored.
+   *
+   * @param type The type of the persisted objects.
+   * @param objectIds The object ids of the prevalent objects.
+   * @return The prevalent objects in the order of the object ids.
+   * @throws PrevalentException If errors are encountered while fetching the
+   *   persistent objects.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  public Collection<P> fetchAll( final Class type,
+      final Collection<?> objectIds ) throws PrevalentException
+  {
+    try
+    {
+      final FetchAll fetch = new FetchAll( type, objectIds );
+      return (Collection<P>) getPrevayler().execute( fetch );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException(
+          "Error fetching prevalent objects of type: " + type.getName(), t );
+    }
+  }
+
   /**
    * Return the collection of prevalent objects in the specified range.
    * Objects are returned in insertion order.
@@ -189,13 +404,34 @@ public class PrevalentManager<P extends PrevalentObject> implements Database<P>
    * @throws PrevalentException If errors are encountered while retrieving
    *   the persisted objects.
    */
-  @SuppressWarnings( {"unchecked"} )
   public Collection<P> fetch( final Class type, final long start,
       final long end ) throws PrevalentException
+  {
+    return fetch( null, type, start, end );
+  }
+
+  /**
+   * Return the collection of prevalent objects in the specified range,
+   * populating only the references included in the specified fetch plan.
+   *
+   * @param plan The fetch plan to use to compose the objects.  Specify
+   *   <code>null</code> to use the default plan.
+   * @param type The type of the persisted objects which are to be fetched.
+   * @param start The starting index (inclusive) of the range of objects
+   *   to fetch.
+   * @param end The ending index (exclusive) of the range of objects to
+   *   fetch.
+   * @return The collection of persistent objects.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the persisted objects.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  public Collection<P> fetch( final FetchPlan plan, final Class type,
+      final long start, final long end ) throws PrevalentException
   {
     try
     {
-      final FetchRange range = new FetchRange( type, start, end );
+      final FetchRange range = new FetchRange( type, start, end, plan );
       return (Collection<P>) getPrevayler().execute( range );
     }
     catch ( PrevalentException pex )
@@ -210,6 +446,128 @@ public class PrevalentManager<P extends PrevalentObject> implements Database<P>
     }
   }
 
+  /**
+   * Retrieve the collection of prevalent objects of the specified type
+   * whose value for the specified ordered indexed field is between the
+   * specified values (inclusive).  Objects are returned in ascending order
+   * of the field values.
+   *
+   * @see #fetchRange(Class, String, Object, boolean, Object, boolean, boolean)
+   * @param type The type of the persisted objects which are to be fetched.
+   * @param field The name of the ordered indexed field in the prevalent
+   *   class.
+   * @param low The lower bound for the field value.  Specify <code>null
+   *   </code> for no lower bound.
+   * @param high The upper bound for the field value.  Specify <code>null
+   *   </code> for no upper bound.
+   * @return The collection of persistent objects.  Returns an empty
+   *   collection if no objects are found in the specified range.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the persisted objects.
+   */
+  public Collection<P> fetchRange( final Class type, final String field,
+      final Object low, final Object high ) throws PrevalentException
+  {
+    return fetchRange( type, field, low, true, high, true, false );
+  }
+
+  /** {@inheritDoc} */
+  @SuppressWarnings( {"unchecked"} )
+  public Collection<P> fetchRange( final Class type, final String field,
+      final Object low, final boolean lowInclusive, final Object high,
+      final boolean highInclusive, final boolean descending )
+    throws PrevalentException
+  {
+    try
+    {
+      final FetchIndexRange range = new FetchIndexRange( type, field, low,
+          lowInclusive, high, highInclusive, descending );
+      return (Collection<P>) getPrevayler().execute( range );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException(
+          "Error fetching prevalent objects for indexed field: " + field +
+          " in range: " + low + "-" + high + " and type: " +
+          type.getName(), t );
+    }
+  }
+
+  /** {@inheritDoc} */
+  @SuppressWarnings( {"unchecked"} )
+  public Collection<P> fetchModifiedSince( final Class type,
+      final Date since, final int limit ) throws PrevalentException
+  {
+    try
+    {
+      final FetchModifiedSince query =
+          new FetchModifiedSince( type, since, limit );
+      return (Collection<P>) getPrevayler().execute( query );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException(
+          "Error fetching prevalent objects modified since: " + since +
+          " for type: " + type.getName(), t );
+    }
+  }
+
+  /** {@inheritDoc} */
+  @SuppressWarnings( {"unchecked"} )
+  public Collection<P> fetchByPrefix( final Class type, final String field,
+      final String prefix, final int limit ) throws PrevalentException
+  {
+    try
+    {
+      final FetchByPrefix query =
+          new FetchByPrefix( type, field, prefix, limit );
+      return (Collection<P>) getPrevayler().execute( query );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException(
+          "Error fetching prevalent objects for indexed field: " + field +
+          " with prefix: " + prefix + " and type: " + type.getName(), t );
+    }
+  }
+
+  /** {@inheritDoc} */
+  @SuppressWarnings( {"unchecked"} )
+  public Collection<P> fetchTop( final Class type, final String field,
+      final Object value, final String sortField, final boolean descending,
+      final int limit ) throws PrevalentException
+  {
+    try
+    {
+      final FetchTop query =
+          new FetchTop( type, field, value, sortField, descending, limit );
+      return (Collection<P>) getPrevayler().execute( query );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException(
+          "Error fetching top prevalent objects for indexed field: " +
+          field + " with value: " + value + " sorted by: " + sortField +
+          " and type: " + type.getName(), t );
+    }
+  }
+
   /**
    * Retrieve the collection of prevelant objects of the specified type
    * that are indexed by the specified field and value.
@@ -222,13 +580,33 @@ public class PrevalentManager<P extends PrevalentObject> implements Database<P>
    * @throws PrevalentException If errors are encountered while retrieving
    *   the persisted objects.
    */
-  @SuppressWarnings( {"unchecked"} )
   public Collection<P> fetch( final Class type, final String field,
       final Object value ) throws PrevalentException
+  {
+    return fetch( null, type, field, value );
+  }
+
+  /**
+   * Retrieve the collection of prevelant objects of the specified type
+   * that are indexed by the specified field and value, populating only the
+   * references included in the specified fetch plan.
+   *
+   * @param plan The fetch plan to use to compose the objects.  Specify
+   *   <code>null</code> to use the default plan.
+   * @param type The type of the persisted objects which are to be fetched.
+   * @param field The name of the indexed field in the prevalent class.
+   * @param value The value of the indexed field in the prevalent class.
+   * @return The collection of persistent objects.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the persisted objects.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  public Collection<P> fetch( final FetchPlan plan, final Class type,
+      final String field, final Object value ) throws PrevalentException
   {
     try
     {
-      final FetchByIndex index = new FetchByIndex( type, field, value );
+      final FetchByIndex index = new FetchByIndex( type, field, value, plan );
       return (Collection<P>) getPrevayler().execute( index );
     }
     catch ( PrevalentException pex )
@@ -243,6 +621,30 @@ public class PrevalentManager<P extends PrevalentObject> implements Database<P>
     }
   }
 
+  /** {@inheritDoc} */
+  @SuppressWarnings( {"unchecked"} )
+  public Collection<P> fetchByComposite( final Class type,
+      final String[] members, final Object[] values ) throws PrevalentException
+  {
+    try
+    {
+      final FetchByComposite composite =
+          new FetchByComposite( type, members, values );
+      return (Collection<P>) getPrevayler().execute( composite );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException(
+          "Error fetching prevalent objects for composite index: " +
+          Arrays.toString( members ) + " with values: " +
+          Arrays.toString( values ) + " and type: " + type.getName(), t );
+    }
+  }
+
   /**
    * Retrieve the collection of prevelant objects of the specified type
    * that are indexed by the specified fields and values.  The results
@@ -287,6 +689,83 @@ public class PrevalentManager<P extends PrevalentObject> implements Database<P>
         FetchByIndices.AggregationType.INTERSECTION );
   }
 
+  /** {@inheritDoc} */
+  @SuppressWarnings( {"unchecked"} )
+  public Object[] fetchObjectIds( final Class type, final String field,
+      final Object value ) throws PrevalentException
+  {
+    try
+    {
+      return (Object[]) getPrevayler().execute(
+          new FetchObjectIds( type, field, value ) );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException(
+          "Error fetching object ids for indexed field: " + field +
+          " with value: " + value + " and type: " + type.getName(), t );
+    }
+  }
+
+  /** {@inheritDoc} */
+  public Object[] fetchUnionObjectIds( final Class type,
+      final Map<String,?> parameters ) throws PrevalentException
+  {
+    return fetchObjectIds( type, parameters,
+        FetchByIndices.AggregationType.UNION );
+  }
+
+  /** {@inheritDoc} */
+  public Object[] fetchIntersectionObjectIds( final Class type,
+      final Map<String,?> parameters ) throws PrevalentException
+  {
+    return fetchObjectIds( type, parameters,
+        FetchByIndices.AggregationType.INTERSECTION );
+  }
+
+  /** {@inheritDoc} */
+  @SuppressWarnings( {"unchecked"} )
+  public Collection<IndexStatistics> fetchIndexStatistics( final Class type )
+      throws PrevalentException
+  {
+    try
+    {
+      return (Collection<IndexStatistics>) getPrevayler().execute(
+          new FetchIndexStatistics( type ) );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException(
+          "Error retrieving index statistics for type: " + type.getName(), t );
+    }
+  }
+
+  /** {@inheritDoc} */
+  public CacheStatistics fetchCacheStatistics() throws PrevalentException
+  {
+    try
+    {
+      return (CacheStatistics) getPrevayler().execute(
+          new FetchCacheStatistics() );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException( "Error retrieving cache statistics", t );
+    }
+  }
+
   /** {@inheritDoc} */
   @SuppressWarnings( {"unchecked"} )
   public Collection<P> search( final Query query, final int count ) throws PrevalentException
@@ -328,13 +807,35 @@ public class PrevalentManager<P extends PrevalentObject> implements Database<P>
   }
 
   /** {@inheritDoc} */
-  @SuppressWarnings( {"unchecked"} )
   public Collection<P> search( final Query query, final Filter filter,
       final int count, final Sort sort ) throws PrevalentException
+  {
+    return search( null, query, filter, count, sort );
+  }
+
+  /**
+   * Execute the specified lucene query and return the matching prevalent
+   * objects, populating only the references included in the specified
+   * fetch plan.
+   *
+   * @param plan The fetch plan to use to compose the objects.  Specify
+   *   <code>null</code> to use the default plan.
+   * @param query The lucene query that is to be executed.
+   * @param filter The optional filter to apply to the results.
+   * @param count The maximum number to top hits for the search to return.
+   * @param sort The optional sort criteria for the results.
+   * @return The collection of matching objects.
+   * @throws PrevalentException If errors are encountered while executing
+   *   the search.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  public Collection<P> search( final FetchPlan plan, final Query query,
+      final Filter filter, final int count, final Sort sort )
+      throws PrevalentException
   {
     try
     {
-      final Search search = new Search( query, filter, count, sort );
+      final Search search = new Search( query, filter, count, sort, plan );
       return (Collection<P>) getPrevayler().execute( search );
     }
     catch ( PrevalentException pex )
@@ -349,6 +850,45 @@ public class PrevalentManager<P extends PrevalentObject> implements Database<P>
   }
 
 
+  /**
+   * Execute the specified lucene query and return the type and object id
+   * of the matching prevalent objects.
+   *
+   * @see #searchObjectIds( Query, Filter, int, Sort )
+   * @param query The lucene query that is to be executed.
+   * @param count The maximum number to top hits for the search to return.
+   * @return The array of matching objects or an empty array.
+   * @throws PrevalentException If errors are encountered while executing
+   *   the search.
+   */
+  public IndexedObject[] searchObjectIds( final Query query,
+      final int count ) throws PrevalentException
+  {
+    return searchObjectIds( query, null, count, null );
+  }
+
+  /** {@inheritDoc} */
+  @SuppressWarnings( {"unchecked"} )
+  public IndexedObject[] searchObjectIds( final Query query,
+      final Filter filter, final int count, final Sort sort )
+    throws PrevalentException
+  {
+    try
+    {
+      return (IndexedObject[]) getPrevayler().execute(
+          new SearchObjectIds( query, filter, count, sort ) );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException( "Error executing query: " + query +
+          " with filter: " + filter, t );
+    }
+  }
+
   /**
    * Retrieve the collection of prevelant objects of the specified type
    * that are indexed by the specified fields and values.
@@ -384,4 +924,74 @@ public class PrevalentManager<P extends PrevalentObject> implements Database<P>
           "Error fetching prevalent objects of type: " + type.getName(), t );
     }
   }
+
+  /**
+   * Return the number of prevelant objects of the specified type that are
+   * indexed by the specified fields and values.
+   *
+   * @param type The type of the persisted objects which are to be counted.
+   * @param parameters The map of field-name to value mappings to use
+   *   to count instances.
+   * @param resultType The type of aggregation to be used for the count.
+   * @return The number of matching persistent objects.
+   * @throws PrevalentException If errors are encountered while counting
+   *   the persisted objects.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  protected int countByIndices( final Class type,
+      final Map<String,?> parameters,
+      final FetchByIndices.AggregationType resultType )
+    throws PrevalentException
+  {
+    try
+    {
+      final CountByIndices indices =
+          new CountByIndices( type, parameters, resultType );
+      return (Integer) getPrevayler().execute( indices );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException(
+          "Error counting prevalent objects of type: " + type.getName(), t );
+    }
+  }
+
+  /**
+   * Retrieve the object ids of the prevelant objects of the specified type
+   * that are indexed by the specified fields and values.
+   *
+   * @param type The type of the persisted objects which are to be fetched.
+   * @param parameters The map of field-name to value mappings to use
+   *   to fetch object ids.
+   * @param resultType The type of aggregation to be used for the result set.
+   * @return The array of object ids.  Returns an empty array if no objects
+   *   are found with the specified indexed values.
+   * @throws PrevalentException If errors are encountered while retrieving
+   *   the object ids.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  protected Object[] fetchObjectIds( final Class type,
+      final Map<String,?> parameters,
+      final FetchByIndices.AggregationType resultType )
+    throws PrevalentException
+  {
+    try
+    {
+      return (Object[]) getPrevayler().execute(
+          new FetchObjectIds( type, parameters, resultType ) );
+    }
+    catch ( PrevalentException pex )
+    {
+      throw pex;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException(
+          "Error fetching object ids of type: " + type.getName(), t );
+    }
+  }
 }
@@ -1,6 +1,8 @@
 package com.sptci.prevayler;
 
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Abstract base class whose instances are stored in the prevalent system.
@@ -29,6 +31,27 @@ public abstract class PrevalentObject<K>
    */
   private MetaData _sptodbMetaData;
 
+  /**
+   * A flag indicating that this instance is a read-only view returned by a
+   * query executed with a {@link FetchPlan#isReadOnly read-only} fetch plan.
+   * A view may be the instance stored in the prevalent system, and hence
+   * must not be modified.
+   */
+  private transient volatile boolean _sptodbFrozen;
+
+  /**
+   * The names of the fields that have been modified since the instance was
+   * fetched, as recorded by {@link #markDirty}.  This is <code>null</code>
+   * for instances whose changes are not tracked, in which case all the
+   * fields are compared when the instance is saved.  The field is not
+   * transient, hence the recorded changes are serialised with the instance
+   * into the journaled save transaction, so that replaying the journal
+   * compares the same fields.  The prevalent system clears the field once
+   * the instance has been saved, hence stored instances (and snapshots) do
+   * not carry recorded changes.  {@link #clone} also clears the field.
+   */
+  private Set<String> _sptodbDirty;
+
   /** Default constructor. Note that a no-arg constructor is mandatory. */
   protected PrevalentObject() {}
 
@@ -139,7 +162,9 @@ public abstract class PrevalentObject<K>
   }
 
   /**
-   * Over-ridden to make publicly accessible.
+   * Over-ridden to make publicly accessible.  The clone of a read-only view
+   * is not frozen, and may be modified and saved.  Changes recorded by
+   * {@link #markDirty} are not copied to the clone.
    *
    * @return The cloned instance of this object.
    * @throws RuntimeException If the object cannot be cloned.
@@ -149,7 +174,10 @@ public abstract class PrevalentObject<K>
   {
     try
     {
-      return super.clone();
+      final PrevalentObject<?> object = (PrevalentObject<?>) super.clone();
+      object._sptodbFrozen = false;
+      object._sptodbDirty = null;
+      return object;
     }
     catch ( CloneNotSupportedException cex )
     {
@@ -178,6 +206,92 @@ public abstract class PrevalentObject<K>
     this._sptodbMetaData = metadata;
   }
 
+  /**
+   * Return a flag indicating whether this instance is a read-only view.
+   *
+   * @see #checkModifiable
+   * @return Return <code>true</code> if the instance must not be modified.
+   */
+  public final boolean isFrozen()
+  {
+    return _sptodbFrozen;
+  }
+
+  /**
+   * Mark this instance as a read-only view.
+   *
+   * @see #isFrozen
+   */
+  final void freeze()
+  {
+    _sptodbFrozen = true;
+  }
+
+  /**
+   * Ensure that this instance may be modified.  Sub-classes should invoke
+   * this method from their mutators, so that read-only views that are
+   * shared between queries are not modified.  Use {@link #clone} to obtain
+   * a copy of a view that may be modified.
+   *
+   * @throws IllegalStateException If this instance is a read-only view.
+   */
+  protected final void checkModifiable() throws IllegalStateException
+  {
+    if ( _sptodbFrozen )
+    {
+      throw new IllegalStateException( "Cannot modify read-only view: " +
+          getClass().getName() + " objectId=" + objectId );
+    }
+  }
+
+  /**
+   * Record that the specified field of this instance has been modified.
+   * Sub-classes may invoke this method from their mutators, in which case
+   * only the recorded fields (and the references to other prevalent
+   * objects) are compared and re-indexed when the instance is saved.
+   * Instances for which no change is recorded are compared field by field.
+   * Classes that record changes must do so from all their mutators, since
+   * unrecorded changes to other fields are ignored once any change has been
+   * recorded.
+   *
+   * @param field The name of the field that was modified.
+   * @throws IllegalArgumentException If the class has no such field.
+   */
+  protected final void markDirty( final String field )
+      throws IllegalArgumentException
+  {
+    if ( ClassDescriptor.forObject( this ).getAccessor( field ) == null )
+    {
+      throw new IllegalArgumentException( "No field named " + field +
+          " in " + getClass().getName() );
+    }
+
+    if ( _sptodbDirty == null ) _sptodbDirty = new HashSet<String>();
+    _sptodbDirty.add( field );
+  }
+
+  /**
+   * Return the names of the fields recorded as modified.
+   *
+   * @see #markDirty
+   * @return The field names or <code>null</code> if no change has been
+   *   recorded.
+   */
+  final Set<String> getDirtyFields()
+  {
+    return _sptodbDirty;
+  }
+
+  /**
+   * Discard the changes recorded for this instance.
+   *
+   * @see #markDirty
+   */
+  final void clearDirtyFields()
+  {
+    _sptodbDirty = null;
+  }
+
   /**
    * Return the object id for the business object.
    *
@@ -1,18 +1,32 @@
 package com.sptci.prevayler;
 
 import com.sptci.ReflectionUtility;
+import com.sptci.prevayler.annotations.Index;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Sort;
 
-import java.lang.reflect.Field;
+import java.io.File;
+import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 
 /**
@@ -48,9 +62,521 @@ public class PrevalentSystem extends ObjectGraphSystem
   /** The name of the meta data field in {@link PrevalentObject}. */
   private static final String META_DATA = "_sptodbMetaData";
 
+  /** The name of the read-only view flag in {@link PrevalentObject}. */
+  private static final String FROZEN = "_sptodbFrozen";
+
+  /** The name of the dirty field names in {@link PrevalentObject}. */
+  private static final String DIRTY = "_sptodbDirty";
+
+  /**
+   * A map used to maintain the prevalent objects that have been appended
+   * to the system by bulk loads and are yet to be indexed.  The <code>key
+   * </code> for the map are the identifiers of the bulk load sessions.
+   */
+  private Map<String,BulkSession> bulkSessions;
+
+  /**
+   * The identifier of the bulk load session that is appending objects to
+   * the system.  Objects added (including the objects reachable from them)
+   * are stored without being checked or indexed while set.
+   */
+  private transient String bulkSession;
+
   /** Default constructor. */
   protected PrevalentSystem() {}
 
+  /**
+   * Append the specified prevalent objects to the system as part of a bulk
+   * load.  The objects (and any new objects reachable from them) are
+   * stored in primary and reference storage without checking unique or
+   * foreign key constraints and without being indexed.  Objects that are
+   * already persistent are saved normally.
+   *
+   * @see #bulkIndex
+   * @see BulkLoader
+   * @param session The identifier of the bulk load session.
+   * @param objects The prevalent objects to append.
+   * @param executionTime The time at which the transaction was executed.
+   * @return The number of objects appended.
+   * @throws PrevalentException If errors are encountered while storing the
+   *   objects, or if an object with the same object id already exists.
+   */
+  public Integer bulkAdd( final String session,
+      final Collection<PrevalentObject> objects, final Date executionTime )
+      throws PrevalentException
+  {
+    final BulkSession bulk = getBulkSession( session );
+    bulk.begin( getSequence() );
+    bulkSession = session;
+
+    try
+    {
+      for ( PrevalentObject object : objects )
+      {
+        save( object, executionTime );
+      }
+    }
+    finally
+    {
+      bulkSession = null;
+      bulk.end( getSequence() );
+    }
+
+    return objects.size();
+  }
+
+  /**
+   * Validate constraints for and build the indices of all the prevalent
+   * objects that were appended by {@link #bulkAdd} or {@link #bulkImport}
+   * in the specified session.  Constraints are checked for each type using
+   * set based checks, after which the indices for each type are built in
+   * parallel.  If any constraint is violated all the objects appended in
+   * the session are removed from the system.  Objects appended in other
+   * sessions are not affected.
+   *
+   * @see #checkUnique( Class, Collection )
+   * @param session The identifier of the bulk load session.
+   * @param executionTime The time at which the transaction was executed.
+   * @return The number of objects indexed.
+   * @throws ConstraintException If the appended objects violate constraints.
+   * @throws PrevalentException If errors are encountered while building the
+   *   indices.
+   */
+  public Integer bulkIndex( final String session, final Date executionTime )
+      throws PrevalentException
+  {
+    final BulkSession bulk = getBulkSessions().remove( session );
+    if ( bulk == null ) return 0;
+
+    final Map<Class,Collection<PrevalentObject>> objects = getObjects( bulk );
+    int count = 0;
+    for ( Collection<PrevalentObject> collection : objects.values() )
+    {
+      count += collection.size();
+    }
+
+    try
+    {
+      for ( Map.Entry<Class,Collection<PrevalentObject>> entry :
+          objects.entrySet() )
+      {
+        checkUnique( entry.getKey(), entry.getValue() );
+      }
+    }
+    catch ( PrevalentException pex )
+    {
+      discard( bulk, objects );
+      throw pex;
+    }
+
+    for ( Map.Entry<Class,Collection<PrevalentObject>> entry :
+        objects.entrySet() )
+    {
+      addReferences( entry.getKey(), entry.getValue() );
+    }
+
+    index( objects.values() );
+    return count;
+  }
+
+  /**
+   * Remove all the prevalent objects that were appended by {@link #bulkAdd}
+   * or {@link #bulkImport} in the specified session from the system.  Used
+   * to roll back a bulk load that could not be completed.  Objects appended
+   * in other sessions are not affected.
+   *
+   * @see Importer
+   * @param session The identifier of the bulk load session.
+   * @param executionTime The time at which the transaction was executed.
+   * @return The number of objects removed.
+   */
+  public Integer bulkDiscard( final String session, final Date executionTime )
+  {
+    final BulkSession bulk = getBulkSessions().remove( session );
+    if ( bulk == null ) return 0;
+
+    final Map<Class,Collection<PrevalentObject>> objects = getObjects( bulk );
+    int count = 0;
+    for ( Collection<PrevalentObject> collection : objects.values() )
+    {
+      count += collection.size();
+    }
+
+    discard( bulk, objects );
+    return count;
+  }
+
+  /**
+   * Append the specified exported prevalent objects to the system as part
+   * of an import.  The objects are stored with their original object ids,
+   * meta data and references in primary and reference storage without
+   * checking unique or foreign key constraints and without being indexed.
+   *
+   * @see #bulkIndex
+   * @see Importer
+   * @param session The identifier of the bulk load session.
+   * @param records The records of the objects to append.
+   * @param executionTime The time at which the transaction was executed.
+   * @return The number of objects appended.
+   * @throws PrevalentException If errors are encountered while storing the
+   *   objects, or if an object with the same object id already exists.
+   */
+  public Integer bulkImport( final String session,
+      final Collection<ImportRecord> records, final Date executionTime )
+      throws PrevalentException
+  {
+    final BulkSession bulk = getBulkSession( session );
+    bulk.begin( getSequence() );
+
+    try
+    {
+      for ( ImportRecord record : records )
+      {
+        final PrevalentObject object = record.getObject();
+        checkObjectId( object );
+        setOid( object );
+
+        getPrimaryStorage( object.getClass() ).add( object );
+        bulk.add( object );
+        invalidate( object );
+
+        final ReferenceStorage referenceStorage =
+            getReferenceStorage( object.getClass() );
+        for ( Map.Entry<String,Object> entry :
+            record.getReferences().entrySet() )
+        {
+          referenceStorage.add( object, entry.getKey(), entry.getValue() );
+        }
+      }
+    }
+    finally
+    {
+      bulk.end( getSequence() );
+    }
+
+    return records.size();
+  }
+
+  /**
+   * Export all the prevalent objects in the system to files in the
+   * specified directory.  The objects of each prevalent class are streamed
+   * to a separate file by a separate worker thread.  This method must only
+   * be invoked from a query to ensure that the system is not modified while
+   * the files are being written.
+   *
+   * @see ExportWriter
+   * @see com.sptci.prevayler.query.Export
+   * @param directory The directory to which the files are written.  The
+   *   directory is created if necessary.
+   * @return The total number of objects exported.
+   * @throws PrevalentException If errors are encountered while writing the
+   *   files.
+   */
+  public Integer export( final File directory ) throws PrevalentException
+  {
+    if ( ! directory.isDirectory() && ! directory.mkdirs() )
+    {
+      throw new PrevalentException( "Unable to create directory: " +
+          directory );
+    }
+
+    final List<ExportWriter> writers = new ArrayList<ExportWriter>();
+
+    try
+    {
+      for ( String name : new ArrayList<String>( getStoredClasses() ) )
+      {
+        final PrimaryStorage primaryStorage = getPrimaryStorage( name );
+        if ( primaryStorage.size() == 0 ) continue;
+
+        writers.add( new ExportWriter( Class.forName( name ), primaryStorage,
+            getReferenceStorage( name ),
+            new File( directory, name + ExportFormat.EXTENSION ) ) );
+      }
+    }
+    catch ( ClassNotFoundException cnfe )
+    {
+      throw new PrevalentException( cnfe );
+    }
+
+    if ( writers.isEmpty() ) return 0;
+
+    final int threads = Math.min( writers.size(),
+        Runtime.getRuntime().availableProcessors() );
+    final ExecutorService executor = Executors.newFixedThreadPool( threads );
+    int count = 0;
+
+    try
+    {
+      for ( Future<Integer> future : executor.invokeAll( writers ) )
+      {
+        count += future.get();
+      }
+    }
+    catch ( ExecutionException eex )
+    {
+      throw new PrevalentException( "Error exporting to directory: " +
+          directory, eex.getCause() );
+    }
+    catch ( InterruptedException iex )
+    {
+      throw new PrevalentException( iex );
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+
+    return count;
+  }
+
+  /**
+   * Determine whether the indices maintained by the system differ from the
+   * index annotations of the stored prevalent classes.  Indices may have
+   * been added to classes with existing objects, or may no longer be
+   * declared.  Classes that can no longer be loaded are ignored.
+   *
+   * @see IndexBuilder
+   * @return Returns <code>true</code> if indices are to be built or dropped.
+   */
+  public Boolean hasIndexChanges()
+  {
+    for ( String name : getStoredClasses() )
+    {
+      final Class cls = getStoredClass( name );
+      if ( cls == null ) continue;
+
+      if ( ! getMissingIndices( cls ).isEmpty() ||
+          ! getStaleIndices( cls ).isEmpty() )
+      {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Reconcile the indices maintained by the system with the index
+   * annotations of the stored prevalent classes.  Indices that are no
+   * longer declared are dropped.  {@link #getOutdatedIndices Outdated}
+   * indices are dropped and built again.  Indices that are declared for classes
+   * with existing objects but have not been built are marked as pending.
+   * Queries against a pending index scan the primary storage until the
+   * index is built by {@link #buildIndex} and marked complete by {@link
+   * #completeIndexBuild}.
+   *
+   * @see IndexBuilder
+   * @param executionTime The time at which the transaction was executed.
+   * @return The map of class names to the names of the pending indices.
+   */
+  public Map<String,Collection<String>> prepareIndexBuild(
+      final Date executionTime )
+  {
+    final Map<String,Collection<String>> result =
+        new LinkedHashMap<String,Collection<String>>();
+
+    for ( String name : new ArrayList<String>( getStoredClasses() ) )
+    {
+      final Class cls = getStoredClass( name );
+      if ( cls == null ) continue;
+
+      final IndexStorage indexStorage = getIndexStorage( cls );
+      for ( String index : getStaleIndices( cls ) )
+      {
+        indexStorage.drop( index );
+      }
+
+      for ( String index : getOutdatedIndices( cls ) )
+      {
+        indexStorage.drop( index );
+      }
+
+      final Collection<String> missing = getMissingIndices( cls );
+      if ( missing.isEmpty() ) continue;
+
+      getPendingIndices().put( name, new LinkedHashSet<String>( missing ) );
+      result.put( name, new ArrayList<String>( missing ) );
+    }
+
+    return result;
+  }
+
+  /**
+   * Return the object ids of the stored objects of the specified
+   * prevalent class, excluding the objects appended by open bulk load
+   * sessions.  This is used to build indices in batches without holding
+   * the system for the entire build.
+   *
+   * @see IndexBuilder
+   * @param className The fully qualified name of the prevalent class.
+   * @return The array of object ids.
+   */
+  public Object[] getObjectIds( final String className )
+  {
+    final Collection<PrevalentObject> objects =
+        getPrimaryStorage( className ).values();
+    final Set<Object> unindexed = getUnindexedObjectIds( className );
+    final List<Object> oids = new ArrayList<Object>( objects.size() );
+
+    for ( PrevalentObject object : objects )
+    {
+      if ( ! unindexed.contains( object.getObjectId() ) )
+      {
+        oids.add( object.getObjectId() );
+      }
+    }
+
+    return oids.toArray();
+  }
+
+  /**
+   * Return the object ids of the objects of the specified prevalent class
+   * appended by the open bulk load sessions.  These objects are indexed
+   * and their constraints checked when their session is closed by {@link
+   * #bulkIndex}.
+   *
+   * @param className The fully qualified name of the prevalent class.
+   * @return The object ids of the appended objects.
+   */
+  @Override
+  protected Set<Object> getUnindexedObjectIds( final String className )
+  {
+    if ( ( bulkSessions == null ) || bulkSessions.isEmpty() )
+    {
+      return Collections.emptySet();
+    }
+
+    final Set<Object> oids = new HashSet<Object>();
+    for ( BulkSession bulk : bulkSessions.values() )
+    {
+      final Collection<Object> collection = bulk.objects.get( className );
+      if ( collection != null ) oids.addAll( collection );
+    }
+
+    return oids;
+  }
+
+  /**
+   * Build the specified indices for the specified existing objects of the
+   * specified prevalent class.  Objects that have been deleted since the
+   * object ids were retrieved are ignored.  Objects that were added or
+   * updated since the build was prepared are already indexed, and indexing
+   * them again has no effect.
+   *
+   * @see IndexBuilder
+   * @param className The fully qualified name of the prevalent class.
+   * @param names The names of the indices to build.
+   * @param oids The object ids of the objects to index.
+   * @param executionTime The time at which the transaction was executed.
+   * @return The number of objects indexed.
+   * @throws PrevalentException If errors are encountered while indexing the
+   *   objects.
+   */
+  public Integer buildIndex( final String className,
+      final Collection<String> names, final Collection<Object> oids,
+      final Date executionTime ) throws PrevalentException
+  {
+    final PrimaryStorage primaryStorage = getPrimaryStorage( className );
+    int count = 0;
+
+    for ( Object oid : oids )
+    {
+      final PrevalentObject object = primaryStorage.get( oid );
+      if ( object == null ) continue;
+
+      index( object, names );
+      ++count;
+    }
+
+    return count;
+  }
+
+  /**
+   * Mark the build of the specified indices of the specified prevalent
+   * class as complete.  Queries against the indices use the index storage
+   * from this point on.  The unique constraints of the indices are checked
+   * against the existing objects first.  Unique indices that contain
+   * duplicate values are dropped and remain pending, so that queries
+   * against them continue to scan the primary storage.  The objects that
+   * violate the constraints are reported, but are not removed from the
+   * system.
+   *
+   * @see IndexBuilder
+   * @see #getDuplicateValues
+   * @param className The fully qualified name of the prevalent class.
+   * @param names The names of the indices that were built.
+   * @param executionTime The time at which the transaction was executed.
+   * @return The number of indices that are still pending for the class.
+   * @throws ConstraintException If the existing objects have duplicate
+   *   values for any of the unique indices that were built.
+   */
+  public Integer completeIndexBuild( final String className,
+      final Collection<String> names, final Date executionTime )
+      throws ConstraintException
+  {
+    final Class cls = getStoredClass( className );
+    final Map<String,Collection<Object>> duplicates = ( cls == null ) ?
+        Collections.<String,Collection<Object>>emptyMap() :
+        getDuplicateValues( cls, names );
+
+    final Collection<String> complete = new ArrayList<String>( names );
+    complete.removeAll( duplicates.keySet() );
+
+    Collection<String> pending = getPendingIndices().get( className );
+    if ( pending != null )
+    {
+      pending.removeAll( complete );
+      if ( pending.isEmpty() ) getPendingIndices().remove( className );
+    }
+
+    if ( ! duplicates.isEmpty() )
+    {
+      if ( ( pending == null ) || pending.isEmpty() )
+      {
+        pending = new LinkedHashSet<String>();
+        getPendingIndices().put( className, pending );
+      }
+      pending.addAll( duplicates.keySet() );
+
+      final IndexStorage indexStorage = getIndexStorage( cls );
+      final Map<String,Collection<Object>> values =
+          new LinkedHashMap<String,Collection<Object>>();
+
+      for ( Map.Entry<String,Collection<Object>> entry :
+          duplicates.entrySet() )
+      {
+        indexStorage.drop( entry.getKey() );
+        values.put( entry.getKey().replace( "#", "," ), entry.getValue() );
+      }
+
+      throw new ConstraintException( "Unique indices of class: " +
+          className + " contain duplicate values: " + values );
+    }
+
+    return ( pending == null ) ? 0 : pending.size();
+  }
+
+  /**
+   * Return the prevalent class with the specified name.  Log a warning and
+   * return <code>null</code> if the class can no longer be loaded.
+   *
+   * @param name The fully qualified name of the class.
+   * @return The prevalent class or <code>null</code>.
+   */
+  private Class getStoredClass( final String name )
+  {
+    try
+    {
+      return Class.forName( name );
+    }
+    catch ( ClassNotFoundException cnfe )
+    {
+      logger.log( Level.WARNING, "Unable to load stored class: " + name, cnfe );
+      return null;
+    }
+  }
+
   /** {@inheritDoc} */
   public PrevalentObject save( final PrevalentObject object,
       final Date executionTime ) throws PrevalentException
@@ -76,10 +602,10 @@ public class PrevalentSystem extends ObjectGraphSystem
       primaryStorage.remove( object );
 
       remove( object );
+      invalidate( object );
 
       getTaskQueue().remove( object );
-      final Field field = ReflectionUtility.fetchField( OBJECT_ID, object );
-      field.set( object, null );
+      ClassDescriptor.forObject( object ).getObjectIdField().set( object, null );
       object.set_sptodbMetaData( null );
     }
     catch ( Throwable t )
@@ -121,6 +647,23 @@ public class PrevalentSystem extends ObjectGraphSystem
     return compose( primaryStorage.get( oid ) );
   }
 
+  /** {@inheritDoc} */
+  public Collection<PrevalentObject> fetchAll( final Class cls,
+      final Collection<?> oids ) throws PrevalentException
+  {
+    final Collection<PrevalentObject> results =
+        new ArrayList<PrevalentObject>( oids.size() );
+    final PrimaryStorage primaryStorage = getPrimaryStorage( cls );
+
+    for ( Object oid : oids )
+    {
+      final PrevalentObject po = primaryStorage.get( oid );
+      if ( po != null ) results.add( compose( po ) );
+    }
+
+    return results;
+  }
+
   /** {@inheritDoc} */
   public Collection<PrevalentObject> fetch( final Class cls,
       final String field, final Object object )
@@ -129,13 +672,12 @@ public class PrevalentSystem extends ObjectGraphSystem
     final Collection<PrevalentObject> results =
         new LinkedHashSet<PrevalentObject>();
 
-    final IndexStorage indexStorage = getIndexStorage( cls );
-    final Collection<IndexedObject> collection =
-        indexStorage.get( field, object );
+    final IndexStorage indexStorage = getIndexStorage( cls, field );
+    final Collection<Object> collection = indexStorage.get( field, object );
 
-    for ( IndexedObject io : collection )
+    for ( Object oid : collection )
     {
-      final PrevalentObject po = fetch( io.type, io.objectId );
+      final PrevalentObject po = fetch( cls, oid );
       results.add( po );
     }
 
@@ -143,59 +685,286 @@ public class PrevalentSystem extends ObjectGraphSystem
   }
 
   /** {@inheritDoc} */
-  public Collection<PrevalentObject> fetchUnion( final Class cls,
-      final Map<String,?> parameters ) throws PrevalentException
+  public Collection<PrevalentObject> fetchRange( final Class cls,
+      final String field, final Object low, final boolean lowInclusive,
+      final Object high, final boolean highInclusive,
+      final boolean descending ) throws PrevalentException
   {
     final Collection<PrevalentObject> results =
         new LinkedHashSet<PrevalentObject>();
 
-    for ( Map.Entry<String,?> entry : parameters.entrySet() )
+    final IndexStorage indexStorage = getIndexStorage( cls, field );
+    if ( ! indexStorage.isFieldIndexed( field ) ) return results;
+
+    if ( ! indexStorage.isOrdered( field ) )
+    {
+      throw new PrevalentException( "Field: " + field + " in class: " +
+          cls.getName() + " does not have an ordered index" );
+    }
+
+    final Collection<Object> collection;
+
+    try
+    {
+      collection = indexStorage.get(
+          field, low, lowInclusive, high, highInclusive, descending );
+    }
+    catch ( ClassCastException cce )
+    {
+      throw new PrevalentException( "Range: " + low + "-" + high +
+          " is not comparable with values of field: " + field +
+          " in class: " + cls.getName(), cce );
+    }
+
+    for ( Object oid : collection )
     {
-      results.addAll( fetch( cls, entry.getKey(), entry.getValue() ) );
+      results.add( fetch( cls, oid ) );
     }
 
     return results;
   }
 
   /** {@inheritDoc} */
-  public Collection<PrevalentObject> fetchIntersection( final Class cls,
-      final Map<String,?> parameters ) throws PrevalentException
+  public Collection<PrevalentObject> fetchModifiedSince( final Class cls,
+      final Date since, final int limit ) throws PrevalentException
   {
     final Collection<PrevalentObject> results =
         new LinkedHashSet<PrevalentObject>();
+    final String field = IndexStorage.MODIFIED_INDEX;
 
-    List<Collection<PrevalentObject>> matches =
-        new ArrayList<Collection<PrevalentObject>>( parameters.size() );
+    for ( Object oid : getIndexStorage( cls, field ).get(
+        field, since.getTime(), true, null, false, false, limit ) )
+    {
+      results.add( fetch( cls, oid ) );
+    }
 
-    for ( Map.Entry<String,?> entry : parameters.entrySet() )
+    return results;
+  }
+
+  /** {@inheritDoc} */
+  public Collection<PrevalentObject> fetchByPrefix( final Class cls,
+      final String field, final String prefix, final int limit )
+    throws PrevalentException
+  {
+    final Collection<PrevalentObject> results =
+        new LinkedHashSet<PrevalentObject>();
+
+    final IndexStorage indexStorage = getIndexStorage( cls, field );
+    if ( ! indexStorage.isFieldIndexed( field ) ) return results;
+
+    if ( ! indexStorage.isOrdered( field ) )
     {
-      final Collection<PrevalentObject> coll =
-          fetch( cls, entry.getKey(), entry.getValue() );
-      matches.add( coll );
+      throw new PrevalentException( "Field: " + field + " in class: " +
+          cls.getName() + " does not have a prefix index" );
     }
 
-    for ( int i = 0; i < matches.size(); ++i )
+    final Collection<Object> collection;
+
+    try
     {
-      for ( PrevalentObject po : matches.get( i ) )
-      {
-        boolean add = true;
+      collection = indexStorage.get( field, prefix, limit );
+    }
+    catch ( ClassCastException cce )
+    {
+      throw new PrevalentException( "Values of field: " + field +
+          " in class: " + cls.getName() + " are not strings", cce );
+    }
 
-        for ( int j = 0; j < matches.size(); ++j )
-        {
-          if ( i != j )
-          {
-            if ( ! matches.get( j ).contains( po ) )
-            {
-              add = false;
-            }
-          }
-        }
+    for ( Object oid : collection )
+    {
+      results.add( fetch( cls, oid ) );
+    }
+
+    return results;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The top objects are selected from the index postings using a heap
+   * bounded to <code>limit</code> entries, hence only the returned objects
+   * are composed.</p>
+   *
+   * @see IndexStorage#top
+   */
+  public Collection<PrevalentObject> fetchTop( final Class cls,
+      final String field, final Object value, final String sortField,
+      final boolean descending, final int limit ) throws PrevalentException
+  {
+    final IndexStorage indexStorage = getIndexStorage( cls, sortField );
+    if ( ! indexStorage.isFieldIndexed( sortField ) )
+    {
+      return new LinkedHashSet<PrevalentObject>();
+    }
+
+    if ( ! indexStorage.isOrdered( sortField ) )
+    {
+      throw new PrevalentException( "Field: " + sortField + " in class: " +
+          cls.getName() + " does not have an ordered index" );
+    }
+
+    Postings postings = null;
+    if ( field != null )
+    {
+      postings = getIndexStorage( cls, field ).getPostings( field, value );
+      if ( postings == null ) return new LinkedHashSet<PrevalentObject>();
+    }
+
+    try
+    {
+      return compose( cls,
+          indexStorage.top( sortField, postings, descending, limit ) );
+    }
+    catch ( ClassCastException cce )
+    {
+      throw new PrevalentException( "Values of field: " + sortField +
+          " in class: " + cls.getName() + " are not comparable", cce );
+    }
+  }
 
-        if ( add ) results.add( po );
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The union is computed on the index postings of the matching object
+   * ids, and each matching object is composed only once.</p>
+   */
+  public Collection<PrevalentObject> fetchUnion( final Class cls,
+      final Map<String,?> parameters ) throws PrevalentException
+  {
+    return compose( cls, getUnion( cls, parameters ) );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Composite indices stored before the member values were indexed as
+   * tuples are answered by intersecting the indices of the members until
+   * they have been rebuilt.</p>
+   *
+   * @see IndexBuilder
+   */
+  public Collection<PrevalentObject> fetchByComposite( final Class cls,
+      final String[] members, final Object[] values ) throws PrevalentException
+  {
+    if ( members.length != values.length )
+    {
+      throw new PrevalentException( "Number of values: " + values.length +
+          " does not match number of members: " + members.length +
+          " for composite index in class: " + cls.getName() );
+    }
+
+    final IndexStorage indexStorage = getIndexStorage( cls );
+    final String name = indexStorage.getFieldName( members );
+    if ( indexStorage.isFieldIndexed( name ) &&
+        ! indexStorage.isComposite( name ) && ! isPending( cls, name ) )
+    {
+      final Map<String,Object> parameters = new LinkedHashMap<String,Object>();
+      for ( int i = 0; i < members.length; ++i )
+      {
+        parameters.put( members[i], values[i] );
       }
+
+      return fetchIntersection( cls, parameters );
     }
 
-    return results;
+    return compose( cls, getIndexStorage( cls, name ).getPostings(
+        members, Arrays.asList( values ) ) );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The intersection is computed on the index postings of the matching
+   * object ids, starting from the smallest postings and probing the others.
+   * Only the objects in the final intersection are composed, hence the
+   * cost is proportional to the smallest set of matches.  If a class level
+   * composite index exists whose members are all specified in the
+   * parameters, the composite index is probed for those members instead of
+   * intersecting the postings of the individual fields.</p>
+   *
+   * @see Postings#intersect
+   */
+  public Collection<PrevalentObject> fetchIntersection( final Class cls,
+      final Map<String,?> parameters ) throws PrevalentException
+  {
+    return compose( cls, getIntersection( cls, parameters ) );
+  }
+
+  /** {@inheritDoc} */
+  public int countByIndex( final Class cls, final String field,
+      final Object value ) throws PrevalentException
+  {
+    final Postings postings =
+        getIndexStorage( cls, field ).getPostings( field, value );
+    return ( postings == null ) ? 0 : postings.size();
+  }
+
+  /** {@inheritDoc} */
+  public boolean existsByIndex( final Class cls, final String field,
+      final Object value ) throws PrevalentException
+  {
+    final Postings postings =
+        getIndexStorage( cls, field ).getPostings( field, value );
+    return ( postings != null ) && ! postings.isEmpty();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The count is computed on the index postings without composing the
+   * matching objects.</p>
+   */
+  public int countUnion( final Class cls, final Map<String,?> parameters )
+      throws PrevalentException
+  {
+    return getUnion( cls, parameters ).size();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The count is computed on the index postings without composing the
+   * matching objects.</p>
+   */
+  public int countIntersection( final Class cls,
+      final Map<String,?> parameters ) throws PrevalentException
+  {
+    return getIntersection( cls, parameters ).size();
+  }
+
+  /** {@inheritDoc} */
+  public Object[] fetchObjectIds( final Class cls, final String field,
+      final Object value ) throws PrevalentException
+  {
+    final Postings postings =
+        getIndexStorage( cls, field ).getPostings( field, value );
+    return ( postings == null ) ? new Object[0] : postings.toArray();
+  }
+
+  /** {@inheritDoc} */
+  public Object[] fetchUnionObjectIds( final Class cls,
+      final Map<String,?> parameters ) throws PrevalentException
+  {
+    return getUnion( cls, parameters ).toArray();
+  }
+
+  /** {@inheritDoc} */
+  public Object[] fetchIntersectionObjectIds( final Class cls,
+      final Map<String,?> parameters ) throws PrevalentException
+  {
+    return getIntersection( cls, parameters ).toArray();
+  }
+
+  /** {@inheritDoc} */
+  public Collection<IndexStatistics> fetchIndexStatistics( final Class cls )
+  {
+    return getIndexStorage( cls ).getStatistics();
+  }
+
+  /** {@inheritDoc} */
+  public CacheStatistics fetchCacheStatistics()
+  {
+    return getObjectCache().getStatistics();
   }
 
   /** {@inheritDoc} */
@@ -216,27 +985,42 @@ public class PrevalentSystem extends ObjectGraphSystem
   }
 
   /** {@inheritDoc} */
-  public Collection<PrevalentObject> search( final Query query,
+  public Collection<PrevalentObject> search( final Query query,
+      final Filter filter, final int count, final Sort sort )
+      throws PrevalentException
+  {
+    Collection<PrevalentObject> collection =
+        new LinkedHashSet<PrevalentObject>( count );
+
+    try
+    {
+      search( query, filter, count, sort, collection );
+    }
+    catch ( PrevalentException e )
+    {
+      throw e;
+    }
+    catch ( Throwable t )
+    {
+      throw new PrevalentException( t );
+    }
+
+    return collection;
+  }
+
+  /** {@inheritDoc} */
+  public IndexedObject[] searchObjectIds( final Query query,
       final Filter filter, final int count, final Sort sort )
       throws PrevalentException
   {
-    Collection<PrevalentObject> collection =
-        new LinkedHashSet<PrevalentObject>( count );
-
     try
     {
-      search( query, filter, count, sort, collection );
-    }
-    catch ( PrevalentException e )
-    {
-      throw e;
+      return hits( query, filter, count, sort );
     }
     catch ( Throwable t )
     {
       throw new PrevalentException( t );
     }
-
-    return collection;
   }
 
   /**
@@ -261,7 +1045,14 @@ public class PrevalentSystem extends ObjectGraphSystem
     if ( object == null ) return null;
     if ( getTaskQueue().contains( object ) ) return object;
 
-    preAdd( object );
+    if ( bulkSession != null )
+    {
+      checkObjectId( object );
+    }
+    else
+    {
+      preAdd( object );
+    }
 
     final PrimaryStorage primaryStorage =
         getPrimaryStorage( object.getClass() );
@@ -274,7 +1065,17 @@ public class PrevalentSystem extends ObjectGraphSystem
       final PrevalentObject obj = decompose( object, executionTime );
 
       primaryStorage.add( obj );
-      index( obj );
+      invalidate( obj );
+      object.clearDirtyFields();
+
+      if ( bulkSession != null )
+      {
+        getBulkSession( bulkSession ).add( obj );
+      }
+      else
+      {
+        index( obj );
+      }
     }
     finally
     {
@@ -296,7 +1097,9 @@ public class PrevalentSystem extends ObjectGraphSystem
    *
    * @see #fetch( Class, Object )
    * @see #add
-   * @see #update( Field, PrevalentObject, Date )
+   * @see #update( FieldAccessor, PrevalentObject, Date )
+   * @see #updateCollection
+   * @see #updateCompositeKeys
    * @param object The prevalent object to update in the system.
    * @param executionTime The datetime at which the transaction was executed.
    * @return The potentially modified prevalent object.  The returned object
@@ -318,7 +1121,11 @@ public class PrevalentSystem extends ObjectGraphSystem
     {
       getTaskQueue().add( object );
 
-      for ( Field field : ReflectionUtility.fetchFields( object ).values() )
+      final Collection<FieldAccessor> fields = getModifiedFields( object );
+      final Map<Index,List<Object>> keys = getCompositeKeys( po );
+      checkCompositeKeys( object, keys, fields );
+
+      for ( FieldAccessor field : fields )
       {
         final Object source = field.get( object );
         final Object destination = field.get( po );
@@ -327,27 +1134,13 @@ public class PrevalentSystem extends ObjectGraphSystem
         {
           update( field, object, executionTime );
         }
+        else if ( isReferenceCollection( field, object, source ) )
+        {
+          updateCollection( field, object, executionTime );
+        }
         else if ( source instanceof Collection )
         {
-          boolean prevalentObject = false;
-          for ( Object obj : (Collection) source )
-          {
-            if ( obj instanceof PrevalentObject )
-            {
-              prevalentObject = true;
-            }
-
-            break;
-          }
-
-          if ( prevalentObject )
-          {
-            // special handling
-          }
-          else
-          {
-            field.set( po, ReflectionUtility.execute( source, "clone" ) );
-          }
+          field.set( po, ReflectionUtility.execute( source, "clone" ) );
         }
         else
         {
@@ -355,8 +1148,11 @@ public class PrevalentSystem extends ObjectGraphSystem
         }
       }
 
+      updateCompositeKeys( po, keys );
       object.get_sptodbMetaData().modified = executionTime.getTime();
-      po.get_sptodbMetaData().modified = executionTime.getTime();
+      object.clearDirtyFields();
+      setModified( po, executionTime.getTime() );
+      invalidate( po );
     }
     catch ( PrevalentException pex )
     {
@@ -375,28 +1171,438 @@ public class PrevalentSystem extends ObjectGraphSystem
   }
 
   /**
-   * Set the {@link PrevalentObject#objectId} field to a new value if
-   * not already set.
+   * Check whether the specified field of the prevalent object being updated
+   * holds a collection of references to other prevalent objects.  This is
+   * the case if the collection contains prevalent objects, or if references
+   * held by the field are present in {@link ReferenceStorage}.
    *
-   * @see #generateOid
-   * @param object The prevalent object whose primary key is to be set.
-   * @throws PrevalentException If errors are encountered while setting the
-   *   privary key field.
+   * @param field The field that is to be checked.
+   * @param object The prevalent object that is being updated.
+   * @param source The value of the field in <code>object</code>.
+   * @return Return <code>true</code> if the field holds references.
    */
-  protected void setOid( final PrevalentObject object )
+  private boolean isReferenceCollection( final FieldAccessor field,
+      final PrevalentObject object, final Object source )
+  {
+    if ( ! Collection.class.isAssignableFrom( field.getType() ) ) return false;
+
+    if ( source instanceof Collection )
+    {
+      for ( Object obj : (Collection) source )
+      {
+        if ( obj instanceof PrevalentObject ) return true;
+        break;
+      }
+    }
+
+    final Object oids = getReferenceStorage( object.getClass() ).getValue(
+        object, field.getName() );
+    return ( oids instanceof Collection ) && ! ( (Collection) oids ).isEmpty();
+  }
+
+  /**
+   * Return the fields of the specified prevalent object that are to be
+   * compared with the stored instance when the object is updated.  If the
+   * object has {@link PrevalentObject#markDirty recorded} its changes, only
+   * the recorded fields and the references to other prevalent objects are
+   * returned.  References are always returned, since changes to referenced
+   * objects are saved by reachability.  Otherwise all the fields of the
+   * object are returned.
+   *
+   * @param object The prevalent object that is being updated.
+   * @return The accessors for the fields that are to be compared.
+   */
+  private Collection<FieldAccessor> getModifiedFields(
+      final PrevalentObject<?> object )
+  {
+    final ClassDescriptor descriptor = ClassDescriptor.forObject( object );
+    final Set<String> dirty = object.getDirtyFields();
+    if ( dirty == null ) return descriptor.getAccessors();
+
+    final Collection<FieldAccessor> fields =
+        new LinkedHashSet<FieldAccessor>( descriptor.getObjectGraphFields() );
+    for ( String name : dirty )
+    {
+      final FieldAccessor field = descriptor.getAccessor( name );
+      if ( field != null ) fields.add( field );
+    }
+
+    return fields;
+  }
+
+  /**
+   * Build the indices for the specified collections of prevalent objects.
+   * Each collection contains objects of a single type, and is indexed by a
+   * separate worker thread.  Since the index storage for each type is only
+   * modified by the worker for that type, the resulting indices are
+   * identical to those built by adding the objects one at a time.  The
+   * full-text search index is committed once all the workers have finished.
+   *
+   * <p>The storage instances used while indexing are {@link #createStorage
+   * created} before the workers are started, since the workers may only
+   * read the maps of storage instances.</p>
+   *
+   * @param objects The collections of prevalent objects to index.
+   * @throws PrevalentException If errors are encountered while indexing
+   *   the objects.
+   */
+  protected void index( final Collection<Collection<PrevalentObject>> objects )
       throws PrevalentException
   {
-    final Object oid = generateOid( object );
+    if ( objects.isEmpty() ) return;
+
+    for ( Collection<PrevalentObject> collection : objects )
+    {
+      createStorage( collection.iterator().next().getClass() );
+    }
+
+    final int threads = Math.min( objects.size(),
+        Runtime.getRuntime().availableProcessors() );
+    final ExecutorService executor = Executors.newFixedThreadPool( threads );
 
     try
     {
-      final Field field = ReflectionUtility.fetchField( OBJECT_ID, object );
-      field.set( object, oid );
+      final List<Future<Integer>> futures =
+          new ArrayList<Future<Integer>>( objects.size() );
+      for ( Collection<PrevalentObject> collection : objects )
+      {
+        futures.add( executor.submit( new IndexTask( collection ) ) );
+      }
+
+      for ( Future<Integer> future : futures )
+      {
+        future.get();
+      }
+
+      commit();
+    }
+    catch ( ExecutionException eex )
+    {
+      if ( eex.getCause() instanceof PrevalentException )
+      {
+        throw (PrevalentException) eex.getCause();
+      }
+
+      throw new PrevalentException( eex.getCause() );
     }
     catch ( Throwable t )
     {
       throw new PrevalentException( t );
     }
+    finally
+    {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Return the object ids of the prevalent objects of the specified type
+   * that are indexed with any of the specified field values.
+   *
+   * @param cls The type of the prevalent objects.
+   * @param parameters The map of indexed field names to values.
+   * @return The union of the object ids.
+   * @throws PrevalentException If errors are encountered while scanning
+   *   for indices that are being built.
+   */
+  private Collection<Object> getUnion( final Class cls,
+      final Map<String,?> parameters ) throws PrevalentException
+  {
+    Postings union = null;
+
+    for ( Map.Entry<String,?> entry : parameters.entrySet() )
+    {
+      final Postings postings = getIndexStorage( cls, entry.getKey() )
+          .getPostings( entry.getKey(), entry.getValue() );
+      if ( postings == null ) continue;
+
+      union = ( union == null ) ? postings : Postings.or( union, postings );
+    }
+
+    if ( union == null ) return Collections.emptyList();
+    return union;
+  }
+
+  /**
+   * Return the object ids of the prevalent objects of the specified type
+   * that are indexed with all of the specified field values.  Class level
+   * composite indices that cover the specified fields are probed in place
+   * of the individual field indices.
+   *
+   * @see #getCompositeIndices
+   * @param cls The type of the prevalent objects.
+   * @param parameters The map of indexed field names to values.
+   * @return The intersection of the object ids.
+   * @throws PrevalentException If errors are encountered while scanning
+   *   for indices that are being built.
+   */
+  private Collection<Object> getIntersection( final Class cls,
+      final Map<String,?> parameters ) throws PrevalentException
+  {
+    final IndexStorage indexStorage = getIndexStorage( cls );
+    final List<Postings> matches =
+        new ArrayList<Postings>( parameters.size() );
+    final Map<String,Object> remaining =
+        new LinkedHashMap<String,Object>( parameters );
+
+    for ( Index index : getCompositeIndices( cls, remaining.keySet() ) )
+    {
+      final String[] members = index.members();
+      if ( ! remaining.keySet().containsAll( Arrays.asList( members ) ) )
+      {
+        continue;
+      }
+
+      final List<Object> values = new ArrayList<Object>( members.length );
+      for ( String member : members )
+      {
+        values.add( remaining.remove( member ) );
+      }
+
+      final Postings postings = indexStorage.getPostings( members, values );
+      if ( postings == null ) return Collections.emptyList();
+
+      matches.add( postings );
+    }
+
+    for ( Map.Entry<String,Object> entry : getLookupOrder( cls, remaining ) )
+    {
+      final Postings postings = getIndexStorage( cls, entry.getKey() )
+          .getPostings( entry.getKey(), entry.getValue() );
+      if ( postings == null ) return Collections.emptyList();
+
+      matches.add( postings );
+    }
+
+    return Postings.intersect( matches );
+  }
+
+  /**
+   * Return the specified field parameters in the order in which the index
+   * lookups for an intersection are to be performed.  Fields are ordered
+   * by the average posting length of their index, so that the most
+   * selective lookups are performed first and an empty result is detected
+   * without performing the remaining lookups.  Fields whose index is being
+   * built are looked up last, since they require a scan of the primary
+   * storage.
+   *
+   * @see IndexStorage#getAveragePostings
+   * @param cls The prevalent class that is being queried.
+   * @param parameters The field parameters to order.
+   * @return The ordered list of field parameters.
+   */
+  private List<Map.Entry<String,Object>> getLookupOrder( final Class cls,
+      final Map<String,Object> parameters )
+  {
+    final List<Map.Entry<String,Object>> entries =
+        new ArrayList<Map.Entry<String,Object>>( parameters.entrySet() );
+    if ( entries.size() < 2 ) return entries;
+
+    final IndexStorage indexStorage = getIndexStorage( cls );
+    final Map<String,Double> costs = new HashMap<String,Double>();
+    for ( Map.Entry<String,Object> entry : entries )
+    {
+      costs.put( entry.getKey(), isPending( cls, entry.getKey() ) ?
+          Double.MAX_VALUE : indexStorage.getAveragePostings( entry.getKey() ) );
+    }
+
+    Collections.sort( entries, new Comparator<Map.Entry<String,Object>>()
+    {
+      public int compare( final Map.Entry<String,Object> first,
+          final Map.Entry<String,Object> second )
+      {
+        return costs.get( first.getKey() ).compareTo(
+            costs.get( second.getKey() ) );
+      }
+    } );
+
+    return entries;
+  }
+
+  /**
+   * Return the class level composite indices of the specified class whose
+   * members are all contained in the specified field names.  The indices
+   * are ordered by decreasing number of members, so that the most
+   * selective composite index is preferred when members overlap.
+   *
+   * @param cls The prevalent class whose indices are to be returned.
+   * @param fields The names of the fields that are being queried.
+   * @return The list of matching composite indices.
+   */
+  private List<Index> getCompositeIndices( final Class cls,
+      final Collection<String> fields )
+  {
+    final List<Index> indices = new ArrayList<Index>();
+    if ( fields.size() < 2 ) return indices;
+
+    final IndexStorage indexStorage = getIndexStorage( cls );
+
+    for ( Index index : getClassIndices( cls ) )
+    {
+      if ( index.members().length < 2 ) continue;
+      if ( ! fields.containsAll( Arrays.asList( index.members() ) ) ) continue;
+      final String name = indexStorage.getFieldName( index.members() );
+      if ( ! indexStorage.isComposite( name ) ) continue;
+      if ( isPending( cls, name ) ) continue;
+
+      indices.add( index );
+    }
+
+    Collections.sort( indices, new Comparator<Index>()
+    {
+      public int compare( final Index first, final Index second )
+      {
+        return second.members().length - first.members().length;
+      }
+    } );
+
+    return indices;
+  }
+
+  /**
+   * Compose the prevalent objects of the specified type with the specified
+   * object ids.
+   *
+   * @param cls The type of the prevalent objects.
+   * @param oids The object ids of the prevalent objects.  May be
+   *   <code>null</code>.
+   * @return The collection of composed prevalent objects.
+   * @throws PrevalentException If errors are encountered while composing
+   *   the prevalent objects.
+   */
+  private Collection<PrevalentObject> compose( final Class cls,
+      final Collection<Object> oids ) throws PrevalentException
+  {
+    if ( oids == null ) return new LinkedHashSet<PrevalentObject>();
+
+    final Collection<PrevalentObject> results =
+        new LinkedHashSet<PrevalentObject>( oids.size() );
+    for ( Object oid : oids )
+    {
+      results.add( fetch( cls, oid ) );
+    }
+
+    return results;
+  }
+
+  /**
+   * Return the bulk load session with the specified identifier.  The
+   * session is created if necessary.
+   *
+   * @param session The identifier of the session.
+   * @return The bulk load session.
+   */
+  private BulkSession getBulkSession( final String session )
+  {
+    BulkSession bulk = getBulkSessions().get( session );
+
+    if ( bulk == null )
+    {
+      bulk = new BulkSession( getSequence() );
+      getBulkSessions().put( session, bulk );
+    }
+
+    return bulk;
+  }
+
+  /**
+   * Return the {@link #bulkSessions}.  The map is created on demand since
+   * it will not be initialised when a prevalent system snapshot taken
+   * prior to its introduction is restored.
+   *
+   * @return The map of bulk load sessions.
+   */
+  private Map<String,BulkSession> getBulkSessions()
+  {
+    if ( bulkSessions == null )
+    {
+      bulkSessions = new LinkedHashMap<String,BulkSession>();
+    }
+
+    return bulkSessions;
+  }
+
+  /**
+   * Return the stored prevalent objects that were appended in the specified
+   * bulk load session, grouped by type.  Objects that have since been
+   * deleted are ignored.
+   *
+   * @param bulk The bulk load session.
+   * @return The map of types to the appended objects of the type.
+   */
+  private Map<Class,Collection<PrevalentObject>> getObjects(
+      final BulkSession bulk )
+  {
+    final Map<Class,Collection<PrevalentObject>> objects =
+        new LinkedHashMap<Class,Collection<PrevalentObject>>();
+
+    for ( Map.Entry<String,Collection<Object>> entry :
+        bulk.objects.entrySet() )
+    {
+      final PrimaryStorage primaryStorage = getPrimaryStorage( entry.getKey() );
+      final Collection<PrevalentObject> collection =
+          new ArrayList<PrevalentObject>( entry.getValue().size() );
+
+      for ( Object oid : entry.getValue() )
+      {
+        final PrevalentObject object = primaryStorage.get( oid );
+        if ( object != null ) collection.add( object );
+      }
+
+      if ( ! collection.isEmpty() )
+      {
+        objects.put( collection.iterator().next().getClass(), collection );
+      }
+    }
+
+    return objects;
+  }
+
+  /**
+   * Remove the specified prevalent objects that were appended in the
+   * specified bulk load session from the system.  Index entries added for
+   * the objects by an {@link IndexBuilder} and cached graphs that contain
+   * the objects are also removed.  The object id sequence is restored to
+   * its value before the session if no other objects have been assigned
+   * object ids since the session started.
+   *
+   * @param bulk The bulk load session.
+   * @param objects The appended objects grouped by type.
+   */
+  private void discard( final BulkSession bulk,
+      final Map<Class,Collection<PrevalentObject>> objects )
+  {
+    for ( Collection<PrevalentObject> collection : objects.values() )
+    {
+      for ( PrevalentObject object : collection )
+      {
+        getPrimaryStorage( object.getClass() ).remove( object );
+        getReferenceStorage( object.getClass() ).remove( object );
+        getIndexStorage( object.getClass() ).remove( object );
+        invalidate( object );
+      }
+    }
+
+    if ( bulk.contiguous && ( getSequence() == bulk.last ) )
+    {
+      setSequence( bulk.first );
+    }
+  }
+
+  /**
+   * Set the {@link PrevalentObject#objectId} field to a new value if
+   * not already set.
+   *
+   * @see #generateOid
+   * @param object The prevalent object whose primary key is to be set.
+   * @throws PrevalentException If errors are encountered while setting the
+   *   privary key field.
+   */
+  protected void setOid( final PrevalentObject object )
+      throws PrevalentException
+  {
+    final Object oid = generateOid( object );
+    ClassDescriptor.forObject( object ).getObjectIdField().set( object, oid );
   }
 
   /**
@@ -407,15 +1613,20 @@ public class PrevalentSystem extends ObjectGraphSystem
    * @param field The field in the prevalent object that is being updated.
    * @param source The new value that is being set.
    * @param destination The old value in the field.
-   * @throws IllegalAccessException Reflection error while setting field.
-   * @throws InvocationTargetException Reflection error while setting field.
+   * @throws PrevalentException Error while setting field.
+   * @throws IllegalAccessException Reflection error while cloning the value.
+   * @throws InvocationTargetException Reflection error while cloning the
+   *   value.
    */
   protected void updateOrdinaryField( final PrevalentObject prevalentObject,
-      final Field field, final Object source, final Object destination )
-      throws IllegalAccessException, InvocationTargetException
+      final FieldAccessor field, final Object source,
+      final Object destination ) throws PrevalentException,
+      IllegalAccessException, InvocationTargetException
   {
     if ( OBJECT_ID.equals( field.getName() ) ) return;
     if ( META_DATA.equals( field.getName() ) ) return;
+    if ( FROZEN.equals( field.getName() ) ) return;
+    if ( DIRTY.equals( field.getName() ) ) return;
     if ( "serialVersionUID".equals( field.getName() ) ) return;
 
     final IndexStorage indexStorage = getIndexStorage( prevalentObject.getClass() );
@@ -443,4 +1654,121 @@ public class PrevalentSystem extends ObjectGraphSystem
       }
     }
   }
+
+  /**
+   * The state of a bulk load session whose appended objects are yet to be
+   * indexed.
+   */
+  private static class BulkSession implements Serializable
+  {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The object ids of the appended objects.  The <code>key</code> for the
+     * map are the fully qualified class names of the objects.
+     */
+    private final Map<String,Collection<Object>> objects =
+        new LinkedHashMap<String,Collection<Object>>();
+
+    /** The value of the object id sequence before the session started. */
+    private final long first;
+
+    /** The value of the object id sequence after the last batch. */
+    private long last;
+
+    /**
+     * A flag used to indicate that no other objects have been assigned
+     * object ids between the batches of the session.
+     */
+    private boolean contiguous = true;
+
+    /**
+     * Create a new session.
+     *
+     * @param sequence The {@link #first} value to use.
+     */
+    private BulkSession( final long sequence )
+    {
+      this.first = sequence;
+      this.last = sequence;
+    }
+
+    /**
+     * Record the start of a batch.
+     *
+     * @param sequence The value of the object id sequence.
+     */
+    private void begin( final long sequence )
+    {
+      if ( sequence != last ) contiguous = false;
+    }
+
+    /**
+     * Record the end of a batch.
+     *
+     * @param sequence The value of the object id sequence.
+     */
+    private void end( final long sequence )
+    {
+      last = sequence;
+    }
+
+    /**
+     * Record the specified prevalent object as having been appended.
+     *
+     * @param object The prevalent object that was appended.
+     */
+    private void add( final PrevalentObject object )
+    {
+      final String name = object.getClass().getName();
+      Collection<Object> collection = objects.get( name );
+
+      if ( collection == null )
+      {
+        collection = new ArrayList<Object>();
+        objects.put( name, collection );
+      }
+
+      collection.add( object.getObjectId() );
+    }
+  }
+
+  /**
+   * A task used to build the indices for a collection of prevalent objects
+   * of the same type.
+   */
+  private class IndexTask implements Callable<Integer>
+  {
+    /** The prevalent objects to index. */
+    private final Collection<PrevalentObject> objects;
+
+    /**
+     * Create a new task for the specified prevalent objects.
+     *
+     * @param objects The {@link #objects} to index.
+     */
+    private IndexTask( final Collection<PrevalentObject> objects )
+    {
+      this.objects = objects;
+    }
+
+    /**
+     * Build the field, class and full-text search indices for each of the
+     * {@link #objects}.
+     *
+     * @return The number of objects indexed.
+     * @throws PrevalentException If errors are encountered while indexing.
+     */
+    public Integer call() throws PrevalentException
+    {
+      for ( PrevalentObject object : objects )
+      {
+        searchIndex( object, false );
+        indexFields( object );
+        indexClass( object );
+      }
+
+      return objects.size();
+    }
+  }
 }
@@ -5,7 +5,10 @@ import org.prevayler.PrevaylerFactory;
 import org.prevayler.foundation.serialization.JavaSerializer;
 import org.prevayler.foundation.serialization.XStreamSerializer;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
@@ -40,6 +43,20 @@ import java.util.logging.Logger;
  *         system after heavy modifications (refactoring) to the object
  *         model.</li>
  *     </ol>
+ *   <li><code>sptodb.bulk.batchSize</code> - The number of prevalent objects
+ *     submitted in each transaction by a {@link BulkLoader}.  The default
+ *     value used is <code>1000</code>.</li>
+ *   <li><code>sptodb.lazy.references</code> - Set to <code>true</code> to
+ *     resolve collections of referenced prevalent objects lazily when
+ *     objects are retrieved from the system.  References to single
+ *     prevalent objects are always resolved eagerly.  The property is read
+ *     once, and may be over-ridden using {@link #setLazyReferences}.  The
+ *     default value used is <code>false</code>.</li>
+ *   <li><code>sptodb.cache.size</code> - The maximum number of composed
+ *     object graphs retained for queries that use a read-only {@link
+ *     FetchPlan}.  The default value used is <code>1000</code>.  Set to
+ *     <code>0</code> to disable the cache, in which case read-only views
+ *     are composed for each query like ordinary results.</li>
  * </ol>
  *
  * <p>The following code shows sample usage of this class</p>
@@ -139,9 +156,64 @@ public final class PrevalentSystemFactory
    */
   public static final String DEFAULT_SEARCH_BATCH_SIZE = "20";
 
+  /**
+   * The JVM system property used to specify the number of prevalent objects
+   * submitted in each transaction by a {@link BulkLoader}.
+   */
+  public static final String BULK_BATCH_SIZE = "sptodb.bulk.batchSize";
+
+  /**
+   * The default value for the {@link #BULK_BATCH_SIZE} property.
+   *
+   * {@value}
+   */
+  public static final String DEFAULT_BULK_BATCH_SIZE = "1000";
+
+  /**
+   * The JVM system property used to specify whether collections of
+   * referenced prevalent objects are resolved lazily when objects are
+   * retrieved from the system.  References to single prevalent objects
+   * are always resolved when the object is retrieved.
+   *
+   * @see LazyCollection
+   */
+  public static final String LAZY_REFERENCES = "sptodb.lazy.references";
+
+  /**
+   * The default value for the {@link #LAZY_REFERENCES} property.
+   *
+   * {@value}
+   */
+  public static final String DEFAULT_LAZY_REFERENCES = "false";
+
+  /**
+   * The JVM system property used to specify the maximum number of composed
+   * read-only object graphs cached by each prevalent system.
+   *
+   * @see ObjectCache
+   */
+  public static final String CACHE_SIZE = "sptodb.cache.size";
+
+  /**
+   * The default value for the {@link #CACHE_SIZE} property.  The cache is
+   * enabled by default, since read-only views only avoid composing the
+   * object graph when they are served from the cache.
+   *
+   * {@value}
+   */
+  public static final String DEFAULT_CACHE_SIZE = "1000";
+
   /** The logger to use to log messages. */
   private static final Logger logger = Logger.getLogger( "SPTODBLogger" );
 
+  /**
+   * Flag indicating whether collections of references are resolved lazily.
+   * Read from the {@link #LAZY_REFERENCES} property when the class is
+   * loaded, since it is checked each time a reference is populated.
+   */
+  private static volatile boolean lazyReferences = Boolean.parseBoolean(
+      System.getProperty( LAZY_REFERENCES, DEFAULT_LAZY_REFERENCES ) );
+
   /**
    * A map used to maintain the various prevalent systems maintained by the
    * factory.
@@ -149,6 +221,13 @@ public final class PrevalentSystemFactory
   private static final ConcurrentMap<Class,Prevayler> systems =
       new ConcurrentHashMap<Class,Prevayler>();
 
+  /**
+   * A map used to maintain the index builders started for the prevalent
+   * systems maintained by the factory.
+   */
+  private static final ConcurrentMap<Class,IndexBuilder> builders =
+      new ConcurrentHashMap<Class,IndexBuilder>();
+
   /** Default constructor.  Cannot be instantiated. */
   private PrevalentSystemFactory() {}
 
@@ -256,7 +335,11 @@ public final class PrevalentSystemFactory
 
         final Prevayler prevayler = factory.create();
         snapshot( prevayler );
-        systems.putIfAbsent( system, prevayler );
+        if ( systems.putIfAbsent( system, prevayler ) == null )
+        {
+          buildIndices( system, prevayler );
+          register( system, prevayler );
+        }
       }
       catch ( Throwable t )
       {
@@ -326,6 +409,122 @@ public final class PrevalentSystemFactory
         System.getProperty( SEARCH_BATCH_SIZE, DEFAULT_SEARCH_BATCH_SIZE ) );
   }
 
+  /**
+   * Return the number of prevalent objects that are to be submitted in
+   * each transaction executed by a {@link BulkLoader}.
+   *
+   * @return The number of objects in each bulk load batch.
+   */
+  protected static int getBulkBatchSize()
+  {
+    return Integer.parseInt(
+        System.getProperty( BULK_BATCH_SIZE, DEFAULT_BULK_BATCH_SIZE ) );
+  }
+
+  /**
+   * Determine whether collections of referenced prevalent objects are to be
+   * resolved lazily.
+   *
+   * @return Returns <code>true</code> if lazy references are enabled.
+   */
+  protected static boolean isLazyReferences()
+  {
+    return lazyReferences;
+  }
+
+  /**
+   * Enable or disable lazy resolution of collections of referenced
+   * prevalent objects.  Over-rides the value of the {@link
+   * #LAZY_REFERENCES} property, which is read only once when this class
+   * is loaded.
+   *
+   * @param lazy Set to <code>true</code> to resolve collections lazily.
+   * @return The previous value of the setting.
+   */
+  public static boolean setLazyReferences( final boolean lazy )
+  {
+    final boolean previous = lazyReferences;
+    lazyReferences = lazy;
+    return previous;
+  }
+
+  /**
+   * Return the maximum number of composed object graphs cached by each
+   * prevalent system.
+   *
+   * @return The capacity of the object cache.
+   */
+  protected static int getCacheSize()
+  {
+    return Integer.parseInt(
+        System.getProperty( CACHE_SIZE, DEFAULT_CACHE_SIZE ) );
+  }
+
+  /**
+   * Return the index builder that was started for the specified prevalent
+   * system class when the system was initialised.
+   *
+   * @see IndexBuilder
+   * @param system The class that represents the prevalent system.
+   * @return The index builder or <code>null</code> if the system has not
+   *   been initialised.
+   */
+  public static IndexBuilder getIndexBuilder( final Class system )
+  {
+    return builders.get( system );
+  }
+
+  /**
+   * Start a background thread for building indices that have been added
+   * to prevalent classes with existing objects.
+   *
+   * @see IndexBuilder
+   * @param system The class that represents the prevalent system.
+   * @param prevayler The prevalent system whose indices are to be built.
+   */
+  private static void buildIndices( final Class system,
+      final Prevayler prevayler )
+  {
+    final IndexBuilder builder =
+        new IndexBuilder( prevayler, getBulkBatchSize() );
+    builders.put( system, builder );
+
+    final Thread thread = new Thread( builder,
+        "IndexBuilder-" + system.getSimpleName() );
+    thread.setDaemon( true );
+    thread.start();
+  }
+
+  /**
+   * Register an {@link IndexMonitor} and a {@link CacheMonitor} for the
+   * specified prevalent system with the platform MBean server.  Errors are
+   * logged and do not prevent the system from being used.
+   *
+   * @param system The class that represents the prevalent system.
+   * @param prevayler The prevalent system to monitor.
+   */
+  private static void register( final Class system, final Prevayler prevayler )
+  {
+    try
+    {
+      final ObjectName name = new ObjectName(
+          "com.sptci.prevayler:type=IndexMonitor,system=" + system.getName() );
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      if ( server.isRegistered( name ) ) server.unregisterMBean( name );
+      server.registerMBean( new IndexMonitor( prevayler ), name );
+
+      final ObjectName cache = new ObjectName(
+          "com.sptci.prevayler:type=CacheMonitor,system=" + system.getName() );
+      if ( server.isRegistered( cache ) ) server.unregisterMBean( cache );
+      server.registerMBean( new CacheMonitor( prevayler ), cache );
+    }
+    catch ( Throwable t )
+    {
+      logger.log( Level.WARNING,
+          "Error registering monitors for system: " + system, t );
+    }
+  }
+
   /**
    * Start a timer task for taking snapshots of the prevalent system.
    * This method will be enhanced to take snapshots at configured intervals.
@@ -2,6 +2,7 @@ package com.sptci.prevayler;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -79,6 +80,18 @@ public class PrimaryStorage implements Serializable
     return storage.get( oid );
   }
 
+  /**
+   * Return a read-only view of all the prevalent objects in the store.  The
+   * objects are returned in insertion order.  This is used to stream the
+   * contents of the store without copying it.
+   *
+   * @return The collection of stored prevalent objects.
+   */
+  public Collection<PrevalentObject> values()
+  {
+    return Collections.unmodifiableCollection( storage.values() );
+  }
+
   /**
    * Fetch the prevalent objects in the specified range of data.  This
    * method supports display of paginated view of the prevalent objects.
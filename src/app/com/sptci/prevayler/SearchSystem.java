@@ -1,8 +1,6 @@
 package com.sptci.prevayler;
 
-import com.sptci.ReflectionUtility;
 import com.sptci.prevayler.annotations.Searchable;
-import com.sptci.prevayler.annotations.Searchables;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexReader;
@@ -17,8 +15,9 @@ import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.NIOFSDirectory;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Level;
 
 /**
@@ -128,23 +127,48 @@ abstract class SearchSystem extends ConstraintSystem
   @Override
   protected void index( final PrevalentObject object ) throws PrevalentException
   {
-    if ( hasIndices( object ) )
+    searchIndex( object, true );
+    super.index( object );
+  }
+
+  /**
+   * Create the full-text search document for the specified prevalent object
+   * if it has any search indices specified, and write it to the index.
+   *
+   * @see #save
+   * @param object The prevalent object to index.
+   * @param commit Flag indicating whether the writer is to be committed
+   *   periodically as specified by {@link #SAVE_COUNT}.  Bulk loads write
+   *   documents from multiple threads and commit once using {@link #commit}
+   *   after all the documents have been written.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while fetching the values of the fields in prevalent object.
+   */
+  protected void searchIndex( final PrevalentObject object,
+      final boolean commit ) throws PrevalentException
+  {
+    if ( ! hasIndices( object ) ) return;
+    final Document document = createDocument( object );
+
+    try
     {
-      final Document document = createDocument( object );
+      indexFields( object, document );
+      indexClass( object, document );
 
-      try
+      if ( commit )
       {
-        indexFields( object, document );
-        indexClass( object, document );
         save( object, document );
       }
-      catch ( Exception e )
+      else
       {
-        throw new PrevalentException( e );
+        writer.updateDocument(
+            new Term( DOCUMENT_ID_FIELD, getDocumentId( object ) ), document );
       }
     }
-
-    super.index( object );
+    catch ( Exception e )
+    {
+      throw new PrevalentException( e );
+    }
   }
 
   /**
@@ -175,33 +199,13 @@ abstract class SearchSystem extends ConstraintSystem
    * Determine whether the prevalent object has any full-text search indices
    * specified.
    *
+   * @see ClassDescriptor#isSearchable
    * @param object The prevalent object to check.
    * @return Return <code>true</code> if any search indices have been specified.
-   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
-   *   while reflecting upon the annotations in the prevalent object.
    */
   private boolean hasIndices( final PrevalentObject object )
-      throws PrevalentException
   {
-    try
-    {
-      Searchables indices = object.getClass().getAnnotation( Searchables.class );
-      if ( indices != null ) return true;
-      Searchable index = object.getClass().getAnnotation( Searchable.class );
-      if ( index != null ) return true;
-
-      for ( Field field : ReflectionUtility.fetchFields( object ).values() )
-      {
-        index = field.getAnnotation( Searchable.class );
-        if ( index != null ) return true;
-      }
-    }
-    catch ( Throwable t )
-    {
-      throw new PrevalentException( t );
-    }
-
-    return false;
+    return ClassDescriptor.forObject( object ).isSearchable();
   }
 
   /**
@@ -249,24 +253,21 @@ abstract class SearchSystem extends ConstraintSystem
    *
    * @param object The prevalent object whose fields are to be indexed.
    * @param doc The document to which indices are to be added.
-   * @throws IllegalAccessException If errors are encountered
-   *   while reflecting upon the fields in the prevalent object.
+   * @throws PrevalentException If errors are encountered while fetching
+   *   the field values of the prevalent object.
    */
   private void indexFields( final PrevalentObject object,
-      final Document doc ) throws IllegalAccessException
+      final Document doc ) throws PrevalentException
   {
-    for ( Field field : ReflectionUtility.fetchFields( object ).values() )
+    for ( FieldAccessor field :
+        ClassDescriptor.forObject( object ).getSearchableFields().keySet() )
     {
-      final Searchable index = field.getAnnotation( Searchable.class );
-      if ( index != null )
+      final Object value = field.get( object );
+      if ( value != null )
       {
-        final Object value = field.get( object );
-        if ( value != null )
-        {
-          doc.add( new org.apache.lucene.document.Field( field.getName(),
-              value.toString(), org.apache.lucene.document.Field.Store.NO,
-              org.apache.lucene.document.Field.Index.ANALYZED ) );
-        }
+        doc.add( new org.apache.lucene.document.Field( field.getName(),
+            value.toString(), org.apache.lucene.document.Field.Store.NO,
+            org.apache.lucene.document.Field.Index.ANALYZED ) );
       }
     }
   }
@@ -278,42 +279,20 @@ abstract class SearchSystem extends ConstraintSystem
    * specified for {@link com.sptci.prevayler.annotations.Searchable#name()}.
    * The concatenated names are delimited by the {@link #SEPARATOR_CHAR}.
    *
-   * @see #indexSearchables(PrevalentObject, org.apache.lucene.document.Document)
    * @see #indexSearchable(PrevalentObject, org.apache.lucene.document.Document,
    *   com.sptci.prevayler.annotations.Searchable)
    * @param object The prevalent object whose composite fields are to be indexed.
    * @param doc The document to which indices are to be added.
-   * @throws IllegalAccessException If errors are encountered
-   *   while reflecting upon the fields in the prevalent object.
-   */
-  private void indexClass( final PrevalentObject object,
-      final Document doc ) throws IllegalAccessException
-  {
-    indexSearchables( object, doc );
-    Searchable index = object.getClass().getAnnotation( Searchable.class );
-    if ( index != null ) indexSearchable( object, doc, index );
-  }
-
-  /**
-   * Process the {@link com.sptci.prevayler.annotations.Searchables} annotation
-   * for the specified prevalent object class.  Create the composite
-   * indices for the specified array of composite indices.
-   *
-   * @param object The prevalent object whose composite fields are to be indexed.
-   * @param doc The document to which indices are to be added.
-   * @throws IllegalAccessException If errors are encountered while fetching
+   * @throws PrevalentException If errors are encountered while fetching
    *   the field values of the prevalent object.
    */
-  private void indexSearchables( final PrevalentObject object,
-      final Document doc ) throws IllegalAccessException
+  private void indexClass( final PrevalentObject object,
+      final Document doc ) throws PrevalentException
   {
-    Searchables indices = object.getClass().getAnnotation( Searchables.class );
-    if ( indices != null )
+    for ( Searchable index :
+        ClassDescriptor.forObject( object ).getClassSearchables() )
     {
-      for ( Searchable index : indices.value() )
-      {
-        indexSearchable( object, doc, index );
-      }
+      indexSearchable( object, doc, index );
     }
   }
 
@@ -325,12 +304,13 @@ abstract class SearchSystem extends ConstraintSystem
    * @param object The prevalent object whose composite fields are to be indexed.
    * @param doc The document to which indices are to be added.
    * @param index The searchable index annotation to process.
-   * @throws IllegalAccessException If errors are encountered while fetching
+   * @throws PrevalentException If errors are encountered while fetching
    *   the field values of the prevalent object.
    */
   private void indexSearchable( final PrevalentObject object,
-      final Document doc, final Searchable index ) throws IllegalAccessException
+      final Document doc, final Searchable index ) throws PrevalentException
   {
+    final ClassDescriptor descriptor = ClassDescriptor.forObject( object );
     final StringBuilder name = new StringBuilder( 64 );
     final StringBuilder value = new StringBuilder( 1024 );
     boolean separator = false;
@@ -340,8 +320,7 @@ abstract class SearchSystem extends ConstraintSystem
       if ( separator ) name.append( SEPARATOR_CHAR );
       name.append( field );
 
-      final Field f = ReflectionUtility.fetchField( field, object );
-      final Object v = f.get( object );
+      final Object v = descriptor.getValue( field, object );
       if ( v != null )
       {
         value.append( v.toString() );
@@ -386,7 +365,7 @@ abstract class SearchSystem extends ConstraintSystem
    * @throws java.io.IOException If errors are encountered while saving the
    *   document.
    */
-  private void commit() throws IOException
+  protected void commit() throws IOException
   {
     writer.commit();
     final IndexReader ir = reader.reopen();
@@ -418,21 +397,55 @@ abstract class SearchSystem extends ConstraintSystem
   protected void search( final Query query, final Filter filter,
       final int count, final Sort sort,
       final Collection<PrevalentObject> collection ) throws Exception
+  {
+    for ( IndexedObject io : hits( query, filter, count, sort ) )
+    {
+      collection.add( fetch( io.type, io.objectId ) );
+    }
+  }
+
+  /**
+   * Search the search indices and return the class and object id of all
+   * the objects (regardless of type) that match the specified query, up to
+   * the specified number of results.  The prevalent objects are not
+   * reconstituted.
+   *
+   * @param query The query to execute.
+   * @param filter The filter to apply to the search.
+   * @param count The maximum number of results to return.
+   * @param sort The sort fields to apply to the results.
+   * @return The array of matching objects in the order of the hits.
+   * @throws Exception If errors are encountered while executing the search.
+   */
+  protected IndexedObject[] hits( final Query query, final Filter filter,
+      final int count, final Sort sort ) throws Exception
   {
     try
     {
       reader.incRef();
       final TopDocs docs = searcher.search( query, filter, count,
           ( ( sort == null ) ? new Sort() : sort ) );
-      for ( ScoreDoc sd : docs.scoreDocs )
+      final IndexedObject[] results = new IndexedObject[docs.scoreDocs.length];
+      final Map<String,PrevalentObject> prototypes =
+          new HashMap<String,PrevalentObject>();
+
+      for ( int i = 0; i < results.length; ++i )
       {
-        final Document doc = searcher.doc( sd.doc );
-        final Class prevalentClass = Class.forName( doc.get( CLASS_FIELD ) );
-        final PrevalentObject obj =
-            (PrevalentObject) prevalentClass.newInstance();
-        collection.add( fetch(
-            prevalentClass, obj.getObjectId( doc.get( OBJECT_ID_FIELD ) ) ) );
+        final Document doc = searcher.doc( docs.scoreDocs[i].doc );
+        final String name = doc.get( CLASS_FIELD );
+        PrevalentObject prototype = prototypes.get( name );
+
+        if ( prototype == null )
+        {
+          prototype = (PrevalentObject) Class.forName( name ).newInstance();
+          prototypes.put( name, prototype );
+        }
+
+        results[i] = new IndexedObject( prototype.getClass(),
+            prototype.getObjectId( doc.get( OBJECT_ID_FIELD ) ) );
       }
+
+      return results;
     }
     finally
     {
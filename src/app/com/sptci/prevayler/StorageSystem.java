@@ -1,6 +1,7 @@
 package com.sptci.prevayler;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -70,13 +71,23 @@ abstract class StorageSystem implements DatabaseSystem
    */
   private static transient TaskQueue taskQueue = new TaskQueue();
 
+  /**
+   * The cache of composed read-only object graphs.  The cache is not part
+   * of the state of the system, and is created when first used.
+   */
+  private transient volatile ObjectCache objectCache;
+
   /** The sequence used to generate object ids. */
   private long sequence = 0;
 
   /**
    * Generate the oid to assign to the specified prevalent object. Default
    * implementation returns an incremented {@link #sequence} value if the
-   * prevalent object does not already have an object id.
+   * prevalent object does not already have an object id.  If the object
+   * already has a {@link Long} object id that is greater than the {@link
+   * #sequence}, the sequence is advanced to ensure that subsequently
+   * generated object ids do not collide with it (for instance when loading
+   * previously exported objects).
    *
    * @param object The prevalent object for which an oid is to be generated.
    * @return The oid to assign to the prevalent object.
@@ -89,10 +100,37 @@ abstract class StorageSystem implements DatabaseSystem
     {
       oid = ++sequence;
     }
+    else if ( ( oid instanceof Long ) && ( (Long) oid > sequence ) )
+    {
+      sequence = (Long) oid;
+    }
 
     return oid;
   }
 
+  /**
+   * Return the current value of the {@link #sequence} used to generate
+   * object ids.
+   *
+   * @return The {@link #sequence} value.
+   */
+  protected long getSequence()
+  {
+    return sequence;
+  }
+
+  /**
+   * Set the value of the {@link #sequence} used to generate object ids.
+   * This is used to restore the sequence when objects that were assigned
+   * the most recently generated object ids are discarded.
+   *
+   * @param sequence The {@link #sequence} value to set.
+   */
+  protected void setSequence( final long sequence )
+  {
+    this.sequence = sequence;
+  }
+
   /**
    * Return the map used to maintain instances of the specified type of
    * prevalent objects by its object id.
@@ -124,6 +162,17 @@ abstract class StorageSystem implements DatabaseSystem
     return classMap.get( name );
   }
 
+  /**
+   * Return the fully qualified names of the classes for which primary
+   * storage has been created in the system.
+   *
+   * @return The read-only collection of class names.
+   */
+  protected Collection<String> getStoredClasses()
+  {
+    return Collections.unmodifiableCollection( classMap.keySet() );
+  }
+
   /**
    * Return the map in which the indices for the prevalent class are
    * stored with the indexed field name.
@@ -227,6 +276,41 @@ abstract class StorageSystem implements DatabaseSystem
     return taskQueue.get();
   }
 
+  /**
+   * Return the cache of composed read-only object graphs, creating it with
+   * the configured capacity if necessary.
+   *
+   * @see PrevalentSystemFactory#getCacheSize
+   * @return The object cache for the system.
+   */
+  protected ObjectCache getObjectCache()
+  {
+    if ( objectCache == null )
+    {
+      synchronized ( this )
+      {
+        if ( objectCache == null )
+        {
+          objectCache = new ObjectCache( PrevalentSystemFactory.getCacheSize() );
+        }
+      }
+    }
+
+    return objectCache;
+  }
+
+  /**
+   * Remove the cached object graphs that contain the specified prevalent
+   * object.  Must be invoked whenever a stored object or its references
+   * are added, modified or removed.
+   *
+   * @param object The prevalent object that was changed.
+   */
+  protected void invalidate( final PrevalentObject object )
+  {
+    getObjectCache().invalidate( object );
+  }
+
   /**
    * The task queue used to ensure that recursive loops when persisting
    * inter-related object graphs do not result in infinite loops.
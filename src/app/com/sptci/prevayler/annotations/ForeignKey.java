@@ -53,8 +53,10 @@ public @interface ForeignKey
 
   /**
    * The fully qualified name of the prevalent object stored in collection
-   * fields.  This is necessary only for collection fields since it is
-   * difficult to infer the type of objects stored in them.
+   * fields.  This is necessary only for collection fields whose declared
+   * type does not have a single class type argument (for instance a raw
+   * <code>List</code>), since the type of the objects stored in them
+   * cannot be inferred otherwise.
    *
    * @return The fully qualified class name stored in the collection.
    */
@@ -42,4 +42,28 @@ public @interface Index
    * @return The flag indicating whether the index is unique or not.
    */
   boolean unique() default false;
+
+  /**
+   * An optional flag used to indicate that the index is to be maintained
+   * in the natural order of the indexed values, allowing range queries
+   * against the field.  The indexed values must be mutually {@link
+   * Comparable}.  This is only supported for field level indices.
+   * Defaults to <code>false</code>.
+   *
+   * @see com.sptci.prevayler.PrevalentManager#fetchRange
+   * @return The flag indicating whether the index is ordered or not.
+   */
+  boolean ordered() default false;
+
+  /**
+   * An optional flag used to indicate that the index is to support prefix
+   * (starts with) queries against the field.  The field must be a {@link
+   * String}.  A prefix index is maintained as a sorted index of the string
+   * values, and hence also supports range queries.  This is only supported
+   * for field level indices.  Defaults to <code>false</code>.
+   *
+   * @see com.sptci.prevayler.PrevalentManager#fetchByPrefix
+   * @return The flag indicating whether the index supports prefix queries.
+   */
+  boolean prefix() default false;
 }
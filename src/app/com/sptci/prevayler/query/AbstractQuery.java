@@ -1,5 +1,6 @@
 package com.sptci.prevayler.query;
 
+import com.sptci.prevayler.FetchPlan;
 import com.sptci.prevayler.PrevalentSystem;
 import org.prevayler.Query;
 
@@ -7,6 +8,8 @@ import java.util.Date;
 
 /**
  * A base class for all simple queries against the prevalent system.
+ * Queries that return prevalent objects may be created with a {@link
+ * FetchPlan} that bounds the references populated in the returned objects.
  *
  * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans Pareil
  *   Technologies, Inc.</a></p>
@@ -16,10 +19,46 @@ import java.util.Date;
 public abstract class AbstractQuery<T,S extends PrevalentSystem>
     implements Query
 {
+  /**
+   * The fetch plan used to compose the objects returned by the query.  The
+   * default plan of the system is used if <code>null</code>.
+   */
+  private final FetchPlan fetchPlan;
+
+  /** Create a new query that uses the default fetch plan. */
+  protected AbstractQuery()
+  {
+    this( null );
+  }
+
+  /**
+   * Create a new query that uses the specified fetch plan.
+   *
+   * @param fetchPlan The {@link #fetchPlan} to use.
+   */
+  protected AbstractQuery( final FetchPlan fetchPlan )
+  {
+    this.fetchPlan = fetchPlan;
+  }
+
+  /**
+   * Return the fetch plan used to compose the objects returned by the
+   * query.
+   *
+   * @return The {@link #fetchPlan} value.
+   */
+  public FetchPlan getFetchPlan()
+  {
+    return fetchPlan;
+  }
+
   /**
    * Implementation of the interface method.  Properly type-casts the
    * object parameter to a {@link PrevalentSystem} and hands over to
-   * {@link #query( PrevalentSystem, Date )}.
+   * {@link #query( PrevalentSystem, Date )}.  The {@link #fetchPlan} if
+   * specified is in effect while the query is executed, and all the objects
+   * returned by the query are composed in a single composition context so
+   * that objects shared in the system are also shared in the results.
    *
    * @param prevalentSystem The prevalent system against which the query
    *   is to be performed.
@@ -31,7 +70,20 @@ public abstract class AbstractQuery<T,S extends PrevalentSystem>
   public Object query( final Object prevalentSystem,
       final Date executionTime ) throws Exception
   {
-    return query( (S) prevalentSystem, executionTime  );
+    final S system = (S) prevalentSystem;
+    final FetchPlan previous =
+        ( fetchPlan == null ) ? null : system.setFetchPlan( fetchPlan );
+    final boolean started = system.beginComposition();
+
+    try
+    {
+      return query( system, executionTime );
+    }
+    finally
+    {
+      if ( started ) system.endComposition();
+      if ( fetchPlan != null ) system.setFetchPlan( previous );
+    }
   }
 
   /**
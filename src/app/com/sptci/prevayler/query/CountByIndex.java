@@ -0,0 +1,61 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.util.Date;
+
+/**
+ * The query for retrieving the number of objects of the specified type
+ * that are indexed with the specified field value.  The count is computed
+ * from the index without reconstituting the matching objects.
+ *
+ * @see com.sptci.prevayler.PrevalentManager#countByIndex
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class CountByIndex<S extends PrevalentSystem>
+    extends AbstractQuery<Integer,S>
+{
+  /** The type of object whose count is required. */
+  private final Class cls;
+
+  /** The name of the indexed field in the prevalent objects. */
+  private final String field;
+
+  /** The value of the indexed field to count. */
+  private final Object value;
+
+  /**
+   * Create a new instance of the query for the specified parameters.
+   *
+   * @param cls The {@link #cls} value to use.
+   * @param field The {@link #field} value to use.
+   * @param value The {@link #value} value to use.
+   */
+  public CountByIndex( final Class cls, final String field, final Object value )
+  {
+    this.cls = cls;
+    this.field = field;
+    this.value = value;
+  }
+
+  /**
+   * Execute the query on the prevalent system and return the number of
+   * objects of {@link #cls} indexed with the specified value.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return The count of matching prevalent objects.
+   * @throws PrevalentException If errors are encountered while querying
+   *   the system.
+   */
+  @Override
+  protected Integer query( final S system, final Date timestamp )
+      throws PrevalentException
+  {
+    return system.countByIndex( cls, field, value );
+  }
+}
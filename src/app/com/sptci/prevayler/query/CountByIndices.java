@@ -0,0 +1,74 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * The query for retrieving the number of objects of the specified type
+ * that match the specified indexed fields.  The count is computed from the
+ * index without reconstituting the matching objects.
+ *
+ * @see com.sptci.prevayler.PrevalentManager#countUnion
+ * @see com.sptci.prevayler.PrevalentManager#countIntersection
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class CountByIndices<S extends PrevalentSystem>
+    extends AbstractQuery<Integer,S>
+{
+  /** The type of object whose count is required. */
+  private final Class cls;
+
+  /** The map of parameters to use to filter the prevalent instances. */
+  private final Map<String,?> parameters;
+
+  /** The aggregation type to use for the matching objects. */
+  private final FetchByIndices.AggregationType resultType;
+
+  /**
+   * Create a new instance of the query for the specified parameters.
+   *
+   * @param cls The {@link #cls} value to use.
+   * @param parameters The {@link #parameters} value to use.
+   * @param resultType The {@link #resultType} value to use.
+   */
+  public CountByIndices( final Class cls, final Map<String,?> parameters,
+      final FetchByIndices.AggregationType resultType )
+  {
+    this.cls = cls;
+    this.parameters = parameters;
+    this.resultType = resultType;
+  }
+
+  /**
+   * Execute the query on the prevalent system and return the number of
+   * matching objects of {@link #cls}.
+   *
+   * @see PrevalentSystem#countUnion(Class, java.util.Map)
+   * @see PrevalentSystem#countIntersection(Class, java.util.Map)
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return The count of matching prevalent objects.
+   * @throws PrevalentException If errors are encountered while querying
+   *   the system.
+   */
+  @Override
+  protected Integer query( final S system, final Date timestamp )
+      throws PrevalentException
+  {
+    switch ( resultType )
+    {
+      case UNION:
+        return system.countUnion( cls, parameters );
+      case INTERSECTION:
+        return system.countIntersection( cls, parameters );
+    }
+
+    return null;
+  }
+}
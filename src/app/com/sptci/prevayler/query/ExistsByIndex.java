@@ -0,0 +1,61 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.util.Date;
+
+/**
+ * The query for determining whether any object of the specified type is
+ * indexed with the specified field value.
+ *
+ * @see com.sptci.prevayler.PrevalentManager#existsByIndex
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class ExistsByIndex<S extends PrevalentSystem>
+    extends AbstractQuery<Boolean,S>
+{
+  /** The type of object to check. */
+  private final Class cls;
+
+  /** The name of the indexed field in the prevalent objects. */
+  private final String field;
+
+  /** The value of the indexed field to check. */
+  private final Object value;
+
+  /**
+   * Create a new instance of the query for the specified parameters.
+   *
+   * @param cls The {@link #cls} value to use.
+   * @param field The {@link #field} value to use.
+   * @param value The {@link #value} value to use.
+   */
+  public ExistsByIndex( final Class cls, final String field,
+      final Object value )
+  {
+    this.cls = cls;
+    this.field = field;
+    this.value = value;
+  }
+
+  /**
+   * Execute the query on the prevalent system and return whether any
+   * object of {@link #cls} is indexed with the specified value.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return Returns <code>true</code> if a matching object exists.
+   * @throws PrevalentException If errors are encountered while querying
+   *   the system.
+   */
+  @Override
+  protected Boolean query( final S system, final Date timestamp )
+      throws PrevalentException
+  {
+    return system.existsByIndex( cls, field, value );
+  }
+}
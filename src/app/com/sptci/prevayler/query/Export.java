@@ -0,0 +1,52 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentManager;
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.io.File;
+import java.util.Date;
+
+/**
+ * The query for exporting all the prevalent objects in the prevalent
+ * system to files in the specified directory.  Since the query holds
+ * the prevalent system for its duration, the exported files represent a
+ * consistent view of the system.
+ *
+ * @see PrevalentManager#exportTo(File)
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans Pareil
+ *   Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class Export<S extends PrevalentSystem> extends AbstractQuery<Integer,S>
+{
+  /** The directory to which the files are written. */
+  private final File directory;
+
+  /**
+   * Create a new instance of the query for the specified directory.
+   *
+   * @param directory The {@link #directory} value to use.
+   */
+  public Export( final File directory )
+  {
+    this.directory = directory;
+  }
+
+  /**
+   * Execute the query on the prevalent system and export all the prevalent
+   * objects to {@link #directory}.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return The total number of objects exported.
+   * @throws PrevalentException If errors are encountered while exporting.
+   */
+  @Override
+  protected Integer query( final S system, final Date timestamp )
+      throws PrevalentException
+  {
+    return system.export( directory );
+  }
+}
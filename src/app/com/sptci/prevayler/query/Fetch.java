@@ -1,5 +1,6 @@
 package com.sptci.prevayler.query;
 
+import com.sptci.prevayler.FetchPlan;
 import com.sptci.prevayler.PrevalentException;
 import com.sptci.prevayler.PrevalentObject;
 import com.sptci.prevayler.PrevalentSystem;
@@ -37,6 +38,21 @@ public class Fetch<P extends PrevalentObject, S extends PrevalentSystem>
    */
   public Fetch( final Class cls, final Object objectId )
   {
+    this( cls, objectId, null );
+  }
+
+  /**
+   * Create a new instance of the query for fetching a prevalent object
+   * the specified object id, composed using the specified fetch plan.
+   *
+   * @param cls The {@link #cls} to use.
+   * @param objectId The {@link #objectId} to use.
+   * @param fetchPlan The fetch plan to use to compose the object.
+   */
+  public Fetch( final Class cls, final Object objectId,
+      final FetchPlan fetchPlan )
+  {
+    super( fetchPlan );
     this.cls = cls;
     this.objectId = objectId;
   }
@@ -0,0 +1,60 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentObject;
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * The query for retrieving the prevalent objects of a type identified by
+ * a collection of {@link com.sptci.prevayler.PrevalentObject#objectId}
+ * values.
+ *
+ * @see com.sptci.prevayler.PrevalentManager#fetchAll
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class FetchAll<P extends PrevalentObject, S extends PrevalentSystem>
+    extends AbstractQuery<Collection<P>,S>
+{
+  /** The type of objects that are to be retrieved. */
+  private final Class cls;
+
+  /** The object ids of the prevalent objects to fetch. */
+  private final Collection<Object> objectIds;
+
+  /**
+   * Create a new instance of the query for fetching the prevalent objects
+   * with the specified object ids.
+   *
+   * @param cls The {@link #cls} to use.
+   * @param objectIds The {@link #objectIds} to use.
+   */
+  public FetchAll( final Class cls, final Collection<?> objectIds )
+  {
+    this.cls = cls;
+    this.objectIds = new ArrayList<Object>( objectIds );
+  }
+
+  /**
+   * Execute the query on the prevalent system and return the prevalent
+   * objects identified by {@link #objectIds}.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return The prevalent objects that exist in the system.
+   * @throws PrevalentException If errors are encountered while fetching
+   *   the prevalent objects.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  protected Collection<P> query( final S system, final Date timestamp )
+      throws PrevalentException
+  {
+    return (Collection<P>) system.fetchAll( cls, objectIds );
+  }
+}
@@ -0,0 +1,66 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentObject;
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * The query used to retrieve prevalent objects of the specified type that
+ * have the specified combination of values for the members of a class
+ * level composite index.
+ *
+ * @see com.sptci.prevayler.PrevalentManager#fetchByComposite
+ * @see com.sptci.prevayler.annotations.Index#members
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class FetchByComposite<P extends PrevalentObject, S extends PrevalentSystem>
+    extends AbstractQuery<Collection<P>,S>
+{
+  /** The type of prevalent objects to retrieve. */
+  private final Class cls;
+
+  /** The names of the members of the composite index. */
+  private final String[] members;
+
+  /** The values of the members of the composite index. */
+  private final Object[] values;
+
+  /**
+   * Create a new instance of the query for the specified parameters.
+   *
+   * @param cls The {@link #cls} value to use.
+   * @param members The {@link #members} value to use.
+   * @param values The {@link #values} value to use.
+   */
+  public FetchByComposite( final Class cls, final String[] members,
+      final Object[] values )
+  {
+    this.cls = cls;
+    this.members = members;
+    this.values = values;
+  }
+
+  /**
+   * Execute the query on the prevalent system and return the prevalent
+   * objects that match the composite index values.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return The collection of matching prevalent objects.  Return an empty
+   *   collection if no objects match.
+   * @throws PrevalentException If errors are encountered while fetching
+   *   the required prevalent objects.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  protected Collection<P> query( final S system, final Date timestamp )
+      throws PrevalentException
+  {
+    return (Collection<P>) system.fetchByComposite( cls, members, values );
+  }
+}
@@ -1,5 +1,6 @@
 package com.sptci.prevayler.query;
 
+import com.sptci.prevayler.FetchPlan;
 import com.sptci.prevayler.PrevalentException;
 import com.sptci.prevayler.PrevalentObject;
 import com.sptci.prevayler.PrevalentSystem;
@@ -38,6 +39,22 @@ public class FetchByIndex<P extends Collection<PrevalentObject>, S extends Preva
    */
   public FetchByIndex( final Class type, final String field, final Object value )
   {
+    this( type, field, value, null );
+  }
+
+  /**
+   * Create a new instance of the query with the specified values, whose
+   * results are composed using the specified fetch plan.
+   *
+   * @param type The {@link #type} to use for the query.
+   * @param field The {@link #field} to use for the query.
+   * @param value The {@link #value} to use for the query.
+   * @param fetchPlan The fetch plan to use to compose the results.
+   */
+  public FetchByIndex( final Class type, final String field, final Object value,
+      final FetchPlan fetchPlan )
+  {
+    super( fetchPlan );
     this.type = type;
     this.field = field;
     this.value = value;
@@ -0,0 +1,75 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentObject;
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * The query used to retrieve prevalent objects of the specified type whose
+ * value for a prefix indexed string field starts with the prefix
+ * specified.  The objects are returned in ascending order of the field
+ * values, up to the specified limit.
+ *
+ * @see com.sptci.prevayler.PrevalentManager#fetchByPrefix
+ * @see com.sptci.prevayler.annotations.Index#prefix
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class FetchByPrefix<P extends PrevalentObject, S extends PrevalentSystem>
+    extends AbstractQuery<Collection<P>,S>
+{
+  /** The type of prevalent objects to retrieve. */
+  private final Class cls;
+
+  /** The name of the prefix indexed field in the prevalent objects. */
+  private final String field;
+
+  /** The prefix that the field values must start with. */
+  private final String prefix;
+
+  /**
+   * The maximum number of objects to return.  Values less than
+   * <code>1</code> indicate no limit.
+   */
+  private final int limit;
+
+  /**
+   * Create a new instance of the query for the specified parameters.
+   *
+   * @param cls The {@link #cls} value to use.
+   * @param field The {@link #field} value to use.
+   * @param prefix The {@link #prefix} value to use.
+   * @param limit The {@link #limit} value to use.
+   */
+  public FetchByPrefix( final Class cls, final String field,
+      final String prefix, final int limit )
+  {
+    this.cls = cls;
+    this.field = field;
+    this.prefix = prefix;
+    this.limit = limit;
+  }
+
+  /**
+   * Execute the query on the prevalent system and return the prevalent
+   * objects whose field values start with the prefix.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return The collection of matching prevalent objects.  Return an empty
+   *   collection if no objects match.
+   * @throws PrevalentException If errors are encountered while fetching
+   *   the required prevalent objects.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  protected Collection<P> query( final S system, final Date timestamp )
+      throws PrevalentException
+  {
+    return (Collection<P>) system.fetchByPrefix( cls, field, prefix, limit );
+  }
+}
@@ -0,0 +1,34 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.CacheStatistics;
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.util.Date;
+
+/**
+ * The query used to retrieve the statistics for the cache of composed
+ * read-only object graphs maintained by the prevalent system.
+ *
+ * @see com.sptci.prevayler.PrevalentManager#fetchCacheStatistics
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class FetchCacheStatistics<S extends PrevalentSystem>
+    extends AbstractQuery<CacheStatistics,S>
+{
+  /**
+   * Execute the query on the prevalent system and return the cache
+   * statistics.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return The cache statistics.
+   */
+  @Override
+  protected CacheStatistics query( final S system, final Date timestamp )
+  {
+    return system.fetchCacheStatistics();
+  }
+}
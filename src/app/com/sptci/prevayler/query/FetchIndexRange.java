@@ -0,0 +1,104 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentObject;
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * The query used to retrieve prevalent objects of the specified type whose
+ * value for an ordered indexed field falls within the range specified.
+ * The objects are returned in ascending or descending order of the field
+ * values.
+ *
+ * @see com.sptci.prevayler.PrevalentManager#fetchRange(Class, String, Object, boolean, Object, boolean, boolean)
+ * @see com.sptci.prevayler.annotations.Index#ordered
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class FetchIndexRange<P extends PrevalentObject, S extends PrevalentSystem>
+    extends AbstractQuery<Collection<P>,S>
+{
+  /** The type of prevalent objects to retrieve. */
+  private final Class cls;
+
+  /** The name of the ordered indexed field in the prevalent objects. */
+  private final String field;
+
+  /** The lower bound of the range, or <code>null</code> if unbounded. */
+  private final Object low;
+
+  /** Flag indicating whether {@link #low} is inclusive. */
+  private final boolean lowInclusive;
+
+  /** The upper bound of the range, or <code>null</code> if unbounded. */
+  private final Object high;
+
+  /** Flag indicating whether {@link #high} is inclusive. */
+  private final boolean highInclusive;
+
+  /** Flag indicating whether the results are in descending order. */
+  private final boolean descending;
+
+  /**
+   * Create a new instance of the query for the specified inclusive range.
+   * Results are returned in ascending order.
+   *
+   * @param cls The {@link #cls} value to use.
+   * @param field The {@link #field} value to use.
+   * @param low The {@link #low} value to use.
+   * @param high The {@link #high} value to use.
+   */
+  public FetchIndexRange( final Class cls, final String field,
+      final Object low, final Object high )
+  {
+    this( cls, field, low, true, high, true, false );
+  }
+
+  /**
+   * Create a new instance of the query for the specified parameters.
+   *
+   * @param cls The {@link #cls} value to use.
+   * @param field The {@link #field} value to use.
+   * @param low The {@link #low} value to use.
+   * @param lowInclusive The {@link #lowInclusive} value to use.
+   * @param high The {@link #high} value to use.
+   * @param highInclusive The {@link #highInclusive} value to use.
+   * @param descending The {@link #descending} value to use.
+   */
+  public FetchIndexRange( final Class cls, final String field,
+      final Object low, final boolean lowInclusive, final Object high,
+      final boolean highInclusive, final boolean descending )
+  {
+    this.cls = cls;
+    this.field = field;
+    this.low = low;
+    this.lowInclusive = lowInclusive;
+    this.high = high;
+    this.highInclusive = highInclusive;
+    this.descending = descending;
+  }
+
+  /**
+   * Execute the query on the prevalent system and return the prevalent
+   * objects whose field values fall in the specified range.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return The collection of prevalent objects in the specified range.
+   *   Return an empty collection if no objects are in the range.
+   * @throws PrevalentException If errors are encountered while fetching
+   *   the required prevalent objects.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  protected Collection<P> query( final S system, final Date timestamp )
+      throws PrevalentException
+  {
+    return (Collection<P>) system.fetchRange( cls, field, low,
+        lowInclusive, high, highInclusive, descending );
+  }
+}
@@ -0,0 +1,49 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.IndexStatistics;
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * The query used to retrieve the statistics for the indices maintained for
+ * the prevalent objects of the specified type.
+ *
+ * @see com.sptci.prevayler.PrevalentManager#fetchIndexStatistics
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class FetchIndexStatistics<S extends PrevalentSystem>
+    extends AbstractQuery<Collection<IndexStatistics>,S>
+{
+  /** The type of prevalent objects whose indices are inspected. */
+  private final Class cls;
+
+  /**
+   * Create a new instance of the query for the specified type.
+   *
+   * @param cls The {@link #cls} value to use.
+   */
+  public FetchIndexStatistics( final Class cls )
+  {
+    this.cls = cls;
+  }
+
+  /**
+   * Execute the query on the prevalent system and return the index
+   * statistics.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return The collection of index statistics.
+   */
+  @Override
+  protected Collection<IndexStatistics> query( final S system,
+      final Date timestamp )
+  {
+    return system.fetchIndexStatistics( cls );
+  }
+}
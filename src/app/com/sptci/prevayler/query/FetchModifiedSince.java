@@ -0,0 +1,70 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentObject;
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * The query used to retrieve prevalent objects of the specified type that
+ * were saved at or after the specified time.  The objects are returned in
+ * ascending order of the time at which they were last saved, up to the
+ * specified limit.
+ *
+ * @see com.sptci.prevayler.PrevalentManager#fetchModifiedSince
+ * @see com.sptci.prevayler.IndexStorage#MODIFIED_INDEX
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class FetchModifiedSince<P extends PrevalentObject, S extends PrevalentSystem>
+    extends AbstractQuery<Collection<P>,S>
+{
+  /** The type of prevalent objects to retrieve. */
+  private final Class cls;
+
+  /** The time from which (inclusive) modified objects are retrieved. */
+  private final Date since;
+
+  /**
+   * The maximum number of objects to return.  Values less than
+   * <code>1</code> indicate no limit.
+   */
+  private final int limit;
+
+  /**
+   * Create a new instance of the query for the specified parameters.
+   *
+   * @param cls The {@link #cls} value to use.
+   * @param since The {@link #since} value to use.
+   * @param limit The {@link #limit} value to use.
+   */
+  public FetchModifiedSince( final Class cls, final Date since,
+      final int limit )
+  {
+    this.cls = cls;
+    this.since = new Date( since.getTime() );
+    this.limit = limit;
+  }
+
+  /**
+   * Execute the query on the prevalent system and return the prevalent
+   * objects modified since {@link #since}.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return The collection of matching prevalent objects.  Return an empty
+   *   collection if no objects match.
+   * @throws PrevalentException If errors are encountered while fetching
+   *   the required prevalent objects.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  protected Collection<P> query( final S system, final Date timestamp )
+      throws PrevalentException
+  {
+    return (Collection<P>) system.fetchModifiedSince( cls, since, limit );
+  }
+}
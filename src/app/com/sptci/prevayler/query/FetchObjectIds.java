@@ -0,0 +1,104 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * A query used to fetch the object ids of prevalent objects that are
+ * indexed by the specified field, or by the specified fields when a map of
+ * parameters is used.  The object ids are read directly from the indices
+ * and the prevalent objects are not reconstituted.
+ *
+ * @see com.sptci.prevayler.PrevalentManager#fetchObjectIds
+ * @see com.sptci.prevayler.PrevalentManager#fetchUnionObjectIds
+ * @see com.sptci.prevayler.PrevalentManager#fetchIntersectionObjectIds
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class FetchObjectIds<S extends PrevalentSystem>
+    extends AbstractQuery<Object[],S>
+{
+  /** The type of the prevalent object that is to be queried. */
+  private final Class type;
+
+  /** The name of the indexed field in the prevalent objects to query. */
+  private final String field;
+
+  /** The value of the indexed field to use to query the system. */
+  private final Object value;
+
+  /** The map of parameters to use to filter the prevalent instances. */
+  private final Map<String,?> parameters;
+
+  /** The aggregation type to use for the results of the query. */
+  private final FetchByIndices.AggregationType resultType;
+
+  /**
+   * Create a new instance of the query for a single indexed field.
+   *
+   * @param type The {@link #type} to use for the query.
+   * @param field The {@link #field} to use for the query.
+   * @param value The {@link #value} to use for the query.
+   */
+  public FetchObjectIds( final Class type, final String field,
+      final Object value )
+  {
+    this.type = type;
+    this.field = field;
+    this.value = value;
+    this.parameters = null;
+    this.resultType = null;
+  }
+
+  /**
+   * Create a new instance of the query for multiple indexed fields.
+   *
+   * @param type The {@link #type} to use for the query.
+   * @param parameters The {@link #parameters} to use for the query.
+   * @param resultType The {@link #resultType} to use for the query.
+   */
+  public FetchObjectIds( final Class type, final Map<String,?> parameters,
+      final FetchByIndices.AggregationType resultType )
+  {
+    this.type = type;
+    this.field = null;
+    this.value = null;
+    this.parameters = parameters;
+    this.resultType = resultType;
+  }
+
+  /**
+   * Execute the query on the prevalent system and return the object ids
+   * of the matching prevalent objects.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return The array of object ids or an empty array.
+   * @throws PrevalentException If errors are encountered while querying
+   *   the system.
+   */
+  @Override
+  protected Object[] query( final S system, final Date timestamp )
+      throws PrevalentException
+  {
+    if ( resultType == null )
+    {
+      return system.fetchObjectIds( type, field, value );
+    }
+
+    switch ( resultType )
+    {
+      case UNION:
+        return system.fetchUnionObjectIds( type, parameters );
+      case INTERSECTION:
+        return system.fetchIntersectionObjectIds( type, parameters );
+    }
+
+    return null;
+  }
+}
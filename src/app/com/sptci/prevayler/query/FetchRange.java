@@ -1,5 +1,6 @@
 package com.sptci.prevayler.query;
 
+import com.sptci.prevayler.FetchPlan;
 import com.sptci.prevayler.PrevalentException;
 import com.sptci.prevayler.PrevalentObject;
 import com.sptci.prevayler.PrevalentSystem;
@@ -44,6 +45,21 @@ public class FetchRange<P extends PrevalentObject, S extends PrevalentSystem>
    */
   public FetchRange( final Class cls, final long start, final long end )
   {
+    this( cls, start, end, null );
+  }
+
+  /**
+   * Create a new instance of the query for the specified parameters, whose
+   * results are composed using the specified fetch plan.
+   * @param cls The {@link #cls} value to use.
+   * @param start The {@link #start} value to use.
+   * @param end The {@link #end} value to use.
+   * @param fetchPlan The fetch plan to use to compose the results.
+   */
+  public FetchRange( final Class cls, final long start, final long end,
+      final FetchPlan fetchPlan )
+  {
+    super( fetchPlan );
     this.cls = cls;
     this.start = start;
     this.end = end;
@@ -0,0 +1,82 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentObject;
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * The query used to retrieve the top prevalent objects of the specified
+ * type that have the specified indexed field value, ordered by the values
+ * of an ordered indexed field.
+ *
+ * @see com.sptci.prevayler.PrevalentManager#fetchTop
+ * @see com.sptci.prevayler.annotations.Index#ordered
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class FetchTop<P extends PrevalentObject, S extends PrevalentSystem>
+    extends AbstractQuery<Collection<P>,S>
+{
+  /** The type of prevalent objects to retrieve. */
+  private final Class cls;
+
+  /** The name of the indexed field used to filter the objects. */
+  private final String field;
+
+  /** The value of the indexed field used to filter the objects. */
+  private final Object value;
+
+  /** The name of the ordered indexed field used to sort the objects. */
+  private final String sortField;
+
+  /** Flag indicating whether the results are in descending order. */
+  private final boolean descending;
+
+  /** The maximum number of objects to return. */
+  private final int limit;
+
+  /**
+   * Create a new instance of the query for the specified parameters.
+   *
+   * @param cls The {@link #cls} value to use.
+   * @param field The {@link #field} value to use.
+   * @param value The {@link #value} value to use.
+   * @param sortField The {@link #sortField} value to use.
+   * @param descending The {@link #descending} value to use.
+   * @param limit The {@link #limit} value to use.
+   */
+  public FetchTop( final Class cls, final String field, final Object value,
+      final String sortField, final boolean descending, final int limit )
+  {
+    this.cls = cls;
+    this.field = field;
+    this.value = value;
+    this.sortField = sortField;
+    this.descending = descending;
+    this.limit = limit;
+  }
+
+  /**
+   * Execute the query on the prevalent system and return the top prevalent
+   * objects.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return The collection of prevalent objects in the order of the sort
+   *   field values.  Return an empty collection if no objects match.
+   * @throws PrevalentException If errors are encountered while fetching
+   *   the required prevalent objects.
+   */
+  @SuppressWarnings( {"unchecked"} )
+  protected Collection<P> query( final S system, final Date timestamp )
+      throws PrevalentException
+  {
+    return (Collection<P>) system.fetchTop(
+        cls, field, value, sortField, descending, limit );
+  }
+}
@@ -0,0 +1,37 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.util.Date;
+
+/**
+ * The query for determining whether the indices of the prevalent system
+ * differ from the index annotations of the stored prevalent classes.
+ *
+ * @see com.sptci.prevayler.IndexBuilder
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class IndexChanges<S extends PrevalentSystem>
+    extends AbstractQuery<Boolean,S>
+{
+  /**
+   * Execute the query on the prevalent system and return whether indices
+   * are to be built or dropped.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return Returns <code>true</code> if the indices have changed.
+   * @throws PrevalentException If errors are encountered while inspecting
+   *   the prevalent classes.
+   */
+  @Override
+  protected Boolean query( final S system, final Date timestamp )
+      throws PrevalentException
+  {
+    return system.hasIndexChanges();
+  }
+}
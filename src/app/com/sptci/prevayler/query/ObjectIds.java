@@ -0,0 +1,46 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.PrevalentSystem;
+
+import java.util.Date;
+
+/**
+ * The query for retrieving the object ids of all the stored objects of the
+ * specified prevalent class.
+ *
+ * @see com.sptci.prevayler.IndexBuilder
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class ObjectIds<S extends PrevalentSystem>
+    extends AbstractQuery<Object[],S>
+{
+  /** The fully qualified name of the prevalent class. */
+  private final String className;
+
+  /**
+   * Create a new instance of the query for the specified class.
+   *
+   * @param className The {@link #className} value to use.
+   */
+  public ObjectIds( final String className )
+  {
+    this.className = className;
+  }
+
+  /**
+   * Execute the query on the prevalent system and return the object ids of
+   * the stored objects of {@link #className}.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return The array of object ids in storage order.
+   */
+  @Override
+  protected Object[] query( final S system, final Date timestamp )
+  {
+    return system.getObjectIds( className );
+  }
+}
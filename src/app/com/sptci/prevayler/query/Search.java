@@ -1,5 +1,6 @@
 package com.sptci.prevayler.query;
 
+import com.sptci.prevayler.FetchPlan;
 import com.sptci.prevayler.PrevalentException;
 import com.sptci.prevayler.PrevalentObject;
 import com.sptci.prevayler.PrevalentSystem;
@@ -60,6 +61,20 @@ public class Search<P extends Collection<PrevalentObject>, S extends PrevalentSy
     this( query, filter, count, null );
   }
 
+  /**
+   * Create a new instance of the query with the specified parameters.
+   *
+   * @param query The lucene query to execute.
+   * @param filter The filter to apply to the results.
+   * @param count The maximum number of results.
+   * @param sort The sort criteria for the results.
+   */
+  public Search( final Query query, final Filter filter, final int count,
+      final Sort sort )
+  {
+    this( query, filter, count, sort, null );
+  }
+
   /**
    * Create a new instance of the query with the specified parameters.  This
    * is the designated initialiser.
@@ -68,10 +83,12 @@ public class Search<P extends Collection<PrevalentObject>, S extends PrevalentSy
    * @param filter The filter to apply to the results.
    * @param count The maximum number of results.
    * @param sort The sort criteria for the results.
+   * @param fetchPlan The fetch plan to use to compose the results.
    */
   public Search( final Query query, final Filter filter, final int count,
-      final Sort sort )
+      final Sort sort, final FetchPlan fetchPlan )
   {
+    super( fetchPlan );
     this.query = query;
     this.filter = filter;
     this.count = count;
@@ -0,0 +1,71 @@
+package com.sptci.prevayler.query;
+
+import com.sptci.prevayler.IndexedObject;
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentSystem;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+
+import java.util.Date;
+
+/**
+ * The query for retrieving the type and object id of the prevalent objects
+ * that match the specified query and optional filter.  This query uses the
+ * full-text indices, and does not reconstitute the matching prevalent
+ * objects.
+ *
+ * @see com.sptci.prevayler.PrevalentManager#searchObjectIds
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ *   Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class SearchObjectIds<S extends PrevalentSystem>
+    extends AbstractQuery<IndexedObject[],S>
+{
+  /** The query that is to be executed. */
+  private final Query query;
+
+  /** The optional filter clause to apply for the search results. */
+  private final Filter filter;
+
+  /** The maximum number of search results to return. */
+  private final int count;
+
+  /** The sort criteria to apply to the search results. */
+  private final Sort sort;
+
+  /**
+   * Create a new instance of the query with the specified parameters.
+   *
+   * @param query The lucene query to execute.
+   * @param filter The filter to apply to the results.
+   * @param count The maximum number of results.
+   * @param sort The sort criteria for the results.
+   */
+  public SearchObjectIds( final Query query, final Filter filter,
+      final int count, final Sort sort )
+  {
+    this.query = query;
+    this.filter = filter;
+    this.count = count;
+    this.sort = sort;
+  }
+
+  /**
+   * Execute the query on the prevalent system and return the type and
+   * object id of the matching prevalent objects.
+   *
+   * @param system The prevalent system that is to be acted upon.
+   * @param timestamp The timestamp for the query.
+   * @return The array of matching objects or an empty array.
+   * @throws com.sptci.prevayler.PrevalentException If errors are encountered
+   *   while executing the search.
+   */
+  protected IndexedObject[] query( final S system, final Date timestamp )
+      throws PrevalentException
+  {
+    return system.searchObjectIds( query, filter, count, sort );
+  }
+}
@@ -0,0 +1,41 @@
+package com.sptci.prevayler.transaction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A transaction for building the specified indices for a batch of existing
+ * prevalent objects of a class.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans Pareil
+ *   Technologies, Inc.</a></p>
+ * @see com.sptci.prevayler.IndexBuilder
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class BuildIndex extends Transaction<Integer>
+{
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The name of the method in {@link com.sptci.prevayler.PrevalentSystem}
+   * that is invoked in this transaction.
+   */
+  private static final String METHOD = "buildIndex";
+
+  /**
+   * Create a new instance of the transaction for the specified batch.
+   *
+   * @param className The name of the prevalent class being indexed.
+   * @param names The names of the indices to build.
+   * @param oids The object ids of the objects in the batch.
+   */
+  public BuildIndex( final String className, final Collection<String> names,
+      final Collection<Object> oids )
+  {
+    super( METHOD, new Parameter[] {
+        new Parameter( String.class, className ),
+        new Parameter( Collection.class, new ArrayList<String>( names ) ),
+        new Parameter( Collection.class, new ArrayList<Object>( oids ) ) } );
+  }
+}
@@ -0,0 +1,43 @@
+package com.sptci.prevayler.transaction;
+
+import com.sptci.prevayler.PrevalentObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A transaction for appending a batch of prevalent objects to the prevalent
+ * system as part of a bulk load.  The objects are stored without checking
+ * constraints or maintaining indices.  Use {@link BulkIndex} to build the
+ * indices and validate constraints once all the batches have been added.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans Pareil
+ *   Technologies, Inc.</a></p>
+ * @see com.sptci.prevayler.BulkLoader
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class BulkAdd<P extends PrevalentObject> extends Transaction<Integer>
+{
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The name of the method in {@link com.sptci.prevayler.PrevalentSystem}
+   * that is invoked in this transaction.
+   */
+  private static final String METHOD = "bulkAdd";
+
+  /**
+   * Create a new instance of the transaction using the specified prevalent
+   * objects.
+   *
+   * @param session The identifier of the bulk load session.
+   * @param objects The new prevalent objects to append to the system.
+   */
+  public BulkAdd( final String session, final Collection<P> objects )
+  {
+    super( METHOD, new Parameter[] {
+        new Parameter( String.class, session ),
+        new Parameter( Collection.class, new ArrayList<P>( objects ) ) } );
+  }
+}
@@ -0,0 +1,34 @@
+package com.sptci.prevayler.transaction;
+
+/**
+ * A transaction for removing the prevalent objects that were appended to
+ * the prevalent system through {@link BulkAdd} or {@link BulkImport}
+ * transactions of a bulk load session that could not be completed.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans Pareil
+ *   Technologies, Inc.</a></p>
+ * @see com.sptci.prevayler.Importer
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class BulkDiscard extends Transaction<Integer>
+{
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The name of the method in {@link com.sptci.prevayler.PrevalentSystem}
+   * that is invoked in this transaction.
+   */
+  private static final String METHOD = "bulkDiscard";
+
+  /**
+   * Create a new instance of the transaction for the specified session.
+   *
+   * @param session The identifier of the bulk load session whose objects
+   *   are to be removed.
+   */
+  public BulkDiscard( final String session )
+  {
+    super( METHOD, new Parameter( String.class, session ) );
+  }
+}
@@ -0,0 +1,45 @@
+package com.sptci.prevayler.transaction;
+
+import com.sptci.prevayler.ImportRecord;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A transaction for appending a batch of exported prevalent objects to the
+ * prevalent system as part of an import.  The objects are stored with
+ * their original object ids and references without checking constraints
+ * or maintaining indices.  Use {@link BulkIndex} to build the indices and
+ * validate constraints once all the batches have been imported.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans Pareil
+ *   Technologies, Inc.</a></p>
+ * @see com.sptci.prevayler.Importer
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class BulkImport extends Transaction<Integer>
+{
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The name of the method in {@link com.sptci.prevayler.PrevalentSystem}
+   * that is invoked in this transaction.
+   */
+  private static final String METHOD = "bulkImport";
+
+  /**
+   * Create a new instance of the transaction using the specified records.
+   *
+   * @param session The identifier of the import session.
+   * @param records The records of the objects to append to the system.
+   */
+  public BulkImport( final String session,
+      final Collection<ImportRecord> records )
+  {
+    super( METHOD, new Parameter[] {
+        new Parameter( String.class, session ),
+        new Parameter( Collection.class,
+            new ArrayList<ImportRecord>( records ) ) } );
+  }
+}
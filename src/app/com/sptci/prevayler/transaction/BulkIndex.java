@@ -0,0 +1,36 @@
+package com.sptci.prevayler.transaction;
+
+/**
+ * A transaction for building the indices for prevalent objects that were
+ * appended to the prevalent system through {@link BulkAdd} transactions
+ * of a bulk load session.
+ * Unique and foreign key constraints are validated for all the appended
+ * objects before they are indexed.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans Pareil
+ *   Technologies, Inc.</a></p>
+ * @see com.sptci.prevayler.BulkLoader
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class BulkIndex extends Transaction<Integer>
+{
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The name of the method in {@link com.sptci.prevayler.PrevalentSystem}
+   * that is invoked in this transaction.
+   */
+  private static final String METHOD = "bulkIndex";
+
+  /**
+   * Create a new instance of the transaction for the specified session.
+   *
+   * @param session The identifier of the bulk load session whose objects
+   *   are to be indexed.
+   */
+  public BulkIndex( final String session )
+  {
+    super( METHOD, new Parameter( String.class, session ) );
+  }
+}
@@ -0,0 +1,39 @@
+package com.sptci.prevayler.transaction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A transaction for marking the background build of the specified indices
+ * of a prevalent class as complete.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans Pareil
+ *   Technologies, Inc.</a></p>
+ * @see com.sptci.prevayler.IndexBuilder
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class CompleteIndexBuild extends Transaction<Integer>
+{
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The name of the method in {@link com.sptci.prevayler.PrevalentSystem}
+   * that is invoked in this transaction.
+   */
+  private static final String METHOD = "completeIndexBuild";
+
+  /**
+   * Create a new instance of the transaction for the specified indices.
+   *
+   * @param className The name of the prevalent class that was indexed.
+   * @param names The names of the indices that were built.
+   */
+  public CompleteIndexBuild( final String className,
+      final Collection<String> names )
+  {
+    super( METHOD, new Parameter[] {
+        new Parameter( String.class, className ),
+        new Parameter( Collection.class, new ArrayList<String>( names ) ) } );
+  }
+}
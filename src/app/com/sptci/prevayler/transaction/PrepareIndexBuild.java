@@ -0,0 +1,33 @@
+package com.sptci.prevayler.transaction;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A transaction for reconciling the indices of the prevalent system with
+ * the index annotations of the stored prevalent classes.  Indices that are
+ * no longer declared are dropped, and indices that have been declared for
+ * classes with existing objects are registered for a background build.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans Pareil
+ *   Technologies, Inc.</a></p>
+ * @see com.sptci.prevayler.IndexBuilder
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class PrepareIndexBuild extends Transaction<Map<String,Collection<String>>>
+{
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The name of the method in {@link com.sptci.prevayler.PrevalentSystem}
+   * that is invoked in this transaction.
+   */
+  private static final String METHOD = "prepareIndexBuild";
+
+  /** Create a new instance of the transaction. */
+  public PrepareIndexBuild()
+  {
+    super( METHOD, new Parameter[0] );
+  }
+}
@@ -0,0 +1,517 @@
+package com.sptci.prevayler.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An annotation processor that generates a schema class for each prevalent
+ * object model that uses the <code>com.sptci.prevayler.annotations</code>
+ * annotations.  The generated class implements
+ * <code>com.sptci.prevayler.GeneratedSchema</code> and lists the fields of
+ * the model that carry each of the field level annotations.  The prevalent
+ * system compares the schema with the annotations of the model to detect
+ * models that were recompiled without validation by the processor.
+ *
+ * <p>The annotations are also validated while processing, and invalid
+ * declarations are reported as compilation errors instead of failing when
+ * the model is first stored.  The following are checked:</p>
+ * <ul>
+ *   <li>The <code>members</code> of class level annotations must name
+ *   fields of the model.</li>
+ *   <li>Prefix indices may only be declared on {@link String} fields.</li>
+ *   <li>Ordered and prefix indices may only be declared on fields.</li>
+ *   <li>Foreign keys on collection fields must specify the
+ *   <code>collectionEntry</code>, unless the declared type of the field
+ *   has a single type argument that is a class (for instance
+ *   <code>List&lt;Two&gt;</code>).  This is the same rule that the
+ *   prevalent system applies to determine the class of the entries.</li>
+ * </ul>
+ *
+ * <p>The processor only refers to the annotations by name, and hence does
+ * not need the database classes on the processor path.</p>
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+@SupportedAnnotationTypes(
+  {
+    SchemaProcessor.INDEX, SchemaProcessor.INDICES,
+    SchemaProcessor.SEARCHABLE, SchemaProcessor.SEARCHABLES,
+    SchemaProcessor.FOREIGN_KEY, SchemaProcessor.FOREIGN_KEYS,
+    SchemaProcessor.NOT_NULL
+  }
+)
+public class SchemaProcessor extends AbstractProcessor
+{
+  /** The package that contains the annotations. */
+  static final String ANNOTATIONS = "com.sptci.prevayler.annotations.";
+
+  /** The name of the index annotation. */
+  static final String INDEX = ANNOTATIONS + "Index";
+
+  /** The name of the indices annotation. */
+  static final String INDICES = ANNOTATIONS + "Indices";
+
+  /** The name of the searchable annotation. */
+  static final String SEARCHABLE = ANNOTATIONS + "Searchable";
+
+  /** The name of the searchables annotation. */
+  static final String SEARCHABLES = ANNOTATIONS + "Searchables";
+
+  /** The name of the foreign key annotation. */
+  static final String FOREIGN_KEY = ANNOTATIONS + "ForeignKey";
+
+  /** The name of the foreign keys annotation. */
+  static final String FOREIGN_KEYS = ANNOTATIONS + "ForeignKeys";
+
+  /** The name of the not null annotation. */
+  static final String NOT_NULL = ANNOTATIONS + "NotNull";
+
+  /** The name of the interface implemented by the generated schema. */
+  static final String SCHEMA = "com.sptci.prevayler.GeneratedSchema";
+
+  /**
+   * The suffix appended to the name of a model class to name its schema.
+   * Must be the same as <code>GeneratedSchema.SUFFIX</code>.
+   */
+  static final String SUFFIX = "_sptodbSchema";
+
+  /** The names of the models for which schemas have been generated. */
+  private final Set<String> generated = new LinkedHashSet<String>();
+
+  /** {@inheritDoc} */
+  @Override
+  public SourceVersion getSupportedSourceVersion()
+  {
+    return SourceVersion.latestSupported();
+  }
+
+  /**
+   * Generate the schema for each class that declares or contains fields
+   * that declare the supported annotations.
+   *
+   * @param annotations The annotation types requested to be processed.
+   * @param environment The environment for the current round.
+   * @return Returns <code>false</code> to allow other processors to claim
+   *   the annotations.
+   */
+  @Override
+  public boolean process( final Set<? extends TypeElement> annotations,
+      final RoundEnvironment environment )
+  {
+    final Set<TypeElement> types = new LinkedHashSet<TypeElement>();
+
+    for ( TypeElement annotation : annotations )
+    {
+      for ( Element element : environment.getElementsAnnotatedWith( annotation ) )
+      {
+        if ( element.getKind() == ElementKind.CLASS )
+        {
+          types.add( (TypeElement) element );
+        }
+        else if ( element.getKind() == ElementKind.FIELD )
+        {
+          types.add( (TypeElement) element.getEnclosingElement() );
+        }
+      }
+    }
+
+    for ( TypeElement type : types )
+    {
+      final String name =
+          processingEnv.getElementUtils().getBinaryName( type ).toString();
+      if ( generated.add( name ) ) process( type );
+    }
+
+    return false;
+  }
+
+  /**
+   * Validate the annotations on the specified model and generate its
+   * schema.
+   *
+   * @param type The model class to process.
+   */
+  private void process( final TypeElement type )
+  {
+    final Map<String,VariableElement> fields = getFields( type );
+    final List<String> indexed = new ArrayList<String>();
+    final List<String> searchable = new ArrayList<String>();
+    final List<String> keys = new ArrayList<String>();
+    final List<String> notNull = new ArrayList<String>();
+
+    for ( VariableElement field : fields.values() )
+    {
+      final String name = field.getSimpleName().toString();
+
+      final AnnotationMirror index = getAnnotation( field, INDEX );
+      if ( index != null )
+      {
+        indexed.add( name );
+        if ( Boolean.TRUE.equals( getValue( index, "prefix" ) ) &&
+            ! isType( field.asType(), String.class.getName() ) )
+        {
+          error( field,
+              "Prefix indices are only supported for String fields" );
+        }
+      }
+
+      if ( getAnnotation( field, SEARCHABLE ) != null ) searchable.add( name );
+
+      final AnnotationMirror key = getAnnotation( field, FOREIGN_KEY );
+      if ( key != null )
+      {
+        keys.add( name );
+        if ( isType( field.asType(), Collection.class.getName() ) &&
+            "".equals( getValue( key, "collectionEntry" ) ) &&
+            ! hasEntryType( field.asType() ) )
+        {
+          error( field, "collectionEntry must be specified for foreign " +
+              "keys on collections without a class type argument" );
+        }
+      }
+
+      if ( getAnnotation( field, NOT_NULL ) != null ) notNull.add( name );
+    }
+
+    for ( AnnotationMirror index : getAnnotations( type, INDEX, INDICES ) )
+    {
+      checkMembers( type, index, fields );
+      if ( Boolean.TRUE.equals( getValue( index, "ordered" ) ) ||
+          Boolean.TRUE.equals( getValue( index, "prefix" ) ) )
+      {
+        error( type,
+            "Ordered and prefix indices are only supported for fields" );
+      }
+    }
+
+    for ( AnnotationMirror searchables :
+        getAnnotations( type, SEARCHABLE, SEARCHABLES ) )
+    {
+      checkMembers( type, searchables, fields );
+    }
+
+    final AnnotationMirror notNulls = getAnnotation( type, NOT_NULL );
+    if ( notNulls != null ) checkMembers( type, notNulls, fields );
+
+    for ( AnnotationMirror key :
+        getAnnotations( type, FOREIGN_KEY, FOREIGN_KEYS ) )
+    {
+      final Object member = getValue( key, "member" );
+      if ( ! fields.containsKey( member ) )
+      {
+        error( type, "Foreign key member: " + member + " is not a field" );
+      }
+    }
+
+    write( type, indexed, searchable, keys, notNull );
+  }
+
+  /**
+   * Return all the fields of the specified class, including fields
+   * inherited from super-classes, keyed by name.  Fields declared in
+   * sub-classes hide fields with the same name in super-classes.
+   *
+   * @param type The class whose fields are to be returned.
+   * @return The fields of the class.
+   */
+  private Map<String,VariableElement> getFields( final TypeElement type )
+  {
+    final Map<String,VariableElement> fields =
+        new LinkedHashMap<String,VariableElement>();
+    TypeElement current = type;
+
+    while ( current != null )
+    {
+      for ( Element element : current.getEnclosedElements() )
+      {
+        if ( element.getKind() != ElementKind.FIELD ) continue;
+
+        final String name = element.getSimpleName().toString();
+        if ( ! fields.containsKey( name ) )
+        {
+          fields.put( name, (VariableElement) element );
+        }
+      }
+
+      final TypeMirror parent = current.getSuperclass();
+      current = ( parent.getKind() == TypeKind.DECLARED ) ?
+          (TypeElement) ( (DeclaredType) parent ).asElement() : null;
+    }
+
+    return fields;
+  }
+
+  /**
+   * Check that the <code>members</code> of the specified class level
+   * annotation name fields of the class.
+   *
+   * @param type The class on which the annotation is declared.
+   * @param annotation The annotation to check.
+   * @param fields The fields of the class.
+   */
+  private void checkMembers( final TypeElement type,
+      final AnnotationMirror annotation,
+      final Map<String,VariableElement> fields )
+  {
+    for ( Object value : (List) getValue( annotation, "members" ) )
+    {
+      final Object member = ( (AnnotationValue) value ).getValue();
+      if ( ! fields.containsKey( member ) )
+      {
+        error( type, "Member: " + member + " of " +
+            annotation.getAnnotationType() + " is not a field" );
+      }
+    }
+  }
+
+  /**
+   * Write the source of the schema class for the specified model.
+   *
+   * @param type The model class.
+   * @param indexed The names of the indexed fields.
+   * @param searchable The names of the searchable fields.
+   * @param keys The names of the foreign key fields.
+   * @param notNull The names of the not-null fields.
+   */
+  private void write( final TypeElement type, final List<String> indexed,
+      final List<String> searchable, final List<String> keys,
+      final List<String> notNull )
+  {
+    final PackageElement pkg =
+        processingEnv.getElementUtils().getPackageOf( type );
+    final String binary =
+        processingEnv.getElementUtils().getBinaryName( type ).toString();
+    final String simple = ( pkg.isUnnamed() ) ? binary :
+        binary.substring( pkg.getQualifiedName().length() + 1 );
+    final String name = simple + SUFFIX;
+
+    try
+    {
+      final PrintWriter out = new PrintWriter(
+          processingEnv.getFiler().createSourceFile(
+              ( pkg.isUnnamed() ? "" : pkg.getQualifiedName() + "." ) + name,
+              type ).openWriter() );
+
+      try
+      {
+        if ( ! pkg.isUnnamed() )
+        {
+          out.println( "package " + pkg.getQualifiedName() + ";" );
+          out.println();
+        }
+
+        out.println( "/**" );
+        out.println( " * Schema for {@link " + type.getQualifiedName() +
+            "} generated by" );
+        out.println( " * " + getClass().getName() + ".  Do not edit." );
+        out.println( " */" );
+        out.println( "public final class " + name + " implements " +
+            SCHEMA );
+        out.println( "{" );
+        writeMethod( out, "getIndexedFields", indexed );
+        writeMethod( out, "getSearchableFields", searchable );
+        writeMethod( out, "getForeignKeyFields", keys );
+        writeMethod( out, "getNotNullFields", notNull );
+        out.println( "}" );
+      }
+      finally
+      {
+        out.close();
+      }
+    }
+    catch ( IOException iex )
+    {
+      error( type, "Unable to write schema: " + iex.getMessage() );
+    }
+  }
+
+  /**
+   * Write a method that returns the specified field names.
+   *
+   * @param out The writer to write the method to.
+   * @param method The name of the method.
+   * @param names The field names returned by the method.
+   */
+  private void writeMethod( final PrintWriter out, final String method,
+      final List<String> names )
+  {
+    final StringBuilder builder = new StringBuilder( 64 );
+    boolean separator = false;
+
+    for ( String name : names )
+    {
+      if ( separator ) builder.append( ", " );
+      builder.append( '"' ).append( name ).append( '"' );
+      separator = true;
+    }
+
+    out.println();
+    out.println( "  public String[] " + method + "()" );
+    out.println( "  {" );
+    out.println( ( names.isEmpty() ) ? "    return new String[0];" :
+        "    return new String[] { " + builder + " };" );
+    out.println( "  }" );
+  }
+
+  /**
+   * Return the annotation with the specified name on the element.
+   *
+   * @param element The annotated element.
+   * @param name The qualified name of the annotation.
+   * @return The annotation or <code>null</code> if not present.
+   */
+  private AnnotationMirror getAnnotation( final Element element,
+      final String name )
+  {
+    for ( AnnotationMirror annotation :
+        processingEnv.getElementUtils().getAllAnnotationMirrors( element ) )
+    {
+      final TypeElement type =
+          (TypeElement) annotation.getAnnotationType().asElement();
+      if ( type.getQualifiedName().contentEquals( name ) ) return annotation;
+    }
+
+    return null;
+  }
+
+  /**
+   * Return the annotations of the specified type on the element, including
+   * those contained in the specified container annotation.
+   *
+   * @param element The annotated element.
+   * @param name The qualified name of the annotation.
+   * @param container The qualified name of the container annotation.
+   * @return The annotations.
+   */
+  private Collection<AnnotationMirror> getAnnotations( final Element element,
+      final String name, final String container )
+  {
+    final List<AnnotationMirror> annotations = new ArrayList<AnnotationMirror>();
+
+    final AnnotationMirror values = getAnnotation( element, container );
+    if ( values != null )
+    {
+      for ( Object value : (List) getValue( values, "value" ) )
+      {
+        annotations.add(
+            (AnnotationMirror) ( (AnnotationValue) value ).getValue() );
+      }
+    }
+
+    final AnnotationMirror annotation = getAnnotation( element, name );
+    if ( annotation != null ) annotations.add( annotation );
+
+    return ( annotations.isEmpty() ) ?
+        Collections.<AnnotationMirror>emptyList() : annotations;
+  }
+
+  /**
+   * Return the value of the specified element of the annotation, including
+   * default values.
+   *
+   * @param annotation The annotation.
+   * @param name The name of the annotation element.
+   * @return The value of the element.  Arrays are returned as a {@link List}
+   *   of {@link AnnotationValue}.
+   */
+  private Object getValue( final AnnotationMirror annotation,
+      final String name )
+  {
+    final Map<? extends ExecutableElement,? extends AnnotationValue> values =
+        processingEnv.getElementUtils().getElementValuesWithDefaults(
+            annotation );
+
+    for ( Map.Entry<? extends ExecutableElement,? extends AnnotationValue> entry :
+        values.entrySet() )
+    {
+      if ( entry.getKey().getSimpleName().contentEquals( name ) )
+      {
+        return entry.getValue().getValue();
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Determine whether the specified type is assignable to the class with
+   * the specified name.
+   *
+   * @param type The type to check.
+   * @param name The qualified name of the class.
+   * @return Returns <code>true</code> if the type is assignable.
+   */
+  private boolean isType( final TypeMirror type, final String name )
+  {
+    final TypeElement element =
+        processingEnv.getElementUtils().getTypeElement( name );
+    if ( element == null ) return false;
+
+    return processingEnv.getTypeUtils().isAssignable(
+        processingEnv.getTypeUtils().erasure( type ),
+        processingEnv.getTypeUtils().erasure( element.asType() ) );
+  }
+
+  /**
+   * Determine whether the class of the entries of a collection can be
+   * inferred from the declared type of the collection field.  The type
+   * must have a single type argument that is a class, and not a wildcard,
+   * type variable or parameterised type.
+   *
+   * @param type The declared type of the collection field.
+   * @return Returns <code>true</code> if the entry class can be inferred.
+   */
+  private boolean hasEntryType( final TypeMirror type )
+  {
+    if ( type.getKind() != TypeKind.DECLARED ) return false;
+
+    final List<? extends TypeMirror> arguments =
+        ( (DeclaredType) type ).getTypeArguments();
+    if ( arguments.size() != 1 ) return false;
+
+    final TypeMirror argument = arguments.get( 0 );
+    return ( argument.getKind() == TypeKind.DECLARED ) &&
+        ( (DeclaredType) argument ).getTypeArguments().isEmpty();
+  }
+
+  /**
+   * Report an error against the specified element.
+   *
+   * @param element The element that is in error.
+   * @param message The error message.
+   */
+  private void error( final Element element, final String message )
+  {
+    final Messager messager = processingEnv.getMessager();
+    messager.printMessage( Diagnostic.Kind.ERROR, message, element );
+  }
+}
@@ -1,8 +1,13 @@
 package com.sptci.prevayler;
 
+import com.sptci.prevayler.test.BulkLoadTest;
+import com.sptci.prevayler.test.CompositeQueryTest;
 import com.sptci.prevayler.test.CreateTestObjects;
 import com.sptci.prevayler.test.DeleteTestObjects;
+import com.sptci.prevayler.test.ExportImportTest;
 import com.sptci.prevayler.test.InvalidTests;
+import com.sptci.prevayler.test.PrefixQueryTest;
+import com.sptci.prevayler.test.RangeQueryTest;
 import com.sptci.prevayler.test.ReachabilityTests;
 import com.sptci.prevayler.test.SearchTest;
 import com.sptci.prevayler.test.SystemTest;
@@ -22,12 +27,21 @@ import org.junit.runners.Suite;
 (
   {
     //SimplePersistenceTest.class,
+    PostingsTest.class,
+    ClassDescriptorTest.class,
+    ObjectCacheTest.class,
     CreateTestObjects.class,
     ReachabilityTests.class,
     SystemTest.class,
     InvalidTests.class,
     DeleteTestObjects.class,
-    SearchTest.class
+    SearchTest.class,
+    BulkLoadTest.class,
+    ExportImportTest.class,
+    RangeQueryTest.class,
+    CompositeQueryTest.class,
+    PrefixQueryTest.class,
+    IndexBuilderTest.class
   }
 )
 public class AllTests {}
@@ -0,0 +1,132 @@
+package com.sptci.prevayler;
+
+import com.sptci.prevayler.annotations.ForeignKey;
+import com.sptci.prevayler.model.Four;
+import com.sptci.prevayler.model.One;
+import com.sptci.prevayler.model.Simple;
+import com.sptci.prevayler.model.Three;
+import com.sptci.prevayler.model.Two;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Unit test suite for the {@link ClassDescriptor} used to describe the
+ * schema of prevalent classes, and the {@link FieldAccessor} instances
+ * held by the descriptor.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class ClassDescriptorTest
+{
+  @Test
+  public void generated()
+  {
+    final ClassDescriptor descriptor = ClassDescriptor.forClass( Simple.class );
+    assertTrue( "Ensuring generated schema used", descriptor.isGenerated() );
+    assertEquals( "Ensuring indexed fields from schema",
+        6, descriptor.getIndexedFields().size() );
+
+    final ClassDescriptor two = ClassDescriptor.forClass( Two.class );
+    assertTrue( "Ensuring generated schema used", two.isGenerated() );
+    assertEquals( "Ensuring foreign keys from schema",
+        2, two.getForeignKeyFields().size() );
+  }
+
+  @Test
+  public void reflection()
+  {
+    final ClassDescriptor descriptor = ClassDescriptor.forClass( Four.class );
+    assertFalse( "Ensuring reflection used without schema",
+        descriptor.isGenerated() );
+    assertTrue( "Ensuring no indexed fields",
+        descriptor.getIndexedFields().isEmpty() );
+  }
+
+  @Test
+  public void stale()
+  {
+    final ClassDescriptor descriptor = ClassDescriptor.forClass( Stale.class );
+    assertFalse( "Ensuring stale schema ignored", descriptor.isGenerated() );
+    assertTrue( "Ensuring annotations reflected",
+        descriptor.getIndexedFields().isEmpty() );
+  }
+
+  @Test
+  public void entryType()
+  {
+    final ClassDescriptor descriptor = ClassDescriptor.forClass( Keyed.class );
+    assertTrue( "Ensuring generated schema used", descriptor.isGenerated() );
+    assertEquals( "Ensuring entry type from type argument",
+        Three.class.getName(), descriptor.getEntryType( "three" ) );
+  }
+
+  @Test
+  public void accessors() throws Exception
+  {
+    final ClassDescriptor descriptor = ClassDescriptor.forClass( One.class );
+    final One one = new One();
+
+    descriptor.getAccessor( "name" ).set( one, "accessor" );
+    assertEquals( "Ensuring value set", "accessor", one.getName() );
+    assertEquals( "Ensuring value read", "accessor",
+        descriptor.getValue( "name", one ) );
+
+    descriptor.getObjectIdField().set( one, 10L );
+    assertEquals( "Ensuring object id set", Long.valueOf( 10 ),
+        one.getObjectId() );
+
+    final List<String> names = new ArrayList<String>();
+    for ( FieldAccessor accessor : descriptor.getNotNullFields() )
+    {
+      names.add( accessor.getName() );
+    }
+    assertEquals( "Ensuring not null fields", "[name]", names.toString() );
+
+    descriptor.getAccessor( "three" ).set( one, null );
+    assertNull( "Ensuring reference cleared",
+        descriptor.getAccessor( "three" ).get( one ) );
+    assertTrue( "Ensuring collection is object graph field",
+        contains( descriptor.getObjectGraphFields(), "three" ) );
+  }
+
+  private boolean contains( final Collection<FieldAccessor> accessors,
+      final String name )
+  {
+    for ( FieldAccessor accessor : accessors )
+    {
+      if ( name.equals( accessor.getName() ) ) return true;
+    }
+
+    return false;
+  }
+
+  static class Keyed
+  {
+    @ForeignKey
+    private Collection<Three> three = new ArrayList<Three>();
+  }
+
+  static class Stale
+  {
+    private String name;
+  }
+
+  static class Stale_sptodbSchema implements GeneratedSchema
+  {
+    public String[] getIndexedFields() { return new String[] { "name" }; }
+    public String[] getSearchableFields() { return new String[0]; }
+    public String[] getForeignKeyFields() { return new String[0]; }
+    public String[] getNotNullFields() { return new String[0]; }
+  }
+}
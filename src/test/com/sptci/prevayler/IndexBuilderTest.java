@@ -0,0 +1,187 @@
+package com.sptci.prevayler;
+
+import com.sptci.prevayler.model.Five;
+import com.sptci.prevayler.model.One;
+import com.sptci.prevayler.model.Simple;
+import com.sptci.prevayler.query.IndexChanges;
+import com.sptci.prevayler.transaction.PrepareIndexBuild;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.prevayler.Prevayler;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Unit test suite for the {@link IndexBuilder} used to build indices for
+ * existing prevalent objects.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class IndexBuilderTest
+{
+  static final int size = 5;
+  static final String name = "Index builder name";
+
+  @Test
+  @SuppressWarnings( {"unchecked"} )
+  public void build() throws Exception
+  {
+    final Prevayler prevayler = PrevalentSystemFactory.getPrevayler();
+    final PrevalentManager<Five> pm = new PrevalentManager<Five>();
+
+    for ( int i = 0; i < size; ++i )
+    {
+      final Five five = new Five();
+      five.setName( ( i == 0 ) ? name : name + i );
+      pm.save( five );
+    }
+
+    ( (PrevalentSystem) prevayler.prevalentSystem() )
+        .getIndexStorage( Five.class ).drop( "name" );
+
+    final Map<String,Collection<String>> pending =
+        (Map<String,Collection<String>>)
+            prevayler.execute( new PrepareIndexBuild() );
+    assertTrue( "Ensuring index build pending",
+        pending.get( Five.class.getName() ).contains( "name" ) );
+    assertEquals( "Ensuring pending index queried by scan", 1,
+        pm.fetch( Five.class, "name", name ).size() );
+
+    final IndexBuilder builder = new IndexBuilder( prevayler, 2 );
+    builder.run();
+
+    assertTrue( "Ensuring build complete", builder.isComplete() );
+    assertEquals( "Ensuring all objects indexed", size,
+        builder.getCompleted() );
+    assertEquals( "Ensuring index queried", 1,
+        pm.fetch( Five.class, "name", name ).size() );
+    assertEquals( "Ensuring index counted", size - 1,
+        pm.countByIndex( Five.class, "name", name + 1 ) +
+        pm.countByIndex( Five.class, "name", name + 2 ) +
+        pm.countByIndex( Five.class, "name", name + 3 ) +
+        pm.countByIndex( Five.class, "name", name + 4 ) );
+
+    for ( int i = 0; i < size; ++i )
+    {
+      for ( Five five : pm.fetch( Five.class, "name",
+          ( i == 0 ) ? name : name + i ) )
+      {
+        pm.delete( five );
+      }
+    }
+
+    assertEquals( "Ensuring objects deleted", 0, pm.count( Five.class ) );
+  }
+
+  @Test
+  public void bulkSession() throws Exception
+  {
+    final Prevayler prevayler = PrevalentSystemFactory.getPrevayler();
+    final PrevalentManager<One> pm = new PrevalentManager<One>();
+
+    final BulkLoader<One> loader = pm.beginBulkLoad();
+    for ( int i = 0; i < 2; ++i )
+    {
+      final One one = new One();
+      one.setName( name + " session " + i );
+      loader.add( one );
+    }
+    loader.flush();
+
+    ( (PrevalentSystem) prevayler.prevalentSystem() )
+        .getIndexStorage( One.class ).drop( "name" );
+    new IndexBuilder( prevayler, 2 ).run();
+
+    assertEquals( "Ensuring session objects not indexed by builder", 2,
+        loader.close() );
+
+    for ( int i = 0; i < 2; ++i )
+    {
+      final Collection<One> collection =
+          pm.fetch( One.class, "name", name + " session " + i );
+      assertEquals( "Ensuring session object indexed", 1, collection.size() );
+      pm.delete( collection.iterator().next() );
+    }
+  }
+
+  @Test
+  public void rebuild() throws Exception
+  {
+    final Prevayler prevayler = PrevalentSystemFactory.getPrevayler();
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    final int amount = 4242;
+
+    Simple simple = new Simple();
+    simple.setField1( name );
+    simple.setAmount( amount );
+    simple = pm.save( simple );
+
+    final IndexStorage indexStorage = ( (PrevalentSystem)
+        prevayler.prevalentSystem() ).getIndexStorage( Simple.class );
+    indexStorage.drop( "amount" );
+    indexStorage.add( "amount", amount, simple );
+    assertTrue( "Ensuring unordered index detected",
+        (Boolean) prevayler.execute( new IndexChanges() ) );
+
+    final IndexBuilder builder = new IndexBuilder( prevayler, 2 );
+    builder.run();
+
+    assertTrue( "Ensuring index rebuilt as ordered",
+        indexStorage.isOrdered( "amount" ) );
+    assertEquals( "Ensuring range queried", 1,
+        pm.fetchRange( Simple.class, "amount", amount, amount ).size() );
+
+    pm.delete( simple );
+  }
+
+  @Test
+  public void duplicates() throws Exception
+  {
+    final Prevayler prevayler = PrevalentSystemFactory.getPrevayler();
+    final PrevalentSystem system =
+        (PrevalentSystem) prevayler.prevalentSystem();
+    final PrevalentManager<One> pm = new PrevalentManager<One>();
+
+    One first = new One();
+    first.setName( name );
+    first = pm.save( first );
+
+    One second = new One();
+    second.setName( name + " duplicate" );
+    second = pm.save( second );
+
+    final FieldAccessor field =
+        ClassDescriptor.forClass( One.class ).getAccessor( "name" );
+    final PrevalentObject stored =
+        system.getPrimaryStorage( One.class ).get( second.getObjectId() );
+    field.set( stored, name );
+
+    final IndexStorage indexStorage = system.getIndexStorage( One.class );
+    indexStorage.drop( "name" );
+    new IndexBuilder( prevayler, 2 ).run();
+
+    assertFalse( "Ensuring index with duplicates dropped",
+        indexStorage.isFieldIndexed( "name" ) );
+    assertTrue( "Ensuring index with duplicates pending",
+        system.getPendingIndices().get( One.class.getName() ).contains( "name" ) );
+    assertEquals( "Ensuring pending index queried by scan", 2,
+        pm.fetch( One.class, "name", name ).size() );
+
+    field.set( stored, name + " duplicate" );
+    new IndexBuilder( prevayler, 2 ).run();
+
+    assertTrue( "Ensuring index rebuilt", indexStorage.isFieldIndexed( "name" ) );
+    assertEquals( "Ensuring rebuilt index queried", 1,
+        pm.fetch( One.class, "name", name ).size() );
+
+    pm.delete( first );
+    pm.delete( second );
+  }
+}
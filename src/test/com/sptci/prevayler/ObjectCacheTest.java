@@ -0,0 +1,82 @@
+package com.sptci.prevayler;
+
+import com.sptci.prevayler.model.One;
+import com.sptci.prevayler.model.Simple;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Unit test suite for the {@link ObjectCache} used to cache composed
+ * read-only object graphs.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class ObjectCacheTest
+{
+  @Test
+  public void disabled()
+  {
+    assertFalse( "Ensuring zero capacity disables cache",
+        new ObjectCache( 0 ).isEnabled() );
+  }
+
+  @Test
+  public void eviction() throws Exception
+  {
+    final ObjectCache cache = new ObjectCache( 2 );
+    final Simple s1 = simple( 1 );
+    final Simple s2 = simple( 2 );
+    final Simple s3 = simple( 3 );
+
+    cache.put( s1, s1, Arrays.<PrevalentObject>asList( s1 ) );
+    cache.put( s2, s2, Arrays.<PrevalentObject>asList( s2 ) );
+    assertSame( "Ensuring cached object returned", s1, cache.get( s1 ) );
+
+    cache.put( s3, s3, Arrays.<PrevalentObject>asList( s3 ) );
+    assertNull( "Ensuring least recently used evicted", cache.get( s2 ) );
+    assertSame( "Ensuring recently used retained", s1, cache.get( s1 ) );
+
+    final CacheStatistics statistics = cache.getStatistics();
+    assertEquals( "Ensuring size", 2, statistics.getSize() );
+    assertEquals( "Ensuring hits", 2, statistics.getHits() );
+    assertEquals( "Ensuring misses", 1, statistics.getMisses() );
+    assertEquals( "Ensuring evictions", 1, statistics.getEvictions() );
+  }
+
+  @Test
+  public void invalidation() throws Exception
+  {
+    final ObjectCache cache = new ObjectCache( 10 );
+    final One one = new One();
+    ClassDescriptor.forClass( One.class ).getObjectIdField().set( one, 1L );
+    final Simple s1 = simple( 1 );
+    final Simple s2 = simple( 2 );
+
+    cache.put( one, one, Arrays.<PrevalentObject>asList( one, s1 ) );
+    cache.put( s1, s1, Arrays.<PrevalentObject>asList( s1 ) );
+    cache.put( s2, s2, Arrays.<PrevalentObject>asList( s2 ) );
+
+    cache.invalidate( simple( 1 ) );
+    assertNull( "Ensuring containing graph invalidated", cache.get( one ) );
+    assertNull( "Ensuring changed object invalidated", cache.get( s1 ) );
+    assertSame( "Ensuring unrelated graph retained", s2, cache.get( s2 ) );
+    assertEquals( "Ensuring invalidations counted", 2,
+        cache.getStatistics().getInvalidations() );
+  }
+
+  private Simple simple( final int oid ) throws Exception
+  {
+    final Simple simple = new Simple();
+    ClassDescriptor.forClass( Simple.class ).getObjectIdField().set( simple, oid );
+    return simple;
+  }
+}
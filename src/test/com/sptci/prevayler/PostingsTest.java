@@ -0,0 +1,194 @@
+package com.sptci.prevayler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit test suite for the {@link Postings} used to store index entries.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class PostingsTest
+{
+  @Test
+  public void longPostings()
+  {
+    Postings postings = Postings.create( 5L );
+    for ( long oid : new long[] { 5L, 1L, 9L, 3L, 7L, 3L } )
+    {
+      postings = postings.insert( oid );
+    }
+
+    assertEquals( "Ensuring sorted unique oids",
+        Arrays.<Object>asList( 1L, 3L, 5L, 7L, 9L ), list( postings ) );
+    assertTrue( "Ensuring oid found", postings.contains( 7L ) );
+    assertFalse( "Ensuring non-long oid not found", postings.contains( 7 ) );
+
+    assertTrue( "Ensuring oid removed", postings.delete( 5L ) );
+    assertFalse( "Ensuring missing oid not removed", postings.delete( 5L ) );
+    assertEquals( "Ensuring remaining oids",
+        Arrays.<Object>asList( 1L, 3L, 7L, 9L ), list( postings ) );
+  }
+
+  @Test
+  public void conversion()
+  {
+    final Postings postings = Postings.create( 2L ).insert( 2L ).insert( 1L );
+    final Postings converted = postings.insert( "key" );
+
+    assertTrue( "Ensuring converted to object postings",
+        converted instanceof Postings.ObjectPostings );
+    assertEquals( "Ensuring all oids retained",
+        Arrays.<Object>asList( 1L, 2L, "key" ), list( converted ) );
+    assertSame( "Ensuring object postings retained",
+        converted, converted.insert( 3L ) );
+  }
+
+  @Test
+  public void bitmap()
+  {
+    Postings postings = Postings.create( 0L );
+    for ( long oid = 0; oid < 100000; oid += 2 )
+    {
+      postings = postings.insert( oid );
+    }
+
+    assertTrue( "Ensuring converted to bitmap postings",
+        postings instanceof BitmapPostings );
+    assertEquals( "Ensuring all oids stored", 50000, postings.size() );
+    assertTrue( "Ensuring oid found", postings.contains( 65538L ) );
+    assertFalse( "Ensuring oid not found", postings.contains( 65537L ) );
+
+    long expected = 0;
+    for ( Object oid : postings )
+    {
+      assertEquals( "Ensuring oids iterated in order", expected, oid );
+      expected += 2;
+    }
+
+    assertTrue( "Ensuring oid removed", postings.delete( 65538L ) );
+    assertEquals( "Ensuring size updated", 49999, postings.size() );
+    assertFalse( "Ensuring oid no longer found", postings.contains( 65538L ) );
+  }
+
+  @Test
+  public void bitmapOperations()
+  {
+    Postings even = Postings.create( 0L );
+    Postings triple = Postings.create( 0L );
+    for ( long oid = 0; oid < 150000; ++oid )
+    {
+      if ( oid % 2 == 0 ) even = even.insert( oid );
+      if ( oid % 3 == 0 ) triple = triple.insert( oid );
+    }
+
+    final Postings and = Postings.and( even, triple );
+    assertEquals( "Ensuring intersection size", 25000, and.size() );
+    for ( Object oid : and )
+    {
+      assertEquals( "Ensuring intersection member", 0L, (Long) oid % 6 );
+    }
+
+    final Postings or = Postings.or( even, triple );
+    assertEquals( "Ensuring union size", 100000, or.size() );
+
+    final Postings small = Postings.create( 4L ).insert( 4L ).insert( 9L ).insert( 7L );
+    assertEquals( "Ensuring mixed intersection",
+        Arrays.<Object>asList( 4L, 9L ), list( Postings.and( small, or ) ) );
+  }
+
+  @Test
+  public void union()
+  {
+    Postings even = Postings.create( 0L );
+    Postings odd = Postings.create( 1L );
+    for ( long oid = 0; oid < 10; ++oid )
+    {
+      if ( oid % 2 == 0 ) even = even.insert( oid );
+      else odd = odd.insert( oid );
+    }
+    odd = odd.insert( 4L );
+
+    final Postings or = Postings.or( even, odd );
+    assertTrue( "Ensuring long postings merged",
+        or instanceof Postings.LongPostings );
+    assertEquals( "Ensuring sorted unique union",
+        Arrays.<Object>asList( 0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L ),
+        list( or ) );
+
+    Postings large = Postings.create( 0L );
+    for ( long oid = 0; oid < 4 * Postings.BITMAP_THRESHOLD; oid += 2 )
+    {
+      large = large.insert( oid );
+    }
+
+    final Postings mixed = Postings.or( even, large );
+    assertEquals( "Ensuring mixed union size",
+        2 * Postings.BITMAP_THRESHOLD, mixed.size() );
+    assertTrue( "Ensuring large union converted to bitmap",
+        mixed instanceof BitmapPostings );
+
+    final Postings keys = Postings.create( "key" ).insert( "key" );
+    assertEquals( "Ensuring object postings union",
+        Arrays.<Object>asList( "key", 0L, 2L, 4L, 6L, 8L ),
+        list( Postings.or( keys, even ) ) );
+  }
+
+  @Test
+  public void intersect()
+  {
+    Postings large = Postings.create( 0L );
+    for ( long oid = 0; oid < 1000; ++oid )
+    {
+      large = large.insert( oid );
+    }
+
+    final Postings small = Postings.create( 5L ).insert( 5L ).insert( 500L ).insert( 5000L );
+    final Postings medium = Postings.create( 0L );
+    for ( long oid = 0; oid < 1000; oid += 5 )
+    {
+      medium.insert( oid );
+    }
+
+    final List<Postings> postings = new ArrayList<Postings>();
+    postings.add( large );
+    postings.add( medium );
+    postings.add( small );
+
+    assertEquals( "Ensuring intersection of all postings",
+        Arrays.<Object>asList( 5L, 500L ),
+        new ArrayList<Object>( Postings.intersect( postings ) ) );
+    assertSame( "Ensuring smallest postings probed first",
+        small, postings.get( 0 ) );
+  }
+
+  @Test
+  public void readOnly()
+  {
+    final Postings postings = Postings.create( 1L ).insert( 1L );
+
+    try
+    {
+      postings.remove( 1L );
+      fail( "Postings modified through collection interface" );
+    }
+    catch ( UnsupportedOperationException uoe ) {}
+  }
+
+  private static List<Object> list( final Postings postings )
+  {
+    return new ArrayList<Object>( postings );
+  }
+}
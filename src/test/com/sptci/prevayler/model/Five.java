@@ -0,0 +1,34 @@
+package com.sptci.prevayler.model;
+
+import com.sptci.prevayler.PrevalentObject;
+import com.sptci.prevayler.annotations.Index;
+
+/**
+ * Five test class.  Used to test building indices for existing objects.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans Pareil Technologies, Inc.</a></p>
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class Five extends PrevalentObject<Long>
+{
+  private static final long serialVersionUID = 1l;
+
+  @Index
+  private String name;
+
+  public String getName()
+  {
+    return name;
+  }
+
+  public void setName( final String name )
+  {
+    this.name = name;
+  }
+
+  public Long getObjectId( final String oid )
+  {
+    return Long.parseLong( oid );
+  }
+}
@@ -12,6 +12,7 @@ import com.sptci.prevayler.annotations.Index;
  * @author Rakesh Vidyadharan 2008-7-19
  * @version $Id: Simple.java 22 2008-11-24 19:04:25Z sptrakesh $
  */
+@Index( members = { "field3", "field4" } )
 public class Simple extends PrevalentObject<Integer>
 {
   private static final long serialVersionUID = 1l;
@@ -28,6 +29,12 @@ public class Simple extends PrevalentObject<Integer>
   @Index
   private String field4;
 
+  @Index( ordered = true )
+  private Integer amount;
+
+  @Index( prefix = true )
+  private String code;
+
   public String getField1()
   {
     return field1;
@@ -35,7 +42,9 @@ public class Simple extends PrevalentObject<Integer>
 
   public void setField1( final String field1 )
   {
+    checkModifiable();
     this.field1 = field1;
+    markDirty( "field1" );
   }
 
   public String getField2()
@@ -45,7 +54,9 @@ public class Simple extends PrevalentObject<Integer>
 
   public void setField2( final String field2 )
   {
+    checkModifiable();
     this.field2 = field2;
+    markDirty( "field2" );
   }
 
   public String getField3()
@@ -55,7 +66,9 @@ public class Simple extends PrevalentObject<Integer>
 
   public void setField3( final String field3 )
   {
+    checkModifiable();
     this.field3 = field3;
+    markDirty( "field3" );
   }
 
   public String getField4()
@@ -65,7 +78,33 @@ public class Simple extends PrevalentObject<Integer>
 
   public void setField4( final String field4 )
   {
+    checkModifiable();
     this.field4 = field4;
+    markDirty( "field4" );
+  }
+
+  public Integer getAmount()
+  {
+    return amount;
+  }
+
+  public void setAmount( final Integer amount )
+  {
+    checkModifiable();
+    this.amount = amount;
+    markDirty( "amount" );
+  }
+
+  public String getCode()
+  {
+    return code;
+  }
+
+  public void setCode( final String code )
+  {
+    checkModifiable();
+    this.code = code;
+    markDirty( "code" );
   }
 
   public Integer getObjectId( final String oid )
@@ -0,0 +1,185 @@
+package com.sptci.prevayler.test;
+
+import com.sptci.prevayler.BulkLoader;
+import com.sptci.prevayler.ConstraintException;
+import com.sptci.prevayler.FetchPlan;
+import com.sptci.prevayler.PrevalentManager;
+import com.sptci.prevayler.model.One;
+import com.sptci.prevayler.model.Simple;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.Collection;
+
+/**
+ * Unit test suite for loading prevalent objects using a {@link
+ * com.sptci.prevayler.BulkLoader} session.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class BulkLoadTest
+{
+  static final int size = 25;
+  static final String field1 = "Bulk field1 value: ";
+  static final String field4 = "Bulk field4 value";
+
+  @Test
+  public void load() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    final int count = pm.count( Simple.class );
+
+    final BulkLoader<Simple> loader = pm.beginBulkLoad();
+    for ( int i = 0; i < size; ++i )
+    {
+      final Simple simple = new Simple();
+      simple.setField1( field1 + i );
+      simple.setField4( field4 );
+      loader.add( simple );
+    }
+
+    assertTrue( "Ensuring objects were not indexed before close",
+        pm.fetch( Simple.class, "field4", field4 ).isEmpty() );
+    assertEquals( "Ensuring all objects loaded", size, loader.close() );
+    assertEquals( "Ensuring objects stored", count + size,
+        pm.count( Simple.class ) );
+
+    final Collection<Simple> collection =
+        pm.fetch( Simple.class, "field4", field4 );
+    assertEquals( "Ensuring objects indexed", size, collection.size() );
+    assertEquals( "Ensuring object indexed by unique value", 1,
+        pm.fetch( Simple.class, "field1", field1 + 3 ).size() );
+  }
+
+  @Test
+  public void uniqueViolation() throws Exception
+  {
+    final PrevalentManager<One> pm = new PrevalentManager<One>();
+    final int count = pm.count( One.class );
+
+    final BulkLoader<One> loader = pm.beginBulkLoad();
+    for ( int i = 0; i < 3; ++i )
+    {
+      final One one = new One();
+      one.setName( "Bulk duplicate" );
+      loader.add( one );
+    }
+
+    try
+    {
+      loader.close();
+      fail( "Unique constraint violation not detected" );
+    }
+    catch ( ConstraintException cex )
+    {
+      assertEquals( "Ensuring loaded objects discarded", count,
+          pm.count( One.class ) );
+    }
+  }
+
+  @Test
+  public void cachedDiscard() throws Exception
+  {
+    final PrevalentManager<One> pm = new PrevalentManager<One>();
+    final One marker = new One();
+    marker.setName( "Bulk cache marker" );
+    final Long oid = pm.save( marker ).getObjectId();
+
+    final BulkLoader<One> loader = pm.beginBulkLoad();
+    for ( int i = 0; i < 2; ++i )
+    {
+      final One one = new One();
+      one.setName( "Bulk cache duplicate" );
+      loader.add( one );
+    }
+    loader.flush();
+
+    for ( long i = 1; i <= 2; ++i )
+    {
+      assertEquals( "Ensuring loaded object cached", "Bulk cache duplicate",
+          pm.fetch( FetchPlan.READ_ONLY, One.class, oid + i ).getName() );
+    }
+
+    final long invalidations = pm.fetchCacheStatistics().getInvalidations();
+
+    try
+    {
+      loader.close();
+      fail( "Unique constraint violation not detected" );
+    }
+    catch ( ConstraintException cex )
+    {
+      assertEquals( "Ensuring discarded objects removed from cache",
+          invalidations + 2, pm.fetchCacheStatistics().getInvalidations() );
+    }
+
+    pm.delete( pm.fetch( One.class, oid ) );
+  }
+
+  @Test
+  public void sessions() throws Exception
+  {
+    final PrevalentManager<One> pm = new PrevalentManager<One>();
+    final int count = pm.count( One.class );
+    final String name = "Bulk session ";
+
+    final BulkLoader<One> valid = pm.beginBulkLoad();
+    for ( int i = 0; i < 3; ++i )
+    {
+      final One one = new One();
+      one.setName( name + i );
+      valid.add( one );
+    }
+    valid.flush();
+
+    final BulkLoader<One> invalid = pm.beginBulkLoad();
+    for ( int i = 0; i < 2; ++i )
+    {
+      final One one = new One();
+      one.setName( name + "duplicate" );
+      invalid.add( one );
+    }
+
+    try
+    {
+      invalid.close();
+      fail( "Unique constraint violation not detected" );
+    }
+    catch ( ConstraintException cex )
+    {
+      assertEquals( "Ensuring only invalid session discarded", count + 3,
+          pm.count( One.class ) );
+    }
+
+    assertTrue( "Ensuring other session not indexed",
+        pm.fetch( One.class, "name", name + 0 ).isEmpty() );
+    assertEquals( "Ensuring other session loaded", 3, valid.close() );
+
+    for ( int i = 0; i < 3; ++i )
+    {
+      final Collection<One> collection = pm.fetch( One.class, "name", name + i );
+      assertEquals( "Ensuring session object indexed", 1, collection.size() );
+      pm.delete( collection.iterator().next() );
+    }
+
+    assertEquals( "Ensuring session objects deleted", count,
+        pm.count( One.class ) );
+  }
+
+  @AfterClass
+  public static void finish() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    for ( Simple simple : pm.fetch( Simple.class, "field4", field4 ) )
+    {
+      pm.delete( simple );
+    }
+  }
+}
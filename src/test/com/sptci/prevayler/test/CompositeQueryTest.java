@@ -0,0 +1,197 @@
+package com.sptci.prevayler.test;
+
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentManager;
+import com.sptci.prevayler.model.Simple;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit test suite for queries against class level composite indices.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class CompositeQueryTest
+{
+  static final int size = 4;
+  static final String field1 = "Composite field1 value";
+  static final String[] members = { "field3", "field4" };
+
+  @BeforeClass
+  public static void init() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    for ( int i = 0; i < size; ++i )
+    {
+      for ( int j = 0; j < size; ++j )
+      {
+        final Simple simple = new Simple();
+        simple.setField1( field1 );
+        simple.setField2( ( ( i + j ) % 2 == 0 ) ? "even" : "odd" );
+        simple.setField3( "Composite " + i );
+        simple.setField4( "Composite " + j );
+        pm.save( simple );
+      }
+    }
+  }
+
+  @Test
+  public void composite() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    for ( Simple simple : pm.fetchByComposite( Simple.class, members,
+        new Object[] { "Composite 1", "Composite 2" } ) )
+    {
+      assertEquals( "Ensuring field3 matches",
+          "Composite 1", simple.getField3() );
+      assertEquals( "Ensuring field4 matches",
+          "Composite 2", simple.getField4() );
+    }
+
+    assertEquals( "Ensuring single match", 1, pm.fetchByComposite(
+        Simple.class, members,
+        new Object[] { "Composite 1", "Composite 2" } ).size() );
+    assertEquals( "Ensuring order of values is significant", 0,
+        pm.fetchByComposite( Simple.class, new String[] { "field4", "field3" },
+            new Object[] { "Composite 1", "Composite 2" } ).size() );
+    assertEquals( "Ensuring no match", 0, pm.fetchByComposite(
+        Simple.class, members,
+        new Object[] { "Composite 1", "Composite " + size } ).size() );
+  }
+
+  @Test
+  public void mismatch() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+
+    try
+    {
+      pm.fetchByComposite( Simple.class, members, new Object[] { "a" } );
+      fail( "Mismatched number of values not detected" );
+    }
+    catch ( PrevalentException pex ) {}
+  }
+
+  @Test
+  public void intersection() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    final Map<String,Object> parameters = new HashMap<String,Object>();
+    parameters.put( "field1", field1 );
+    parameters.put( "field3", "Composite 2" );
+    parameters.put( "field4", "Composite 0" );
+    assertEquals( "Ensuring composite intersection", 1,
+        pm.fetchIntersection( Simple.class, parameters ).size() );
+
+    parameters.put( "field2", "odd" );
+    assertEquals( "Ensuring mixed intersection is empty", 0,
+        pm.fetchIntersection( Simple.class, parameters ).size() );
+
+    parameters.remove( "field4" );
+    assertEquals( "Ensuring single field intersection", 2,
+        pm.fetchIntersection( Simple.class, parameters ).size() );
+  }
+
+  @Test
+  public void update() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    final String value = "Composite update value";
+
+    Simple simple = new Simple();
+    simple.setField1( value );
+    simple.setField3( "Composite old" );
+    simple.setField4( "Composite " + size );
+    simple = pm.save( simple );
+
+    simple = pm.fetch( Simple.class, simple.getObjectId() );
+    simple.setField3( "Composite new" );
+    pm.save( simple );
+
+    final Map<String,Object> parameters = new HashMap<String,Object>();
+    parameters.put( "field3", "Composite new" );
+    parameters.put( "field4", "Composite " + size );
+    assertEquals( "Ensuring updated intersection", 1,
+        pm.fetchIntersection( Simple.class, parameters ).size() );
+    assertEquals( "Ensuring updated composite", 1, pm.fetchByComposite(
+        Simple.class, members,
+        new Object[] { "Composite new", "Composite " + size } ).size() );
+
+    parameters.put( "field3", "Composite old" );
+    assertEquals( "Ensuring old intersection removed", 0,
+        pm.fetchIntersection( Simple.class, parameters ).size() );
+    assertEquals( "Ensuring old composite removed", 0, pm.fetchByComposite(
+        Simple.class, members,
+        new Object[] { "Composite old", "Composite " + size } ).size() );
+
+    pm.delete( simple );
+  }
+
+  @Test
+  public void counts() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    assertEquals( "Ensuring index count", size * size,
+        pm.countByIndex( Simple.class, "field1", field1 ) );
+    assertEquals( "Ensuring index exists", true,
+        pm.existsByIndex( Simple.class, "field3", "Composite 0" ) );
+    assertEquals( "Ensuring index does not exist", false,
+        pm.existsByIndex( Simple.class, "field3", "Composite " + size ) );
+
+    final Map<String,Object> parameters = new HashMap<String,Object>();
+    parameters.put( "field3", "Composite 0" );
+    parameters.put( "field4", "Composite 1" );
+    assertEquals( "Ensuring union count", 2 * size - 1,
+        pm.countUnion( Simple.class, parameters ) );
+    assertEquals( "Ensuring intersection count", 1,
+        pm.countIntersection( Simple.class, parameters ) );
+    assertEquals( "Ensuring counts match fetched objects",
+        pm.fetchUnion( Simple.class, parameters ).size(),
+        pm.countUnion( Simple.class, parameters ) );
+  }
+
+  @Test
+  public void objectIds() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    final Object[] oids =
+        pm.fetchObjectIds( Simple.class, "field3", "Composite 1" );
+    assertEquals( "Ensuring object id count", size, oids.length );
+
+    for ( Object oid : oids )
+    {
+      assertEquals( "Ensuring object id matches", "Composite 1",
+          pm.fetch( Simple.class, oid ).getField3() );
+    }
+
+    final Map<String,Object> parameters = new HashMap<String,Object>();
+    parameters.put( "field3", "Composite 0" );
+    parameters.put( "field4", "Composite 1" );
+    assertEquals( "Ensuring union object ids", 2 * size - 1,
+        pm.fetchUnionObjectIds( Simple.class, parameters ).length );
+    assertEquals( "Ensuring intersection object ids", 1,
+        pm.fetchIntersectionObjectIds( Simple.class, parameters ).length );
+    assertEquals( "Ensuring no object ids", 0,
+        pm.fetchObjectIds( Simple.class, "field3", "none" ).length );
+  }
+
+  @AfterClass
+  public static void finish() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    for ( Simple simple : pm.fetch( Simple.class, "field1", field1 ) )
+    {
+      pm.delete( simple );
+    }
+  }
+}
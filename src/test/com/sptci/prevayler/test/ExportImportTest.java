@@ -0,0 +1,189 @@
+package com.sptci.prevayler.test;
+
+import com.sptci.prevayler.ConstraintException;
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentManager;
+import com.sptci.prevayler.PrevalentObject;
+import com.sptci.prevayler.PrevalentSystemFactory;
+import com.sptci.prevayler.model.Simple;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Collection;
+
+/**
+ * Unit test suite for exporting and importing the contents of the
+ * prevalent system.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class ExportImportTest
+{
+  static final int size = 10;
+  static final String field1 = "Export field1 value: ";
+  static final String field4 = "Export field4 value";
+  static final File directory = new File(
+      System.getProperty( "java.io.tmpdir" ), "sptodb-export" );
+  static final File file = new File( directory, Simple.class.getName() + ".sptodb" );
+  static final Object[] oids = new Object[size];
+
+  @BeforeClass
+  public static void init() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    for ( int i = 0; i < size; ++i )
+    {
+      final Simple simple = new Simple();
+      simple.setField1( field1 + i );
+      simple.setField4( field4 );
+      oids[i] = pm.save( simple ).getObjectId();
+    }
+  }
+
+  @Test
+  public void export() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    final int count = pm.count( Simple.class );
+
+    assertTrue( "Ensuring objects exported", pm.exportTo( directory ) >= count );
+    assertTrue( "Ensuring export file written", file.isFile() );
+
+    for ( Simple simple : pm.fetch( Simple.class, 0, count ) )
+    {
+      pm.delete( simple );
+    }
+
+    assertEquals( "Ensuring objects deleted", 0, pm.count( Simple.class ) );
+    assertEquals( "Ensuring all objects imported", count,
+        pm.importFrom( file ) );
+    assertEquals( "Ensuring objects restored", count,
+        pm.count( Simple.class ) );
+
+    final Collection<Simple> collection =
+        pm.fetch( Simple.class, "field4", field4 );
+    assertEquals( "Ensuring objects indexed", size, collection.size() );
+
+    for ( int i = 0; i < size; ++i )
+    {
+      final Simple simple = pm.fetch( Simple.class, oids[i] );
+      assertNotNull( "Ensuring object id retained", simple );
+      assertEquals( "Ensuring field value restored", field1 + i,
+          simple.getField1() );
+    }
+  }
+
+  @Test
+  public void duplicate() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    final int count = pm.count( Simple.class );
+    pm.exportTo( directory );
+
+    try
+    {
+      pm.importFrom( file );
+      fail( "Import of existing objects not detected" );
+    }
+    catch ( ConstraintException cex )
+    {
+      assertEquals( "Ensuring existing objects retained", count,
+          pm.count( Simple.class ) );
+    }
+  }
+
+  @Test
+  public void failure() throws Exception
+  {
+    final PrevalentManager<Record> pm = new PrevalentManager<Record>();
+    final File dir = new File( System.getProperty( "java.io.tmpdir" ),
+        "sptodb-failure" );
+    final Object[] ids = new Object[5];
+    for ( int i = 0; i < ids.length; ++i )
+    {
+      final Record record = new Record();
+      record.name = "Failure " + i;
+      ids[i] = pm.save( record ).getObjectId();
+    }
+
+    pm.exportTo( dir );
+    final File export = new File( dir, Record.class.getName() + ".sptodb" );
+    for ( File f : dir.listFiles() )
+    {
+      if ( ! f.equals( export ) ) f.delete();
+    }
+
+    for ( Object oid : ids )
+    {
+      pm.delete( pm.fetch( Record.class, oid ) );
+    }
+
+    final RandomAccessFile raf = new RandomAccessFile( export, "rw" );
+    raf.setLength( raf.length() - 3 );
+    raf.close();
+
+    System.setProperty( PrevalentSystemFactory.BULK_BATCH_SIZE, "2" );
+
+    try
+    {
+      pm.importFrom( dir );
+      fail( "Truncated import file not detected" );
+    }
+    catch ( PrevalentException pex )
+    {
+      assertEquals( "Ensuring submitted batches discarded", 0,
+          pm.count( Record.class ) );
+      for ( Object oid : ids )
+      {
+        assertNull( "Ensuring object discarded",
+            pm.fetch( Record.class, oid ) );
+      }
+    }
+    finally
+    {
+      System.clearProperty( PrevalentSystemFactory.BULK_BATCH_SIZE );
+      export.delete();
+      dir.delete();
+    }
+  }
+
+  @AfterClass
+  public static void finish() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    for ( Simple simple : pm.fetch( Simple.class, "field4", field4 ) )
+    {
+      pm.delete( simple );
+    }
+
+    for ( File f : directory.listFiles() )
+    {
+      f.delete();
+    }
+
+    directory.delete();
+  }
+
+  public static class Record extends PrevalentObject<Long>
+  {
+    private static final long serialVersionUID = 1l;
+    private String name;
+
+    public Long getObjectId( final String oid )
+    {
+      return Long.parseLong( oid );
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package com.sptci.prevayler.test;
+
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentManager;
+import com.sptci.prevayler.model.Simple;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit test suite for prefix queries against prefix indices.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class PrefixQueryTest
+{
+  static final String field4 = "Prefix field4 value";
+  static final String[] codes =
+      { "CA-200", "AB-100", "AB-300", "ABC-100", "AB-200", "B-100" };
+
+  @BeforeClass
+  public static void init() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    for ( String code : codes )
+    {
+      final Simple simple = new Simple();
+      simple.setField4( field4 );
+      simple.setCode( code );
+      pm.save( simple );
+    }
+  }
+
+  @Test
+  public void prefix() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    assertEquals( "Ensuring prefix matches in order",
+        list( "AB-100", "AB-200", "AB-300" ),
+        codes( pm.fetchByPrefix( Simple.class, "code", "AB-", 0 ) ) );
+    assertEquals( "Ensuring shorter prefix matches",
+        list( "AB-100", "AB-200", "AB-300", "ABC-100" ),
+        codes( pm.fetchByPrefix( Simple.class, "code", "A", 0 ) ) );
+    assertEquals( "Ensuring no matches", list(),
+        codes( pm.fetchByPrefix( Simple.class, "code", "D", 0 ) ) );
+  }
+
+  @Test
+  public void limit() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    assertEquals( "Ensuring limit applied", list( "AB-100", "AB-200" ),
+        codes( pm.fetchByPrefix( Simple.class, "code", "AB", 2 ) ) );
+  }
+
+  @Test
+  public void unordered() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+
+    try
+    {
+      pm.fetchByPrefix( Simple.class, "field4", "Prefix", 0 );
+      fail( "Prefix query on unordered index not detected" );
+    }
+    catch ( PrevalentException pex ) {}
+  }
+
+  private static List<String> list( final String... values )
+  {
+    final List<String> list = new ArrayList<String>();
+    for ( String value : values ) list.add( value );
+    return list;
+  }
+
+  private static List<String> codes( final Iterable<Simple> simples )
+  {
+    final List<String> list = new ArrayList<String>();
+    for ( Simple simple : simples ) list.add( simple.getCode() );
+    return list;
+  }
+
+  @AfterClass
+  public static void finish() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    for ( Simple simple : pm.fetch( Simple.class, "field4", field4 ) )
+    {
+      pm.delete( simple );
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package com.sptci.prevayler.test;
+
+import com.sptci.prevayler.IndexStatistics;
+import com.sptci.prevayler.PrevalentException;
+import com.sptci.prevayler.PrevalentManager;
+import com.sptci.prevayler.model.Simple;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Unit test suite for range queries against ordered indices.
+ *
+ * <p>&copy; Copyright 2008 <a href='http://sptci.com/' target='_top'>Sans
+ * Pareil Technologies, Inc.</a></p>
+ *
+ * @author Rakesh Vidyadharan 2026-10-18
+ * @version $Id$
+ */
+public class RangeQueryTest
+{
+  static final int size = 10;
+  static final String field4 = "Range field4 value";
+
+  @BeforeClass
+  public static void init() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    for ( int i = size - 1; i >= 0; --i )
+    {
+      final Simple simple = new Simple();
+      simple.setField4( field4 );
+      simple.setAmount( i * 10 );
+      pm.save( simple );
+    }
+  }
+
+  @Test
+  public void inclusive() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    assertEquals( "Ensuring inclusive range", list( 20, 30, 40, 50 ),
+        amounts( pm.fetchRange( Simple.class, "amount", 20, 50 ) ) );
+  }
+
+  @Test
+  public void exclusive() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    assertEquals( "Ensuring exclusive range", list( 30, 40 ),
+        amounts( pm.fetchRange(
+            Simple.class, "amount", 20, false, 50, false, false ) ) );
+    assertEquals( "Ensuring empty range", list(),
+        amounts( pm.fetchRange(
+            Simple.class, "amount", 20, false, 20, false, false ) ) );
+    assertEquals( "Ensuring inverted range", list(),
+        amounts( pm.fetchRange( Simple.class, "amount", 50, 20 ) ) );
+  }
+
+  @Test
+  public void descending() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    assertEquals( "Ensuring descending unbounded range",
+        list( 90, 80, 70 ), amounts( pm.fetchRange(
+            Simple.class, "amount", 70, true, null, false, true ) ) );
+    assertEquals( "Ensuring objects without value excluded",
+        list( 0, 10 ), amounts( pm.fetchRange(
+            Simple.class, "amount", null, 10 ) ) );
+  }
+
+  @Test
+  public void top() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    assertEquals( "Ensuring top descending", list( 90, 80, 70 ),
+        amounts( pm.fetchTop(
+            Simple.class, "field4", field4, "amount", true, 3 ) ) );
+    assertEquals( "Ensuring top ascending", list( 0, 10 ),
+        amounts( pm.fetchTop(
+            Simple.class, "field4", field4, "amount", false, 2 ) ) );
+    assertEquals( "Ensuring limit larger than matches", size,
+        pm.fetchTop( Simple.class, "field4", field4, "amount", false,
+            size * 2 ).size() );
+    assertEquals( "Ensuring no matches", list(),
+        amounts( pm.fetchTop(
+            Simple.class, "field4", "none", "amount", true, 3 ) ) );
+
+    try
+    {
+      pm.fetchTop( Simple.class, "field4", field4, "field4", true, 3 );
+      fail( "Top query on unordered index not detected" );
+    }
+    catch ( PrevalentException pex ) {}
+  }
+
+  @Test
+  public void unordered() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+
+    try
+    {
+      pm.fetchRange( Simple.class, "field4", "a", "z" );
+      fail( "Range query on unordered index not detected" );
+    }
+    catch ( PrevalentException pex ) {}
+  }
+
+  @Test
+  public void modifiedSince() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    Thread.sleep( 10 );
+    final Date since = new Date();
+    Thread.sleep( 10 );
+
+    for ( Simple simple : pm.fetchRange( Simple.class, "amount", 60, 70 ) )
+    {
+      pm.save( simple );
+    }
+
+    assertEquals( "Ensuring modified objects returned", list( 60, 70 ),
+        amounts( pm.fetchModifiedSince( Simple.class, since, 0 ) ) );
+    assertEquals( "Ensuring limit applied", list( 60 ),
+        amounts( pm.fetchModifiedSince( Simple.class, since, 1 ) ) );
+    assertEquals( "Ensuring no objects modified", list(),
+        amounts( pm.fetchModifiedSince(
+            Simple.class, new Date( System.currentTimeMillis() + 60000 ), 0 ) ) );
+  }
+
+  @Test
+  public void statistics() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    IndexStatistics amount = null;
+    IndexStatistics unordered = null;
+
+    for ( IndexStatistics stats : pm.fetchIndexStatistics( Simple.class ) )
+    {
+      if ( "amount".equals( stats.getName() ) ) amount = stats;
+      if ( "field4".equals( stats.getName() ) ) unordered = stats;
+    }
+
+    assertNotNull( "Ensuring ordered index statistics", amount );
+    assertTrue( "Ensuring ordered flag", amount.isOrdered() );
+    assertTrue( "Ensuring distinct keys counted",
+        amount.getDistinctKeys() >= size );
+    assertTrue( "Ensuring average not above max",
+        amount.getAveragePostings() <= amount.getMaxPostings() );
+
+    long postings = 0;
+    for ( IndexStatistics.Bucket bucket : amount.getHistogram() )
+    {
+      postings += bucket.getPostings();
+    }
+
+    assertFalse( "Ensuring histogram built", amount.getHistogram().isEmpty() );
+    assertEquals( "Ensuring histogram covers all postings",
+        amount.getTotalPostings(), postings );
+
+    assertNotNull( "Ensuring unordered index statistics", unordered );
+    assertTrue( "Ensuring skew detected", unordered.getMaxPostings() >= size );
+    assertTrue( "Ensuring no histogram for unordered index",
+        unordered.getHistogram().isEmpty() );
+  }
+
+  private static List<Integer> list( final Integer... values )
+  {
+    final List<Integer> list = new ArrayList<Integer>();
+    for ( Integer value : values ) list.add( value );
+    return list;
+  }
+
+  private static List<Integer> amounts( final Iterable<Simple> simples )
+  {
+    final List<Integer> list = new ArrayList<Integer>();
+    for ( Simple simple : simples ) list.add( simple.getAmount() );
+    return list;
+  }
+
+  @AfterClass
+  public static void finish() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    for ( Simple simple : pm.fetch( Simple.class, "field4", field4 ) )
+    {
+      pm.delete( simple );
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.sptci.prevayler.test;
 
+import com.sptci.prevayler.IndexedObject;
 import com.sptci.prevayler.PrevalentManager;
 import com.sptci.prevayler.model.Article;
 import org.apache.lucene.index.Term;
@@ -122,6 +123,25 @@ public class SearchTest
         collection.size() );
   }
 
+  /**
+   * Unit test for retrieving only the object ids of the search results.
+   *
+   * @throws Exception If errors are encountered.
+   */
+  @Test
+  public void objectIds() throws Exception
+  {
+    final PrevalentManager<Article> pm = new PrevalentManager<Article>();
+    final Query query = new TermQuery( new Term( "title", "spt" ) );
+    final IndexedObject[] results = pm.searchObjectIds( query, 10 );
+    assertEquals( "Ensure that only one article is found", 1,
+        results.length );
+    assertEquals( "Ensure that type matches", Article.class,
+        results[0].getType() );
+    assertNotNull( "Ensure that object id is set",
+        results[0].getObjectId() );
+  }
+
   @AfterClass
   public static void finish() throws Exception
   {
@@ -1,15 +1,24 @@
 package com.sptci.prevayler.test;
 
+import com.sptci.prevayler.FetchPlan;
 import com.sptci.prevayler.PrevalentManager;
+import com.sptci.prevayler.PrevalentSystemFactory;
 import com.sptci.prevayler.model.One;
 import com.sptci.prevayler.model.Simple;
+import com.sptci.prevayler.model.Three;
 import com.sptci.prevayler.model.Two;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import org.junit.Test;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Collection;
 
 /**
@@ -44,6 +53,25 @@ public class SystemTest
     assertEquals( "Ensuring equivalent objects", o, one );
   }
 
+  @Test
+  public void sharedReferences() throws Exception
+  {
+    PrevalentManager<One> pm = new PrevalentManager<One>();
+    final One o = pm.fetch( One.class, one.getObjectId() );
+    final Three parent = o.getTwo().getParent();
+
+    for ( Three three : o.getThree() )
+    {
+      if ( three.equals( parent ) )
+      {
+        assertSame( "Ensuring shared object composed once", parent, three );
+        return;
+      }
+    }
+
+    fail( "Two.parent not found in One.three" );
+  }
+
   @Test
   public void fetchTwo() throws Exception
   {
@@ -53,6 +81,76 @@ public class SystemTest
     assertEquals( "Ensuring identical oid", two.getObjectId(),
         one.getTwo().getObjectId() );
     assertEquals( "Ensuring equivalent objects", two, one.getTwo() );
+    assertEquals( "Ensuring children composed",
+        one.getTwo().getChildren().size(), two.getChildren().size() );
+  }
+
+  @Test
+  public void fetchAll() throws Exception
+  {
+    PrevalentManager<Three> pm = new PrevalentManager<Three>();
+    final Collection<Object> oids = new ArrayList<Object>();
+    for ( Three three : one.getThree() )
+    {
+      oids.add( three.getObjectId() );
+    }
+    oids.add( Long.MAX_VALUE );
+
+    final Collection<Three> collection = pm.fetchAll( Three.class, oids );
+    assertEquals( "Ensuring only existing objects returned",
+        one.getThree().size(), collection.size() );
+  }
+
+  @Test
+  public void lazyReferences() throws Exception
+  {
+    final boolean lazy = PrevalentSystemFactory.setLazyReferences( true );
+
+    try
+    {
+      PrevalentManager<Two> pm = new PrevalentManager<Two>();
+      final Two two = pm.fetch( Two.class, one.getTwo().getObjectId() );
+      assertEquals( "Ensuring lazy collection used", "LazyCollection",
+          two.getChildren().getClass().getSimpleName() );
+      assertEquals( "Ensuring lazy collection resolved",
+          one.getTwo().getChildren().size(), two.getChildren().size() );
+      assertTrue( "Ensuring same children resolved",
+          two.getChildren().containsAll( one.getTwo().getChildren() ) );
+
+      final One o = new PrevalentManager<One>().fetch(
+          One.class, one.getObjectId() );
+      assertEquals( "Ensuring single reference composed eagerly",
+          one.getTwo().getName(), o.getTwo().getName() );
+    }
+    finally
+    {
+      PrevalentSystemFactory.setLazyReferences( lazy );
+    }
+  }
+
+  @Test
+  public void fetchPlan() throws Exception
+  {
+    final FetchPlan depth = new FetchPlan( 1 );
+    assertTrue( "Ensuring depth 1 includes two", depth.includes( "two" ) );
+    assertFalse( "Ensuring depth 1 excludes two.parent",
+        depth.includes( "two.parent" ) );
+
+    PrevalentManager<One> pm = new PrevalentManager<One>();
+    One o = pm.fetch( new FetchPlan( "two" ), One.class, one.getObjectId() );
+    assertNotNull( "Ensuring two populated", o.getTwo() );
+    assertNull( "Ensuring two.parent not populated", o.getTwo().getParent() );
+
+    o = pm.fetch( new FetchPlan( "two.parent" ), One.class, one.getObjectId() );
+    assertNotNull( "Ensuring two.parent populated", o.getTwo().getParent() );
+    assertNull( "Ensuring parent.one not populated",
+        o.getTwo().getParent().getOne() );
+
+    final Collection<One> collection =
+        pm.fetch( FetchPlan.NONE, One.class, "name", oneName );
+    assertEquals( "Ensuring collection has size 1", 1, collection.size() );
+    assertNull( "Ensuring two not populated",
+        collection.iterator().next().getTwo() );
   }
 
   @Test
@@ -126,6 +224,146 @@ public class SystemTest
     one = o;
   }
 
+  @Test
+  public void collectionUpdate() throws Exception
+  {
+    final PrevalentManager<Two> pm = new PrevalentManager<Two>();
+    Two two = pm.fetch( Two.class, one.getTwo().getObjectId() );
+    final int size = two.getChildren().size();
+
+    final Three three = new Three();
+    three.setName( "added child" );
+    two.getChildren().add( three );
+    pm.save( two );
+
+    two = pm.fetch( Two.class, one.getTwo().getObjectId() );
+    assertEquals( "Ensuring child added", size + 1, two.getChildren().size() );
+
+    Three added = null;
+    for ( Three child : two.getChildren() )
+    {
+      if ( "added child".equals( child.getName() ) ) added = child;
+    }
+
+    assertNotNull( "Ensuring added child persisted", added );
+    assertEquals( "Ensuring foreign key indexed", 1,
+        pm.fetch( Two.class, "children", added ).size() );
+
+    two.getChildren().remove( added );
+    pm.save( two );
+
+    two = pm.fetch( Two.class, one.getTwo().getObjectId() );
+    assertEquals( "Ensuring child removed", size, two.getChildren().size() );
+    assertTrue( "Ensuring foreign key removed",
+        pm.fetch( Two.class, "children", added ).isEmpty() );
+
+    new PrevalentManager<Three>().delete( added );
+  }
+
+  @Test
+  public void readOnlyViews() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    Simple simple = new Simple();
+    simple.setField1( "view" );
+    simple = pm.save( simple );
+
+    final Simple view = pm.fetch( FetchPlan.READ_ONLY, Simple.class,
+        simple.getObjectId() );
+    assertTrue( "Ensuring view is frozen", view.isFrozen() );
+    assertFalse( "Ensuring fetched object is not frozen",
+        pm.fetch( Simple.class, simple.getObjectId() ).isFrozen() );
+
+    try
+    {
+      view.setField1( "modified" );
+      fail( "Read-only view modified" );
+    }
+    catch ( IllegalStateException isex ) {}
+
+    final Simple copy = (Simple) view.clone();
+    assertFalse( "Ensuring copy is not frozen", copy.isFrozen() );
+    copy.setField1( "modified" );
+    assertEquals( "Ensuring copy saved", "modified",
+        pm.save( copy ).getField1() );
+    assertEquals( "Ensuring view does not share stored instance", "view",
+        view.getField1() );
+    assertEquals( "Ensuring new view reflects saved copy", "modified",
+        pm.fetch( FetchPlan.READ_ONLY, Simple.class,
+            simple.getObjectId() ).getField1() );
+
+    final One o = new PrevalentManager<One>().fetch( FetchPlan.READ_ONLY,
+        One.class, one.getObjectId() );
+    assertTrue( "Ensuring composed view is frozen", o.isFrozen() );
+    assertTrue( "Ensuring referenced view is frozen", o.getTwo().isFrozen() );
+
+    pm.delete( copy );
+  }
+
+  @Test
+  public void cachedViews() throws Exception
+  {
+    final PrevalentManager<One> pm = new PrevalentManager<One>();
+    final One view = pm.fetch( FetchPlan.READ_ONLY, One.class,
+        one.getObjectId() );
+    assertSame( "Ensuring cached graph returned", view,
+        pm.fetch( FetchPlan.READ_ONLY, One.class, one.getObjectId() ) );
+
+    final long hits = pm.fetchCacheStatistics().getHits();
+    pm.fetch( FetchPlan.READ_ONLY, One.class, one.getObjectId() );
+    assertEquals( "Ensuring hit counted", hits + 1,
+        pm.fetchCacheStatistics().getHits() );
+
+    final PrevalentManager<Two> tm = new PrevalentManager<Two>();
+    final Two two = tm.fetch( Two.class, one.getTwo().getObjectId() );
+    final String name = two.getName();
+    two.setName( name + " cached" );
+    tm.save( two );
+
+    final One updated = pm.fetch( FetchPlan.READ_ONLY, One.class,
+        one.getObjectId() );
+    assertNotSame( "Ensuring graph containing changed object invalidated",
+        view, updated );
+    assertEquals( "Ensuring change visible", name + " cached",
+        updated.getTwo().getName() );
+
+    two.setName( name );
+    tm.save( two );
+  }
+
+  @Test
+  public void dirtyFields() throws Exception
+  {
+    final PrevalentManager<Simple> pm = new PrevalentManager<Simple>();
+    Simple simple = new Simple();
+    simple.setField1( "dirty" );
+    simple.setField2( "clean" );
+    simple = pm.save( simple );
+
+    final Field field2 = Simple.class.getDeclaredField( "field2" );
+    field2.setAccessible( true );
+
+    Simple s = pm.fetch( Simple.class, simple.getObjectId() );
+    s.setField1( "dirty modified" );
+    field2.set( s, "untracked" );
+    pm.save( s );
+
+    s = pm.fetch( Simple.class, simple.getObjectId() );
+    assertEquals( "Ensuring recorded change saved", "dirty modified",
+        s.getField1() );
+    assertEquals( "Ensuring unrecorded change ignored", "clean",
+        s.getField2() );
+    assertFalse( "Ensuring index updated",
+        pm.fetch( Simple.class, "field1", "dirty modified" ).isEmpty() );
+
+    field2.set( s, "untracked" );
+    pm.save( s );
+    assertEquals( "Ensuring untracked instance compared", "untracked",
+        pm.fetch( Simple.class, simple.getObjectId() ).getField2() );
+
+    pm.delete( s );
+  }
+
   @Test
   public void nullIndex() throws Exception
   {